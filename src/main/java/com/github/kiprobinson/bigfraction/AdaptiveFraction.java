@@ -0,0 +1,427 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.math.BigInteger;
+
+/**
+ * Fraction which is backed by a {@link LongFraction} while its numerator and denominator fit in longs,
+ * and by a {@link BigFraction} when they don't. Fraction is always kept in lowest terms, and is immutable.<br>
+ * <br>
+ * Operations are first attempted with LongFraction arithmetic, using the non-throwing
+ * {@link LongFraction#tryAdd(LongFraction) tryX} methods. If the result would overflow, the operation is
+ * redone with BigFraction arithmetic, so operations never throw an overflow exception. Whenever a result
+ * fits in longs again, it is stored as a LongFraction again. This gives close to LongFraction performance
+ * for values which stay small, with the safety of BigFraction for values which don't.<br>
+ * <br>
+ * Because the representation only depends on the value, two AdaptiveFractions with the same value always
+ * have the same representation, so {@link #equals(Object)} and {@link #hashCode()} are consistent.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class AdaptiveFraction extends Number implements Comparable<Number>
+{
+  private static final long serialVersionUID = 1L; //because Number is Serializable
+  
+  /** Value of this fraction, if it fits in a LongFraction. Exactly one of small and big is non-null. */
+  private final LongFraction small;
+  /** Value of this fraction, if it does not fit in a LongFraction. */
+  private final BigFraction big;
+  
+  /** The value 0/1. */
+  public final static AdaptiveFraction ZERO = new AdaptiveFraction(LongFraction.ZERO);
+  /** The value 1/1. */
+  public final static AdaptiveFraction ONE = new AdaptiveFraction(LongFraction.ONE);
+  
+  private AdaptiveFraction(LongFraction small)
+  {
+    this.small = small;
+    this.big = null;
+  }
+  
+  private AdaptiveFraction(BigFraction big)
+  {
+    this.small = null;
+    this.big = big;
+  }
+  
+  /**
+   * Returns an AdaptiveFraction equal to the given number. Any Number type which
+   * {@link BigFraction#valueOf(Number)} accepts may be used.
+   *
+   * @param n Any Number to be converted to an AdaptiveFraction
+   * @return a fully reduced fraction equivalent to {@code n}. Guaranteed to be non-null.
+   *
+   * @throws IllegalArgumentException if n is null.
+   */
+  public static AdaptiveFraction valueOf(Number n)
+  {
+    if(n == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    switch(NumberType.of(n))
+    {
+      case ADAPTIVE_FRACTION:
+        return (AdaptiveFraction)n;
+      case LONG_FRACTION:
+        return new AdaptiveFraction((LongFraction)n);
+      case INT_FRACTION:
+        return new AdaptiveFraction(((IntFraction)n).toLongFraction());
+      case LONG:
+        return new AdaptiveFraction(LongFraction.valueOf(n.longValue()));
+      default:
+        return of(BigFraction.valueOf(n));
+    }
+  }
+  
+  /**
+   * Returns an AdaptiveFraction equal to numerator/denominator. Any Number types which
+   * {@link BigFraction#valueOf(Number, Number)} accepts may be used.
+   *
+   * @param numerator any Number
+   * @param denominator any Number
+   * @return a fully reduced fraction equivalent to {@code numerator/denominator}. Guaranteed to be non-null.
+   *
+   * @throws IllegalArgumentException if numerator or denominator is null.
+   * @throws ArithmeticException if denominator == 0.
+   */
+  public static AdaptiveFraction valueOf(Number numerator, Number denominator)
+  {
+    return of(BigFraction.valueOf(numerator, denominator));
+  }
+  
+  /**
+   * Returns the numerator of this fraction.
+   * @return numerator of this fraction.
+   */
+  public BigInteger getNumerator()
+  {
+    return small != null ? BigInteger.valueOf(small.getNumerator()) : big.getNumerator();
+  }
+  
+  /**
+   * Returns the denominator of this fraction. It is always positive.
+   * @return denominator of this fraction.
+   */
+  public BigInteger getDenominator()
+  {
+    return small != null ? BigInteger.valueOf(small.getDenominator()) : big.getDenominator();
+  }
+  
+  /**
+   * Returns true if this fraction is currently backed by a LongFraction, which is the case exactly
+   * when the numerator and denominator both fit in a long.
+   *
+   * @return true if this fraction is backed by a LongFraction
+   */
+  public boolean isLongFraction()
+  {
+    return small != null;
+  }
+  
+  /**
+   * Returns this fraction as a LongFraction.
+   *
+   * @return this fraction as a LongFraction
+   * @throws ArithmeticException if the numerator or denominator does not fit in a long.
+   */
+  public LongFraction toLongFraction()
+  {
+    if(small == null)
+      throw new ArithmeticException("Integer Overflow");
+    return small;
+  }
+  
+  /**
+   * Returns this fraction as a BigFraction.
+   *
+   * @return this fraction as a BigFraction
+   */
+  public BigFraction toBigFraction()
+  {
+    return small != null ? BigFraction.valueOf(small) : big;
+  }
+  
+  /**
+   * Returns this + n.
+   *
+   * @param n number to be added to this
+   * @return this + n
+   * @throws IllegalArgumentException if n is null.
+   */
+  public AdaptiveFraction add(Number n)
+  {
+    AdaptiveFraction f = valueOf(n);
+    if(small != null && f.small != null)
+    {
+      LongFraction ret = small.tryAdd(f.small);
+      if(ret != null)
+        return new AdaptiveFraction(ret);
+    }
+    return of(toBigFraction().add(f.toBigFraction()));
+  }
+  
+  /**
+   * Returns this - n.
+   *
+   * @param n number to be subtracted from this
+   * @return this - n
+   * @throws IllegalArgumentException if n is null.
+   */
+  public AdaptiveFraction subtract(Number n)
+  {
+    AdaptiveFraction f = valueOf(n);
+    if(small != null && f.small != null)
+    {
+      LongFraction ret = small.trySubtract(f.small);
+      if(ret != null)
+        return new AdaptiveFraction(ret);
+    }
+    return of(toBigFraction().subtract(f.toBigFraction()));
+  }
+  
+  /**
+   * Returns this * n.
+   *
+   * @param n number to be multiplied by this
+   * @return this * n
+   * @throws IllegalArgumentException if n is null.
+   */
+  public AdaptiveFraction multiply(Number n)
+  {
+    AdaptiveFraction f = valueOf(n);
+    if(small != null && f.small != null)
+    {
+      LongFraction ret = small.tryMultiply(f.small);
+      if(ret != null)
+        return new AdaptiveFraction(ret);
+    }
+    return of(toBigFraction().multiply(f.toBigFraction()));
+  }
+  
+  /**
+   * Returns this / n.
+   *
+   * @param n number to divide this by (divisor)
+   * @return this / n
+   * @throws IllegalArgumentException if n is null.
+   * @throws ArithmeticException if n == 0.
+   */
+  public AdaptiveFraction divide(Number n)
+  {
+    AdaptiveFraction f = valueOf(n);
+    if(f.signum() == 0)
+      throw new ArithmeticException("Divide by zero");
+    
+    if(small != null && f.small != null)
+    {
+      LongFraction ret = small.tryDivide(f.small);
+      if(ret != null)
+        return new AdaptiveFraction(ret);
+    }
+    return of(toBigFraction().divide(f.toBigFraction()));
+  }
+  
+  /**
+   * Returns this^exponent.<br>
+   * <br>
+   * Note: 0^0 will return 1/1. This is consistent with {@link Math#pow(double, double)},
+   * {@link BigInteger#pow(int)}, and {@link java.math.BigDecimal#pow(int)}.
+   *
+   * @param exponent power to raise this fraction to.
+   * @return this^exponent
+   *
+   * @throws ArithmeticException if {@code this == 0 && exponent < 0}.
+   */
+  public AdaptiveFraction pow(int exponent)
+  {
+    if(small != null)
+    {
+      //tryPow() rejects most overflow up front, from the bit lengths, before multiplying
+      LongFraction f = small.tryPow(exponent);
+      if(f != null)
+        return new AdaptiveFraction(f);
+    }
+    return of(toBigFraction().pow(exponent));
+  }
+  
+  /**
+   * Returns 1/this.
+   *
+   * @return 1/this
+   *
+   * @throws ArithmeticException if this == 0.
+   */
+  public AdaptiveFraction reciprocal()
+  {
+    //reciprocal of -1/2^63 has a numerator of 2^63, which doesn't fit
+    if(small != null && small.getNumerator() != Long.MIN_VALUE)
+      return new AdaptiveFraction(small.reciprocal());
+    return of(toBigFraction().reciprocal());
+  }
+  
+  /**
+   * Returns -this.
+   *
+   * @return -this
+   */
+  public AdaptiveFraction negate()
+  {
+    if(small != null && small.getNumerator() != Long.MIN_VALUE)
+      return new AdaptiveFraction(small.negate());
+    return of(toBigFraction().negate());
+  }
+  
+  /**
+   * Returns the absolute value of this.
+   *
+   * @return abs(this)
+   */
+  public AdaptiveFraction abs()
+  {
+    return (signum() < 0 ? negate() : this);
+  }
+  
+  /**
+   * Returns -1, 0, or 1, representing the sign of this fraction.
+   *
+   * @return -1, 0, or 1, representing the sign of this fraction
+   */
+  public int signum()
+  {
+    return small != null ? small.signum() : big.signum();
+  }
+  
+  /**
+   * Returns true if this fraction is an integer (its denominator is 1).
+   *
+   * @return true if this fraction is an integer
+   */
+  public boolean isInteger()
+  {
+    //a BigFraction-backed value can still be an integer, if its numerator is too big for a long
+    return small != null ? small.getDenominator() == 1L : big.getDenominator().equals(BigInteger.ONE);
+  }
+  
+  /**
+   * Returns a string representation of this, in the form
+   * numerator/denominator.
+   *
+   * @return string representation of this, in the form numerator/denominator.
+   */
+  @Override
+  public String toString()
+  {
+    return small != null ? small.toString() : big.toString();
+  }
+  
+  /**
+   * Returns if this object is equal to another object. In order to maintain symmetry,
+   * this will <b>only</b> return true if the other object is an AdaptiveFraction.
+   *
+   * @param o Object to compare to this
+   * @return true if {@code o instanceof AdaptiveFraction} and is equal to this.
+   */
+  @Override
+  public boolean equals(Object o)
+  {
+    if(this == o)
+      return true;
+    
+    if(!(o instanceof AdaptiveFraction))
+      return false;
+    
+    //representation is determined by the value, so mixed representations are never equal
+    AdaptiveFraction f = (AdaptiveFraction)o;
+    return small != null ? small.equals(f.small) : big.equals(f.big);
+  }
+  
+  /**
+   * Returns a hash code for this object.
+   * @return hash code for this object.
+   */
+  @Override
+  public int hashCode()
+  {
+    return small != null ? small.hashCode() : big.hashCode();
+  }
+  
+  /**
+   * Returns a negative, zero, or positive number, indicating if this object
+   * is less than, equal to, or greater than n, respectively.
+   *
+   * @param n number to compare this to
+   * @return integer indicating how this compares to given number
+   * @throws IllegalArgumentException if n is null
+   */
+  @Override
+  public int compareTo(Number n)
+  {
+    AdaptiveFraction f = valueOf(n);
+    if(small != null && f.small != null)
+      return small.compareTo(f.small);
+    return toBigFraction().compareTo(f.toBigFraction());
+  }
+  
+  /**
+   * Returns the value of this fraction as an int, truncated, with the same clamping as the backing type. See the backing {@link LongFraction} or {@link BigFraction} method.
+   * @return int representation of this fraction
+   */
+  @Override
+  public int intValue()
+  {
+    return small != null ? small.intValue() : big.intValue();
+  }
+  
+  /**
+   * Returns the value of this fraction as a long, truncated, with the same clamping as the backing type. See the backing {@link LongFraction} or {@link BigFraction} method.
+   * @return long representation of this fraction
+   */
+  @Override
+  public long longValue()
+  {
+    return small != null ? small.longValue() : big.longValue();
+  }
+  
+  /**
+   * Returns the value of this fraction as a float. See the backing {@link LongFraction} or {@link BigFraction} method.
+   * @return float representation of this fraction
+   */
+  @Override
+  public float floatValue()
+  {
+    return small != null ? small.floatValue() : big.floatValue();
+  }
+  
+  /**
+   * Returns the value of this fraction as a double. See the backing {@link LongFraction} or {@link BigFraction} method.
+   * @return double representation of this fraction
+   */
+  @Override
+  public double doubleValue()
+  {
+    return small != null ? small.doubleValue() : big.doubleValue();
+  }
+  
+  /**
+   * Checks the fields read from a stream. Exactly one must be set, and a value in big which fits in a
+   * LongFraction is moved to small, so that equal values still have equal representations.
+   */
+  private Object readResolve() throws ObjectStreamException
+  {
+    if((small == null) == (big == null))
+      throw new InvalidObjectException("Invalid fraction: exactly one of small and big must be set");
+    return small != null ? new AdaptiveFraction(small) : of(big);
+  }
+  
+  /**
+   * Wraps a BigFraction, demoting it to a LongFraction if it fits.
+   */
+  private static AdaptiveFraction of(BigFraction f)
+  {
+    //note: bitLength() excludes the sign bit, so this accepts Long.MIN_VALUE
+    if(f.getNumerator().bitLength() < 64 && f.getDenominator().bitLength() < 64)
+      return new AdaptiveFraction(LongFraction.valueOfReduced(f.getNumerator().longValue(), f.getDenominator().longValue()));
+    return new AdaptiveFraction(f);
+  }
+}
@@ -0,0 +1,226 @@
+package com.github.kiprobinson.bigfraction;
+
+/**
+ * Lossy arithmetic on {@link LongFraction}s, for code that would rather lose precision than handle overflow.<br>
+ * <br>
+ * Each operation returns the exact result when it fits in a LongFraction. Otherwise, the exact result is
+ * computed as a quotient of 128-bit integers, and the closest fraction whose numerator and denominator
+ * both fit in 63 bits is returned instead. That fraction is found with the continued fraction expansion
+ * of the exact result (the last convergent which fits, or the best semiconvergent after it), so no
+ * BigIntegers are allocated.<br>
+ * <br>
+ * <b>Error bound:</b> let x be the exact result, and r the returned value. If |x| &lt;= 1, then
+ * |x - r| &lt; 1/(q * Long.MAX_VALUE), where q is the denominator of the last convergent of x which fits,
+ * so the absolute error is always less than 2^-62. If |x| &gt; 1, the same bound holds for the relative
+ * error |x - r|/|x|. The one exception is if |x| is greater than Long.MAX_VALUE, in which case the result
+ * saturates to &plusmn;Long.MAX_VALUE. Long.MIN_VALUE is never produced as a numerator by rounding.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class ApproxLongFraction
+{
+  private ApproxLongFraction()
+  {
+    //no instances
+  }
+  
+  /**
+   * Returns a + b, rounded to the nearest LongFraction if the exact result overflows.
+   *
+   * @param a first addend
+   * @param b second addend
+   * @return a + b, exactly if possible
+   * @throws IllegalArgumentException if a or b is null.
+   */
+  public static LongFraction add(LongFraction a, LongFraction b)
+  {
+    LongFraction exact = checkNull(a, b).tryAdd(b);
+    if(exact != null)
+      return exact;
+    return sum(a, b, false);
+  }
+  
+  /**
+   * Returns a - b, rounded to the nearest LongFraction if the exact result overflows.
+   *
+   * @param a minuend
+   * @param b subtrahend
+   * @return a - b, exactly if possible
+   * @throws IllegalArgumentException if a or b is null.
+   */
+  public static LongFraction subtract(LongFraction a, LongFraction b)
+  {
+    LongFraction exact = checkNull(a, b).trySubtract(b);
+    if(exact != null)
+      return exact;
+    return sum(a, b, true);
+  }
+  
+  /**
+   * Returns a * b, rounded to the nearest LongFraction if the exact result overflows.
+   *
+   * @param a first factor
+   * @param b second factor
+   * @return a * b, exactly if possible
+   * @throws IllegalArgumentException if a or b is null.
+   */
+  public static LongFraction multiply(LongFraction a, LongFraction b)
+  {
+    LongFraction exact = checkNull(a, b).tryMultiply(b);
+    if(exact != null)
+      return exact;
+    
+    //|a*b| = (|n1|*|n2|)/(d1*d2). Math.abs(Long.MIN_VALUE) is 2^63 when treated as unsigned.
+    long n1 = Math.abs(a.getNumerator());
+    long n2 = Math.abs(b.getNumerator());
+    long d1 = a.getDenominator();
+    long d2 = b.getDenominator();
+    return nearest(a.signum() * b.signum() < 0, LongMath.unsignedMultiplyHigh(n1, n2), n1 * n2, LongMath.unsignedMultiplyHigh(d1, d2), d1 * d2);
+  }
+  
+  /**
+   * Returns a / b, rounded to the nearest LongFraction if the exact result overflows.
+   *
+   * @param a dividend
+   * @param b divisor
+   * @return a / b, exactly if possible
+   * @throws IllegalArgumentException if a or b is null.
+   * @throws ArithmeticException if b == 0.
+   */
+  public static LongFraction divide(LongFraction a, LongFraction b)
+  {
+    LongFraction exact = checkNull(a, b).tryDivide(b);
+    if(exact != null)
+      return exact;
+    
+    //|a/b| = (|n1|*d2)/(d1*|n2|)
+    long n1 = Math.abs(a.getNumerator());
+    long n2 = Math.abs(b.getNumerator());
+    long d1 = a.getDenominator();
+    long d2 = b.getDenominator();
+    return nearest(a.signum() * b.signum() < 0, LongMath.unsignedMultiplyHigh(n1, d2), n1 * d2, LongMath.unsignedMultiplyHigh(d1, n2), d1 * n2);
+  }
+  
+  /**
+   * Checks that neither argument is null. Returns a.
+   */
+  private static LongFraction checkNull(LongFraction a, LongFraction b)
+  {
+    if(a == null || b == null)
+      throw new IllegalArgumentException("Null argument");
+    return a;
+  }
+  
+  /**
+   * Approximate a + b or a - b, used when the exact result overflows.
+   */
+  private static LongFraction sum(LongFraction a, LongFraction b, boolean subtract)
+  {
+    //n1/d1 +/- n2/d2 = (n1*d2 +/- n2*d1)/(d1*d2). Each product is less than 2^126 in magnitude, so the
+    //sum or difference fits in a signed 128-bit value.
+    long n1 = a.getNumerator(), d1 = a.getDenominator();
+    long n2 = b.getNumerator(), d2 = b.getDenominator();
+    long xHi = LongMath.multiplyHigh(n1, d2), xLo = n1 * d2;
+    long yHi = LongMath.multiplyHigh(n2, d1), yLo = n2 * d1;
+    long nHi, nLo;
+    if(subtract)
+    {
+      nLo = xLo - yLo;
+      nHi = xHi - yHi - (Long.compareUnsigned(xLo, yLo) < 0 ? 1L : 0L);
+    }
+    else
+    {
+      nLo = xLo + yLo;
+      nHi = xHi + yHi + (Long.compareUnsigned(nLo, xLo) < 0 ? 1L : 0L);
+    }
+    
+    boolean negative = (nHi < 0L);
+    if(negative)
+    {
+      nHi = (nLo == 0L ? -nHi : ~nHi);
+      nLo = -nLo;
+    }
+    return nearest(negative, nHi, nLo, LongMath.unsignedMultiplyHigh(d1, d2), d1 * d2);
+  }
+  
+  /**
+   * Returns the fraction closest to (nHi:nLo)/(dHi:dLo), with numerator and denominator both at most
+   * Long.MAX_VALUE, and negated if negative is true. Numerator and denominator are unsigned 128-bit
+   * values, and the denominator must not be zero.<br>
+   * <br>
+   * With x = [a0; a1, a2, ...], the convergents are p(k)/q(k), where p(k) = a(k)*p(k-1) + p(k-2), and the
+   * same for q. The best approximation with bounded numerator and denominator is either the last convergent
+   * which fits, or the semiconvergent (p(k-1) + m*p(k))/(q(k-1) + m*q(k)) with the largest m that fits.
+   */
+  static LongFraction nearest(boolean negative, long nHi, long nLo, long dHi, long dLo)
+  {
+    if(nHi == 0L && nLo == 0L)
+      return LongFraction.ZERO;
+    
+    //p0/q0 is the convergent before p1/q1. Starting values are p(-2)/q(-2) = 0/1 and p(-1)/q(-1) = 1/0.
+    long p0 = 0L, q0 = 1L;
+    long p1 = 1L, q1 = 0L;
+    final long[] qr = new long[4];
+    while(true)
+    {
+      LongMath.divideAndRemainderUnsigned128(nHi, nLo, dHi, dLo, qr);
+      long aHi = qr[0], aLo = qr[1];
+      long rHi = qr[2], rLo = qr[3];
+      
+      //next convergent is (a*p1 + p0)/(a*q1 + q0). All values are non-negative, so the signed overflow
+      //checks are the same as checking against Long.MAX_VALUE.
+      boolean fits = (aHi == 0L && aLo >= 0L &&
+                      !LongMath.multiplyOverflows(aLo, p1) && !LongMath.addOverflows(aLo * p1, p0) &&
+                      !LongMath.multiplyOverflows(aLo, q1) && !LongMath.addOverflows(aLo * q1, q0));
+      if(!fits)
+      {
+        //largest m such that the semiconvergent (p0 + m*p1)/(q0 + m*q1) fits. m < a.
+        long m = Long.MAX_VALUE;
+        if(p1 != 0L)
+          m = (Long.MAX_VALUE - p0) / p1;
+        if(q1 != 0L)
+          m = Math.min(m, (Long.MAX_VALUE - q0) / q1);
+        
+        //q1 == 0 only if |x| > Long.MAX_VALUE, in which case this saturates to MAX_VALUE/1
+        if(q1 != 0L && (m == 0L || !semiconvergentIsCloser(m, aHi, aLo, q0, q1, rHi, rLo, dHi, dLo)))
+          return LongFraction.valueOfReduced(negative ? -p1 : p1, q1);
+        long p = p0 + m * p1;
+        long q = q0 + m * q1;
+        return LongFraction.valueOfReduced(negative ? -p : p, q);
+      }
+      
+      long p = aLo * p1 + p0;
+      long q = aLo * q1 + q0;
+      p0 = p1;
+      q0 = q1;
+      p1 = p;
+      q1 = q;
+      
+      //remainder of 0 means x is exactly p1/q1
+      if(rHi == 0L && rLo == 0L)
+        return LongFraction.valueOfReduced(negative ? -p1 : p1, q1);
+      
+      nHi = dHi;
+      nLo = dLo;
+      dHi = rHi;
+      dLo = rLo;
+    }
+  }
+  
+  /**
+   * Helper for nearest(). Returns true if the semiconvergent with the given m is strictly closer to x than the
+   * convergent p1/q1, where a is the next partial quotient of x, and r/d is the fractional part of the complete
+   * quotient [a; ...] at this point.
+   */
+  private static boolean semiconvergentIsCloser(long m, long aHi, long aLo, long q0, long q1, long rHi, long rLo, long dHi, long dLo)
+  {
+    //With t = a + r/d the complete quotient, the convergent's error is 1/(q1*(t*q1 + q0)), and the
+    //semiconvergent's error is (t - m)/((t*q1 + q0)*(m*q1 + q0)). So the semiconvergent is closer iff
+    //q1*(t - 2m) < q0. Since q0 <= q1 and 0 <= r/d < 1, that is always true if 2m > a, never true if
+    //2m < a, and if 2m == a it is true iff q1*r < q0*d.
+    int c = (aHi != 0L ? -1 : Long.compareUnsigned(2L * m, aLo));
+    if(c != 0)
+      return c > 0;
+    return LongMath.compareUnsignedProducts(q1, rHi, rLo, q0, dHi, dLo) < 0;
+  }
+}
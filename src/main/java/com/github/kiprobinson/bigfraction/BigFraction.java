@@ -1,8 +1,11 @@
 package com.github.kiprobinson.bigfraction;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.math.*;
 import java.util.*;
-import java.util.concurrent.atomic.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,6 +30,13 @@ public final class BigFraction extends Number implements Comparable<Number>
   private final static BigInteger BIGINT_TWO = BigInteger.valueOf(2);
   private final static BigInteger BIGINT_FIVE = BigInteger.valueOf(5);
   
+  //split points for sum(Collection) and product(Collection). These are round defaults, not measured optima:
+  //leaves are combined sequentially, ranges up to the fork size are not split into fork/join tasks, and
+  //collections smaller than the parallel threshold are done entirely on the calling thread.
+  private final static int TREE_LEAF_SIZE = 8;
+  private final static int TREE_FORK_SIZE = 256;
+  private final static int TREE_PARALLEL_THRESHOLD = 1024;
+  
   /** The value 0/1. */
   public final static BigFraction ZERO = new BigFraction(BigInteger.ZERO, BigInteger.ONE, Reduced.YES);
   /** The value 1/1. */
@@ -131,16 +141,25 @@ public final class BigFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null parameter.");
     
-    if(n instanceof BigFraction)
-      return (BigFraction)n;
-    else if(n instanceof LongFraction)
-      return new BigFraction(BigInteger.valueOf(((LongFraction)n).getNumerator()), BigInteger.valueOf(((LongFraction)n).getDenominator()), Reduced.YES);
-    else if(isInt(n))
-      return new BigFraction(toBigInteger(n), BigInteger.ONE, Reduced.YES);
-    else if(n instanceof BigDecimal)
-      return valueOfHelper((BigDecimal)n);
-    else
-      return valueOfHelper(n.doubleValue());
+    switch(NumberType.of(n))
+    {
+      case BIG_FRACTION:
+        return (BigFraction)n;
+      case LONG_FRACTION:
+        return new BigFraction(BigInteger.valueOf(((LongFraction)n).getNumerator()), BigInteger.valueOf(((LongFraction)n).getDenominator()), Reduced.YES);
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).toBigFraction();
+      case INT_FRACTION:
+        return new BigFraction(BigInteger.valueOf(((IntFraction)n).getNumerator()), BigInteger.valueOf(((IntFraction)n).getDenominator()), Reduced.YES);
+      case LONG:
+        return new BigFraction(BigInteger.valueOf(n.longValue()), BigInteger.ONE, Reduced.YES);
+      case BIG_INTEGER:
+        return new BigFraction((BigInteger)n, BigInteger.ONE, Reduced.YES);
+      case BIG_DECIMAL:
+        return valueOfHelper((BigDecimal)n);
+      default:
+        return valueOfHelper(n.doubleValue());
+    }
   }
   
   /**
@@ -178,11 +197,14 @@ public final class BigFraction extends Number implements Comparable<Number>
     if(denominator == null)
       throw new IllegalArgumentException("Denominator is null.");
     
-    if(isInt(numerator) && isInt(denominator))
-      return new BigFraction(toBigInteger(numerator), toBigInteger(denominator), Reduced.NO);
-    else if(isFloat(numerator) && isFloat(denominator))
+    final NumberType numType = NumberType.of(numerator);
+    final NumberType denType = NumberType.of(denominator);
+    
+    if(isInt(numerator, numType) && isInt(denominator, denType))
+      return new BigFraction(toBigInteger(numerator, numType), toBigInteger(denominator, denType), Reduced.NO);
+    else if(numType == NumberType.FLOAT && denType == NumberType.FLOAT)
       return valueOfHelper(numerator.doubleValue(), denominator.doubleValue());
-    else if(numerator instanceof BigDecimal && denominator instanceof BigDecimal)
+    else if(numType == NumberType.BIG_DECIMAL && denType == NumberType.BIG_DECIMAL)
       return valueOfHelper((BigDecimal)numerator, (BigDecimal)denominator);
     
     //else: convert numerator and denominator to fractions, and divide
@@ -338,10 +360,11 @@ public final class BigFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null argument");
     
-    if(isInt(n))
+    final NumberType type = NumberType.of(n);
+    if(isInt(n, type))
     {
       //n1/d1 + n2 = (n1 + d1*n2)/d1
-      return new BigFraction(numerator.add(denominator.multiply(toBigInteger(n))),
+      return new BigFraction(numerator.add(denominator.multiply(toBigInteger(n, type))),
                              denominator, Reduced.YES);
     }
     else
@@ -368,6 +391,22 @@ public final class BigFraction extends Number implements Comparable<Number>
     return valueOf(a).add(b);
   }
   
+  /**
+   * Returns the sum of all of the given numbers, represented as a BigFraction. Returns 0 if values is empty.<br>
+   * <br>
+   * The values are added pairwise in a balanced tree, rather than one at a time, so that the operands of
+   * each addition stay about the same size. For large collections, the tree is evaluated in parallel
+   * using the common {@link ForkJoinPool}.
+   * 
+   * @param values numbers to be added
+   * @return sum of all values
+   * @throws IllegalArgumentException if values is null, or contains a null element.
+   */
+  public static BigFraction sum(Collection<? extends Number> values)
+  {
+    return treeReduce(values, false);
+  }
+  
   /**
    * Returns this - n.
    * @param n number to be subtracted from this
@@ -382,10 +421,11 @@ public final class BigFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null argument");
     
-    if(isInt(n))
+    final NumberType type = NumberType.of(n);
+    if(isInt(n, type))
     {
       //n1/d1 - n2 = (n1 - d1*n2)/d1
-      return new BigFraction(numerator.subtract(denominator.multiply(toBigInteger(n))),
+      return new BigFraction(numerator.subtract(denominator.multiply(toBigInteger(n, type))),
                              denominator, Reduced.YES);
     }
     else
@@ -414,10 +454,11 @@ public final class BigFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null argument");
     
-    if(isInt(n))
+    final NumberType type = NumberType.of(n);
+    if(isInt(n, type))
     {
       //n1 - n2/d2 = (d2*n1 - n2)/d2
-      return new BigFraction(denominator.multiply(toBigInteger(n)).subtract(numerator),
+      return new BigFraction(denominator.multiply(toBigInteger(n, type)).subtract(numerator),
                              denominator, Reduced.YES);
     }
     else
@@ -477,6 +518,24 @@ public final class BigFraction extends Number implements Comparable<Number>
     return valueOf(a).multiply(b);
   }
   
+  /**
+   * Returns the product of all of the given numbers, represented as a BigFraction. Returns 1 if values is empty.<br>
+   * <br>
+   * The values are multiplied pairwise in a balanced tree, rather than one at a time, so that the operands of
+   * each multiplication stay about the same size. This lets BigInteger use its faster algorithms for large
+   * operands (Karatsuba and Toom-Cook), where a left-to-right fold would repeatedly multiply one huge number
+   * by one small number. For large collections, the tree is evaluated in parallel using the common
+   * {@link ForkJoinPool}.
+   * 
+   * @param values numbers to be multiplied
+   * @return product of all values
+   * @throws IllegalArgumentException if values is null, or contains a null element.
+   */
+  public static BigFraction product(Collection<? extends Number> values)
+  {
+    return treeReduce(values, true);
+  }
+  
   /**
    * Returns this / n.
    * 
@@ -3035,27 +3094,152 @@ public final class BigFraction extends Number implements Comparable<Number>
   }
   
   /**
-   * Converts a Number to a BigInteger. Assumes that a check on the type of n
-   * has already been performed.
+   * Implementation of sum(Collection) and product(Collection).
    */
-  private static BigInteger toBigInteger(Number n)
+  private static BigFraction treeReduce(Collection<? extends Number> values, boolean product)
   {
-    if(n instanceof BigInteger)
-      return (BigInteger)n;
+    if(values == null)
+      throw new IllegalArgumentException("Null argument");
     
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return BigInteger.valueOf(n.longValue());
+    Number[] arr = values.toArray(new Number[values.size()]);
+    if(arr.length == 0)
+      return product ? ONE : ZERO;
     
-    if(n instanceof BigFraction)
-      return ((BigFraction)n).numerator;
+    if(arr.length >= TREE_PARALLEL_THRESHOLD)
+      return ForkJoinPool.commonPool().invoke(new TreeTask(arr, 0, arr.length, product));
     
-    if(n instanceof LongFraction)
-      return BigInteger.valueOf(((LongFraction)n).getNumerator());
+    return treeReduce(arr, 0, arr.length, product);
+  }
+  
+  /**
+   * Sequentially combines values[from..to) in a balanced tree. Assumes from &lt; to.
+   */
+  private static BigFraction treeReduce(Number[] values, int from, int to, boolean product)
+  {
+    if(to - from <= TREE_LEAF_SIZE)
+    {
+      //small enough that a simple fold is fine
+      BigFraction ret = valueOf(values[from]);
+      for(int i = from + 1; i < to; i++)
+        ret = (product ? ret.multiply(values[i]) : ret.add(values[i]));
+      return ret;
+    }
+    
+    int mid = (from + to) >>> 1;
+    return treeCombine(treeReduce(values, from, mid, product), treeReduce(values, mid, to, product), product);
+  }
+  
+  /**
+   * Combines the results of two subtrees.
+   */
+  private static BigFraction treeCombine(BigFraction a, BigFraction b, boolean product)
+  {
+    if(!product)
+      return a.add(b);
+    
+    if(a.signum() == 0 || b.signum() == 0)
+      return ZERO;
     
-    if(n instanceof BigDecimal)
+    //both fractions are reduced, so cross-cancelling is enough to keep the product reduced:
+    //(n1/d1)*(n2/d2) = ((n1/g1)*(n2/g2))/((d1/g2)*(d2/g1)), where g1 = gcd(n1,d2), g2 = gcd(n2,d1)
+    //these gcds are much cheaper than gcd(n1*n2, d1*d2)
+    BigInteger g1 = a.numerator.gcd(b.denominator);
+    BigInteger g2 = b.numerator.gcd(a.denominator);
+    BigInteger n1 = isOne(g1) ? a.numerator : a.numerator.divide(g1);
+    BigInteger d2 = isOne(g1) ? b.denominator : b.denominator.divide(g1);
+    BigInteger n2 = isOne(g2) ? b.numerator : b.numerator.divide(g2);
+    BigInteger d1 = isOne(g2) ? a.denominator : a.denominator.divide(g2);
+    return new BigFraction(n1.multiply(n2), d1.multiply(d2), Reduced.YES);
+  }
+  
+  /**
+   * Fork/join task for sum(Collection) and product(Collection). Splits at the same points as the sequential
+   * treeReduce(), so the result does not depend on scheduling.
+   */
+  private static final class TreeTask extends RecursiveTask<BigFraction>
+  {
+    private static final long serialVersionUID = 1L;
+    private final Number[] values;
+    private final int from;
+    private final int to;
+    private final boolean product;
+    
+    TreeTask(Number[] values, int from, int to, boolean product)
     {
-      final BigDecimal bd = (BigDecimal)n;
-      return bd.unscaledValue().multiply(BigInteger.TEN.pow(-bd.scale()));
+      this.values = values;
+      this.from = from;
+      this.to = to;
+      this.product = product;
+    }
+    
+    @Override
+    protected BigFraction compute()
+    {
+      if(to - from <= TREE_FORK_SIZE)
+        return treeReduce(values, from, to, product);
+      
+      int mid = (from + to) >>> 1;
+      TreeTask left = new TreeTask(values, from, mid, product);
+      left.fork();
+      BigFraction right = new TreeTask(values, mid, to, product).compute();
+      return treeCombine(left.join(), right, product);
+    }
+  }
+  
+  /**
+   * Serializes this fraction in the compact form described in {@link FractionSerialForm}.
+   */
+  private Object writeReplace()
+  {
+    return new FractionSerialForm(this);
+  }
+  
+  /**
+   * Only called for streams which used the default serial form. The fields are checked and reduced again, as
+   * they are for the compact form, and the matching constant is returned if there is one, so that
+   * deserialized constants are identical to the originals.
+   */
+  private Object readResolve() throws ObjectStreamException
+  {
+    if(numerator == null || denominator == null || denominator.signum() <= 0)
+      throw new InvalidObjectException("Invalid fraction: missing part or non-positive denominator");
+    return FractionSerialForm.canonical(valueOf(numerator, denominator));
+  }
+  
+  /**
+   * Package-private factory for other classes in this package that have already put a fraction
+   * in lowest terms, with a positive denominator. No GCD check is done.
+   */
+  static BigFraction valueOfReduced(BigInteger numerator, BigInteger denominator)
+  {
+    return new BigFraction(numerator, denominator, Reduced.YES);
+  }
+  
+  /**
+   * Converts a Number to a BigInteger. Assumes that a check on the type of n
+   * has already been performed.
+   */
+  static BigInteger toBigInteger(Number n, NumberType type)
+  {
+    switch(type)
+    {
+      case BIG_INTEGER:
+        return (BigInteger)n;
+      case LONG:
+        return BigInteger.valueOf(n.longValue());
+      case BIG_FRACTION:
+        return ((BigFraction)n).numerator;
+      case LONG_FRACTION:
+        return BigInteger.valueOf(((LongFraction)n).getNumerator());
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).getNumerator();
+      case INT_FRACTION:
+        return BigInteger.valueOf(((IntFraction)n).getNumerator());
+      case BIG_DECIMAL:
+        final BigDecimal bd = (BigDecimal)n;
+        return bd.unscaledValue().multiply(BigInteger.TEN.pow(-bd.scale()));
+      default:
+        break;
     }
     
     //unknown implementation... fall back to double value
@@ -3085,20 +3269,27 @@ public final class BigFraction extends Number implements Comparable<Number>
    * <br>
    * Used to determine if a Number is appropriate to be passed into toBigInteger() method.
    */
-  private static boolean isInt(Number n)
+  static boolean isInt(Number n, NumberType type)
   {
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof BigInteger || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return true;
-    
-    if(n instanceof BigFraction)
-      return ((BigFraction)n).getDenominator().equals(BigInteger.ONE);
-    
-    if(n instanceof LongFraction)
-      return ((LongFraction)n).getDenominator() == 1L;
-    
-    //BigDecimal format: unscaled / 10^scale
-    if(n instanceof BigDecimal)
-      return (((BigDecimal)n).scale() <= 0);
+    switch(type)
+    {
+      case LONG:
+      case BIG_INTEGER:
+        return true;
+      case BIG_FRACTION:
+        return ((BigFraction)n).denominator.equals(BigInteger.ONE);
+      case LONG_FRACTION:
+        return ((LongFraction)n).getDenominator() == 1L;
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).isInteger();
+      case INT_FRACTION:
+        return ((IntFraction)n).getDenominator() == 1;
+      case BIG_DECIMAL:
+        //BigDecimal format: unscaled / 10^scale
+        return (((BigDecimal)n).scale() <= 0);
+      default:
+        break;
+    }
     
     //unknown type - use the doubleValue()
     final double d = n.doubleValue();
@@ -3111,40 +3302,36 @@ public final class BigFraction extends Number implements Comparable<Number>
     return (DoubleUtil.getExponent(d) >= 52);
   }
   
-  /**
-   * Returns true if n is a type that can be converted to a double without loss of precision (Float, Double, DoubleAdder, and DoubleAccumulator)
-   */
-  private static boolean isFloat(Number n)
-  {
-    return n instanceof Double || n instanceof Float || n instanceof DoubleAdder || n instanceof DoubleAccumulator;
-  }
-  
   /**
    * Returns true if the given Number represents zero. For unknown numbers, utilizes Number.doubleValue().
    */
   private final static boolean isZero(Number n)
   {
-    //micro-optimization- most common type first...
+    //micro-optimization- most common type first, without even looking up the type...
     if(n instanceof BigFraction)
-      return ((BigFraction)n).getNumerator().equals(BigInteger.ZERO);
-    
-    if(n instanceof BigInteger)
-      return ((BigInteger)n).equals(BigInteger.ZERO);
+      return ((BigFraction)n).numerator.signum() == 0;
     
     if(n == null)
       return false;
     
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return n.longValue() == 0L;
-    
-    if(n instanceof LongFraction)
-      return ((LongFraction)n).getNumerator() == 0L;
-    
-    if(n instanceof BigDecimal)
-      return ((BigDecimal)n).unscaledValue().equals(BigInteger.ZERO);
-    
-    //double or unknown type - use doubleValue()
-    return n.doubleValue() == 0.0;
+    switch(NumberType.of(n))
+    {
+      case BIG_INTEGER:
+        return ((BigInteger)n).signum() == 0;
+      case LONG:
+        return n.longValue() == 0L;
+      case LONG_FRACTION:
+        return ((LongFraction)n).getNumerator() == 0L;
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).signum() == 0;
+      case INT_FRACTION:
+        return ((IntFraction)n).signum() == 0;
+      case BIG_DECIMAL:
+        return ((BigDecimal)n).signum() == 0;
+      default:
+        //double or unknown type - use doubleValue()
+        return n.doubleValue() == 0.0;
+    }
   }
   
   /**
@@ -3152,7 +3339,15 @@ public final class BigFraction extends Number implements Comparable<Number>
    */
   private final static boolean isZero(BigFraction f)
   {
-    return f.numerator.equals(BigInteger.ZERO);
+    return f.numerator.signum() == 0;
+  }
+  
+  /**
+   * Returns true if the given BigInteger represents zero. Overloaded as this is a common case.
+   */
+  private final static boolean isZero(BigInteger n)
+  {
+    return n != null && n.signum() == 0;
   }
   
   /**
@@ -3160,27 +3355,39 @@ public final class BigFraction extends Number implements Comparable<Number>
    */
   private final static boolean isOne(Number n)
   {
-    //micro-optimization- most common type first...
+    //micro-optimization- most common type first, without even looking up the type...
     if(n instanceof BigFraction)
       return ((BigFraction)n).equals(BigFraction.ONE);
     
     if(n == null)
       return false;
     
-    if(n instanceof BigInteger)
-      return ((BigInteger)n).equals(BigInteger.ONE);
-    
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return n.longValue() == 1L;
-    
-    if(n instanceof LongFraction)
-      return ((LongFraction)n).equals(LongFraction.ONE);
-    
-    if(n instanceof BigDecimal)
-      return ((BigDecimal)n).compareTo(BigDecimal.ONE) == 0;
-    
-    //double or unknown type - use doubleValue()
-    return n.doubleValue() == 1.0;
+    switch(NumberType.of(n))
+    {
+      case BIG_INTEGER:
+        return ((BigInteger)n).equals(BigInteger.ONE);
+      case LONG:
+        return n.longValue() == 1L;
+      case LONG_FRACTION:
+        return ((LongFraction)n).equals(LongFraction.ONE);
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).equals(AdaptiveFraction.ONE);
+      case INT_FRACTION:
+        return ((IntFraction)n).toBits() == IntFraction.ONE_BITS;
+      case BIG_DECIMAL:
+        return ((BigDecimal)n).compareTo(BigDecimal.ONE) == 0;
+      default:
+        //double or unknown type - use doubleValue()
+        return n.doubleValue() == 1.0;
+    }
+  }
+  
+  /**
+   * Returns true if the given BigInteger represents one. Overloaded as this is a common case.
+   */
+  private final static boolean isOne(BigInteger n)
+  {
+    return BigInteger.ONE.equals(n);
   }
   
 }
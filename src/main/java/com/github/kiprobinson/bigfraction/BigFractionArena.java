@@ -0,0 +1,388 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Append-only store for a large number of {@link BigFraction} values, which packs the magnitudes of all
+ * numerators and denominators into one shared {@code int[]} slab.<br>
+ * <br>
+ * Each BigFraction is three objects (the fraction and two BigIntegers, each of which has its own
+ * {@code int[]}), so object headers and array overhead are often larger than the values themselves. This
+ * class instead stores each value as 32-bit words in the slab, plus 8 bytes of bookkeeping per entry.<br>
+ * <br>
+ * Values are read with a {@link View}, which is a reusable read-only cursor over one entry. A view can
+ * compare, convert to double, and format its entry directly from the slab, and only creates a BigFraction
+ * when {@link View#toBigFraction()} is called. Comparisons reuse scratch buffers in the view, so once they
+ * have grown to fit the largest entries, comparing entries does not allocate.<br>
+ * <br>
+ * This class is not thread-safe. Views can be used concurrently from different threads (one view per
+ * thread) as long as no entries are being added.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class BigFractionArena
+{
+  private final static int DEFAULT_CAPACITY = 16;
+  
+  /** Numerator and denominator magnitudes, as big-endian 32-bit words with no leading zero words. */
+  private int[] slab;
+  private int slabSize = 0;
+  
+  /** Start of each entry in the slab. The entry ends where the next one begins. */
+  private int[] offsets;
+  
+  /** Number of numerator words of each entry, negated if the entry is negative. */
+  private int[] numeratorLengths;
+  
+  private int size = 0;
+  
+  /**
+   * Constructs an empty arena.
+   */
+  public BigFractionArena()
+  {
+    this(DEFAULT_CAPACITY, DEFAULT_CAPACITY * 2);
+  }
+  
+  /**
+   * Constructs an empty arena with room for the given number of entries and slab words before it needs to
+   * grow. A value needs one word for every 32 bits of its numerator and its denominator.
+   *
+   * @param expectedEntries expected number of entries
+   * @param expectedWords expected total number of slab words
+   * @throws IllegalArgumentException if either argument is negative
+   */
+  public BigFractionArena(int expectedEntries, int expectedWords)
+  {
+    if(expectedEntries < 0 || expectedWords < 0)
+      throw new IllegalArgumentException("Negative capacity");
+    slab = new int[expectedWords];
+    offsets = new int[expectedEntries + 1];
+    numeratorLengths = new int[expectedEntries];
+  }
+  
+  /**
+   * Returns the number of entries in this arena.
+   * @return the number of entries in this arena
+   */
+  public int size()
+  {
+    return size;
+  }
+  
+  /**
+   * Adds a value to the end of this arena. Any Number types which {@link BigFraction#valueOf(Number)}
+   * accepts may be used.
+   *
+   * @param n value to add
+   * @return the index of the new entry
+   * @throws IllegalArgumentException if n is null.
+   */
+  public int add(Number n)
+  {
+    BigFraction f = BigFraction.valueOf(n);
+    BigInteger num = f.getNumerator();
+    BigInteger den = f.getDenominator();
+    int numWords = wordCount(num);
+    int denWords = wordCount(den);
+    
+    if(size == numeratorLengths.length)
+    {
+      int newCapacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+      numeratorLengths = Arrays.copyOf(numeratorLengths, newCapacity);
+      offsets = Arrays.copyOf(offsets, newCapacity + 1);
+    }
+    int needed = slabSize + numWords + denWords;
+    if(needed < 0)
+      throw new IllegalStateException("BigFractionArena is full");
+    if(needed > slab.length)
+      slab = Arrays.copyOf(slab, Math.max(needed, (int)Math.min(Integer.MAX_VALUE - 8, slab.length + (long)(slab.length >> 1))));
+    
+    writeWords(num, numWords, slabSize);
+    writeWords(den, denWords, slabSize + numWords);
+    slabSize = needed;
+    numeratorLengths[size] = (num.signum() < 0 ? -numWords : numWords);
+    offsets[++size] = slabSize;
+    return size - 1;
+  }
+  
+  /**
+   * Returns the entry at the given index as a new BigFraction.
+   *
+   * @param i index
+   * @return entry at index i
+   * @throws IndexOutOfBoundsException if i is not a valid index
+   */
+  public BigFraction get(int i)
+  {
+    return view().moveTo(i).toBigFraction();
+  }
+  
+  /**
+   * Returns a new view over this arena, positioned at index 0. Call {@link View#moveTo(int)} to select an
+   * entry.
+   *
+   * @return a new view
+   */
+  public View view()
+  {
+    return new View();
+  }
+  
+  /**
+   * Reduces the memory used by this arena to the minimum needed for its current entries.
+   */
+  public void trimToSize()
+  {
+    slab = Arrays.copyOf(slab, slabSize);
+    offsets = Arrays.copyOf(offsets, size + 1);
+    numeratorLengths = Arrays.copyOf(numeratorLengths, size);
+  }
+  
+  /**
+   * Read-only cursor over one entry of the arena. A view is reusable: {@link #moveTo(int)} repositions it
+   * without allocating.
+   */
+  public final class View implements Comparable<View>
+  {
+    private int index = 0;
+    
+    /** Scratch space for the cross products in compareTo. */
+    private int[] product1 = new int[0];
+    private int[] product2 = new int[0];
+    
+    private View()
+    {
+    }
+    
+    /**
+     * Positions this view at the given entry.
+     *
+     * @param i index of the entry
+     * @return this
+     * @throws IndexOutOfBoundsException if i is not a valid index
+     */
+    public View moveTo(int i)
+    {
+      if(i < 0 || i >= size)
+        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+      index = i;
+      return this;
+    }
+    
+    /**
+     * Returns the index of the entry this view is positioned at.
+     * @return the index of the current entry
+     */
+    public int index()
+    {
+      return index;
+    }
+    
+    /**
+     * Returns -1, 0, or 1 if the current entry is negative, zero, or positive.
+     * @return the sign of the current entry
+     */
+    public int signum()
+    {
+      return Integer.signum(numeratorLengths[index]);
+    }
+    
+    /**
+     * Compares the current entry of this view with the current entry of other, which may be a view over a
+     * different arena. The comparison is exact.
+     *
+     * @param other view to compare with
+     * @return a negative number, zero, or a positive number if this entry is less than, equal to, or greater
+     *         than the other
+     * @throws IllegalArgumentException if other is null.
+     */
+    @Override
+    public int compareTo(View other)
+    {
+      if(other == null)
+        throw new IllegalArgumentException("Null argument");
+      BigFractionArena a = BigFractionArena.this;
+      BigFractionArena b = other.arena();
+      
+      int s1 = signum();
+      int s2 = other.signum();
+      if(s1 != s2)
+        return s1 - s2;
+      if(s1 == 0)
+        return 0;
+      
+      int n1 = a.offsets[index], n1Len = Math.abs(a.numeratorLengths[index]);
+      int d1 = n1 + n1Len, d1Len = a.offsets[index + 1] - d1;
+      int n2 = b.offsets[other.index], n2Len = Math.abs(b.numeratorLengths[other.index]);
+      int d2 = n2 + n2Len, d2Len = b.offsets[other.index + 1] - d2;
+      
+      //|n1/d1| vs |n2/d2|. Entries are in lowest terms, so equal denominators are the common case worth
+      //checking before multiplying.
+      int cmp;
+      if(compareMagnitudes(a.slab, d1, d1Len, b.slab, d2, d2Len) == 0)
+      {
+        cmp = compareMagnitudes(a.slab, n1, n1Len, b.slab, n2, n2Len);
+      }
+      else
+      {
+        int len1 = n1Len + d2Len;
+        int len2 = n2Len + d1Len;
+        if(product1.length < len1)
+          product1 = new int[len1];
+        if(product2.length < len2)
+          product2 = new int[len2];
+        multiply(a.slab, n1, n1Len, b.slab, d2, d2Len, product1);
+        multiply(b.slab, n2, n2Len, a.slab, d1, d1Len, product2);
+        cmp = compareMagnitudes(product1, 0, len1, product2, 0, len2);
+      }
+      return (s1 > 0 ? cmp : -cmp);
+    }
+    
+    /**
+     * Returns an approximation of the current entry as a double, computed from the leading words of the
+     * numerator and denominator. The result is within a few units in the last place of the exact value, but
+     * is not guaranteed to be the same as {@link BigFraction#doubleValue()}.
+     *
+     * @return the current entry, as a double
+     */
+    public double doubleValue()
+    {
+      int s = signum();
+      if(s == 0)
+        return 0.0;
+      int n = offsets[index], nLen = Math.abs(numeratorLengths[index]);
+      int d = n + nLen, dLen = offsets[index + 1] - d;
+      double q = leadingValue(slab, n, nLen) / leadingValue(slab, d, dLen);
+      long exp = 32L * (Math.max(nLen - 3, 0) - Math.max(dLen - 3, 0));
+      double ret = Math.scalb(q, (int)Math.max(Math.min(exp, 4096), -4096));
+      return (s > 0 ? ret : -ret);
+    }
+    
+    /**
+     * Returns the current entry as a new BigFraction.
+     * @return the current entry, as a BigFraction
+     */
+    public BigFraction toBigFraction()
+    {
+      int n = offsets[index], nLen = Math.abs(numeratorLengths[index]);
+      int d = n + nLen, dLen = offsets[index + 1] - d;
+      return BigFraction.valueOfReduced(toBigInteger(slab, n, nLen, signum()), toBigInteger(slab, d, dLen, 1));
+    }
+    
+    /**
+     * Returns the current entry in the same format as {@link BigFraction#toString()}. Only the numerator and
+     * denominator BigIntegers are created, not a BigFraction.
+     */
+    @Override
+    public String toString()
+    {
+      int n = offsets[index], nLen = Math.abs(numeratorLengths[index]);
+      int d = n + nLen, dLen = offsets[index + 1] - d;
+      return toBigInteger(slab, n, nLen, signum()) + "/" + toBigInteger(slab, d, dLen, 1);
+    }
+    
+    private BigFractionArena arena()
+    {
+      return BigFractionArena.this;
+    }
+  }
+  
+  private static int wordCount(BigInteger n)
+  {
+    return (n.abs().bitLength() + 31) >>> 5;
+  }
+  
+  /**
+   * Writes the magnitude of n to the slab as big-endian words, starting at pos.
+   */
+  private void writeWords(BigInteger n, int words, int pos)
+  {
+    byte[] b = n.abs().toByteArray();
+    //toByteArray may have a leading zero sign byte, and the first word may be partial
+    int bi = b.length;
+    for(int w = words - 1; w >= 0; w--)
+    {
+      int word = 0;
+      for(int shift = 0; shift < 32 && bi > 0; shift += 8)
+        word |= (b[--bi] & 0xFF) << shift;
+      slab[pos + w] = word;
+    }
+  }
+  
+  private static BigInteger toBigInteger(int[] slab, int pos, int words, int signum)
+  {
+    if(signum == 0)
+      return BigInteger.ZERO;
+    byte[] b = new byte[words * 4];
+    for(int w = 0; w < words; w++)
+    {
+      int word = slab[pos + w];
+      b[4 * w] = (byte)(word >>> 24);
+      b[4 * w + 1] = (byte)(word >>> 16);
+      b[4 * w + 2] = (byte)(word >>> 8);
+      b[4 * w + 3] = (byte)word;
+    }
+    return new BigInteger(signum, b);
+  }
+  
+  /**
+   * Compares two magnitudes, each of which may have leading zero words.
+   */
+  private static int compareMagnitudes(int[] a, int aPos, int aLen, int[] b, int bPos, int bLen)
+  {
+    while(aLen > 0 && a[aPos] == 0)
+    {
+      aPos++;
+      aLen--;
+    }
+    while(bLen > 0 && b[bPos] == 0)
+    {
+      bPos++;
+      bLen--;
+    }
+    if(aLen != bLen)
+      return (aLen < bLen ? -1 : 1);
+    for(int i = 0; i < aLen; i++)
+    {
+      if(a[aPos + i] != b[bPos + i])
+        return Integer.compareUnsigned(a[aPos + i], b[bPos + i]);
+    }
+    return 0;
+  }
+  
+  /**
+   * Schoolbook multiplication of two big-endian magnitudes into out[0 .. aLen+bLen).
+   */
+  private static void multiply(int[] a, int aPos, int aLen, int[] b, int bPos, int bLen, int[] out)
+  {
+    int len = aLen + bLen;
+    Arrays.fill(out, 0, len, 0);
+    for(int i = aLen - 1; i >= 0; i--)
+    {
+      long x = a[aPos + i] & 0xFFFFFFFFL;
+      long carry = 0L;
+      int k = i + bLen;
+      for(int j = bLen - 1; j >= 0; j--, k--)
+      {
+        long t = x * (b[bPos + j] & 0xFFFFFFFFL) + (out[k] & 0xFFFFFFFFL) + carry;
+        out[k] = (int)t;
+        carry = t >>> 32;
+      }
+      out[k] = (int)carry;
+    }
+  }
+  
+  /**
+   * Returns the value of the first (up to) three words of a magnitude, as a double. The magnitude is this
+   * value times 2^(32*max(words-3, 0)).
+   */
+  private static double leadingValue(int[] slab, int pos, int words)
+  {
+    double ret = 0.0;
+    for(int w = 0; w < Math.min(words, 3); w++)
+      ret = ret * 4294967296.0 + (slab[pos + w] & 0xFFFFFFFFL);
+    return ret;
+  }
+}
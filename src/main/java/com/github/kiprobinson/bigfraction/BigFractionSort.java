@@ -0,0 +1,248 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Sorting of {@link BigFraction} arrays and lists, using precomputed approximate keys.<br>
+ * <br>
+ * {@code Arrays.sort} and {@code Collections.sort} call {@link BigFraction#compareTo(Number)} O(n log n)
+ * times, and each call does two BigInteger cross multiplications. This class instead computes a fixed-size
+ * key for each element once: its sign, its binary exponent {@code floor(log2(|x|))}, and the top 63 bits of
+ * its magnitude, rounded toward zero. The key never decreases as the value increases, so sorting on the keys
+ * (which is done on primitive arrays, without allocating) puts every element in order, except within runs of
+ * elements whose keys are equal. Only those runs are then put in exact order with compareTo. Such runs are
+ * almost always runs of equal values.<br>
+ * <br>
+ * The sorts are stable, and use O(n) additional memory.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class BigFractionSort
+{
+  /** Exponent offset, so that the encoded exponent of every non-zero value has the value's sign. */
+  private final static long EXPONENT_BIAS = 1L << 40;
+  
+  /** Number of significant bits kept in each key. */
+  private final static int KEY_BITS = 63;
+  
+  /** Length of the runs that are insertion sorted before merging. */
+  private final static int INSERTION_SORT_THRESHOLD = 16;
+  
+  private BigFractionSort()
+  {
+    //no instances
+  }
+  
+  /**
+   * Sorts the given array into ascending numerical order.
+   *
+   * @param a array to sort
+   * @throws IllegalArgumentException if a or any of its elements is null.
+   */
+  public static void sort(BigFraction[] a)
+  {
+    if(a == null)
+      throw new IllegalArgumentException("Null argument");
+    sort(a, 0, a.length);
+  }
+  
+  /**
+   * Sorts the given range of the array into ascending numerical order.
+   *
+   * @param a array to sort
+   * @param fromIndex index of the first element to sort, inclusive
+   * @param toIndex index of the last element to sort, exclusive
+   * @throws IllegalArgumentException if a or any of the elements in the range is null, or fromIndex &gt; toIndex.
+   * @throws ArrayIndexOutOfBoundsException if fromIndex &lt; 0 or toIndex &gt; a.length
+   */
+  public static void sort(BigFraction[] a, int fromIndex, int toIndex)
+  {
+    if(a == null)
+      throw new IllegalArgumentException("Null argument");
+    if(fromIndex > toIndex)
+      throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+    if(fromIndex < 0)
+      throw new ArrayIndexOutOfBoundsException(fromIndex);
+    if(toIndex > a.length)
+      throw new ArrayIndexOutOfBoundsException(toIndex);
+    
+    BigFraction[] copy = new BigFraction[toIndex - fromIndex];
+    System.arraycopy(a, fromIndex, copy, 0, copy.length);
+    int[] order = sortedOrder(copy);
+    for(int i = 0; i < order.length; i++)
+      a[fromIndex + i] = copy[order[i]];
+  }
+  
+  /**
+   * Sorts the given list into ascending numerical order. As with {@link java.util.Collections#sort(List)},
+   * the elements are copied into an array, sorted, and written back with the list's iterator.
+   *
+   * @param list list to sort. Must support {@link ListIterator#set(Object)}.
+   * @throws IllegalArgumentException if list or any of its elements is null.
+   * @throws UnsupportedOperationException if the list's iterator does not support set.
+   */
+  public static void sort(List<BigFraction> list)
+  {
+    if(list == null)
+      throw new IllegalArgumentException("Null argument");
+    BigFraction[] a = list.toArray(new BigFraction[list.size()]);
+    int[] order = sortedOrder(a);
+    ListIterator<BigFraction> it = list.listIterator();
+    for(int i = 0; i < order.length; i++)
+    {
+      it.next();
+      it.set(a[order[i]]);
+    }
+  }
+  
+  /**
+   * Returns the permutation which sorts the given array: element i of the result is the index of the element
+   * which belongs at position i.
+   */
+  private static int[] sortedOrder(BigFraction[] a)
+  {
+    int len = a.length;
+    long[] hi = new long[len];
+    long[] lo = new long[len];
+    int[] order = new int[len];
+    for(int i = 0; i < len; i++)
+    {
+      if(a[i] == null)
+        throw new IllegalArgumentException("Null argument");
+      computeKey(a[i], hi, lo, i);
+      order[i] = i;
+    }
+    
+    mergeSort(hi, lo, order);
+    
+    //put runs of equal keys in exact order
+    for(int start = 0; start < len; )
+    {
+      int end = start + 1;
+      while(end < len && hi[order[end]] == hi[order[start]] && lo[order[end]] == lo[order[start]])
+        end++;
+      if(end - start > 1)
+        sortRun(a, order, start, end);
+      start = end;
+    }
+    return order;
+  }
+  
+  /**
+   * Computes the key of f, and stores it in hi[i] and lo[i]. For f != 0, the key is derived from the
+   * exponent {@code e = floor(log2(|f|))} and the 63-bit mantissa {@code m = floor(|f| * 2^(62-e))}, which is
+   * in [2^62, 2^63). Positive values are encoded as {@code (BIAS + e, m)} and negative values as
+   * {@code (-(BIAS + e), -m)}, so that comparing hi then lo as signed longs orders the keys. Zero is (0, 0).
+   */
+  private static void computeKey(BigFraction f, long[] hi, long[] lo, int i)
+  {
+    int signum = f.signum();
+    if(signum == 0)
+    {
+      hi[i] = 0L;
+      lo[i] = 0L;
+      return;
+    }
+    
+    BigInteger n = f.getNumerator().abs();
+    BigInteger d = f.getDenominator();
+    
+    //|f| is in [2^(e0-1), 2^(e0+1)), so the quotient below is in [2^(KEY_BITS-2), 2^KEY_BITS)
+    long e0 = (long)n.bitLength() - d.bitLength();
+    long shift = (KEY_BITS - 1) - e0;
+    BigInteger q = quotient(n, d, shift);
+    long e = e0;
+    if(q.bitLength() < KEY_BITS)
+    {
+      //|f| < 2^e0, so take one more bit. Doubling the truncated quotient instead would drop that bit, and
+      //could order the key above that of a larger value with the same exponent.
+      q = quotient(n, d, shift + 1);
+      e--;
+    }
+    long m = q.longValue();
+    
+    hi[i] = (signum > 0 ? EXPONENT_BIAS + e : -(EXPONENT_BIAS + e));
+    lo[i] = (signum > 0 ? m : -m);
+  }
+  
+  /**
+   * Returns {@code floor(n * 2^shift / d)}.
+   */
+  private static BigInteger quotient(BigInteger n, BigInteger d, long shift)
+  {
+    return (shift >= 0 ? n.shiftLeft((int)shift).divide(d) : n.divide(d.shiftLeft((int)-shift)));
+  }
+  
+  /**
+   * Stable merge sort of order, by the keys hi[order[i]]:lo[order[i]]. Short runs are insertion sorted first.
+   */
+  private static void mergeSort(long[] hi, long[] lo, int[] order)
+  {
+    int len = order.length;
+    for(int start = 0; start < len; start += INSERTION_SORT_THRESHOLD)
+    {
+      int end = Math.min(start + INSERTION_SORT_THRESHOLD, len);
+      for(int i = start + 1; i < end; i++)
+      {
+        int o = order[i];
+        int j = i - 1;
+        while(j >= start && compareKeys(hi, lo, order[j], o) > 0)
+        {
+          order[j + 1] = order[j];
+          j--;
+        }
+        order[j + 1] = o;
+      }
+    }
+    
+    int[] src = order;
+    int[] dst = new int[len];
+    for(int width = INSERTION_SORT_THRESHOLD; width < len; width <<= 1)
+    {
+      for(int start = 0; start < len; start += 2 * width)
+      {
+        int mid = Math.min(start + width, len);
+        int end = Math.min(start + 2 * width, len);
+        int i = start, j = mid, k = start;
+        while(i < mid && j < end)
+          dst[k++] = (compareKeys(hi, lo, src[j], src[i]) < 0 ? src[j++] : src[i++]);
+        while(i < mid)
+          dst[k++] = src[i++];
+        while(j < end)
+          dst[k++] = src[j++];
+      }
+      int[] tmp = src;
+      src = dst;
+      dst = tmp;
+    }
+    if(src != order)
+      System.arraycopy(src, 0, order, 0, len);
+  }
+  
+  private static int compareKeys(long[] hi, long[] lo, int a, int b)
+  {
+    if(hi[a] != hi[b])
+      return (hi[a] < hi[b] ? -1 : 1);
+    return Long.compare(lo[a], lo[b]);
+  }
+  
+  /**
+   * Stable insertion sort of order[start..end), whose elements all have the same key, by exact value.
+   */
+  private static void sortRun(BigFraction[] a, int[] order, int start, int end)
+  {
+    for(int i = start + 1; i < end; i++)
+    {
+      int o = order[i];
+      int j = i - 1;
+      while(j >= start && a[order[j]].compareTo(a[o]) > 0)
+      {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = o;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigInteger;
+
+/**
+ * Accumulates a sum of fractions over a running common denominator.<br>
+ * <br>
+ * {@link BigFraction#add(Number)} reduces the result to lowest terms after every step, so summing
+ * many values spends most of its time in GCD calculations. This class instead keeps the sum as a
+ * numerator over the least common multiple of the denominators seen so far. Each added value is
+ * scaled up to that denominator; when the value's denominator already divides it (the common case
+ * when a few denominators recur), that costs one division and one multiplication, and the common
+ * denominator does not grow. The sum is only reduced when {@link #get()} is called, or when the
+ * common denominator grows past an internal bit-length threshold.<br>
+ * <br>
+ * For parallel use, each thread can fill its own accumulator, and the results can be combined
+ * with {@link #merge(FractionAccumulator)}. This class is not thread-safe.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class FractionAccumulator
+{
+  private BigInteger numerator = BigInteger.ZERO;
+  private BigInteger denominator = BigInteger.ONE;
+  
+  /** Decides when the next operation reduces the sum. */
+  private final ReduceThreshold reduceThreshold = new ReduceThreshold();
+  
+  /**
+   * Creates a new, empty accumulator. Its sum is 0.
+   */
+  public FractionAccumulator()
+  {
+  }
+  
+  /**
+   * Adds n to the sum.
+   *
+   * @param n number to be added
+   * @return this
+   * @throws IllegalArgumentException if n is null.
+   */
+  public FractionAccumulator add(Number n)
+  {
+    if(n == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    final NumberType type = NumberType.of(n);
+    if(BigFraction.isInt(n, type))
+    {
+      BigInteger k = BigFraction.toBigInteger(n, type);
+      if(k.signum() != 0)
+        numerator = numerator.add(denominator.equals(BigInteger.ONE) ? k : denominator.multiply(k));
+      return this;
+    }
+    
+    BigFraction f = BigFraction.valueOf(n);
+    addImpl(f.getNumerator(), f.getDenominator());
+    return this;
+  }
+  
+  /**
+   * Adds the sum of another accumulator into this one. The other accumulator is not modified.
+   *
+   * @param other accumulator whose sum is to be added
+   * @return this
+   * @throws IllegalArgumentException if other is null.
+   */
+  public FractionAccumulator merge(FractionAccumulator other)
+  {
+    if(other == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    addImpl(other.numerator, other.denominator);
+    return this;
+  }
+  
+  /**
+   * Returns the current sum, in lowest terms. As a side-effect, the internal representation of the sum
+   * is reduced as well.
+   *
+   * @return the current sum
+   */
+  public BigFraction get()
+  {
+    reduce();
+    return BigFraction.valueOfReduced(numerator, denominator);
+  }
+  
+  /**
+   * Returns a string representation of the current sum, in lowest terms. Does not modify this accumulator.
+   */
+  @Override
+  public String toString()
+  {
+    return BigFraction.valueOf(numerator, denominator).toString();
+  }
+  
+  /**
+   * Adds num/den to the sum. Assumes den is positive.
+   */
+  private void addImpl(BigInteger num, BigInteger den)
+  {
+    if(num.signum() == 0)
+      return;
+    
+    if(den.equals(denominator))
+    {
+      numerator = numerator.add(num);
+      return;
+    }
+    
+    //if den divides the common denominator, scale num up to it: n1/d + n2/d2 = (n1 + n2*(d/d2))/d
+    BigInteger[] qr = denominator.divideAndRemainder(den);
+    if(qr[1].signum() == 0)
+    {
+      numerator = numerator.add(num.multiply(qr[0]));
+      return;
+    }
+    
+    //otherwise, the new common denominator is lcm(d1, d2) = d1*(d2/g), where g = gcd(d1, d2):
+    //  n1/d1 + n2/d2 = (n1*(d2/g) + n2*(d1/g)) / (d1*(d2/g))
+    BigInteger g = denominator.gcd(den);
+    BigInteger s1 = g.equals(BigInteger.ONE) ? den : den.divide(g);
+    BigInteger s2 = g.equals(BigInteger.ONE) ? denominator : denominator.divide(g);
+    numerator = numerator.multiply(s1).add(num.multiply(s2));
+    denominator = denominator.multiply(s1);
+    
+    if(reduceThreshold.isExceeded(denominator))
+      reduce();
+  }
+  
+  /**
+   * Reduces the current sum to lowest terms.
+   */
+  private void reduce()
+  {
+    if(numerator.signum() == 0)
+    {
+      denominator = BigInteger.ONE;
+    }
+    else
+    {
+      BigInteger gcd = numerator.gcd(denominator);
+      if(!gcd.equals(BigInteger.ONE))
+      {
+        numerator = numerator.divide(gcd);
+        denominator = denominator.divide(gcd);
+      }
+    }
+    
+    reduceThreshold.reduced(denominator);
+  }
+}
@@ -0,0 +1,302 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Collector} implementations for streams of {@link BigFraction} and {@link LongFraction}.<br>
+ * <br>
+ * Sums are accumulated over a common denominator (see {@link FractionAccumulator}) and only reduced
+ * once, when the result is produced. Every collector has a combiner, so all of them are correct on
+ * parallel streams. This is much faster than {@code reduce(BigFraction.ZERO, BigFraction::add)}, which
+ * reduces the fraction after every step.<br>
+ * <br>
+ * The LongFraction collectors produce BigFraction results. They accumulate in primitive longs while the
+ * intermediate values fit, and switch to BigInteger arithmetic when they would overflow, so they never
+ * throw an overflow exception.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class FractionCollectors
+{
+  private FractionCollectors()
+  {
+    //no instances
+  }
+  
+  /**
+   * Returns a Collector that produces the exact sum of the input numbers. Any Number may be used as input.
+   * If there are no elements, the result is 0.
+   *
+   * @return a Collector that produces the sum of its inputs
+   */
+  public static Collector<Number, ?, BigFraction> summingBigFraction()
+  {
+    return Collector.of(FractionAccumulator::new, FractionAccumulator::add, FractionAccumulator::merge, FractionAccumulator::get);
+  }
+  
+  /**
+   * Returns a Collector that produces the exact sum of the input LongFractions. If there are no elements,
+   * the result is 0. The sum is computed in primitive longs as long as it fits, overflowing into BigIntegers
+   * if needed.
+   *
+   * @return a Collector that produces the sum of its inputs
+   */
+  public static Collector<LongFraction, ?, BigFraction> summingLongFraction()
+  {
+    return Collector.of(LongSum::new, LongSum::add, LongSum::merge, LongSum::get);
+  }
+  
+  /**
+   * Returns a Collector that produces the exact arithmetic mean of the input numbers. Any Number may be
+   * used as input. If there are no elements, the result is 0.
+   *
+   * @return a Collector that produces the average of its inputs
+   */
+  public static Collector<Number, ?, BigFraction> averagingBigFraction()
+  {
+    return Collector.of(Averager::new, Averager::add, Averager::merge, Averager::get);
+  }
+  
+  /**
+   * Returns a Collector that produces the exact arithmetic mean of the input LongFractions. If there are
+   * no elements, the result is 0. The sum is computed in primitive longs as long as it fits, overflowing
+   * into BigIntegers if needed.
+   *
+   * @return a Collector that produces the average of its inputs
+   */
+  public static Collector<LongFraction, ?, BigFraction> averagingLongFraction()
+  {
+    return Collector.of(LongSum::new, LongSum::add, LongSum::merge,
+                        s -> s.count == 0L ? BigFraction.ZERO : s.get().divide(s.count));
+  }
+  
+  /**
+   * Returns a Collector that produces the smallest input value, or an empty Optional if there are no elements.
+   *
+   * @return a Collector that produces the minimum of its inputs
+   */
+  public static Collector<BigFraction, ?, Optional<BigFraction>> minBigFraction()
+  {
+    return Collectors.minBy(Comparator.naturalOrder());
+  }
+  
+  /**
+   * Returns a Collector that produces the largest input value, or an empty Optional if there are no elements.
+   *
+   * @return a Collector that produces the maximum of its inputs
+   */
+  public static Collector<BigFraction, ?, Optional<BigFraction>> maxBigFraction()
+  {
+    return Collectors.maxBy(Comparator.naturalOrder());
+  }
+  
+  /**
+   * Returns a Collector that produces the smallest input value, or an empty Optional if there are no elements.
+   *
+   * @return a Collector that produces the minimum of its inputs
+   */
+  public static Collector<LongFraction, ?, Optional<LongFraction>> minLongFraction()
+  {
+    return Collectors.minBy(Comparator.naturalOrder());
+  }
+  
+  /**
+   * Returns a Collector that produces the largest input value, or an empty Optional if there are no elements.
+   *
+   * @return a Collector that produces the maximum of its inputs
+   */
+  public static Collector<LongFraction, ?, Optional<LongFraction>> maxLongFraction()
+  {
+    return Collectors.maxBy(Comparator.naturalOrder());
+  }
+  
+  /**
+   * Returns a Collector that produces count, sum, min, max, and average of the input numbers. Any Number
+   * may be used as input.
+   *
+   * @return a Collector that produces summary statistics of its inputs
+   */
+  public static Collector<Number, ?, FractionSummaryStatistics> summarizingBigFraction()
+  {
+    return Collector.of(FractionSummaryStatistics::new, FractionSummaryStatistics::accept,
+                        (a, b) -> { a.combine(b); return a; }, Collector.Characteristics.IDENTITY_FINISH);
+  }
+  
+  /**
+   * Returns a Collector that produces count, sum, min, max, and average of the input LongFractions. The sum
+   * is computed in primitive longs as long as it fits, overflowing into BigIntegers if needed, and min and
+   * max are compared as LongFractions.
+   *
+   * @return a Collector that produces summary statistics of its inputs
+   */
+  public static Collector<LongFraction, ?, FractionSummaryStatistics> summarizingLongFraction()
+  {
+    return Collector.of(LongSummary::new, LongSummary::add, LongSummary::merge, LongSummary::get);
+  }
+  
+  /**
+   * Mutable container for averagingBigFraction().
+   */
+  private static final class Averager
+  {
+    private final FractionAccumulator sum = new FractionAccumulator();
+    private long count = 0L;
+    
+    void add(Number n)
+    {
+      sum.add(n);
+      count++;
+    }
+    
+    Averager merge(Averager other)
+    {
+      sum.merge(other.sum);
+      count += other.count;
+      return this;
+    }
+    
+    BigFraction get()
+    {
+      return count == 0L ? BigFraction.ZERO : sum.get().divide(count);
+    }
+  }
+  
+  /**
+   * Mutable container for summarizingLongFraction(). Converts to FractionSummaryStatistics only at the end.
+   */
+  private static final class LongSummary
+  {
+    private final LongSum sum = new LongSum();
+    private LongFraction min = null;
+    private LongFraction max = null;
+    
+    void add(LongFraction f)
+    {
+      if(f == null)
+        throw new IllegalArgumentException("Null argument");
+      sum.add(f);
+      if(min == null || f.compareTo(min) < 0)
+        min = f;
+      if(max == null || f.compareTo(max) > 0)
+        max = f;
+    }
+    
+    LongSummary merge(LongSummary other)
+    {
+      if(other.sum.count == 0L)
+        return this;
+      sum.merge(other.sum);
+      if(min == null || other.min.compareTo(min) < 0)
+        min = other.min;
+      if(max == null || other.max.compareTo(max) > 0)
+        max = other.max;
+      return this;
+    }
+    
+    FractionSummaryStatistics get()
+    {
+      if(sum.count == 0L)
+        return new FractionSummaryStatistics();
+      return new FractionSummaryStatistics(sum.count, sum.get(), BigFraction.valueOf(min), BigFraction.valueOf(max));
+    }
+  }
+  
+  /**
+   * Mutable container for the LongFraction sums. Keeps the sum as numerator/denominator longs, where the
+   * denominator is the least common multiple of the denominators seen so far. Once an operation would
+   * overflow, everything is moved into a FractionAccumulator. Also used by {@link LongFractionArray}.
+   */
+  static final class LongSum
+  {
+    private long numerator = 0L;
+    private long denominator = 1L;
+    private FractionAccumulator big = null;
+    private long count = 0L;
+    
+    void add(LongFraction f)
+    {
+      count++;
+      if(big == null && addLong(f.getNumerator(), f.getDenominator()))
+        return;
+      
+      overflow().add(f);
+    }
+    
+    /**
+     * Adds num/den, which must be in lowest terms with a positive denominator.
+     */
+    void add(long num, long den)
+    {
+      count++;
+      if(big == null && addLong(num, den))
+        return;
+      
+      overflow().add(BigFraction.valueOf(num, den));
+    }
+    
+    /**
+     * Adds a value that did not fit in a LongFraction.
+     */
+    void add(BigFraction f)
+    {
+      count++;
+      overflow().add(f);
+    }
+    
+    LongSum merge(LongSum other)
+    {
+      count += other.count;
+      if(other.big != null)
+        overflow().merge(other.big);
+      else if(big != null || !addLong(other.numerator, other.denominator))
+        overflow().add(BigFraction.valueOf(other.numerator, other.denominator));
+      return this;
+    }
+    
+    BigFraction get()
+    {
+      return big != null ? big.get() : BigFraction.valueOf(numerator, denominator);
+    }
+    
+    /**
+     * Adds num/den to the long sum. Returns false, without modifying the sum, if it would overflow.
+     */
+    private boolean addLong(long num, long den)
+    {
+      if(den == denominator)
+      {
+        if(LongMath.addOverflows(numerator, num))
+          return false;
+        numerator += num;
+        return true;
+      }
+      
+      //n1/d1 + n2/d2 = (n1*(d2/g) + n2*(d1/g)) / (d1*(d2/g)), where g = gcd(d1, d2)
+      long g = LongFraction.gcd(denominator, den);
+      long s1 = den / g;
+      long s2 = denominator / g;
+      if(LongMath.multiplyOverflows(numerator, s1) || LongMath.multiplyOverflows(num, s2) || LongMath.multiplyOverflows(denominator, s1))
+        return false;
+      long a = numerator * s1;
+      long b = num * s2;
+      if(LongMath.addOverflows(a, b))
+        return false;
+      numerator = a + b;
+      denominator *= s1;
+      return true;
+    }
+    
+    /**
+     * Returns the BigInteger-based accumulator, moving the current long sum into it first if needed.
+     */
+    private FractionAccumulator overflow()
+    {
+      if(big == null)
+        big = new FractionAccumulator().add(BigFraction.valueOf(numerator, denominator));
+      return big;
+    }
+  }
+}
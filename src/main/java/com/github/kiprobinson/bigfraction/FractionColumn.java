@@ -0,0 +1,379 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only column of exact fractions, stored off-heap in direct {@link ByteBuffer}s so that the values
+ * are not scanned by the garbage collector.<br>
+ * <br>
+ * Each value has a fixed 16 byte slot. A value whose numerator and denominator both fit in a long (which is
+ * every value a {@link LongFraction} can hold) is stored directly in its slot. Larger values are written to
+ * a separate overflow region, as a variable-length byte count followed by the big-endian magnitude for both
+ * the numerator and the denominator, and the slot holds a reference to it. Slots and the overflow region
+ * are allocated in fixed-size chunks, so the column can hold more values than fit in a single ByteBuffer;
+ * values are addressed by long index.<br>
+ * <br>
+ * The aggregate methods ({@link #sum()}, {@link #mean()}, {@link #min()}, {@link #max()}) read the slots
+ * directly, without creating an object per value, except for values in the overflow region.<br>
+ * <br>
+ * Direct buffers are released when the column is garbage collected. This class is not thread-safe.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class FractionColumn
+{
+  private final static int SLOT_BYTES = 16;
+  private final static int DEFAULT_SLOTS_PER_CHUNK = 1 << 16;
+  private final static int OVERFLOW_CHUNK_BYTES = 1 << 20;
+  
+  /** Denominator stored in a slot whose value is in the overflow region. Never a valid denominator. */
+  private final static long OVERFLOW_MARKER = 0L;
+  
+  private final int chunkShift;
+  private final int chunkMask;
+  
+  private final List<ByteBuffer> slotChunks = new ArrayList<>();
+  private final List<ByteBuffer> overflowChunks = new ArrayList<>();
+  private long size = 0L;
+  
+  /**
+   * Constructs an empty column.
+   */
+  public FractionColumn()
+  {
+    this(DEFAULT_SLOTS_PER_CHUNK);
+  }
+  
+  /**
+   * Constructs an empty column, which allocates slots in chunks of the given size.
+   *
+   * @param slotsPerChunk number of values in each chunk of slots. Must be a power of 2, no larger than 2^26.
+   * @throws IllegalArgumentException if slotsPerChunk is not a power of 2 in the allowed range.
+   */
+  public FractionColumn(int slotsPerChunk)
+  {
+    if(slotsPerChunk <= 0 || slotsPerChunk > (1 << 26) || Integer.bitCount(slotsPerChunk) != 1)
+      throw new IllegalArgumentException("slotsPerChunk must be a power of 2 no larger than 2^26: " + slotsPerChunk);
+    chunkShift = Integer.numberOfTrailingZeros(slotsPerChunk);
+    chunkMask = slotsPerChunk - 1;
+  }
+  
+  /**
+   * Returns the number of values in this column.
+   * @return the number of values in this column
+   */
+  public long size()
+  {
+    return size;
+  }
+  
+  /**
+   * Appends a value to this column. Any Number types which {@link BigFraction#valueOf(Number)} accepts may
+   * be used.
+   *
+   * @param n value to append
+   * @return the index of the new value
+   * @throws IllegalArgumentException if n is null.
+   */
+  public long append(Number n)
+  {
+    if(n instanceof LongFraction)
+    {
+      LongFraction f = (LongFraction)n;
+      return appendSlot(f.getNumerator(), f.getDenominator());
+    }
+    
+    BigFraction f = BigFraction.valueOf(n);
+    BigInteger num = f.getNumerator();
+    BigInteger den = f.getDenominator();
+    if(num.bitLength() < 64 && den.bitLength() < 64)
+      return appendSlot(num.longValue(), den.longValue());
+    return appendSlot(writeOverflow(num, den), OVERFLOW_MARKER);
+  }
+  
+  /**
+   * Appends the value {@code numerator/denominator} to this column.
+   *
+   * @param numerator numerator of the value to append
+   * @param denominator denominator of the value to append
+   * @return the index of the new value
+   * @throws ArithmeticException if denominator is zero.
+   */
+  public long append(long numerator, long denominator)
+  {
+    if(denominator == 0L)
+      throw new ArithmeticException("Divide by zero: fraction denominator is zero.");
+    if(numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE)
+      return append(BigFraction.valueOf(numerator, denominator));
+    long g = LongFractionTable.reducingDivisor(numerator, denominator);
+    return appendSlot(numerator / g, denominator / g);
+  }
+  
+  /**
+   * Returns the value at the given index.
+   *
+   * @param i index
+   * @return value at index i
+   * @throws IndexOutOfBoundsException if i is not a valid index
+   */
+  public BigFraction get(long i)
+  {
+    checkIndex(i);
+    ByteBuffer chunk = slotChunks.get((int)(i >>> chunkShift));
+    int pos = (int)(i & chunkMask) * SLOT_BYTES;
+    long n = chunk.getLong(pos);
+    long d = chunk.getLong(pos + 8);
+    if(d != OVERFLOW_MARKER)
+      return BigFraction.valueOf(LongFraction.valueOfReduced(n, d));
+    return readOverflow(n);
+  }
+  
+  /**
+   * Returns whether the value at the given index fits in a LongFraction.
+   *
+   * @param i index
+   * @return true if the value at index i is stored in its slot, and can be read with {@link #getLongFraction(long)}
+   * @throws IndexOutOfBoundsException if i is not a valid index
+   */
+  public boolean isLongFraction(long i)
+  {
+    checkIndex(i);
+    return slotChunks.get((int)(i >>> chunkShift)).getLong((int)(i & chunkMask) * SLOT_BYTES + 8) != OVERFLOW_MARKER;
+  }
+  
+  /**
+   * Returns the value at the given index as a LongFraction.
+   *
+   * @param i index
+   * @return value at index i
+   * @throws IndexOutOfBoundsException if i is not a valid index
+   * @throws ArithmeticException if the value does not fit in a LongFraction.
+   */
+  public LongFraction getLongFraction(long i)
+  {
+    checkIndex(i);
+    ByteBuffer chunk = slotChunks.get((int)(i >>> chunkShift));
+    int pos = (int)(i & chunkMask) * SLOT_BYTES;
+    long d = chunk.getLong(pos + 8);
+    if(d == OVERFLOW_MARKER)
+      throw new ArithmeticException("Value does not fit in a LongFraction");
+    return LongFraction.valueOfReduced(chunk.getLong(pos), d);
+  }
+  
+  /**
+   * Returns the exact sum of all values in this column. Slot values are summed in long arithmetic while the
+   * intermediate values fit, as in {@link FractionCollectors#summingLongFraction()}.
+   *
+   * @return the sum of all values, or 0 if the column is empty
+   */
+  public BigFraction sum()
+  {
+    FractionCollectors.LongSum acc = new FractionCollectors.LongSum();
+    for(int c = 0; c < slotChunks.size(); c++)
+    {
+      ByteBuffer chunk = slotChunks.get(c);
+      int end = chunkLength(c) * SLOT_BYTES;
+      for(int pos = 0; pos < end; pos += SLOT_BYTES)
+      {
+        long n = chunk.getLong(pos);
+        long d = chunk.getLong(pos + 8);
+        if(d != OVERFLOW_MARKER)
+          acc.add(n, d);
+        else
+          acc.add(readOverflow(n));
+      }
+    }
+    return acc.get();
+  }
+  
+  /**
+   * Returns the exact arithmetic mean of all values in this column.
+   * @return the mean of all values, or 0 if the column is empty
+   */
+  public BigFraction mean()
+  {
+    if(size == 0L)
+      return BigFraction.ZERO;
+    return sum().divide(size);
+  }
+  
+  /**
+   * Returns the smallest value in this column.
+   * @return the smallest value, or null if the column is empty
+   */
+  public BigFraction min()
+  {
+    return extreme(-1);
+  }
+  
+  /**
+   * Returns the largest value in this column.
+   * @return the largest value, or null if the column is empty
+   */
+  public BigFraction max()
+  {
+    return extreme(1);
+  }
+  
+  /**
+   * Implementation of min() and max(). Returns the value v for which {@code signum(v.compareTo(other))} is
+   * never {@code -direction}.
+   */
+  private BigFraction extreme(int direction)
+  {
+    if(size == 0L)
+      return null;
+    
+    //best value so far: either a slot value (bestBig == null) or an overflow value
+    long bestN = 0L, bestD = 0L;
+    BigFraction bestBig = null;
+    boolean first = true;
+    for(int c = 0; c < slotChunks.size(); c++)
+    {
+      ByteBuffer chunk = slotChunks.get(c);
+      int end = chunkLength(c) * SLOT_BYTES;
+      for(int pos = 0; pos < end; pos += SLOT_BYTES)
+      {
+        long n = chunk.getLong(pos);
+        long d = chunk.getLong(pos + 8);
+        if(d != OVERFLOW_MARKER)
+        {
+          int cmp = (first ? direction : bestBig == null ? compare(n, d, bestN, bestD) : -Integer.signum(bestBig.compareTo(LongFraction.valueOfReduced(n, d))));
+          if(cmp == direction)
+          {
+            bestN = n;
+            bestD = d;
+            bestBig = null;
+          }
+        }
+        else
+        {
+          BigFraction f = readOverflow(n);
+          int cmp = (first ? direction : Integer.signum(f.compareTo(bestBig == null ? LongFraction.valueOfReduced(bestN, bestD) : bestBig)));
+          if(cmp == direction)
+            bestBig = f;
+        }
+        first = false;
+      }
+    }
+    return (bestBig != null ? bestBig : BigFraction.valueOf(LongFraction.valueOfReduced(bestN, bestD)));
+  }
+  
+  private long appendSlot(long n, long d)
+  {
+    int c = (int)(size >>> chunkShift);
+    if(c == slotChunks.size())
+      slotChunks.add(ByteBuffer.allocateDirect((chunkMask + 1) * SLOT_BYTES).order(ByteOrder.nativeOrder()));
+    ByteBuffer chunk = slotChunks.get(c);
+    int pos = (int)(size & chunkMask) * SLOT_BYTES;
+    chunk.putLong(pos, n);
+    chunk.putLong(pos + 8, d);
+    return size++;
+  }
+  
+  /**
+   * Writes a large value to the overflow region, and returns its reference: the chunk number in the high 32
+   * bits and the position within the chunk in the low 32 bits.
+   */
+  private long writeOverflow(BigInteger num, BigInteger den)
+  {
+    byte[] n = magnitude(num);
+    byte[] d = magnitude(den);
+    int needed = 2 * 5 + n.length + d.length;
+    
+    ByteBuffer chunk = (overflowChunks.isEmpty() ? null : overflowChunks.get(overflowChunks.size() - 1));
+    if(chunk == null || chunk.remaining() < needed)
+    {
+      chunk = ByteBuffer.allocateDirect(Math.max(OVERFLOW_CHUNK_BYTES, needed));
+      overflowChunks.add(chunk);
+    }
+    long ref = ((long)(overflowChunks.size() - 1) << 32) | chunk.position();
+    writeVarint(chunk, ((long)n.length << 1) | (num.signum() < 0 ? 1L : 0L));
+    chunk.put(n);
+    writeVarint(chunk, d.length);
+    chunk.put(d);
+    return ref;
+  }
+  
+  private BigFraction readOverflow(long ref)
+  {
+    ByteBuffer chunk = overflowChunks.get((int)(ref >>> 32)).duplicate();
+    chunk.position((int)ref);
+    long header = readVarint(chunk);
+    byte[] n = new byte[(int)(header >>> 1)];
+    chunk.get(n);
+    byte[] d = new byte[(int)readVarint(chunk)];
+    chunk.get(d);
+    BigInteger num = new BigInteger((header & 1L) != 0L ? -1 : 1, n);
+    return BigFraction.valueOfReduced(num, new BigInteger(1, d));
+  }
+  
+  private static byte[] magnitude(BigInteger n)
+  {
+    byte[] b = n.abs().toByteArray();
+    if(b.length > 1 && b[0] == 0)
+    {
+      byte[] ret = new byte[b.length - 1];
+      System.arraycopy(b, 1, ret, 0, ret.length);
+      return ret;
+    }
+    return b;
+  }
+  
+  /**
+   * Writes v as an unsigned LEB128 varint: 7 bits per byte, low bits first, with the high bit set on every
+   * byte except the last.
+   */
+  private static void writeVarint(ByteBuffer buf, long v)
+  {
+    while((v & ~0x7FL) != 0L)
+    {
+      buf.put((byte)((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    buf.put((byte)v);
+  }
+  
+  private static long readVarint(ByteBuffer buf)
+  {
+    long v = 0L;
+    for(int shift = 0; ; shift += 7)
+    {
+      byte b = buf.get();
+      v |= (long)(b & 0x7F) << shift;
+      if(b >= 0)
+        return v;
+    }
+  }
+  
+  /**
+   * Exactly compares n1/d1 and n2/d2, with positive denominators, using 128-bit cross products.
+   */
+  private static int compare(long n1, long d1, long n2, long d2)
+  {
+    long hi1 = LongMath.multiplyHigh(n1, d2);
+    long hi2 = LongMath.multiplyHigh(n2, d1);
+    if(hi1 != hi2)
+      return (hi1 < hi2 ? -1 : 1);
+    return Integer.signum(Long.compareUnsigned(n1 * d2, n2 * d1));
+  }
+  
+  /**
+   * Returns the number of used slots in the given slot chunk.
+   */
+  private int chunkLength(int c)
+  {
+    long start = (long)c << chunkShift;
+    return (int)Math.min(size - start, chunkMask + 1L);
+  }
+  
+  private void checkIndex(long i)
+  {
+    if(i < 0L || i >= size)
+      throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+  }
+}
@@ -0,0 +1,221 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file written by {@link FractionFileWriter}. See that class for a description of the format.<br>
+ * <br>
+ * The file is memory-mapped when it is opened, and only the header is read, so opening a file takes the same
+ * time regardless of its size. Each read uses the index to find the record and decodes it directly from the
+ * mapped pages. Files larger than 2GB are mapped in several segments.<br>
+ * <br>
+ * Reads do not change any state, so a reader may be shared between threads once it has been opened. The
+ * mappings stay valid after {@link #close()}, until the reader is garbage collected, but must not be used
+ * after the file is modified or deleted.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class FractionFileReader implements Closeable
+{
+  /** Segments are a multiple of 8 bytes, so no index entry spans two segments. */
+  private final static int SEGMENT_SHIFT = 30;
+  private final static long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1L;
+  
+  private final FileChannel channel;
+  private final ByteBuffer[] segments;
+  private final long count;
+  private final long indexOffset;
+  
+  /**
+   * Opens the given file for reading.
+   *
+   * @param path file to read
+   * @throws IOException if the file cannot be opened, or is not a valid fraction file.
+   * @throws IllegalArgumentException if path is null.
+   */
+  public FractionFileReader(Path path) throws IOException
+  {
+    if(path == null)
+      throw new IllegalArgumentException("Null argument");
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try
+    {
+      long fileSize = channel.size();
+      if(fileSize < FractionFileWriter.HEADER_BYTES)
+        throw new IOException("Not a fraction file: " + path);
+      
+      segments = new ByteBuffer[(int)((fileSize + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+      for(int i = 0; i < segments.length; i++)
+      {
+        long start = (long)i << SEGMENT_SHIFT;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_MASK + 1L, fileSize - start));
+      }
+      
+      ByteBuffer header = segments[0];
+      if(header.getInt(0) != FractionFileWriter.MAGIC)
+        throw new IOException("Not a fraction file: " + path);
+      if(header.getInt(4) != FractionFileWriter.VERSION)
+        throw new IOException("Unsupported fraction file version: " + header.getInt(4));
+      count = header.getLong(8);
+      indexOffset = header.getLong(16);
+      if(count < 0L || indexOffset < FractionFileWriter.HEADER_BYTES || (indexOffset & 7L) != 0L || count > (fileSize - indexOffset) / 8L)
+        throw new IOException("Corrupt fraction file header: " + path);
+    }
+    catch(IOException | RuntimeException e)
+    {
+      channel.close();
+      throw e;
+    }
+  }
+  
+  /**
+   * Returns the number of values in the file.
+   *
+   * @return number of values in the file.
+   */
+  public long size()
+  {
+    return count;
+  }
+  
+  /**
+   * Returns the value at the given index.
+   *
+   * @param index index of the value
+   * @return the value at the given index.
+   * @throws IndexOutOfBoundsException if index is negative or not less than {@link #size()}.
+   * @throws IllegalStateException if the record is corrupt.
+   */
+  public BigFraction get(long index)
+  {
+    long pos = recordOffset(index);
+    long num = readLongVarint(pos);
+    if(num != -1L)
+    {
+      pos = skipVarint(pos);
+      long den = readLongVarint(pos);
+      if(den != -1L)
+      {
+        checkDenominator(den != 0L);
+        long mag = num >>> 1;
+        return BigFraction.valueOfReduced(BigInteger.valueOf((num & 1L) == 0L ? mag : -mag), BigInteger.valueOf(den));
+      }
+    }
+    
+    pos = recordOffset(index);
+    BigInteger n = readVarint(pos);
+    BigInteger d = readVarint(skipVarint(pos));
+    checkDenominator(d.signum() != 0);
+    return BigFraction.valueOfReduced(n.testBit(0) ? n.shiftRight(1).negate() : n.shiftRight(1), d);
+  }
+  
+  /**
+   * Returns the value at the given index as a LongFraction. Values which fit in a LongFraction are decoded
+   * without any BigInteger arithmetic.
+   *
+   * @param index index of the value
+   * @return the value at the given index.
+   * @throws IndexOutOfBoundsException if index is negative or not less than {@link #size()}.
+   * @throws ArithmeticException if the value cannot be represented as a LongFraction.
+   * @throws IllegalStateException if the record is corrupt.
+   */
+  public LongFraction getLongFraction(long index)
+  {
+    long pos = recordOffset(index);
+    long num = readLongVarint(pos);
+    if(num != -1L)
+    {
+      long den = readLongVarint(skipVarint(pos));
+      if(den != -1L)
+      {
+        checkDenominator(den != 0L);
+        long mag = num >>> 1;
+        return LongFraction.valueOfReduced((num & 1L) == 0L ? mag : -mag, den);
+      }
+    }
+    return LongFraction.valueOf(get(index));
+  }
+  
+  /**
+   * Closes the file. The mappings remain valid until the reader is garbage collected.
+   *
+   * @throws IOException if the file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException
+  {
+    channel.close();
+  }
+  
+  private long recordOffset(long index)
+  {
+    if(index < 0L || index >= count)
+      throw new IndexOutOfBoundsException("index=" + index + ", size=" + count);
+    long entry = indexOffset + 8L * index;
+    long pos = segments[(int)(entry >>> SEGMENT_SHIFT)].getLong((int)(entry & SEGMENT_MASK));
+    if(pos < FractionFileWriter.HEADER_BYTES || pos >= indexOffset)
+      throw new IllegalStateException("Corrupt fraction file: bad offset for index " + index);
+    return pos;
+  }
+  
+  private static void checkDenominator(boolean ok)
+  {
+    if(!ok)
+      throw new IllegalStateException("Corrupt fraction file: zero denominator");
+  }
+  
+  private int byteAt(long pos)
+  {
+    if(pos >= indexOffset)
+      throw new IllegalStateException("Corrupt fraction file: truncated record");
+    return segments[(int)(pos >>> SEGMENT_SHIFT)].get((int)(pos & SEGMENT_MASK)) & 0xFF;
+  }
+  
+  /**
+   * Returns the position just after the varint at pos.
+   */
+  private long skipVarint(long pos)
+  {
+    while((byteAt(pos) & 0x80) != 0)
+      pos++;
+    return pos + 1L;
+  }
+  
+  /**
+   * Reads the varint at pos as an unsigned long, or returns -1 if it has more than 63 bits.
+   */
+  private long readLongVarint(long pos)
+  {
+    long v = 0L;
+    for(int shift = 0; shift < 63; shift += 7)
+    {
+      int b = byteAt(pos++);
+      v |= (long)(b & 0x7F) << shift;
+      if((b & 0x80) == 0)
+        return v;
+    }
+    return -1L;
+  }
+  
+  private BigInteger readVarint(long pos)
+  {
+    int groups = (int)(skipVarint(pos) - pos);
+    //pack the 7-bit groups into a big-endian magnitude, least significant group first
+    byte[] mag = new byte[(groups * 7 + 7) / 8];
+    for(int g = 0, bit = 0; g < groups; g++, bit += 7)
+    {
+      int group = byteAt(pos + g) & 0x7F;
+      int i = mag.length - 1 - (bit >>> 3);
+      mag[i] |= (byte)(group << (bit & 7));
+      if((bit & 7) > 1)
+        mag[i - 1] |= (byte)(group >>> (8 - (bit & 7)));
+    }
+    return new BigInteger(1, mag);
+  }
+}
@@ -0,0 +1,264 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a sequence of fractions to a file, in a format which {@link FractionFileReader} can memory-map and
+ * read by index without parsing the whole file.<br>
+ * <br>
+ * The file has three parts. All fixed-width values are big-endian.
+ * <ol>
+ *   <li>A 24 byte header: the magic number {@code "BFRC"}, a 4 byte version (currently 1), the 8 byte
+ *       number of values, and the 8 byte file offset of the index.</li>
+ *   <li>The values, one record after another. A record is the numerator followed by the denominator, each
+ *       written as an unsigned LEB128 varint (7 bits per byte, least significant group first, high bit set
+ *       on every byte except the last). The numerator is written as {@code |n| * 2 + (n < 0 ? 1 : 0)}.
+ *       Values are always in lowest terms with a positive denominator, and there is no limit on the size of
+ *       either part.</li>
+ *   <li>The index, starting at an 8 byte aligned offset: the 8 byte file offset of each record, in
+ *       order.</li>
+ * </ol>
+ * Values are written as they are added, but the index and header are only written by {@link #close()}, so a
+ * file which was not closed cannot be read. Until then, the offset of every record is written to a temporary
+ * file in the same directory, which is copied to the end of the file and deleted by {@code close()}, so the
+ * writer uses the same memory however many values are written.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class FractionFileWriter implements Closeable
+{
+  /** "BFRC" in ASCII. */
+  final static int MAGIC = 0x42465243;
+  final static int VERSION = 1;
+  final static int HEADER_BYTES = 24;
+  
+  private final static int BUFFER_BYTES = 1 << 16;
+  
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+  private long position = HEADER_BYTES;
+  
+  /** Temporary file of record offsets, deleted when it is closed. */
+  private final FileChannel indexChannel;
+  private final ByteBuffer indexBuffer = ByteBuffer.allocate(BUFFER_BYTES);
+  private long count = 0L;
+  private boolean closed = false;
+  
+  /**
+   * Creates a writer for the given file. The file is created if it does not exist, and truncated if it
+   * does.
+   *
+   * @param path file to write
+   * @throws IOException if the file, or the temporary index file, cannot be opened.
+   * @throws IllegalArgumentException if path is null.
+   */
+  public FractionFileWriter(Path path) throws IOException
+  {
+    if(path == null)
+      throw new IllegalArgumentException("Null argument");
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    Path indexPath = null;
+    try
+    {
+      channel.position(HEADER_BYTES);
+      indexPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".index");
+      indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+    catch(IOException | RuntimeException e)
+    {
+      try
+      {
+        //DELETE_ON_CLOSE only applies once the channel is open
+        if(indexPath != null)
+          Files.deleteIfExists(indexPath);
+      }
+      catch(IOException suppressed)
+      {
+        e.addSuppressed(suppressed);
+      }
+      channel.close();
+      throw e;
+    }
+  }
+  
+  /**
+   * Returns the number of values written so far.
+   *
+   * @return number of values written.
+   */
+  public long size()
+  {
+    return count;
+  }
+  
+  /**
+   * Writes a value. Any Number types which {@link BigFraction#valueOf(Number)} accepts may be used.
+   *
+   * @param n value to write
+   * @return the index of the value in the file.
+   * @throws IOException if the value cannot be written.
+   * @throws IllegalArgumentException if n is null, or is NaN or infinite.
+   * @throws IllegalStateException if the writer has been closed.
+   */
+  public long write(Number n) throws IOException
+  {
+    if(n instanceof LongFraction)
+      return write((LongFraction)n);
+    
+    BigFraction f = BigFraction.valueOf(n);
+    BigInteger num = f.getNumerator();
+    if(num.bitLength() < 64 && num.longValue() != Long.MIN_VALUE && f.getDenominator().bitLength() < 64)
+      return writeRecord(num.longValue(), f.getDenominator().longValue());
+    
+    long index = startRecord();
+    BigInteger v = num.abs().shiftLeft(1);
+    writeVarint(num.signum() < 0 ? v.setBit(0) : v);
+    writeVarint(f.getDenominator());
+    return index;
+  }
+  
+  /**
+   * Writes a value. This is the same as {@link #write(Number)}, but uses long arithmetic.
+   *
+   * @param f value to write
+   * @return the index of the value in the file.
+   * @throws IOException if the value cannot be written.
+   * @throws IllegalArgumentException if f is null.
+   * @throws IllegalStateException if the writer has been closed.
+   */
+  public long write(LongFraction f) throws IOException
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    //|Long.MIN_VALUE| * 2 needs 65 bits
+    if(f.getNumerator() == Long.MIN_VALUE)
+      return write(BigFraction.valueOf(f));
+    return writeRecord(f.getNumerator(), f.getDenominator());
+  }
+  
+  /**
+   * Writes the index and header, and closes the file. Calling this method more than once has no effect.
+   *
+   * @throws IOException if the file cannot be written.
+   */
+  @Override
+  public void close() throws IOException
+  {
+    if(closed)
+      return;
+    closed = true;
+    try
+    {
+      while((position & 7L) != 0L)
+        putByte(0);
+      long indexOffset = position;
+      flush();
+      flushIndex();
+      for(long pos = 0L, indexBytes = 8L * count; pos < indexBytes; )
+        pos += indexChannel.transferTo(pos, indexBytes - pos, channel);
+      
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(indexOffset).flip();
+      for(long pos = 0L; header.hasRemaining(); )
+        pos += channel.write(header, pos);
+    }
+    finally
+    {
+      try
+      {
+        indexChannel.close();
+      }
+      finally
+      {
+        channel.close();
+      }
+    }
+  }
+  
+  /**
+   * Writes a record whose numerator is not Long.MIN_VALUE. The encoded numerator is treated as unsigned.
+   */
+  private long writeRecord(long num, long den) throws IOException
+  {
+    long index = startRecord();
+    if(buffer.remaining() < 20)
+      flush();
+    int start = buffer.position();
+    putVarint(num < 0L ? (-num << 1) | 1L : num << 1);
+    putVarint(den);
+    position += buffer.position() - start;
+    return index;
+  }
+  
+  private long startRecord() throws IOException
+  {
+    if(closed)
+      throw new IllegalStateException("FractionFileWriter is closed");
+    if(indexBuffer.remaining() < 8)
+      flushIndex();
+    indexBuffer.putLong(position);
+    return count++;
+  }
+  
+  /**
+   * Puts the unsigned value v as a varint. The buffer must have room for it.
+   */
+  private void putVarint(long v)
+  {
+    while((v & ~0x7FL) != 0L)
+    {
+      buffer.put((byte)(v | 0x80));
+      v >>>= 7;
+    }
+    buffer.put((byte)v);
+  }
+  
+  /**
+   * Writes the non-negative value v as a varint.
+   */
+  private void writeVarint(BigInteger v) throws IOException
+  {
+    //little-endian bit extraction from the big-endian magnitude
+    byte[] mag = v.toByteArray();
+    int bits = Math.max(1, v.bitLength());
+    for(int bit = 0; bit < bits; bit += 7)
+    {
+      int last = mag.length - 1 - (bit >>> 3);
+      int group = (mag[last] & 0xFF) >>> (bit & 7);
+      if(last > 0)
+        group |= (mag[last - 1] & 0xFF) << (8 - (bit & 7));
+      putByte((group & 0x7F) | (bit + 7 < bits ? 0x80 : 0));
+    }
+  }
+  
+  private void putByte(int b) throws IOException
+  {
+    if(!buffer.hasRemaining())
+      flush();
+    buffer.put((byte)b);
+    position++;
+  }
+  
+  private void flush() throws IOException
+  {
+    buffer.flip();
+    while(buffer.hasRemaining())
+      channel.write(buffer);
+    buffer.clear();
+  }
+  
+  private void flushIndex() throws IOException
+  {
+    indexBuffer.flip();
+    while(indexBuffer.hasRemaining())
+      indexChannel.write(indexBuffer);
+    indexBuffer.clear();
+  }
+}
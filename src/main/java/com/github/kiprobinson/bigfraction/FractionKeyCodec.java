@@ -0,0 +1,346 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+
+/**
+ * Encodes fractions as byte arrays whose unsigned lexicographic order is the same as the numeric order of
+ * the fractions, and decodes them again. This allows exact fractions to be used as keys in sorted stores
+ * that compare keys as raw bytes (for example B-trees and LSM trees), and range scans to be done without
+ * decoding the keys.<br>
+ * <br>
+ * The encoding is based on the regular continued fraction {@code [a0; a1, a2, ..., ak]} of the value, where
+ * {@code a0 = floor(x)}, every later term is positive, and the last term is at least 2 if k &gt; 0. Such an
+ * expansion is unique, so equal values always have equal encodings. The value increases with a0, a2, a4, ...
+ * and decreases with a1, a3, a5, ..., so each term is written with an order-preserving variable-length
+ * integer encoding, and the bytes of every odd-numbered term are complemented. The end of the expansion acts
+ * as a term of infinity, and is written as a byte that sorts after (or, at odd positions, before) every
+ * finite term.<br>
+ * <br>
+ * Each term is written as a header byte followed by the big-endian bytes of its magnitude. A header less than
+ * {@code 0xF0} is the number of magnitude bytes. Headers {@code 0xF1} to {@code 0xF4} are followed by 1 to 4
+ * bytes giving the number of magnitude bytes, for very large terms. {@code 0xFF} marks the end of the
+ * expansion. The first byte of an encoding is {@code 0x80} if the value is non-negative and {@code 0x7F}
+ * otherwise, followed by the magnitude of a0 (complemented if a0 is negative).<br>
+ * <br>
+ * Encodings are self-delimiting: no encoding is a prefix of another. So an encoded fraction followed by
+ * other key components still sorts correctly. For example, 0 encodes as {@code 80 00 00}, 1/2 as
+ * {@code 80 00 FE FD FF}, and 1 as {@code 80 01 01 00}.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class FractionKeyCodec
+{
+  private final static int NON_NEGATIVE = 0x80;
+  private final static int NEGATIVE = 0x7F;
+  
+  /** Largest number of magnitude bytes that fits in a single header byte. */
+  private final static int MAX_SHORT_LENGTH = 0xEF;
+  private final static int LONG_LENGTH_HEADER = 0xF0;
+  private final static int END = 0xFF;
+  
+  private FractionKeyCodec()
+  {
+    //no instances
+  }
+  
+  /**
+   * Returns the order-preserving encoding of n. Any Number types which {@link BigFraction#valueOf(Number)}
+   * accepts may be used. Equal values have equal encodings, regardless of type.
+   *
+   * @param n value to encode
+   * @return the encoding of n
+   * @throws IllegalArgumentException if n is null, or is NaN or infinite.
+   */
+  public static byte[] encode(Number n)
+  {
+    if(n instanceof LongFraction)
+      return encode((LongFraction)n);
+    
+    BigFraction f = BigFraction.valueOf(n);
+    BigInteger[] qr = floorDivideAndRemainder(f.getNumerator(), f.getDenominator());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if(qr[0].signum() >= 0)
+    {
+      out.write(NON_NEGATIVE);
+      writeTerm(out, toMagnitude(qr[0]), false);
+    }
+    else
+    {
+      out.write(NEGATIVE);
+      writeTerm(out, toMagnitude(qr[0].negate()), true);
+    }
+    
+    //Euclid's algorithm on (d, r) produces the remaining terms
+    BigInteger a = f.getDenominator();
+    BigInteger b = qr[1];
+    boolean complement = true;
+    while(b.signum() != 0)
+    {
+      BigInteger[] term = a.divideAndRemainder(b);
+      writeTerm(out, toMagnitude(term[0]), complement);
+      a = b;
+      b = term[1];
+      complement = !complement;
+    }
+    out.write(complement ? END ^ 0xFF : END);
+    return out.toByteArray();
+  }
+  
+  /**
+   * Returns the order-preserving encoding of f. This is the same as {@link #encode(Number)}, but uses long
+   * arithmetic.
+   *
+   * @param f value to encode
+   * @return the encoding of f
+   * @throws IllegalArgumentException if f is null.
+   */
+  public static byte[] encode(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    long d = f.getDenominator();
+    long a0 = Math.floorDiv(f.getNumerator(), d);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+    if(a0 >= 0L)
+    {
+      out.write(NON_NEGATIVE);
+      writeTerm(out, a0, false);
+    }
+    else
+    {
+      //-Long.MIN_VALUE is 2^63 when treated as unsigned, which writeTerm handles
+      out.write(NEGATIVE);
+      writeTerm(out, -a0, true);
+    }
+    
+    //all values are positive and less than 2^63 from here on
+    long a = d;
+    long b = Math.floorMod(f.getNumerator(), d);
+    boolean complement = true;
+    while(b != 0L)
+    {
+      writeTerm(out, a / b, complement);
+      long r = a % b;
+      a = b;
+      b = r;
+      complement = !complement;
+    }
+    out.write(complement ? END ^ 0xFF : END);
+    return out.toByteArray();
+  }
+  
+  /**
+   * Decodes a value written by {@link #encode(Number)}.
+   *
+   * @param key encoded value
+   * @return the decoded value
+   * @throws IllegalArgumentException if key is null, or is not a valid encoding.
+   */
+  public static BigFraction decode(byte[] key)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    return decode(key, 0, key.length);
+  }
+  
+  /**
+   * Decodes a value written by {@link #encode(Number)}, from the given range of a byte array. The range must
+   * contain exactly one encoded value.
+   *
+   * @param key array containing the encoded value
+   * @param offset index of the first byte of the encoded value
+   * @param length number of bytes in the encoded value
+   * @return the decoded value
+   * @throws IllegalArgumentException if key is null, or the range is not a valid encoding.
+   * @throws IndexOutOfBoundsException if the range is outside the array.
+   */
+  public static BigFraction decode(byte[] key, int offset, int length)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    if(offset < 0 || length < 0 || offset > key.length - length)
+      throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", key.length=" + key.length);
+    
+    Reader in = new Reader(key, offset, offset + length);
+    int sign = in.next();
+    if(sign != NON_NEGATIVE && sign != NEGATIVE)
+      throw new IllegalArgumentException("Invalid fraction key: bad sign byte");
+    boolean negative = (sign == NEGATIVE);
+    BigInteger a0 = in.readTerm(negative);
+    if(a0 == null)
+      throw new IllegalArgumentException("Invalid fraction key: missing integer part");
+    if(negative)
+    {
+      if(a0.signum() == 0)
+        throw new IllegalArgumentException("Invalid fraction key: non-canonical integer part");
+      a0 = a0.negate();
+    }
+    
+    //convergents: h/k = [a0; a1, ..., ai]
+    BigInteger hPrev = BigInteger.ONE, kPrev = BigInteger.ZERO;
+    BigInteger h = a0, k = BigInteger.ONE;
+    BigInteger last = null;
+    boolean complement = true;
+    for(BigInteger term; (term = in.readTerm(complement)) != null; complement = !complement)
+    {
+      if(term.signum() == 0)
+        throw new IllegalArgumentException("Invalid fraction key: zero term");
+      BigInteger hNext = term.multiply(h).add(hPrev);
+      BigInteger kNext = term.multiply(k).add(kPrev);
+      hPrev = h;
+      kPrev = k;
+      h = hNext;
+      k = kNext;
+      last = term;
+    }
+    if(last != null && last.equals(BigInteger.ONE))
+      throw new IllegalArgumentException("Invalid fraction key: non-canonical last term");
+    if(in.hasNext())
+      throw new IllegalArgumentException("Invalid fraction key: trailing bytes");
+    
+    //convergents of a regular continued fraction are always in lowest terms, with k > 0
+    return BigFraction.valueOfReduced(h, k);
+  }
+  
+  /**
+   * Decodes a value written by {@link #encode(Number)} as a LongFraction.
+   *
+   * @param key encoded value
+   * @return the decoded value
+   * @throws IllegalArgumentException if key is null, or is not a valid encoding.
+   * @throws ArithmeticException if the value cannot be represented as a LongFraction.
+   */
+  public static LongFraction decodeLongFraction(byte[] key)
+  {
+    return LongFraction.valueOf(decode(key));
+  }
+  
+  /**
+   * Returns floor(n/d) and the non-negative remainder, for d &gt; 0.
+   */
+  private static BigInteger[] floorDivideAndRemainder(BigInteger n, BigInteger d)
+  {
+    BigInteger[] qr = n.divideAndRemainder(d);
+    if(qr[1].signum() < 0)
+    {
+      qr[0] = qr[0].subtract(BigInteger.ONE);
+      qr[1] = qr[1].add(d);
+    }
+    return qr;
+  }
+  
+  /**
+   * Returns the big-endian bytes of the non-negative value t, with no leading zero bytes. Zero has no bytes.
+   */
+  private static byte[] toMagnitude(BigInteger t)
+  {
+    byte[] b = t.toByteArray();
+    int skip = 0;
+    while(skip < b.length && b[skip] == 0)
+      skip++;
+    if(skip == 0)
+      return b;
+    byte[] ret = new byte[b.length - skip];
+    System.arraycopy(b, skip, ret, 0, ret.length);
+    return ret;
+  }
+  
+  /**
+   * Writes the unsigned value t as a term.
+   */
+  private static void writeTerm(ByteArrayOutputStream out, long t, boolean complement)
+  {
+    int len = 8 - Long.numberOfLeadingZeros(t) / 8;
+    byte[] mag = new byte[len];
+    for(int i = len - 1; i >= 0; i--, t >>>= 8)
+      mag[i] = (byte)t;
+    writeTerm(out, mag, complement);
+  }
+  
+  private static void writeTerm(ByteArrayOutputStream out, byte[] mag, boolean complement)
+  {
+    int flip = (complement ? 0xFF : 0);
+    int len = mag.length;
+    if(len <= MAX_SHORT_LENGTH)
+    {
+      out.write(len ^ flip);
+    }
+    else
+    {
+      int lenBytes = 4 - Integer.numberOfLeadingZeros(len) / 8;
+      out.write((LONG_LENGTH_HEADER + lenBytes) ^ flip);
+      for(int i = lenBytes - 1; i >= 0; i--)
+        out.write((len >>> (8 * i)) ^ flip);
+    }
+    for(byte b : mag)
+      out.write(b ^ flip);
+  }
+  
+  /**
+   * Cursor over the bytes of an encoded key.
+   */
+  private static final class Reader
+  {
+    private final byte[] key;
+    private int pos;
+    private final int end;
+    
+    Reader(byte[] key, int pos, int end)
+    {
+      this.key = key;
+      this.pos = pos;
+      this.end = end;
+    }
+    
+    boolean hasNext()
+    {
+      return pos < end;
+    }
+    
+    int next()
+    {
+      if(pos >= end)
+        throw new IllegalArgumentException("Invalid fraction key: truncated");
+      return key[pos++] & 0xFF;
+    }
+    
+    /**
+     * Reads one term, or returns null if the end marker is found instead.
+     */
+    BigInteger readTerm(boolean complement)
+    {
+      int flip = (complement ? 0xFF : 0);
+      int header = next() ^ flip;
+      if(header == END)
+        return null;
+      
+      int len;
+      if(header <= MAX_SHORT_LENGTH)
+      {
+        len = header;
+      }
+      else
+      {
+        int lenBytes = header - LONG_LENGTH_HEADER;
+        if(lenBytes < 1 || lenBytes > 4)
+          throw new IllegalArgumentException("Invalid fraction key: bad term header");
+        len = 0;
+        for(int i = 0; i < lenBytes; i++)
+          len = (len << 8) | (next() ^ flip);
+        if(len <= MAX_SHORT_LENGTH || (len >>> (8 * (lenBytes - 1))) == 0)
+          throw new IllegalArgumentException("Invalid fraction key: non-canonical term length");
+      }
+      
+      if(len > end - pos)
+        throw new IllegalArgumentException("Invalid fraction key: truncated");
+      byte[] mag = new byte[len + 1];
+      for(int i = 1; i <= len; i++)
+        mag[i] = (byte)(next() ^ flip);
+      if(len > 0 && mag[1] == 0)
+        throw new IllegalArgumentException("Invalid fraction key: non-canonical term");
+      return new BigInteger(mag);
+    }
+  }
+}
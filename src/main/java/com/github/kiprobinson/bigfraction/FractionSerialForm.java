@@ -0,0 +1,224 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Serialization proxy for {@link BigFraction} and {@link LongFraction}. Both classes replace themselves with
+ * an instance of this class when serialized, and it resolves back to the original type when deserialized.<br>
+ * <br>
+ * The serial form is a header byte, followed by the value:
+ * <ul>
+ *   <li>The high bit of the header is set for LongFraction, and clear for BigFraction.</li>
+ *   <li>Tags 0 to 4 are the constants ZERO, ONE, ONE_HALF, ONE_TENTH and TEN, with no further data.
+ *       These deserialize to the constants themselves, so identity comparisons still work.</li>
+ *   <li>Tag 5 is a value whose numerator and denominator fit in a long: the zig-zag encoded numerator and
+ *       the denominator, each as an unsigned LEB128 varint.</li>
+ *   <li>Tag 6 (BigFraction only) is any other value: the two's-complement bytes of the numerator and of the
+ *       denominator, each preceded by its length as a varint.</li>
+ * </ul>
+ * Values are reduced again when they are read, so a stream cannot create a fraction which breaks the
+ * invariants of either class. Streams written before this class existed used the default serial form, and
+ * can still be read. The readResolve() method of each class checks and reduces those values in the same
+ * way.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+final class FractionSerialForm implements Externalizable
+{
+  private static final long serialVersionUID = 1L;
+  
+  private static final int LONG_FRACTION = 0x80;
+  private static final int TAG_LONG = 5;
+  private static final int TAG_BIG = 6;
+  
+  /** Byte arrays are read in pieces of at most this size, so a corrupt length can't allocate more than the stream holds. */
+  private static final int READ_CHUNK_BYTES = 1 << 16;
+  
+  private static final BigFraction[] BIG_CONSTANTS = {
+    BigFraction.ZERO, BigFraction.ONE, BigFraction.ONE_HALF, BigFraction.ONE_TENTH, BigFraction.TEN,
+  };
+  private static final LongFraction[] LONG_CONSTANTS = {
+    LongFraction.ZERO, LongFraction.ONE, LongFraction.ONE_HALF, LongFraction.ONE_TENTH, LongFraction.TEN,
+  };
+  
+  private Number value;
+  
+  /**
+   * Public no-arg constructor, required by {@link Externalizable}. Not for general use.
+   */
+  public FractionSerialForm()
+  {
+    //filled in by readExternal()
+  }
+  
+  FractionSerialForm(Number value)
+  {
+    this.value = value;
+  }
+  
+  /**
+   * Returns the constant equal to f if there is one, otherwise f.
+   */
+  static BigFraction canonical(BigFraction f)
+  {
+    for(BigFraction c : BIG_CONSTANTS)
+    {
+      if(c.equals(f))
+        return c;
+    }
+    return f;
+  }
+  
+  /**
+   * Returns the constant equal to f if there is one, otherwise f.
+   */
+  static LongFraction canonical(LongFraction f)
+  {
+    for(LongFraction c : LONG_CONSTANTS)
+    {
+      if(c.equals(f))
+        return c;
+    }
+    return f;
+  }
+  
+  @Override
+  public void writeExternal(ObjectOutput out) throws IOException
+  {
+    if(value instanceof LongFraction)
+    {
+      LongFraction f = (LongFraction)value;
+      int tag = constantTag(LONG_CONSTANTS, f);
+      out.writeByte(LONG_FRACTION | (tag >= 0 ? tag : TAG_LONG));
+      if(tag < 0)
+      {
+        writeVarint(out, (f.getNumerator() << 1) ^ (f.getNumerator() >> 63));
+        writeVarint(out, f.getDenominator());
+      }
+      return;
+    }
+    
+    BigFraction f = (BigFraction)value;
+    int tag = constantTag(BIG_CONSTANTS, f);
+    if(tag >= 0)
+    {
+      out.writeByte(tag);
+    }
+    else if(f.getNumerator().bitLength() < 64 && f.getDenominator().bitLength() < 64)
+    {
+      long n = f.getNumerator().longValue();
+      out.writeByte(TAG_LONG);
+      writeVarint(out, (n << 1) ^ (n >> 63));
+      writeVarint(out, f.getDenominator().longValue());
+    }
+    else
+    {
+      out.writeByte(TAG_BIG);
+      writeBytes(out, f.getNumerator().toByteArray());
+      writeBytes(out, f.getDenominator().toByteArray());
+    }
+  }
+  
+  @Override
+  public void readExternal(ObjectInput in) throws IOException
+  {
+    int header = in.readUnsignedByte();
+    boolean isLong = (header & LONG_FRACTION) != 0;
+    int tag = header & ~LONG_FRACTION;
+    
+    if(tag < BIG_CONSTANTS.length)
+    {
+      value = (isLong ? LONG_CONSTANTS[tag] : BIG_CONSTANTS[tag]);
+    }
+    else if(tag == TAG_LONG)
+    {
+      long z = readVarint(in);
+      long n = (z >>> 1) ^ -(z & 1L);
+      long d = readVarint(in);
+      if(d <= 0L)
+        throw new InvalidObjectException("Invalid fraction: non-positive denominator");
+      value = (isLong ? LongFraction.valueOf(n, d) : BigFraction.valueOf(BigInteger.valueOf(n), BigInteger.valueOf(d)));
+    }
+    else if(tag == TAG_BIG && !isLong)
+    {
+      BigInteger n = new BigInteger(readBytes(in));
+      BigInteger d = new BigInteger(readBytes(in));
+      if(d.signum() <= 0)
+        throw new InvalidObjectException("Invalid fraction: non-positive denominator");
+      value = BigFraction.valueOf(n, d);
+    }
+    else
+    {
+      throw new InvalidObjectException("Invalid fraction header: " + header);
+    }
+  }
+  
+  private Object readResolve()
+  {
+    return value;
+  }
+  
+  private static int constantTag(Number[] constants, Number f)
+  {
+    for(int i = 0; i < constants.length; i++)
+    {
+      if(constants[i].equals(f))
+        return i;
+    }
+    return -1;
+  }
+  
+  /**
+   * Writes v, treated as unsigned, as a varint.
+   */
+  private static void writeVarint(ObjectOutput out, long v) throws IOException
+  {
+    while((v & ~0x7FL) != 0L)
+    {
+      out.writeByte((int)(v | 0x80));
+      v >>>= 7;
+    }
+    out.writeByte((int)v);
+  }
+  
+  private static long readVarint(ObjectInput in) throws IOException
+  {
+    long v = 0L;
+    for(int shift = 0; shift < 64; shift += 7)
+    {
+      int b = in.readUnsignedByte();
+      v |= (long)(b & 0x7F) << shift;
+      if((b & 0x80) == 0)
+        return v;
+    }
+    throw new InvalidObjectException("Invalid fraction: varint too long");
+  }
+  
+  private static void writeBytes(ObjectOutput out, byte[] b) throws IOException
+  {
+    writeVarint(out, b.length);
+    out.write(b);
+  }
+  
+  private static byte[] readBytes(ObjectInput in) throws IOException
+  {
+    long len = readVarint(in);
+    if(len <= 0L || len > Integer.MAX_VALUE)
+      throw new InvalidObjectException("Invalid fraction: bad length " + len);
+    byte[] b = new byte[(int)Math.min(len, READ_CHUNK_BYTES)];
+    in.readFully(b);
+    while(b.length < len)
+    {
+      int start = b.length;
+      b = Arrays.copyOf(b, (int)Math.min(len, (long)start + Math.max(start, READ_CHUNK_BYTES)));
+      in.readFully(b, start, b.length - start);
+    }
+    return b;
+  }
+}
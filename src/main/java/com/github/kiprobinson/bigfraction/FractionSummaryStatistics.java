@@ -0,0 +1,139 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.util.function.Consumer;
+
+/**
+ * A state object for collecting statistics such as count, sum, min, max, and average of fractions.
+ * Works like {@link java.util.IntSummaryStatistics}, except that all results are exact. Any Number
+ * may be accepted; values are converted using {@link BigFraction#valueOf(Number)}.<br>
+ * <br>
+ * This class is designed to work with streams. For example:
+ * <pre>
+ * FractionSummaryStatistics stats = fractions.parallelStream().collect(FractionCollectors.summarizingBigFraction());
+ * </pre>
+ * The sum is kept in a {@link FractionAccumulator}, so it is not reduced after every value.<br>
+ * <br>
+ * This class is not thread-safe. It is safe to use with parallel streams, because the parallel
+ * implementation of {@link java.util.stream.Stream#collect Stream.collect()} provides the necessary
+ * partitioning, isolation, and merging of results.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionSummaryStatistics implements Consumer<Number>
+{
+  private long count = 0L;
+  private final FractionAccumulator sum = new FractionAccumulator();
+  private BigFraction min = null;
+  private BigFraction max = null;
+  
+  /**
+   * Creates an empty instance, with zero count, zero sum, no min or max, and zero average.
+   */
+  public FractionSummaryStatistics()
+  {
+  }
+  
+  /**
+   * Creates an instance with the given state, for collectors which gather the statistics in some other
+   * form. count must be positive.
+   */
+  FractionSummaryStatistics(long count, BigFraction sum, BigFraction min, BigFraction max)
+  {
+    this.count = count;
+    this.sum.add(sum);
+    this.min = min;
+    this.max = max;
+  }
+  
+  /**
+   * Records a new value into the summary information.
+   *
+   * @param n the input value
+   * @throws IllegalArgumentException if n is null.
+   */
+  @Override
+  public void accept(Number n)
+  {
+    BigFraction f = BigFraction.valueOf(n);
+    count++;
+    sum.add(f);
+    if(min == null || f.compareTo(min) < 0)
+      min = f;
+    if(max == null || f.compareTo(max) > 0)
+      max = f;
+  }
+  
+  /**
+   * Combines the state of another FractionSummaryStatistics into this one.
+   *
+   * @param other another FractionSummaryStatistics
+   * @throws IllegalArgumentException if other is null.
+   */
+  public void combine(FractionSummaryStatistics other)
+  {
+    if(other == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    if(other.count == 0L)
+      return;
+    
+    count += other.count;
+    sum.merge(other.sum);
+    if(min == null || other.min.compareTo(min) < 0)
+      min = other.min;
+    if(max == null || other.max.compareTo(max) > 0)
+      max = other.max;
+  }
+  
+  /**
+   * Returns the count of values recorded.
+   * @return the count of values
+   */
+  public final long getCount()
+  {
+    return count;
+  }
+  
+  /**
+   * Returns the sum of values recorded, or zero if no values have been recorded.
+   * @return the sum of values, or zero if none
+   */
+  public final BigFraction getSum()
+  {
+    return sum.get();
+  }
+  
+  /**
+   * Returns the minimum value recorded, or null if no values have been recorded.
+   * @return the minimum value, or null if none
+   */
+  public final BigFraction getMin()
+  {
+    return min;
+  }
+  
+  /**
+   * Returns the maximum value recorded, or null if no values have been recorded.
+   * @return the maximum value, or null if none
+   */
+  public final BigFraction getMax()
+  {
+    return max;
+  }
+  
+  /**
+   * Returns the exact arithmetic mean of values recorded, or zero if no values have been recorded.
+   * @return the arithmetic mean of values, or zero if none
+   */
+  public final BigFraction getAverage()
+  {
+    return count == 0L ? BigFraction.ZERO : sum.get().divide(count);
+  }
+  
+  @Override
+  public String toString()
+  {
+    return getClass().getSimpleName() + "{count=" + count + ", sum=" + getSum() + ", min=" + min +
+           ", average=" + getAverage() + ", max=" + max + "}";
+  }
+}
@@ -0,0 +1,343 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Mutable vector of exact rational values, stored as an array of BigInteger numerators over a single
+ * shared, positive BigInteger denominator.<br>
+ * <br>
+ * Operations on a {@code BigFraction[]} reduce every element to lowest terms after every step, which
+ * costs a GCD per element per operation. This class instead rescales the numerators to a common
+ * denominator only when the denominator has to change, so {@link #add(FractionVector)},
+ * {@link #scale(Number)}, {@link #axpy(Number, FractionVector)}, and {@link #dot(FractionVector)} do only
+ * integer multiplications and additions on the elements, plus at most one GCD of the denominators.<br>
+ * <br>
+ * The shared denominator is not necessarily the least common denominator. It is brought back down by
+ * {@link #normalize()}, or automatically when it grows past an internal bit-length threshold, so that
+ * intermediate values do not grow without bound. Individual elements are only reduced to lowest terms
+ * when they are read with {@link #get(int)}.<br>
+ * <br>
+ * This class is not thread-safe.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class FractionVector
+{
+  private final BigInteger[] numerators;
+  private BigInteger denominator = BigInteger.ONE;
+  
+  /** Decides when the next operation normalizes the vector. */
+  private final ReduceThreshold normalizeThreshold = new ReduceThreshold();
+  
+  /**
+   * Creates a vector of the given length, with every element equal to 0.
+   *
+   * @param length number of elements
+   * @throws NegativeArraySizeException if length is negative
+   */
+  public FractionVector(int length)
+  {
+    numerators = new BigInteger[length];
+    Arrays.fill(numerators, BigInteger.ZERO);
+  }
+  
+  /**
+   * Returns a vector containing the given values. Any Number types which {@link BigFraction#valueOf(Number)}
+   * accepts may be used.
+   *
+   * @param values values of the new vector
+   * @return a new vector containing the given values
+   * @throws IllegalArgumentException if values or any of its elements is null.
+   */
+  public static FractionVector of(Number... values)
+  {
+    if(values == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    //find the common denominator first, so each numerator only needs to be scaled once
+    BigFraction[] fractions = new BigFraction[values.length];
+    BigInteger den = BigInteger.ONE;
+    for(int i = 0; i < values.length; i++)
+    {
+      fractions[i] = BigFraction.valueOf(values[i]);
+      BigInteger d = fractions[i].getDenominator();
+      if(!d.equals(BigInteger.ONE) && den.mod(d).signum() != 0)
+        den = den.divide(den.gcd(d)).multiply(d);
+    }
+    
+    FractionVector ret = new FractionVector(values.length);
+    ret.denominator = den;
+    for(int i = 0; i < values.length; i++)
+      ret.numerators[i] = fractions[i].getNumerator().multiply(den.divide(fractions[i].getDenominator()));
+    return ret;
+  }
+  
+  /**
+   * Returns the number of elements in this vector.
+   * @return the number of elements in this vector
+   */
+  public int length()
+  {
+    return numerators.length;
+  }
+  
+  /**
+   * Returns the element at the given index, in lowest terms.
+   *
+   * @param i index
+   * @return element at index i
+   */
+  public BigFraction get(int i)
+  {
+    return BigFraction.valueOf(numerators[i], denominator);
+  }
+  
+  /**
+   * Sets the element at the given index. If the value's denominator does not divide the shared denominator,
+   * all numerators are rescaled to a new shared denominator.
+   *
+   * @param i index
+   * @param n new value
+   * @return this
+   * @throws IllegalArgumentException if n is null.
+   */
+  public FractionVector set(int i, Number n)
+  {
+    BigFraction f = BigFraction.valueOf(n);
+    BigInteger d = f.getDenominator();
+    BigInteger[] qr = denominator.divideAndRemainder(d);
+    if(qr[1].signum() == 0)
+    {
+      numerators[i] = f.getNumerator().multiply(qr[0]);
+      return this;
+    }
+    
+    //new shared denominator is lcm(D, d) = D*(d/g)
+    BigInteger s = d.divide(denominator.gcd(d));
+    rescale(s);
+    denominator = denominator.multiply(s);
+    numerators[i] = f.getNumerator().multiply(denominator.divide(d));
+    checkThreshold();
+    return this;
+  }
+  
+  /**
+   * Returns the shared denominator. This is always positive, but is not necessarily the least common
+   * denominator of the elements unless {@link #normalize()} was just called.
+   *
+   * @return the shared denominator
+   */
+  public BigInteger getDenominator()
+  {
+    return denominator;
+  }
+  
+  /**
+   * Returns the numerator of the element at the given index, over the shared denominator.
+   *
+   * @param i index
+   * @return numerator of element at index i, over {@link #getDenominator()}
+   */
+  public BigInteger getNumerator(int i)
+  {
+    return numerators[i];
+  }
+  
+  /**
+   * Adds other to this vector, element by element.
+   *
+   * @param other vector to be added. Must be the same length.
+   * @return this
+   * @throws IllegalArgumentException if other is null or has a different length.
+   */
+  public FractionVector add(FractionVector other)
+  {
+    return addImpl(other, BigInteger.ONE, BigInteger.ONE);
+  }
+  
+  /**
+   * Subtracts other from this vector, element by element.
+   *
+   * @param other vector to be subtracted. Must be the same length.
+   * @return this
+   * @throws IllegalArgumentException if other is null or has a different length.
+   */
+  public FractionVector subtract(FractionVector other)
+  {
+    return addImpl(other, BigInteger.ONE.negate(), BigInteger.ONE);
+  }
+  
+  /**
+   * Multiplies every element of this vector by k.
+   *
+   * @param k scale factor
+   * @return this
+   * @throws IllegalArgumentException if k is null.
+   */
+  public FractionVector scale(Number k)
+  {
+    BigFraction f = BigFraction.valueOf(k);
+    if(f.signum() == 0)
+    {
+      Arrays.fill(numerators, BigInteger.ZERO);
+      denominator = BigInteger.ONE;
+      return this;
+    }
+    
+    //(n/D)*(p/q) = (n*(p/g)) / ((D/g)*q), where g = gcd(p, D). One gcd for the whole vector.
+    BigInteger p = f.getNumerator();
+    BigInteger g = p.gcd(denominator);
+    if(!g.equals(BigInteger.ONE))
+    {
+      p = p.divide(g);
+      denominator = denominator.divide(g);
+    }
+    rescale(p);
+    denominator = denominator.multiply(f.getDenominator());
+    checkThreshold();
+    return this;
+  }
+  
+  /**
+   * Sets this vector to {@code a*x + this}, element by element. x is not modified.
+   *
+   * @param a scale factor for x
+   * @param x vector to be scaled and added. Must be the same length.
+   * @return this
+   * @throws IllegalArgumentException if a or x is null, or x has a different length.
+   */
+  public FractionVector axpy(Number a, FractionVector x)
+  {
+    BigFraction f = BigFraction.valueOf(a);
+    return addImpl(x, f.getNumerator(), f.getDenominator());
+  }
+  
+  /**
+   * Returns the exact dot product of this vector and other. The sum of products is computed over the
+   * product of the shared denominators, and only reduced once.
+   *
+   * @param other vector to multiply with this one. Must be the same length.
+   * @return dot product of this and other
+   * @throws IllegalArgumentException if other is null or has a different length.
+   */
+  public BigFraction dot(FractionVector other)
+  {
+    checkLength(other);
+    BigInteger sum = BigInteger.ZERO;
+    for(int i = 0; i < numerators.length; i++)
+    {
+      if(numerators[i].signum() != 0 && other.numerators[i].signum() != 0)
+        sum = sum.add(numerators[i].multiply(other.numerators[i]));
+    }
+    return BigFraction.valueOf(sum, denominator.multiply(other.denominator));
+  }
+  
+  /**
+   * Reduces the shared denominator to the least common denominator of the elements.
+   *
+   * @return this
+   */
+  public FractionVector normalize()
+  {
+    //the gcd of the denominator and all numerators. Stop as soon as it reaches 1.
+    BigInteger g = denominator;
+    for(int i = 0; i < numerators.length && !g.equals(BigInteger.ONE); i++)
+    {
+      if(numerators[i].signum() != 0)
+        g = g.gcd(numerators[i]);
+    }
+    
+    if(!g.equals(BigInteger.ONE))
+    {
+      for(int i = 0; i < numerators.length; i++)
+        numerators[i] = numerators[i].divide(g);
+      denominator = denominator.divide(g);
+    }
+    
+    normalizeThreshold.reduced(denominator);
+    return this;
+  }
+  
+  /**
+   * Returns the elements of this vector as BigFractions, each in lowest terms.
+   * @return a new BigFraction[] with the same values as this vector
+   */
+  public BigFraction[] toArray()
+  {
+    BigFraction[] ret = new BigFraction[numerators.length];
+    for(int i = 0; i < ret.length; i++)
+      ret[i] = get(i);
+    return ret;
+  }
+  
+  /**
+   * Returns a string representation of this vector, with each element in lowest terms, in the same format
+   * as {@link Arrays#toString(Object[])}. Does not modify this vector.
+   */
+  @Override
+  public String toString()
+  {
+    return Arrays.toString(toArray());
+  }
+  
+  /**
+   * Implementation of add(), subtract(), and axpy(). Adds (p/q)*x to this, where q is positive.
+   */
+  private FractionVector addImpl(FractionVector x, BigInteger p, BigInteger q)
+  {
+    checkLength(x);
+    if(p.signum() == 0)
+      return this;
+    
+    //n1/D1 + (p/q)*(n2/D2) over the common denominator lcm(D1, D2*q) = D1*s1, where
+    //s1 = (D2*q)/g, s2 = D1/g, and g = gcd(D1, D2*q):
+    //  (n1*s1 + n2*(p*s2)) / (D1*s1)
+    //x may be this, so compute everything from x before modifying anything.
+    BigInteger xDen = (q.equals(BigInteger.ONE) ? x.denominator : x.denominator.multiply(q));
+    BigInteger g = (xDen.equals(denominator) ? xDen : denominator.gcd(xDen));
+    BigInteger s1 = xDen.divide(g);
+    BigInteger xScale = denominator.divide(g).multiply(p);
+    boolean scaleThis = !s1.equals(BigInteger.ONE);
+    boolean scaleX = !xScale.equals(BigInteger.ONE);
+    for(int i = 0; i < numerators.length; i++)
+    {
+      BigInteger n1 = (scaleThis ? numerators[i].multiply(s1) : numerators[i]);
+      BigInteger n2 = x.numerators[i];
+      if(n2.signum() != 0)
+        n1 = n1.add(scaleX ? n2.multiply(xScale) : n2);
+      numerators[i] = n1;
+    }
+    denominator = denominator.multiply(s1);
+    checkThreshold();
+    return this;
+  }
+  
+  /**
+   * Multiplies every numerator by s.
+   */
+  private void rescale(BigInteger s)
+  {
+    if(s.equals(BigInteger.ONE))
+      return;
+    for(int i = 0; i < numerators.length; i++)
+      numerators[i] = numerators[i].multiply(s);
+  }
+  
+  /**
+   * Normalizes the vector if the denominator has grown past the threshold.
+   */
+  private void checkThreshold()
+  {
+    if(normalizeThreshold.isExceeded(denominator))
+      normalize();
+  }
+  
+  private void checkLength(FractionVector other)
+  {
+    if(other == null)
+      throw new IllegalArgumentException("Null argument");
+    if(other.numerators.length != numerators.length)
+      throw new IllegalArgumentException("Vector lengths differ: " + numerators.length + " != " + other.numerators.length);
+  }
+}
@@ -0,0 +1,558 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+
+/**
+ * Fraction with {@code int} numerator and denominator, packed into a single {@code long}. Fraction is always
+ * kept in lowest terms, and the denominator is always positive. Fraction is immutable.<br>
+ * <br>
+ * The numerator is stored in the high 32 bits, and the denominator minus one in the low 32 bits, so that
+ * {@code 0L} is the packed value of 0/1 and a newly allocated {@code long[]} holds valid zeros. The static methods
+ * of this class, such as {@link #add(long, long)}, work directly on these packed values, so that fractions
+ * can be stored in a {@code long[]} and operated on without allocating any objects. The instance methods
+ * wrap the same operations for code that wants an object.<br>
+ * <br>
+ * All intermediate products are computed in 64 bits, so they can't overflow before the result is reduced.
+ * Only results which do not fit in an IntFraction after reduction throw an ArithmeticException.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class IntFraction extends Number implements Comparable<Number>
+{
+  private static final long serialVersionUID = 1L; //because Number is Serializable
+  private final long bits;
+  
+  /** Packed value of 0/1. */
+  public final static long ZERO_BITS = 0L;
+  /** Packed value of 1/1. */
+  public final static long ONE_BITS = 1L << 32;
+  
+  /** The value 0/1. */
+  public final static IntFraction ZERO = new IntFraction(ZERO_BITS);
+  /** The value 1/1. */
+  public final static IntFraction ONE = new IntFraction(ONE_BITS);
+  
+  private IntFraction(long bits)
+  {
+    this.bits = bits;
+  }
+  
+  /**
+   * Returns an IntFraction equal to numerator/denominator, reduced to lowest terms.
+   *
+   * @param numerator numerator
+   * @param denominator denominator
+   * @return numerator/denominator
+   *
+   * @throws ArithmeticException if denominator == 0, or if the result does not fit (only possible when
+   *                             Integer.MIN_VALUE is negated).
+   */
+  public static IntFraction valueOf(int numerator, int denominator)
+  {
+    return new IntFraction(pack(numerator, denominator));
+  }
+  
+  /**
+   * Returns an IntFraction equal to n.
+   *
+   * @param n value
+   * @return n/1
+   */
+  public static IntFraction valueOf(int n)
+  {
+    return new IntFraction((long)n << 32);
+  }
+  
+  /**
+   * Returns the IntFraction represented by the given packed value.
+   *
+   * @param bits packed value, as returned by {@link #toBits()} or the static methods of this class
+   * @return fraction with the given packed value
+   *
+   * @throws IllegalArgumentException if bits is not a valid packed value: the denominator must be positive,
+   *                                  and the fraction must be in lowest terms.
+   */
+  public static IntFraction fromBits(long bits)
+  {
+    if(denominator(bits) <= 0 || pack(numerator(bits), denominator(bits)) != bits)
+      throw new IllegalArgumentException("Invalid packed fraction: " + Long.toHexString(bits));
+    return new IntFraction(bits);
+  }
+  
+  /**
+   * Returns the packed value of this fraction.
+   * @return packed value of this fraction
+   */
+  public long toBits()
+  {
+    return bits;
+  }
+  
+  /**
+   * Returns the numerator of this fraction.
+   * @return numerator of this fraction
+   */
+  public int getNumerator()
+  {
+    return numerator(bits);
+  }
+  
+  /**
+   * Returns the denominator of this fraction. It is always positive.
+   * @return denominator of this fraction
+   */
+  public int getDenominator()
+  {
+    return denominator(bits);
+  }
+  
+  /**
+   * Returns this + f.
+   *
+   * @param f number to be added to this
+   * @return this + f
+   * @throws ArithmeticException if the result does not fit in an IntFraction.
+   */
+  public IntFraction add(IntFraction f)
+  {
+    return new IntFraction(add(bits, f.bits));
+  }
+  
+  /**
+   * Returns this - f.
+   *
+   * @param f number to be subtracted from this
+   * @return this - f
+   * @throws ArithmeticException if the result does not fit in an IntFraction.
+   */
+  public IntFraction subtract(IntFraction f)
+  {
+    return new IntFraction(subtract(bits, f.bits));
+  }
+  
+  /**
+   * Returns this * f.
+   *
+   * @param f number to be multiplied by this
+   * @return this * f
+   * @throws ArithmeticException if the result does not fit in an IntFraction.
+   */
+  public IntFraction multiply(IntFraction f)
+  {
+    return new IntFraction(multiply(bits, f.bits));
+  }
+  
+  /**
+   * Returns this / f.
+   *
+   * @param f number to divide this by (divisor)
+   * @return this / f
+   * @throws ArithmeticException if f == 0, or if the result does not fit in an IntFraction.
+   */
+  public IntFraction divide(IntFraction f)
+  {
+    return new IntFraction(divide(bits, f.bits));
+  }
+  
+  /**
+   * Returns -this.
+   *
+   * @return -this
+   * @throws ArithmeticException if the numerator is Integer.MIN_VALUE.
+   */
+  public IntFraction negate()
+  {
+    return new IntFraction(negate(bits));
+  }
+  
+  /**
+   * Returns -1, 0, or 1, representing the sign of this fraction.
+   * @return -1, 0, or 1, representing the sign of this fraction
+   */
+  public int signum()
+  {
+    return signum(bits);
+  }
+  
+  /**
+   * Returns this fraction as a LongFraction.
+   * @return this fraction as a LongFraction
+   */
+  public LongFraction toLongFraction()
+  {
+    return LongFraction.valueOfReduced(numerator(bits), denominator(bits));
+  }
+  
+  /**
+   * Returns a string representation of this, in the form
+   * numerator/denominator.
+   *
+   * @return string representation of this, in the form numerator/denominator.
+   */
+  @Override
+  public String toString()
+  {
+    return toString(bits);
+  }
+  
+  /**
+   * Returns if this object is equal to another object. In order to maintain symmetry,
+   * this will <b>only</b> return true if the other object is an IntFraction.
+   *
+   * @param o Object to compare to this
+   * @return true if {@code o instanceof IntFraction} and is equal to this.
+   */
+  @Override
+  public boolean equals(Object o)
+  {
+    return (o instanceof IntFraction) && ((IntFraction)o).bits == bits;
+  }
+  
+  /**
+   * Returns a hash code for this object.
+   * @return hash code for this object.
+   */
+  @Override
+  public int hashCode()
+  {
+    return Long.hashCode(bits);
+  }
+  
+  /**
+   * Returns a negative, zero, or positive number, indicating if this object
+   * is less than, equal to, or greater than n, respectively.
+   *
+   * @param n number to compare this to
+   * @return integer indicating how this compares to given number
+   * @throws IllegalArgumentException if n is null
+   */
+  @Override
+  public int compareTo(Number n)
+  {
+    if(n instanceof IntFraction)
+      return compare(bits, ((IntFraction)n).bits);
+    return BigFraction.valueOf(this).compareTo(n);
+  }
+  
+  /**
+   * Returns an int representation of this fraction. This value is
+   * obtained by integer division of numerator by denominator.
+   *
+   * @return int representation of this fraction
+   */
+  @Override
+  public int intValue()
+  {
+    return numerator(bits) / denominator(bits);
+  }
+  
+  /**
+   * Returns a long representation of this fraction. This value is
+   * obtained by integer division of numerator by denominator.
+   *
+   * @return long representation of this fraction
+   */
+  @Override
+  public long longValue()
+  {
+    return numerator(bits) / denominator(bits);
+  }
+  
+  /**
+   * Returns the value of this fraction, correctly rounded.
+   *
+   * @return float representation of this fraction
+   */
+  @Override
+  public float floatValue()
+  {
+    //(float)doubleValue() could round twice
+    return toLongFraction().floatValue();
+  }
+  
+  /**
+   * Returns the value of this fraction, correctly rounded.
+   *
+   * @return double representation of this fraction
+   */
+  @Override
+  public double doubleValue()
+  {
+    return doubleValue(bits);
+  }
+  
+  //--------------------------------------------------------------------------
+  //  OPERATIONS ON PACKED VALUES
+  //--------------------------------------------------------------------------
+  
+  /**
+   * Returns the packed value of numerator/denominator, reduced to lowest terms.
+   *
+   * @param numerator numerator
+   * @param denominator denominator
+   * @return packed value of numerator/denominator
+   *
+   * @throws ArithmeticException if denominator == 0, or if the result does not fit (only possible when
+   *                             Integer.MIN_VALUE is negated).
+   */
+  public static long pack(int numerator, int denominator)
+  {
+    if(denominator == 0)
+      throw new ArithmeticException("Divide by zero: fraction denominator is zero.");
+    if(numerator == 0)
+      return ZERO_BITS;
+    
+    long g = gcd(Math.abs(numerator), Math.abs(denominator));
+    long n = numerator / g;
+    long d = denominator / g;
+    if(d < 0L)
+    {
+      n = -n;
+      d = -d;
+    }
+    return checkedPack(n, d);
+  }
+  
+  /**
+   * Returns the numerator of a packed fraction.
+   *
+   * @param bits packed fraction
+   * @return numerator
+   */
+  public static int numerator(long bits)
+  {
+    return (int)(bits >> 32);
+  }
+  
+  /**
+   * Returns the denominator of a packed fraction.
+   *
+   * @param bits packed fraction
+   * @return denominator
+   */
+  public static int denominator(long bits)
+  {
+    return (int)bits + 1;
+  }
+  
+  /**
+   * Returns a + b, for packed fractions a and b.
+   *
+   * @param a packed fraction
+   * @param b packed fraction
+   * @return packed value of a + b
+   * @throws ArithmeticException if the result does not fit in an IntFraction.
+   */
+  public static long add(long a, long b)
+  {
+    return sumImpl(numerator(a), denominator(a), numerator(b), denominator(b), false);
+  }
+  
+  /**
+   * Returns a - b, for packed fractions a and b.
+   *
+   * @param a packed fraction
+   * @param b packed fraction
+   * @return packed value of a - b
+   * @throws ArithmeticException if the result does not fit in an IntFraction.
+   */
+  public static long subtract(long a, long b)
+  {
+    return sumImpl(numerator(a), denominator(a), numerator(b), denominator(b), true);
+  }
+  
+  /**
+   * Returns a * b, for packed fractions a and b.
+   *
+   * @param a packed fraction
+   * @param b packed fraction
+   * @return packed value of a * b
+   * @throws ArithmeticException if the result does not fit in an IntFraction.
+   */
+  public static long multiply(long a, long b)
+  {
+    return multiplyImpl(numerator(a), denominator(a), numerator(b), denominator(b));
+  }
+  
+  /**
+   * Returns a / b, for packed fractions a and b.
+   *
+   * @param a packed fraction
+   * @param b packed fraction
+   * @return packed value of a / b
+   * @throws ArithmeticException if b == 0, or if the result does not fit in an IntFraction.
+   */
+  public static long divide(long a, long b)
+  {
+    long n2 = numerator(b);
+    if(n2 == 0L)
+      throw new ArithmeticException("Divide by zero");
+    
+    //(n1/d1)/(n2/d2) = (n1/d1)*(d2/n2). Keep the denominator of the reciprocal positive.
+    long d2 = denominator(b);
+    return (n2 > 0L ? multiplyImpl(numerator(a), denominator(a), d2, n2) : multiplyImpl(numerator(a), denominator(a), -d2, -n2));
+  }
+  
+  /**
+   * Returns -a, for packed fraction a.
+   *
+   * @param a packed fraction
+   * @return packed value of -a
+   * @throws ArithmeticException if the numerator is Integer.MIN_VALUE.
+   */
+  public static long negate(long a)
+  {
+    return checkedPack(-(long)numerator(a), denominator(a));
+  }
+  
+  /**
+   * Returns -1, 0, or 1, representing the sign of packed fraction a.
+   *
+   * @param a packed fraction
+   * @return -1, 0, or 1, representing the sign of a
+   */
+  public static int signum(long a)
+  {
+    return Integer.signum(numerator(a));
+  }
+  
+  /**
+   * Compares packed fractions a and b. Returns a negative number, zero, or a positive number if a is less
+   * than, equal to, or greater than b, respectively.
+   *
+   * @param a packed fraction
+   * @param b packed fraction
+   * @return integer indicating how a compares to b
+   */
+  public static int compare(long a, long b)
+  {
+    //n1/d1 < n2/d2 iff n1*d2 < n2*d1, since denominators are positive. Products fit in a long.
+    return Long.compare((long)numerator(a) * denominator(b), (long)numerator(b) * denominator(a));
+  }
+  
+  /**
+   * Returns the value of packed fraction a as a double, correctly rounded.
+   *
+   * @param a packed fraction
+   * @return value of a
+   */
+  public static double doubleValue(long a)
+  {
+    //both values are exact doubles, and IEEE division is correctly rounded
+    return (double)numerator(a) / (double)denominator(a);
+  }
+  
+  /**
+   * Returns a string representation of packed fraction a, in the form numerator/denominator.
+   *
+   * @param a packed fraction
+   * @return string representation of a
+   */
+  public static String toString(long a)
+  {
+    return numerator(a) + "/" + denominator(a);
+  }
+  
+  //--------------------------------------------------------------------------
+  //  PRIVATE FUNCTIONS
+  //--------------------------------------------------------------------------
+  
+  /**
+   * Packs n/d, which must already be in lowest terms with d positive. Throws ArithmeticException if
+   * either value does not fit in an int.
+   */
+  private static long checkedPack(long n, long d)
+  {
+    if(n < Integer.MIN_VALUE || n > Integer.MAX_VALUE || d > Integer.MAX_VALUE)
+      throw new ArithmeticException("Integer Overflow");
+    return (n << 32) | (d - 1L);
+  }
+  
+  /**
+   * Implementation of add() and subtract(). Assumes both fractions are reduced, with positive denominators.
+   */
+  private static long sumImpl(int n1, int d1, int n2, int d2, boolean subtract)
+  {
+    //Same approach as LongFraction, from Knuth, TAOCP vol. 2, section 4.5.1. With g = gcd(d1, d2):
+    //  n1/d1 + n2/d2 = t/(d1*(d2/g)), where t = n1*(d2/g) + n2*(d1/g)
+    //and then gcd(t, d1*(d2/g)) == gcd(t, g), so we only need gcds of 32-bit values. t is less than
+    //2^63 in magnitude, so it can't overflow.
+    long g = gcd(d1, d2);
+    long s1 = d2 / g;
+    long s2 = d1 / g;
+    long t = (subtract ? n1 * s1 - n2 * s2 : n1 * s1 + n2 * s2);
+    if(t == 0L)
+      return ZERO_BITS;
+    if(g == 1L)
+      return checkedPack(t, d1 * s1);
+    
+    long g2 = gcd((int)Math.abs(t % g), (int)g);
+    return checkedPack(t / g2, s2 * (d2 / g2));
+  }
+  
+  /**
+   * Implementation of multiply() and divide(). Returns (n1/d1) * (n2/d2). Assumes both fractions are reduced,
+   * with positive denominators. Magnitudes may be up to 2^31, which happens when dividing by a fraction with a
+   * numerator of Integer.MIN_VALUE.
+   */
+  private static long multiplyImpl(long n1, long d1, long n2, long d2)
+  {
+    if(n1 == 0L || n2 == 0L)
+      return ZERO_BITS;
+    
+    //cancel common factors before multiplying, so the result is already in lowest terms:
+    //  (n1/d1)*(n2/d2) = ((n1/g1)*(n2/g2)) / ((d1/g2)*(d2/g1)), where g1 = gcd(n1, d2), g2 = gcd(n2, d1)
+    //Each product is at most 2^62, so they can't overflow.
+    long g1 = gcd((int)Math.abs(n1), (int)d2);
+    long g2 = gcd((int)Math.abs(n2), (int)d1);
+    return checkedPack((n1 / g1) * (n2 / g2), (d1 / g2) * (d2 / g1));
+  }
+  
+  /**
+   * Checks the packed value read from a stream, so that a stream cannot create a fraction which is not in
+   * lowest terms or has a non-positive denominator.
+   */
+  private Object readResolve() throws ObjectStreamException
+  {
+    try
+    {
+      return fromBits(bits);
+    }
+    catch(IllegalArgumentException e)
+    {
+      throw new InvalidObjectException(e.getMessage());
+    }
+  }
+  
+  /**
+   * Computes gcd of a and b, which are treated as unsigned 32-bit values (so Integer.MIN_VALUE represents 2^31),
+   * using the binary GCD algorithm. The result is returned as a long, since it can be 2^31.
+   */
+  private static long gcd(int a, int b)
+  {
+    if(a == 0)
+      return Integer.toUnsignedLong(b);
+    if(b == 0)
+      return Integer.toUnsignedLong(a);
+    
+    //same as LongFraction.gcd(), but on ints. After shifting out the factors of two, both values are
+    //odd and less than 2^31, so signed comparison is safe.
+    int shift = Integer.numberOfTrailingZeros(a | b);
+    a >>>= Integer.numberOfTrailingZeros(a);
+    do
+    {
+      b >>>= Integer.numberOfTrailingZeros(b);
+      if(a > b)
+      {
+        int tmp = a;
+        a = b;
+        b = tmp;
+      }
+      b -= a;
+    }
+    while(b != 0);
+    
+    return Integer.toUnsignedLong(a) << shift;
+  }
+}
@@ -1,8 +1,9 @@
 package com.github.kiprobinson.bigfraction;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.math.*;
 import java.util.*;
-import java.util.concurrent.atomic.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,7 +19,9 @@ import com.github.kiprobinson.bigfraction.util.DoubleUtil;
  * Because mathematical operations are done natively, they will perform
  * much better than with {@link BigFraction}, but with the risk of overflow.<br>
  * <br>
- * Any operations that overflow throw an ArithmeticException.
+ * Any operations that overflow throw an ArithmeticException. For code that has a fallback for
+ * overflow, {@link #tryAdd(LongFraction)}, {@link #trySubtract(LongFraction)}, {@link #tryMultiply(LongFraction)},
+ * and {@link #tryDivide(LongFraction)} return null instead of throwing.
  * 
  * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
  */
@@ -31,6 +34,35 @@ public final class LongFraction extends Number implements Comparable<Number>
   //some constants used
   private final static BigInteger BIGINT_FIVE = BigInteger.valueOf(5);
   
+  /** 10^0 through 10^18, which is the largest power of ten that fits in a long. */
+  private final static long[] LONG_POWERS_OF_TEN = {
+    1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L,
+    100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L, 10000000000000000L,
+    100000000000000000L, 1000000000000000000L,
+  };
+  
+  /** 5^0 through 5^27, which is the largest power of five that fits in a long. */
+  private final static long[] LONG_POWERS_OF_FIVE = new long[28];
+  static {
+    LONG_POWERS_OF_FIVE[0] = 1L;
+    for(int i = 1; i < LONG_POWERS_OF_FIVE.length; i++)
+      LONG_POWERS_OF_FIVE[i] = LONG_POWERS_OF_FIVE[i-1] * 5L;
+  }
+  
+  /** For each radix, the largest number of digits k such that radix^k fits in a long. Any k-digit number fits. */
+  private final static int[] LONG_DIGITS_BY_RADIX = new int[Character.MAX_RADIX + 1];
+  static {
+    for(int radix = Character.MIN_RADIX; radix <= Character.MAX_RADIX; radix++)
+    {
+      long pow = 1L;
+      while(pow <= Long.MAX_VALUE / radix)
+      {
+        pow *= radix;
+        LONG_DIGITS_BY_RADIX[radix]++;
+      }
+    }
+  }
+  
   /** The value 0/1. */
   public final static LongFraction ZERO = new LongFraction(0L, 1L, Reduced.YES);
   /** The value 1/1. */
@@ -135,16 +167,25 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null parameter.");
     
-    if(n instanceof LongFraction)
-      return (LongFraction)n;
-    else if(n instanceof BigFraction)
-      return new LongFraction(((BigFraction)n).getNumerator().longValueExact(), ((BigFraction)n).getDenominator().longValueExact(), Reduced.YES);
-    else if(isInt(n))
-      return new LongFraction(toLong(n), 1L, Reduced.YES);
-    else if(n instanceof BigDecimal)
-      return valueOfHelper((BigDecimal)n);
-    else
-      return valueOfHelper(n.doubleValue());
+    switch(NumberType.of(n))
+    {
+      case LONG_FRACTION:
+        return (LongFraction)n;
+      case BIG_FRACTION:
+        return new LongFraction(((BigFraction)n).getNumerator().longValueExact(), ((BigFraction)n).getDenominator().longValueExact(), Reduced.YES);
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).toLongFraction();
+      case INT_FRACTION:
+        return ((IntFraction)n).toLongFraction();
+      case LONG:
+        return new LongFraction(n.longValue(), 1L, Reduced.YES);
+      case BIG_INTEGER:
+        return new LongFraction(((BigInteger)n).longValueExact(), 1L, Reduced.YES);
+      case BIG_DECIMAL:
+        return valueOfHelper((BigDecimal)n);
+      default:
+        return valueOfHelper(n.doubleValue());
+    }
   }
   
   /**
@@ -182,18 +223,21 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(denominator == null)
       throw new IllegalArgumentException("Denominator is null.");
     
-    if(isInt(numerator) && isInt(denominator))
-      return new LongFraction(toLong(numerator), toLong(denominator), Reduced.NO);
-    else if(isFloat(numerator) && isFloat(denominator))
+    final NumberType numType = NumberType.of(numerator);
+    final NumberType denType = NumberType.of(denominator);
+    
+    if(isInt(numerator, numType) && isInt(denominator, denType))
+      return new LongFraction(toLong(numerator, numType), toLong(denominator, denType), Reduced.NO);
+    else if(numType == NumberType.FLOAT && denType == NumberType.FLOAT)
       return valueOfHelper(numerator.doubleValue(), denominator.doubleValue());
-    else if(numerator instanceof BigDecimal && denominator instanceof BigDecimal)
+    else if(numType == NumberType.BIG_DECIMAL && denType == NumberType.BIG_DECIMAL)
       return valueOfHelper((BigDecimal)numerator, (BigDecimal)denominator);
     
     //else: convert numerator and denominator to fractions, and divide
     //(n1/d1)/(n2/d2) = (n1*d2)/(d1*n2)
     LongFraction f1 = valueOf(numerator);
     LongFraction f2 = valueOf(denominator);
-    return new LongFraction(mulAndCheck(f1.numerator, f2.denominator), mulAndCheck(f1.denominator, f2.numerator), Reduced.NO);
+    return new LongFraction(Math.multiplyExact(f1.numerator, f2.denominator), Math.multiplyExact(f1.denominator, f2.numerator), Reduced.NO);
   }
   
   
@@ -278,6 +322,11 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(radix < Character.MIN_RADIX || radix > Character.MAX_RADIX)
       radix = 10;
     
+    //common case: plain digits with an optional radix point, which can be parsed directly into longs
+    LongFraction plain = parsePlain(s, radix);
+    if(plain != null)
+      return plain;
+    
     String num = null;
     String den = null;
     
@@ -342,21 +391,22 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null argument");
     
-    if(isInt(n))
+    final NumberType type = NumberType.of(n);
+    LongFraction ret;
+    if(isInt(n, type))
     {
       //n1/d1 + n2 = (n1 + d1*n2)/d1
-      return new LongFraction(addAndCheck(numerator, mulAndCheck(denominator, toLong(n))),
-                             denominator, Reduced.YES);
+      ret = sumImpl(numerator, denominator, toLong(n, type), 1L, false);
     }
     else
     {
       LongFraction f = valueOf(n);
-      
-      //n1/d1 + n2/d2 = (n1*(lcm/d1) + n2*(lcm/d2))/lcm
-      long lcm = lcm(denominator, f.denominator);
-      return new LongFraction(addAndCheck(mulAndCheck(numerator, lcm/denominator), mulAndCheck(f.numerator, lcm/f.denominator)),
-                              lcm, Reduced.NO);
+      ret = sumImpl(numerator, denominator, f.numerator, f.denominator, false);
     }
+    
+    if(ret == null)
+      throw new ArithmeticException("Integer Overflow");
+    return ret;
   }
   
   /**
@@ -387,21 +437,22 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null argument");
     
-    if(isInt(n))
+    final NumberType type = NumberType.of(n);
+    LongFraction ret;
+    if(isInt(n, type))
     {
       //n1/d1 - n2 = (n1 - d1*n2)/d1
-      return new LongFraction(subAndCheck(numerator, mulAndCheck(denominator, toLong(n))),
-                             denominator, Reduced.YES);
+      ret = sumImpl(numerator, denominator, toLong(n, type), 1L, true);
     }
     else
     {
       LongFraction f = valueOf(n);
-      
-      //n1/d1 - n2/d2 = (n1*(lcm/d1) - n2*(lcm/d2))/lcm
-      long lcm = lcm(denominator, f.denominator);
-      return new LongFraction(subAndCheck(mulAndCheck(numerator, lcm/denominator), mulAndCheck(f.numerator, lcm/f.denominator)),
-                              lcm, Reduced.NO);
+      ret = sumImpl(numerator, denominator, f.numerator, f.denominator, true);
     }
+    
+    if(ret == null)
+      throw new ArithmeticException("Integer Overflow");
+    return ret;
   }
   
   /**
@@ -420,21 +471,22 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(n == null)
       throw new IllegalArgumentException("Null argument");
     
-    if(isInt(n))
+    final NumberType type = NumberType.of(n);
+    LongFraction ret;
+    if(isInt(n, type))
     {
       //n1 - n2/d2 = (d2*n1 - n2)/d2
-      return new LongFraction(subAndCheck(mulAndCheck(denominator, toLong(n)), numerator),
-                             denominator, Reduced.YES);
+      ret = sumImpl(toLong(n, type), 1L, numerator, denominator, true);
     }
     else
     {
       LongFraction f = valueOf(n);
-      
-      //n1/d1 - n2/d2 = (n1*(lcm/d1) - n2*(lcm/d2))/lcm
-      long lcm = lcm(denominator, f.denominator);
-      return new LongFraction(subAndCheck(mulAndCheck(f.numerator, lcm/f.denominator), mulAndCheck(numerator, lcm/denominator)),
-                              lcm, Reduced.NO);
+      ret = sumImpl(f.numerator, f.denominator, numerator, denominator, true);
     }
+    
+    if(ret == null)
+      throw new ArithmeticException("Integer Overflow");
+    return ret;
   }
   
   /**
@@ -476,7 +528,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     long gcd2 = gcd(n2, d1);
     n2 /= gcd2;
     d1 /= gcd2;
-    return new LongFraction(mulAndCheck(n1, n2), mulAndCheck(d1, d2), Reduced.YES);
+    return new LongFraction(Math.multiplyExact(n1, n2), Math.multiplyExact(d1, d2), Reduced.YES);
   }
   
   /**
@@ -547,6 +599,89 @@ public final class LongFraction extends Number implements Comparable<Number>
     return valueOf(a, b);
   }
   
+  /**
+   * Returns this + f, or null if the computation overflows. This is the same as
+   * {@link #add(Number)}, except that overflow is signaled by returning null rather than by throwing an
+   * ArithmeticException, which is much cheaper for code that handles overflow by falling back to another
+   * representation (such as BigFraction).
+   * 
+   * @param f number to be added to this
+   * @return this + f, or null on overflow
+   * @throws IllegalArgumentException if f is null.
+   */
+  public LongFraction tryAdd(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    return sumImpl(numerator, denominator, f.numerator, f.denominator, false);
+  }
+  
+  /**
+   * Returns this - f, or null if the computation overflows. This is the same as
+   * {@link #subtract(Number)}, except that overflow is signaled by returning null rather than by throwing an
+   * ArithmeticException.
+   * 
+   * @param f number to be subtracted from this
+   * @return this - f, or null on overflow
+   * @throws IllegalArgumentException if f is null.
+   */
+  public LongFraction trySubtract(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    return sumImpl(numerator, denominator, f.numerator, f.denominator, true);
+  }
+  
+  /**
+   * Returns this * f, or null if the computation overflows. This is the same as
+   * {@link #multiply(Number)}, except that overflow is signaled by returning null rather than by throwing an
+   * ArithmeticException.
+   * 
+   * @param f number to be multiplied by this
+   * @return this * f, or null on overflow
+   * @throws IllegalArgumentException if f is null.
+   */
+  public LongFraction tryMultiply(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    return tryMultiplyImpl(numerator, denominator, f.numerator, f.denominator);
+  }
+  
+  /**
+   * Returns this / f, or null if the computation overflows. This is the same as
+   * {@link #divide(Number)}, except that overflow is signaled by returning null rather than by throwing an
+   * ArithmeticException.
+   * 
+   * @param f number to divide this by (divisor)
+   * @return this / f, or null on overflow
+   * @throws IllegalArgumentException if f is null.
+   * @throws ArithmeticException if f == 0.
+   */
+  public LongFraction tryDivide(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    if(f.numerator == 0L)
+      throw new ArithmeticException("Divide by zero");
+    
+    //(n1/d1)/(n2/d2) = (n1/d1)*(d2/n2). Keep the denominator of the reciprocal positive.
+    if(f.numerator > 0L)
+      return tryMultiplyImpl(numerator, denominator, f.denominator, f.numerator);
+    if(f.numerator != Long.MIN_VALUE)
+      return tryMultiplyImpl(numerator, denominator, -f.denominator, -f.numerator);
+    
+    //reciprocal has a denominator of 2^63, which can't be represented, but the result may still fit after
+    //reducing. This is rare enough that it's not worth handling specially.
+    BigFraction q = BigFraction.valueOf(this).divide(f);
+    if(q.getNumerator().bitLength() > 63 || q.getDenominator().bitLength() > 63)
+      return null;
+    return new LongFraction(q.getNumerator().longValue(), q.getDenominator().longValue(), Reduced.YES);
+  }
+  
   
   /**
    * Divides to an integral value, using {@link DivisionMode#TRUNCATED} division mode.
@@ -674,16 +809,45 @@ public final class LongFraction extends Number implements Comparable<Number>
     LongFraction a = valueOf(na);
     LongFraction b = valueOf(nb);
     
-    //TODO: Compute gcd and reduce before multiplying, to reduce chance of overflow?
-    
     //First calculate true a/b value. We don't care about reducing to lowest terms
-    //yet, so calculate numerator and denominator separately:
-    //  a/b = (a.n/a.d)/(b.n/b.d) = (a.n/a.d)*(b.d/b.n) = (a.n*b.d)/(a.d*b.n)
+    //yet, but we do cancel out some common factors first, to keep the values smaller:
+    //  a/b = (a.n/a.d)/(b.n/b.d) = (a.n*b.d)/(a.d*b.n) = ((a.n/g1)*(b.d/g2))/((a.d/g2)*(b.n/g1))
+    //where g1 = gcd(a.n, b.n), and g2 = gcd(a.d, b.d). (Actually any common factors will do.)
+    //The products are computed as 128-bit values, so they can't overflow.
     //also worth noting: sign(a)==sign(num), sign(b)==sign(den)
-    long num = mulAndCheck(a.numerator, b.denominator);
-    long den = mulAndCheck(a.denominator, b.numerator);
+    long g1 = (a.numerator == Long.MIN_VALUE && b.numerator == Long.MIN_VALUE ? 1L << 62 : gcd(a.numerator, b.numerator));
+    long g2 = gcd(a.denominator, b.denominator);
+    long an = a.numerator / g1, bn = b.numerator / g1;
+    long ad = a.denominator / g2, bd = b.denominator / g2;
+    
+    long numHi = LongMath.multiplyHigh(an, bd), numLo = an * bd;
+    long denHi = LongMath.multiplyHigh(ad, bn), denLo = ad * bn;
+    
+    //Truncated division gives us values q,r such that:  num/den = q + r/den
+    long qHi, qLo, rHi, rLo;
+    if(LongMath.fitsInLong(numHi, numLo) && LongMath.fitsInLong(denHi, denLo) && !(numLo == Long.MIN_VALUE && denLo == -1L))
+    {
+      //common case: everything fits in a long
+      qLo = numLo / denLo;
+      rLo = numLo % denLo;
+      qHi = qLo >> 63;
+      rHi = rLo >> 63;
+    }
+    else
+    {
+      long[] qr = new long[4];
+      LongMath.divideAndRemainder128(numHi, numLo, denHi, denLo, qr);
+      qHi = qr[0];
+      qLo = qr[1];
+      rHi = qr[2];
+      rLo = qr[3];
+    }
+    
+    //if the remainder is 0, we don't do any adjustments, and we already know the remainder will
+    //be zero, so go ahead and return this.
+    if(rHi == 0L && rLo == 0L)
+      return divideAndRemainderReturner(quotientToLong(qHi, qLo, remainderMode), LongFraction.ZERO, remainderMode);
     
-    //BigInteger.divideAndRemainder() uses TRUNCATED division to give us values q,r such that:  num/den = q + r/den
     //For other division modes, we may need to adjust q,r to new values q',r'. If we adjust q by adjustment x, i.e. q'=q+x, then:
     //  q + r/den = q' + r'/den
     //  q + r/den = q + x + r'/den
@@ -691,13 +855,19 @@ public final class LongFraction extends Number implements Comparable<Number>
     //     r'/den = r/den - x
     //         r' = r - x*den
     //In actuality, x will either be -1, 0, or 1.
-    long adjustment = 0L;
-    if(divisionMode == DivisionMode.FLOORED && ((num < 0L || den < 0L) && signum(num) != signum(den)))
+    boolean numNeg = (numHi < 0L);
+    boolean denNeg = (denHi < 0L);
+    if(divisionMode == DivisionMode.FLOORED && numNeg != denNeg)
     {
       //floor is equivalent to truncation for positive quotient, but for negative quotient we have to subtract one
-      adjustment = -1L;
+      //q' = q + (-1), r' = r - (-1)*den
+      qHi += (qLo == 0L ? -1L : 0L);
+      qLo -= 1L;
+      long lo = rLo + denLo;
+      rHi = rHi + denHi + (Long.compareUnsigned(lo, rLo) < 0 ? 1L : 0L);
+      rLo = lo;
     }
-    else if(divisionMode == DivisionMode.EUCLIDEAN && num < 0L)
+    else if(divisionMode == DivisionMode.EUCLIDEAN && numNeg)
     {
       //Euclidean division picks a quotient to ensure the remainder is always positive.
       // *  b > 0: q = floor(a/b)
@@ -709,50 +879,24 @@ public final class LongFraction extends Number implements Comparable<Number>
       //   + / -: -  =>  ciel(q)  == trunc(q)
       //   - / +: -  =>  floor(q) == trunc(q) - 1  **modification required
       //   - / -: +  =>  ciel(q)  == trunc(q) + 1  **modification required
-      if(den > 0L)
-        adjustment = -1L;
+      if(!denNeg)
+      {
+        //q' = q + (-1), r' = r - (-1)*den
+        qHi += (qLo == 0L ? -1L : 0L);
+        qLo -= 1L;
+        long lo = rLo + denLo;
+        rHi = rHi + denHi + (Long.compareUnsigned(lo, rLo) < 0 ? 1L : 0L);
+        rLo = lo;
+      }
       else
-        adjustment = 1L;
-    }
-    
-    
-    //we may only need one or the other of q,r. Only compute the ones that we need.
-    Long q=null, r=null;
-    if(remainderMode == RemainderMode.REMAINDER)
-    {
-      //if we are in remainder mode, we never care about the quotient
-      r = num % den;
-    }
-    else if(adjustment == 0L && remainderMode == RemainderMode.QUOTIENT)
-    {
-      //in quotient mode, if we have an adjustment we have to get both quotient and remainder, because we cancel the adjustment if the
-      //remainder is 0. But if adjustment is already 0, we can get only the quotient.
-      q = num / den;
-    }
-    else
-    {
-      q = num / den;
-      r = num % den;
-    }
-    
-    //if the remainder is 0, we don't do any adjustments, and we already know the remainder will
-    //be zero, so go ahead and return this.
-    if(isZero(r))
-      return divideAndRemainderReturner(q, LongFraction.ZERO, remainderMode); //or could do: adjustment=0
-    
-    //avoid doing unnecessary math... at this point if we got both q and r, but only need q, we can drop r.
-    if(r != null && remainderMode == RemainderMode.QUOTIENT)
-      r = null;
-    
-    if(adjustment == -1L)
-    {
-      q = (q == null ? null : addAndCheck(q, -1L));  //q' = q + (-1)
-      r = (r == null ? null : addAndCheck(r, den));  //r' = r - (-1)*den
-    }
-    else if(adjustment == 1L)
-    {
-      q = (q == null ? null : addAndCheck(q, 1L));   //q' = q + (1)
-      r = (r == null ? null : subAndCheck(r, den));  //r' = r - (1)*den
+      {
+        //q' = q + 1, r' = r - (1)*den
+        qLo += 1L;
+        qHi += (qLo == 0L ? 1L : 0L);
+        long lo = rLo - denLo;
+        rHi = rHi - denHi - (Long.compareUnsigned(rLo, denLo) < 0 ? 1L : 0L);
+        rLo = lo;
+      }
     }
     
     //At this point we have:
@@ -760,11 +904,31 @@ public final class LongFraction extends Number implements Comparable<Number>
     //We want to compute q", r", such that:  a/b = q" + r"/b
     //We know that a/b = num/den, and q = q". So we are left with:
     //  (r"/b)=(r/den)
-    //  r" = r * b / den = (r * b.n)/(b.d * den)
-    
-    LongFraction rFract = (r == null ? null : new LongFraction(mulAndCheck(r, b.numerator), mulAndCheck(b.denominator, den), Reduced.NO));
+    //  r" = r * b / den = (r * b.n)/(b.d * den) = (r * g1)/(a.d * (b.d/g2))
+    //Because |r"| < |b|, the numerator r*g1 is less than 2^126 in magnitude, so it fits in 128 bits.
+    LongFraction rFract = null;
+    if(remainderMode != RemainderMode.QUOTIENT)
+    {
+      long lo = rLo * g1;
+      long hi = LongMath.unsignedMultiplyHigh(rLo, g1) + rHi * g1;
+      rFract = reduce128(hi, lo, a.denominator, bd);
+      if(rFract == null)
+        throw new ArithmeticException("Integer Overflow");
+    }
     
-    return divideAndRemainderReturner(q, rFract, remainderMode);
+    return divideAndRemainderReturner(quotientToLong(qHi, qLo, remainderMode), rFract, remainderMode);
+  }
+  
+  /**
+   * Helper method for divideAndRemainderImpl. Converts the 128-bit quotient to a long, if it is needed.
+   */
+  private static Long quotientToLong(long qHi, long qLo, RemainderMode remainderMode)
+  {
+    if(remainderMode == RemainderMode.REMAINDER)
+      return null;
+    if(!LongMath.fitsInLong(qHi, qLo))
+      throw new ArithmeticException("Integer Overflow");
+    return qLo;
   }
   
   /**
@@ -985,6 +1149,42 @@ public final class LongFraction extends Number implements Comparable<Number>
       return new LongFraction(powAndCheck(denominator, -exponent), powAndCheck(numerator, -exponent), Reduced.YES);
   }
   
+  /**
+   * Returns this^exponent, or null if the result overflows. This is the same as {@link #pow(int)}, except
+   * that overflow is signaled by returning null rather than by throwing an ArithmeticException.
+   * 
+   * @param exponent power to raise this fraction to.
+   * @return this^exponent, or null on overflow
+   * 
+   * @throws ArithmeticException if {@code this == 0 && exponent < 0}.
+   */
+  public LongFraction tryPow(int exponent)
+  {
+    if(exponent < 0 && numerator == 0L)
+      throw new ArithmeticException("Divide by zero: raising zero to negative exponent.");
+    
+    if(exponent == 0)
+      return LongFraction.ONE;
+    if(exponent == 1 || numerator == 0L)
+      return this;
+    
+    //neither base is zero, so a zero result means overflow. -Integer.MIN_VALUE is treated as unsigned.
+    long n = (exponent > 0 ? powOrZero(numerator, exponent) : powOrZero(denominator, -exponent));
+    long d = (exponent > 0 ? powOrZero(denominator, exponent) : powOrZero(numerator, -exponent));
+    if(n == 0L || d == 0L)
+      return null;
+    
+    //only possible for a negative exponent and a negative value: keep the denominator positive
+    if(d < 0L)
+    {
+      if(n == Long.MIN_VALUE || d == Long.MIN_VALUE)
+        return null;
+      n = -n;
+      d = -d;
+    }
+    return new LongFraction(n, d, Reduced.YES);
+  }
+  
   /**
    * Returns 1/this.
    * 
@@ -1009,7 +1209,7 @@ public final class LongFraction extends Number implements Comparable<Number>
   public LongFraction complement()
   {
     //1 - n/d == d/d - n/d == (d-n)/d
-    return new LongFraction(subAndCheck(denominator, numerator), denominator, Reduced.YES);
+    return new LongFraction(Math.subtractExact(denominator, numerator), denominator, Reduced.YES);
   }
   
   /**
@@ -1047,7 +1247,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     
     int thisSignum = signum();
     if((thisSignum < 0 && sgn > 0) || (thisSignum > 0 && sgn < 0))
-      return new LongFraction(negateAndCheck(numerator), denominator, Reduced.YES);
+      return new LongFraction(Math.negateExact(numerator), denominator, Reduced.YES);
     
     return this;
   }
@@ -1097,7 +1297,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     long iPart = numerator / denominator;
     
     if(numerator < 0L && divisionMode != DivisionMode.TRUNCATED)
-      iPart = addAndCheck(iPart, -1L);
+      iPart = Math.addExact(iPart, -1L);
     
     return iPart;
   }
@@ -1139,7 +1339,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     long fPart = numerator % denominator;
     
     if(numerator < 0L && divisionMode != DivisionMode.TRUNCATED)
-      fPart = addAndCheck(fPart, denominator);
+      fPart = Math.addExact(fPart, denominator);
     
     return new LongFraction(fPart, denominator, Reduced.YES);
   }
@@ -1207,8 +1407,8 @@ public final class LongFraction extends Number implements Comparable<Number>
     long fPart = numerator % denominator;
     
     if(numerator < 0L && divisionMode != DivisionMode.TRUNCATED) {
-      iPart = addAndCheck(iPart, -1L);
-      fPart = addAndCheck(fPart, denominator);
+      iPart = Math.addExact(iPart, -1L);
+      fPart = Math.addExact(fPart, denominator);
     }
     
     return new Number[]{iPart, new LongFraction(fPart, denominator, Reduced.YES)};
@@ -1308,9 +1508,9 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(roundingMode == RoundingMode.UP)
     {
       if (numerator > 0)
-        intVal = addAndCheck(intVal, 1L);
+        intVal = Math.addExact(intVal, 1L);
       else
-        intVal = addAndCheck(intVal, -1L);
+        intVal = Math.addExact(intVal, -1L);
     }
     
     return intVal;
@@ -1614,7 +1814,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(numFractionalDigits > 0)
     {
       //multiply by (radix)^(digits), then round to integer
-      long rounded = this.multiply(BigInteger.valueOf(radix).pow(numFractionalDigits)).round(roundingMode);
+      long rounded = roundScaled(radix, numFractionalDigits, roundingMode);
       
       //get the actual digits (ignoring the sign bit)
       String digits = Long.toString(Math.abs(rounded), radix);
@@ -1658,7 +1858,7 @@ public final class LongFraction extends Number implements Comparable<Number>
       //numFractionalDigits is negative. divide out the number of digits then round to integer
       int absFractionalDigits = -numFractionalDigits;
       
-      String rounded = Long.toString(this.divide(BigInteger.valueOf(radix).pow(absFractionalDigits)).round(roundingMode), radix);
+      String rounded = Long.toString(roundScaled(radix, numFractionalDigits, roundingMode), radix);
       
       //at this point, if we got 0, just return 0. No need to return something like "00000". if we have anything
       //other than 0, then we need to append as many 0s as abs(numFractionalDigits)
@@ -1674,6 +1874,128 @@ public final class LongFraction extends Number implements Comparable<Number>
     }
   }
   
+  /**
+   * Helper for toRadixedString(). Returns this * radix^scale, rounded to an integer. The result is computed
+   * with primitive long division, and rounded directly from the remainder.
+   * 
+   * @throws ArithmeticException if the result does not fit in a long, or if roundingMode is UNNECESSARY but
+   *                             rounding is required.
+   */
+  private long roundScaled(int radix, int scale, RoundingMode roundingMode)
+  {
+    if(numerator == 0L)
+      return 0L;
+    
+    //work with the magnitude. |Long.MIN_VALUE| is 2^63, which is fine as an unsigned value.
+    final boolean negative = (numerator < 0L);
+    final long d = denominator;
+    final long m = Math.abs(numerator);
+    final int maxDigits = LONG_DIGITS_BY_RADIX[radix];
+    long q = Long.divideUnsigned(m, d);
+    long r = m - q * d;
+    boolean exact;
+    int half;
+    if(scale > 0)
+    {
+      //long division, appending up to maxDigits digits at a time. Each chunk is (r*pow)/d, with r < d,
+      //so its quotient fits in 64 bits.
+      for(int remaining = scale; remaining > 0; remaining -= maxDigits)
+      {
+        long pow = powAndCheck(radix, Math.min(remaining, maxDigits));
+        long hi = LongMath.unsignedMultiplyHigh(r, pow);
+        long lo = r * pow;
+        long chunk = (hi == 0L ? Long.divideUnsigned(lo, d) : LongMath.divideUnsigned128(hi, lo, d));
+        r = lo - chunk * d;
+        
+        long qp = q * pow;
+        if(LongMath.unsignedMultiplyHigh(q, pow) != 0L || Long.compareUnsigned(qp + chunk, qp) < 0)
+          throw new ArithmeticException("Integer Overflow");
+        q = qp + chunk;
+      }
+      exact = (r == 0L);
+      half = Long.compareUnsigned(r, d - r); //r < d, so d - r doesn't overflow
+    }
+    else
+    {
+      //this/radix^k without forming d*radix^k: with m = q*d + r and q = q2*pow + r2, the remainder is r2*d + r.
+      //Comparing that to (d*pow)/2 is the same as checking the sign of (2*r2 - pow)*d + 2*r, where 0 <= r < d.
+      int absScale = -scale;
+      long t;
+      if(absScale <= maxDigits)
+      {
+        long pow = powAndCheck(radix, absScale);
+        long q2 = Long.divideUnsigned(q, pow);
+        long r2 = q - q2 * pow;
+        q = q2;
+        exact = (r2 == 0L && r == 0L);
+        t = 2L * r2 - pow; //r2 < pow <= Long.MAX_VALUE, so this doesn't overflow
+      }
+      else if((q >>> 62) == 0L)
+      {
+        //radix^k is more than Long.MAX_VALUE, which is more than 2*q + 1. Result is 0, and the discarded part is less than 1/2.
+        q = 0L;
+        exact = false;
+        t = -2L;
+      }
+      else
+      {
+        return this.divide(BigInteger.valueOf(radix).pow(absScale)).round(roundingMode);
+      }
+      
+      if(t == 0L)
+        half = (r == 0L ? 0 : 1);
+      else if(t == -1L)
+        half = Long.compareUnsigned(r, d - r);
+      else
+        half = Long.signum(t);
+    }
+    
+    //q is unsigned. 2^63 is only allowed if the result is negative.
+    if(Long.compareUnsigned(q, Long.MIN_VALUE) > 0)
+      throw new ArithmeticException("Integer Overflow");
+    if(!exact && roundsAwayFromZero(negative, (q & 1L) != 0L, half, roundingMode))
+      q++;
+    
+    if(q >= 0L)
+      return (negative ? -q : q);
+    if(q == Long.MIN_VALUE && negative)
+      return Long.MIN_VALUE;
+    throw new ArithmeticException("Integer Overflow");
+  }
+  
+  /**
+   * Returns true if an inexact magnitude should be rounded away from zero, rather than truncated, using the
+   * given rounding mode. half is negative, zero, or positive if the discarded fraction is less than, equal to,
+   * or greater than 1/2. odd indicates whether the truncated magnitude is odd, and negative indicates the sign
+   * of the actual value.
+   * 
+   * @throws ArithmeticException if roundingMode is UNNECESSARY.
+   */
+  private static boolean roundsAwayFromZero(boolean negative, boolean odd, int half, RoundingMode roundingMode)
+  {
+    switch(roundingMode)
+    {
+      case UP:
+        return true;
+      case DOWN:
+        return false;
+      case CEILING:
+        return !negative;
+      case FLOOR:
+        return negative;
+      case HALF_UP:
+        return half >= 0;
+      case HALF_DOWN:
+        return half > 0;
+      case HALF_EVEN:
+        return half > 0 || (half == 0 && odd);
+      case UNNECESSARY:
+        throw new ArithmeticException("Rounding necessary");
+      default:
+        throw new IllegalArgumentException("Unsupported rounding mode: " + roundingMode.toString());
+    }
+  }
+  
   /**
    * Converts the fraction to a radixed string with repeating digits. The
    * repeating digits are indicated by parenthesis: 1/9 becomes 0.(1)<br>
@@ -1800,7 +2122,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     while(dividend != 0L && !prevDividends.containsKey(dividend))
     {
       prevDividends.put(dividend, quotient.length());
-      dividend = mulAndCheck(dividend, radix); //same as appending a "0" in this base
+      dividend = Math.multiplyExact(dividend, radix); //same as appending a "0" in this base
       
       quotient.append(Character.forDigit((int)(dividend / denominator), radix));
       dividend = dividend % denominator;
@@ -1903,19 +2225,13 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(denominator == f.denominator)
       return Long.compare(numerator, f.numerator);
     
-    //to reduce possibility of overflow, first try comparing double values. This should work most
-    //of the time.
-    double q1 = this.doubleValue();
-    double q2 = f.doubleValue();
-    
-    if(q1 != q2 && Double.isFinite(q1) && Double.isFinite(q2))
-      return Double.compare(q1, q2);
-    
-    //we know this and f are not equal, but their double values were equal. That could possibly
-    //happen if the two fractions were close enough that they had the same double value--double
-    //only stores 53 bits of integer part
-    //TODO: try to find an example of this...
-    return this.subtract(f).signum();
+    //n1/d1 < n2/d2 iff n1*d2 < n2*d1 (denominators are positive). Compare the products as 128-bit values,
+    //so this is exact, and can't overflow: compare the high words as signed, then the low words as unsigned.
+    long hi1 = LongMath.multiplyHigh(numerator, f.denominator);
+    long hi2 = LongMath.multiplyHigh(f.numerator, denominator);
+    if(hi1 != hi2)
+      return (hi1 < hi2 ? -1 : 1);
+    return Long.compareUnsigned(numerator * f.denominator, f.numerator * denominator);
   }
   
   /**
@@ -1988,9 +2304,9 @@ public final class LongFraction extends Number implements Comparable<Number>
     {
       // a/1 + 1/b = ab/b + 1/b = (ab+1)/b
       if(fareyMode == FareyMode.NEXT)
-        return new LongFraction(addAndCheck(mulAndCheck(numerator, maxDenominator), 1L), maxDenominator, Reduced.YES);
+        return new LongFraction(Math.addExact(Math.multiplyExact(numerator, maxDenominator), 1L), maxDenominator, Reduced.YES);
       else if(fareyMode == FareyMode.PREV)
-        return new LongFraction(addAndCheck(mulAndCheck(numerator, maxDenominator), -1L), maxDenominator, Reduced.YES);
+        return new LongFraction(Math.addExact(Math.multiplyExact(numerator, maxDenominator), -1L), maxDenominator, Reduced.YES);
     }
     
     //For negatives, we call negate this then call the sequence on the opposite mode, then negate the result
@@ -2011,7 +2327,7 @@ public final class LongFraction extends Number implements Comparable<Number>
       LongFraction fPartSeq = new LongFraction(numerator % denominator, denominator, Reduced.YES).fareyImpl(maxDenominator, fareyMode);
       
       // n + a/b = nb/b + a/b = (nb + a)/b
-      //return new LongFraction(addAndCheck(mulAndCheck(numerator/denominator, fPartSeq.denominator), fPartSeq.numerator), fPartSeq.denominator, Reduced.YES);
+      //return new LongFraction(Math.addExact(Math.multiplyExact(numerator/denominator, fPartSeq.denominator), fPartSeq.numerator), fPartSeq.denominator, Reduced.YES);
       return fPartSeq.add(numerator/denominator);
     }
     
@@ -2023,7 +2339,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     while(b+d <= maxDenominator)
     {
       long med_n = a+c, med_d = b+d;
-      int cmp = Long.compare(mulAndCheck(med_n, this.denominator), mulAndCheck(med_d, this.numerator));
+      int cmp = Long.compare(Math.multiplyExact(med_n, this.denominator), Math.multiplyExact(med_d, this.numerator));
       if(cmp < 0 || (cmp == 0 && fareyMode == FareyMode.NEXT))
       {
         a = med_n;
@@ -2128,7 +2444,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(this.equals(f))
       return this;
     
-    return new LongFraction(addAndCheck(numerator, f.numerator), addAndCheck(this.denominator, f.denominator), Reduced.NO);
+    return new LongFraction(Math.addExact(numerator, f.numerator), Math.addExact(this.denominator, f.denominator), Reduced.NO);
   }
   
   /**
@@ -2181,9 +2497,17 @@ public final class LongFraction extends Number implements Comparable<Number>
       //such that the denominator is of the form 2^scale * 5^scale. (Of course, we
       //only have to actually multiply the numerator, since all we need for the
       //BigDecimal constructor is the scale.)
-      BigInteger unscaled = BigInteger.valueOf(numerator);
       int scale = Math.max(twos, fives);
       
+      //if the unscaled value fits in a long, BigDecimal doesn't need a BigInteger at all
+      if(twos == fives)
+        return BigDecimal.valueOf(numerator, scale);
+      if(twos < fives && fives - twos < 63 && numerator != Long.MIN_VALUE && Math.abs(numerator) <= (Long.MAX_VALUE >> (fives - twos)))
+        return BigDecimal.valueOf(numerator << (fives - twos), scale);
+      if(fives < twos && twos - fives < LONG_POWERS_OF_FIVE.length && !LongMath.multiplyOverflows(numerator, LONG_POWERS_OF_FIVE[twos - fives]))
+        return BigDecimal.valueOf(numerator * LONG_POWERS_OF_FIVE[twos - fives], scale);
+      
+      BigInteger unscaled = BigInteger.valueOf(numerator);
       if(twos < fives)
         unscaled = unscaled.shiftLeft(fives - twos); //x * 2^n === x << n
       else if (fives < twos)
@@ -2206,7 +2530,65 @@ public final class LongFraction extends Number implements Comparable<Number>
    */
   public BigDecimal toBigDecimal(int precision)
   {
-    return new BigDecimal(numerator).divide(new BigDecimal(denominator), new MathContext(precision, RoundingMode.HALF_EVEN));
+    //up to 18 digits, the unscaled value fits in a long, so do the long division ourselves. Otherwise (or for
+    //precision 0, which means unlimited) let BigDecimal do it.
+    if(precision <= 0 || precision > 18)
+      return new BigDecimal(numerator).divide(new BigDecimal(denominator), new MathContext(precision, RoundingMode.HALF_EVEN));
+    
+    //work with the magnitude. |Long.MIN_VALUE| is 2^63, which is fine as an unsigned value.
+    final long d = denominator;
+    long m = Math.abs(numerator);
+    long unscaled = Long.divideUnsigned(m, d);
+    long r = m - unscaled * d;
+    int scale = 0;
+    int digits = (unscaled == 0L ? 0 : unsignedDigitCount(unscaled));
+    
+    //the quotient is digits of the integer part, followed by the next digits of r/d. Decides rounding:
+    //-1 if the discarded part is less than 1/2, 0 if exactly 1/2, 1 if more than 1/2.
+    int roundDirection;
+    if(digits > precision)
+    {
+      //integer part alone has too many digits: unscaled = q * 10^k + tail
+      long pow = LONG_POWERS_OF_TEN[digits - precision];
+      long tail = Long.remainderUnsigned(unscaled, pow);
+      unscaled = Long.divideUnsigned(unscaled, pow);
+      scale = precision - digits;
+      //compare tail + r/d against pow/2. tail < pow <= 10^18, so 2*tail doesn't overflow
+      int c = Long.compare(2L * tail, pow);
+      roundDirection = (c != 0 ? c : (r == 0L ? 0 : 1));
+      if(tail == 0L && r == 0L)
+        roundDirection = -2; //exact
+    }
+    else
+    {
+      //generate digits of r/d until we have enough. Leading zeros don't count towards the precision.
+      //r < d < 2^63, so r*10 fits in a long.
+      while(digits < precision && r != 0L)
+      {
+        long hi = LongMath.unsignedMultiplyHigh(r, 10L);
+        long lo = r * 10L;
+        long digit = LongMath.divideUnsigned128(hi, lo, d);
+        r = lo - digit * d;
+        unscaled = unscaled * 10L + digit;
+        scale++;
+        if(unscaled != 0L)
+          digits++;
+      }
+      //r < d, so 2*r fits in an unsigned long
+      roundDirection = (r == 0L ? -2 : Long.signum(Long.compareUnsigned(2L * r, d)));
+    }
+    
+    if(roundDirection > 0 || (roundDirection == 0 && (unscaled & 1L) != 0L))
+    {
+      unscaled++;
+      if(unscaled == LONG_POWERS_OF_TEN[precision])
+      {
+        unscaled /= 10L;
+        scale--;
+      }
+    }
+    
+    return BigDecimal.valueOf(numerator < 0L ? -unscaled : unscaled, scale);
   }
   
   //--------------------------------------------------------------------------
@@ -2340,11 +2722,16 @@ public final class LongFraction extends Number implements Comparable<Number>
   @Override
   public double doubleValue()
   {
-    //TODO: UNOPTIMIZED! Currently converting to BigDecimal then converting that to double.
+    //if numerator and denominator are both exact doubles, IEEE division is correctly rounded
+    if(denominator <= (1L << 53) && Math.abs(numerator) <= (1L << 53) && numerator != Long.MIN_VALUE)
+      return (double)numerator / (double)denominator;
     
-    //note: must use precision+2 so that  new LongFraction(d).doubleValue() == d,
-    //      for all possible double values.
-    return toBigDecimal(MathContext.DECIMAL64.getPrecision() + 2).doubleValue();
+    //otherwise, get at least 63 significant bits of the quotient with a sticky bit, which converts to a
+    //correctly rounded double. The value is always between 2^-63 and 2^63, so it can't overflow or be subnormal.
+    long q = scaledQuotient();
+    int exponent = scaledQuotientExponent();
+    double d = (q < 0L ? (double)((q >>> 1) | (q & 1L)) * 2.0 : (double)q);
+    return Math.scalb(numerator < 0L ? -d : d, exponent);
   }
   
   /**
@@ -2383,11 +2770,15 @@ public final class LongFraction extends Number implements Comparable<Number>
   @Override
   public float floatValue()
   {
-    //TODO: UNOPTIMIZED! Currently converting to BigDecimal then converting that to float.
+    //if numerator and denominator are both exact floats, IEEE division is correctly rounded
+    if(denominator <= (1L << 24) && Math.abs(numerator) <= (1L << 24) && numerator != Long.MIN_VALUE)
+      return (float)numerator / (float)denominator;
     
-    //note: must use precision+2 so that  new LongFraction(f).floatValue() == f,
-    //      for all possible float values.
-    return toBigDecimal(MathContext.DECIMAL32.getPrecision() + 2).floatValue(); 
+    //same as doubleValue(). Converting the 64-bit quotient directly to float rounds once, correctly.
+    long q = scaledQuotient();
+    int exponent = scaledQuotientExponent();
+    float f = (q < 0L ? (float)((q >>> 1) | (q & 1L)) * 2.0f : (float)q);
+    return Math.scalb(numerator < 0L ? -f : f, exponent);
   }
   
   /**
@@ -2426,8 +2817,6 @@ public final class LongFraction extends Number implements Comparable<Number>
    */
   private static LongFraction valueOfHelper(double d)
   {
-    //TODO: Refactor so as to not use BigInteger
-    
     if(Double.isInfinite(d))
       throw new IllegalArgumentException("double val is infinite");
     if(Double.isNaN(d))
@@ -2449,14 +2838,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     //         = 2^(exponent) * (1 + mantissa/2^52)
     //         = 2^(exponent) * (2^52 + mantissa)/2^52
     // Letting tmpNumerator=(2^52 + mantissa):
-    //         = 2^(exponent) * tmpNumerator/2^52
-    //  
-    //  For exponent > 52:
     //         = tmpNumerator * 2^(exponent - 52)
-    //  For exponent = 52:
-    //         = tmpNumerator
-    //  For exponent < 52:
-    //         = tmpNumerator / 2^(52 - exponent)
     //
     //SPECIAL CASE: Subnormals - if all exponent bits are 0 (in my code, this
     //would mean exponent is -0x3ff, or -1023), then the formula is:
@@ -2465,55 +2847,32 @@ public final class LongFraction extends Number implements Comparable<Number>
     //Again neglecting sign bit, this gives:
     //           2^(exponent + 1) * 0.mantissa
     //         = 2^(-1022) * (mantissa/2^52)
-    //         = mantissa / 2^1074
-    // Letting tmpNumerator = mantissa:
-    //         = tmpNumerator / 2^1074
-    
-    BigInteger tmpNumerator = BigInteger.valueOf((isSubnormal ? 0L : 0x10000000000000L) + mantissa);
-    BigInteger tmpDenominator = BigInteger.ONE;
-    
-    if(exponent > 52)
-    {
-      //numerator * 2^(exponent - 52) === numerator << (exponent - 52)
-      tmpNumerator = tmpNumerator.shiftLeft(exponent - 52);
-    }
-    else if (exponent < 52)
+    //         = mantissa * 2^(-1074)
+    long tmpNumerator = (isSubnormal ? mantissa : 0x10000000000000L + mantissa);
+    int binaryExponent = (isSubnormal ? -1074 : exponent - 52);
+    
+    //The gcd of tmpNumerator and any power of 2 must also be a power of 2. In base-2, it is easy to
+    //determine how many factors of 2 a number has--it is the number of trailing "0" bits at the end of
+    //the number. (This is the same as the number of trailing 0's of a base-10 number indicating the
+    //number of factors of 10 the number has). So shifting those out leaves the fraction in lowest terms.
+    final int y = Long.numberOfTrailingZeros(tmpNumerator);
+    tmpNumerator >>= y;
+    binaryExponent += y;
+    
+    if(binaryExponent < 0)
     {
-      if(!isSubnormal)
-      {
-        //The gcd of (2^52 + mantissa) / 2^(52 - exponent)  must be of the form 2^y,
-        //since the only prime factors of the denominator are 2. In base-2, it is
-        //easy to determine how many factors of 2 a number has--it is the number of
-        //trailing "0" bits at the end of the number. (This is the same as the number
-        //of trailing 0's of a base-10 number indicating the number of factors of 10
-        //the number has).
-        int y = Math.min(tmpNumerator.getLowestSetBit(), 52 - exponent);
-        
-        //Now 2^y = gcd( 2^52 + mantissa, 2^(52 - exponent) ), giving:
-        // (2^52 + mantissa) / 2^(52 - exponent)
-        //      = ((2^52 + mantissa) / 2^y) / (2^(52 - exponent) / 2^y)
-        //      = ((2^52 + mantissa) / 2^y) / (2^(52 - exponent - y))
-        //      = ((2^52 + mantissa) >> y) / (1 << (52 - exponent - y))
-        tmpNumerator = tmpNumerator.shiftRight(y);
-        tmpDenominator = tmpDenominator.shiftLeft(52 - exponent - y);
-      }
-      else
-      {
-        //using the same logic as above, except now we are finding gcd of tmpNumerator/2^1074
-        int y = Math.min(tmpNumerator.getLowestSetBit(), 1074);
-        
-        tmpNumerator = tmpNumerator.shiftRight(y);
-        tmpDenominator = tmpDenominator.shiftLeft(1074 - y);
-      }
+      //tmpNumerator / 2^(-binaryExponent). Denominator must fit in a positive long.
+      if(binaryExponent < -62)
+        throw new ArithmeticException("Integer Overflow");
+      return new LongFraction(sign == 0 ? tmpNumerator : -tmpNumerator, 1L << -binaryExponent, Reduced.YES);
     }
-    //else: exponent == 52: do nothing
     
-    //Set sign bit if needed
-    if(sign != 0)
-      tmpNumerator = tmpNumerator.negate();
-    
-    //Guaranteed there is no gcd, so fraction is in lowest terms
-    return new LongFraction(tmpNumerator.longValueExact(), tmpDenominator.longValueExact(), Reduced.YES);
+    //tmpNumerator * 2^binaryExponent. -2^63 is the only value with 64 bits that fits.
+    final int bitLength = 64 - Long.numberOfLeadingZeros(tmpNumerator);
+    if(bitLength + binaryExponent > 63 && !(sign != 0 && tmpNumerator == 1L && binaryExponent == 63))
+      throw new ArithmeticException("Integer Overflow");
+    final long ret = tmpNumerator << binaryExponent;
+    return new LongFraction(sign == 0 ? ret : -ret, 1L, Reduced.YES);
   }
   
   /**
@@ -2565,9 +2924,9 @@ public final class LongFraction extends Number implements Comparable<Number>
     long tmpDenominator = denFract.numerator / gcd;
     
     if(numFract.denominator < denFract.denominator)
-      tmpNumerator = mulAndCheck(tmpNumerator, denFract.denominator/numFract.denominator);
+      tmpNumerator = Math.multiplyExact(tmpNumerator, denFract.denominator/numFract.denominator);
     else if (numFract.denominator > denFract.denominator)
-      tmpDenominator = mulAndCheck(tmpDenominator, numFract.denominator/denFract.denominator);
+      tmpDenominator = Math.multiplyExact(tmpDenominator, numFract.denominator/denFract.denominator);
     //else: they are equal: do nothing
     
     return new LongFraction(tmpNumerator, tmpDenominator, Reduced.YES);
@@ -2591,7 +2950,7 @@ public final class LongFraction extends Number implements Comparable<Number>
     
     if(d.scale() < 0)
     {
-      tmpNumerator = mulAndCheck(tmpNumerator, powAndCheck(10L, -d.scale()));
+      tmpNumerator = Math.multiplyExact(tmpNumerator, powAndCheck(10L, -d.scale()));
     }
     else if (d.scale() > 0)
     {
@@ -2605,9 +2964,9 @@ public final class LongFraction extends Number implements Comparable<Number>
       while(commonFives < d.scale() && tmpNumerator % 5L == 0L) { tmpNumerator /= 5L; commonFives++; }
       
       if(commonTwos < d.scale())
-        tmpDenominator = mulAndCheck(tmpDenominator, powAndCheck(2L, d.scale() - commonTwos));
+        tmpDenominator = Math.multiplyExact(tmpDenominator, powAndCheck(2L, d.scale() - commonTwos));
       if(commonFives < d.scale())
-        tmpDenominator = mulAndCheck(tmpDenominator, powAndCheck(5L, d.scale() - commonFives));
+        tmpDenominator = Math.multiplyExact(tmpDenominator, powAndCheck(5L, d.scale() - commonFives));
     }
     //else: d.scale() == 0: do nothing
     
@@ -2635,9 +2994,9 @@ public final class LongFraction extends Number implements Comparable<Number>
     
     // (u1/10^s1) / (u2/10^s2) = u1 / (u2 * 10^(s1-s2)) = (u1 * 10^(s2-s1)) / u2
     if(numerator.scale() > denominator.scale())
-      tmpDenominator = mulAndCheck(tmpDenominator, powAndCheck(10L, numerator.scale() - denominator.scale()));
+      tmpDenominator = Math.multiplyExact(tmpDenominator, powAndCheck(10L, numerator.scale() - denominator.scale()));
     else if(numerator.scale() < denominator.scale())
-      tmpNumerator = mulAndCheck(tmpNumerator, powAndCheck(10L, denominator.scale() - numerator.scale()));
+      tmpNumerator = Math.multiplyExact(tmpNumerator, powAndCheck(10L, denominator.scale() - numerator.scale()));
     //else: scales are equal, do nothing.
     
     long gcd = gcd(tmpNumerator, tmpDenominator);
@@ -2646,8 +3005,8 @@ public final class LongFraction extends Number implements Comparable<Number>
     
     if(tmpDenominator < 0)
     {
-      tmpNumerator = negateAndCheck(tmpNumerator);
-      tmpDenominator = negateAndCheck(tmpDenominator);
+      tmpNumerator = Math.negateExact(tmpNumerator);
+      tmpDenominator = Math.negateExact(tmpDenominator);
     }
     
     return new LongFraction(tmpNumerator, tmpDenominator, Reduced.YES);
@@ -2736,7 +3095,7 @@ public final class LongFraction extends Number implements Comparable<Number>
       den.append('0');
     
     //TODO: Instead of using a string builder, we could also compute denominator as:
-    //    mulAndCheck(subAndCheck(powAndCheck(radix, repeating.length()), 1L), powAndCheck(radix, fPart.length()))
+    //    Math.multiplyExact(Math.subtractExact(powAndCheck(radix, repeating.length()), 1L), powAndCheck(radix, fPart.length()))
     //Need to do performance analysis to see which method is more efficient
     
     //add the terminating part and the repeating part together to get the true fraction
@@ -2749,6 +3108,100 @@ public final class LongFraction extends Number implements Comparable<Number>
     return ret;
   }
   
+  /**
+   * Parses a string of the form {@code numerator/denominator} (or just {@code numerator}), where each
+   * part is an optional sign followed by digits in the given radix with an optional radix point, using
+   * only long arithmetic. Returns null if the string is in any other format (exponent, repeating digits,
+   * too many digits to be sure they fit, etc.), so that the caller can fall back to the general parser.
+   * 
+   * @throws ArithmeticException if denominator == 0.
+   */
+  private static LongFraction parsePlain(String s, int radix)
+  {
+    int slashPos = s.indexOf('/');
+    int numEnd = (slashPos < 0 ? s.length() : slashPos);
+    
+    int numScale = plainScale(s, 0, numEnd, radix);
+    if(numScale < 0)
+      return null;
+    
+    int denScale = 0;
+    long den = 1L;
+    if(slashPos >= 0)
+    {
+      denScale = plainScale(s, slashPos + 1, s.length(), radix);
+      if(denScale < 0)
+        return null;
+      den = parsePlainUnscaled(s, slashPos + 1, s.length(), radix);
+      if(den == 0L)
+        throw new ArithmeticException("Divide by zero: fraction denominator is zero.");
+    }
+    long num = parsePlainUnscaled(s, 0, numEnd, radix);
+    
+    //(num/radix^numScale) / (den/radix^denScale). Each scale is at most the number of digits in its part,
+    //so the powers of the radix fit in a long. Usually the whole thing can be moved to one side. (The constructor
+    //may need to negate either value, so Long.MIN_VALUE is avoided.)
+    long numPow = powAndCheck(radix, numScale);
+    long denPow = powAndCheck(radix, denScale);
+    if(numScale >= denScale && !LongMath.multiplyOverflows(den, numPow / denPow) && den * (numPow / denPow) != Long.MIN_VALUE)
+      return new LongFraction(num, den * (numPow / denPow), Reduced.NO);
+    if(numScale < denScale && !LongMath.multiplyOverflows(num, denPow / numPow) && num * (denPow / numPow) != Long.MIN_VALUE)
+      return new LongFraction(num * (denPow / numPow), den, Reduced.NO);
+    
+    //otherwise, reduce each part first
+    return new LongFraction(num, numPow, Reduced.NO).tryDivide(new LongFraction(den, denPow, Reduced.NO));
+  }
+  
+  /**
+   * Helper for parsePlain(). If s[start, end) is an optional sign followed by at least one digit in
+   * the given radix, with at most one radix point, and it has few enough digits that the value fits in a long,
+   * returns the number of digits after the radix point. Otherwise, returns -1.
+   */
+  private static int plainScale(String s, int start, int end, int radix)
+  {
+    int i = start;
+    if(i < end && (s.charAt(i) == '-' || s.charAt(i) == '+'))
+      i++;
+    
+    int digits = 0;
+    int radixPos = -1;
+    for(; i < end; i++)
+    {
+      char c = s.charAt(i);
+      if(c == '.' && radixPos < 0)
+        radixPos = i;
+      else if(Character.digit(c, radix) < 0)
+        return -1;
+      else
+        digits++;
+    }
+    
+    if(digits == 0 || digits > LONG_DIGITS_BY_RADIX[radix])
+      return -1;
+    return (radixPos < 0 ? 0 : end - radixPos - 1);
+  }
+  
+  /**
+   * Helper for parsePlain(). Returns the digits of s[start, end) as a long, ignoring the radix point.
+   * Assumes that plainScale() accepted the same range.
+   */
+  private static long parsePlainUnscaled(String s, int start, int end, int radix)
+  {
+    int i = start;
+    boolean negative = (s.charAt(i) == '-');
+    if(negative || s.charAt(i) == '+')
+      i++;
+    
+    long ret = 0L;
+    for(; i < end; i++)
+    {
+      char c = s.charAt(i);
+      if(c != '.')
+        ret = ret * radix + Character.digit(c, radix);
+    }
+    return (negative ? -ret : ret);
+  }
+  
   /**
    * Private constructor, used when you can be certain that the fraction is already in
    * lowest terms. No check is done to reduce numerator/denominator. A check is still
@@ -2772,13 +3225,13 @@ public final class LongFraction extends Number implements Comparable<Number>
     //only numerator should be negative.
     if(denominator < 0)
     {
-      numerator = negateAndCheck(numerator);
-      denominator = negateAndCheck(denominator);
+      numerator = Math.negateExact(numerator);
+      denominator = Math.negateExact(denominator);
     }
     
     if(reduced == Reduced.NO && denominator == 1L)
       reduced = Reduced.YES;
-
+    
     //common special case - denominator is one. No need to do GCD check.
     if(reduced == Reduced.NO)
     {
@@ -2796,27 +3249,138 @@ public final class LongFraction extends Number implements Comparable<Number>
   }
   
   /**
-   * Converts a Number to a BigInteger. Assumes that a check on the type of n
-   * has already been performed.
+   * Implementation of add(), subtract(), subtractFrom(), tryAdd() and trySubtract(). Returns (n1/d1) +/- (n2/d2), or null
+   * if the result does not fit in a LongFraction. Assumes both fractions are reduced, and that d1 and d2 are positive.<br>
+   * <br>
+   * If the intermediate values overflow a long, they are computed as 128-bit values, so null is only returned if the
+   * reduced result really does not fit.
+   */
+  private static LongFraction sumImpl(long n1, long d1, long n2, long d2, boolean subtract)
+  {
+    //Uses the method from Knuth, TAOCP vol. 2, section 4.5.1. With g = gcd(d1, d2):
+    //  n1/d1 + n2/d2 = (n1*(d2/g) + n2*(d1/g)) / (d1*(d2/g))
+    //If g is 1, this is already in lowest terms. Otherwise, the only factors the numerator can have in common
+    //with the denominator are factors of g.
+    long g = (d1 == d2 ? d1 : gcd(d1, d2));
+    long s1 = d2 / g;
+    long s2 = d1 / g;
+    
+    //common case: nothing overflows a long
+    if(!LongMath.multiplyOverflows(n1, s1) && !LongMath.multiplyOverflows(n2, s2) && !LongMath.multiplyOverflows(d1, s1))
+    {
+      long a = n1 * s1;
+      long b = n2 * s2;
+      if(subtract ? !LongMath.subtractOverflows(a, b) : !LongMath.addOverflows(a, b))
+        return new LongFraction(subtract ? a - b : a + b, d1 * s1, (g == 1L ? Reduced.YES : Reduced.NO));
+    }
+    
+    //compute the numerator as a 128-bit value. The products are less than 2^126 in magnitude, so their sum fits.
+    long aLo = n1 * s1, aHi = LongMath.multiplyHigh(n1, s1);
+    long bLo = n2 * s2, bHi = LongMath.multiplyHigh(n2, s2);
+    long lo, hi;
+    if(subtract)
+    {
+      lo = aLo - bLo;
+      hi = aHi - bHi - (Long.compareUnsigned(aLo, bLo) < 0 ? 1L : 0L);
+    }
+    else
+    {
+      lo = aLo + bLo;
+      hi = aHi + bHi + (Long.compareUnsigned(lo, aLo) < 0 ? 1L : 0L);
+    }
+    
+    //denominator is d1*(d2/g) == (d1/g)*d2
+    return reduce128(hi, lo, s2, d2);
+  }
+  
+  /**
+   * Returns the fraction (hi:lo)/(d1*d2), in lowest terms, where hi:lo is a signed 128-bit integer, and d1 and d2
+   * are positive. Returns null if the reduced fraction does not fit in a LongFraction.
    */
-  private static long toLong(Number n)
+  private static LongFraction reduce128(long hi, long lo, long d1, long d2)
   {
-    if(n instanceof BigInteger)
-      return ((BigInteger)n).longValueExact();
+    if(hi == 0L && lo == 0L)
+      return ZERO;
     
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return n.longValue();
+    //work with the magnitude of the numerator
+    boolean negative = (hi < 0L);
+    if(negative)
+    {
+      hi = (lo == 0L ? -hi : ~hi);
+      lo = -lo;
+    }
     
-    if(n instanceof BigFraction)
-      return ((BigFraction)n).getNumerator().longValueExact();
+    //gcd(t, d1*d2) == g*gcd(t/g, d2), where g = gcd(t, d1). That way, we only ever need gcd of longs.
+    long g = gcd(LongMath.remainderUnsigned128(hi, lo, d1), d1);
+    if(g != 1L)
+    {
+      long qHi = Long.divideUnsigned(hi, g);
+      lo = LongMath.divideUnsigned128(hi - qHi * g, lo, g);
+      hi = qHi;
+      d1 /= g;
+    }
     
-    if(n instanceof LongFraction)
-      return ((LongFraction)n).numerator;
+    g = gcd(LongMath.remainderUnsigned128(hi, lo, d2), d2);
+    if(g != 1L)
+    {
+      long qHi = Long.divideUnsigned(hi, g);
+      lo = LongMath.divideUnsigned128(hi - qHi * g, lo, g);
+      hi = qHi;
+      d2 /= g;
+    }
     
-    if(n instanceof BigDecimal)
+    //magnitude must fit in 63 bits, except that -2^63 is allowed
+    if(hi != 0L || (lo < 0L && !(negative && lo == Long.MIN_VALUE)) || LongMath.multiplyOverflows(d1, d2))
+      return null;
+    
+    return new LongFraction(negative ? -lo : lo, d1 * d2, Reduced.YES);
+  }
+  
+  /**
+   * Implementation of tryMultiply() and tryDivide(). Returns (n1/d1) * (n2/d2), or null on overflow.
+   * Assumes both fractions are reduced, and that d1 and d2 are positive.
+   */
+  private static LongFraction tryMultiplyImpl(long n1, long d1, long n2, long d2)
+  {
+    //same approach as multiply(): cancel common factors before multiplying, so the result is already reduced
+    long gcd1 = gcd(n1, d2);
+    n1 /= gcd1;
+    d2 /= gcd1;
+    long gcd2 = gcd(n2, d1);
+    n2 /= gcd2;
+    d1 /= gcd2;
+    
+    if(LongMath.multiplyOverflows(n1, n2) || LongMath.multiplyOverflows(d1, d2))
+      return null;
+    
+    return new LongFraction(n1 * n2, d1 * d2, Reduced.YES);
+  }
+  
+  /**
+   * Converts a Number to a long. Assumes that a check on the type of n
+   * has already been performed.
+   */
+  private static long toLong(Number n, NumberType type)
+  {
+    switch(type)
     {
-      final BigDecimal bd = (BigDecimal)n;
-      return bd.unscaledValue().multiply(BigInteger.TEN.pow(-bd.scale())).longValueExact();
+      case LONG:
+        return n.longValue();
+      case BIG_INTEGER:
+        return ((BigInteger)n).longValueExact();
+      case LONG_FRACTION:
+        return ((LongFraction)n).numerator;
+      case BIG_FRACTION:
+        return ((BigFraction)n).getNumerator().longValueExact();
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).toLongFraction().numerator;
+      case INT_FRACTION:
+        return ((IntFraction)n).getNumerator();
+      case BIG_DECIMAL:
+        final BigDecimal bd = (BigDecimal)n;
+        return bd.unscaledValue().multiply(BigInteger.TEN.pow(-bd.scale())).longValueExact();
+      default:
+        break;
     }
     
     //unknown implementation... fall back to double value
@@ -2825,18 +3389,21 @@ public final class LongFraction extends Number implements Comparable<Number>
     if(d == 0.0)
       return 0L;
     
-    //This is similar to valueOfHelper(double), except we know that the exponent is greater than 52. See the comments
+    //This is similar to valueOfHelper(double), except we know that the exponent is at least 52. See the comments
     //in valueOfHelper(double) for much more detailed information
     final int sign = DoubleUtil.getSign(d);
     final int exponent = DoubleUtil.getExponent(d);
     final long mantissa = DoubleUtil.getMantissa(d);
     
-    BigInteger ret = BigInteger.valueOf(0x10000000000000L + mantissa).shiftLeft(exponent - 52);
-    return (sign == 0 ? ret : ret.negate()).longValueExact();
+    //(2^52 + mantissa) * 2^(exponent - 52) has exponent+1 bits. -2^63 is the only value with 64 bits that fits.
+    if(exponent > 62 && !(exponent == 63 && sign != 0 && mantissa == 0L))
+      throw new ArithmeticException("Integer Overflow");
+    final long ret = (0x10000000000000L + mantissa) << (exponent - 52);
+    return (sign == 0 ? ret : -ret);
   }
   
   /**
-   * Returns true if the given type can be converted to a BigInteger without loss
+   * Returns true if the given type can be converted to a long without loss
    * of precision. Returns true for the primitive integer types (Long, Integer, Short,
    * Byte, AtomicInteger, AtomicLong, LongAdder, LongAccumulator, or BigInteger).<br>
    * <br>
@@ -2844,22 +3411,29 @@ public final class LongFraction extends Number implements Comparable<Number>
    * <br>
    * For double, float, DoubleAdder, DoubleAccumulator, and BigDecimal, analyzes the data. Otherwise returns false.<br>
    * <br>
-   * Used to determine if a Number is appropriate to be passed into toBigInteger() method.
+   * Used to determine if a Number is appropriate to be passed into toLong() method.
    */
-  private static boolean isInt(Number n)
+  private static boolean isInt(Number n, NumberType type)
   {
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof BigInteger || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return true;
-    
-    if(n instanceof BigFraction)
-      return ((BigFraction)n).getDenominator().equals(BigInteger.ONE);
-    
-    if(n instanceof LongFraction)
-      return ((LongFraction)n).getDenominator() == 1L;
-    
-    //BigDecimal format: unscaled / 10^scale
-    if(n instanceof BigDecimal)
-      return (((BigDecimal)n).scale() <= 0);
+    switch(type)
+    {
+      case LONG:
+      case BIG_INTEGER:
+        return true;
+      case LONG_FRACTION:
+        return ((LongFraction)n).denominator == 1L;
+      case BIG_FRACTION:
+        return ((BigFraction)n).getDenominator().equals(BigInteger.ONE);
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).isInteger();
+      case INT_FRACTION:
+        return ((IntFraction)n).getDenominator() == 1;
+      case BIG_DECIMAL:
+        //BigDecimal format: unscaled / 10^scale
+        return (((BigDecimal)n).scale() <= 0);
+      default:
+        break;
+    }
     
     //unknown type - use the doubleValue()
     final double d = n.doubleValue();
@@ -2873,35 +3447,39 @@ public final class LongFraction extends Number implements Comparable<Number>
   }
   
   /**
-   * Returns true if the given BigFraction represents zero. Overloaded as this is a common case.
+   * Returns true if the given Number represents zero. For unknown numbers, utilizes Number.doubleValue().
    */
   private final static boolean isZero(Number n)
   {
-    //micro-optimization- most common type first...
+    //micro-optimization- most common type first, without even looking up the type...
     if(n instanceof LongFraction)
-      return ((LongFraction)n).getNumerator() == 0L;
-    
-    if(n instanceof BigInteger)
-      return ((BigInteger)n).equals(BigInteger.ZERO);
+      return ((LongFraction)n).numerator == 0L;
     
     if(n == null)
       return false;
     
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return n.longValue() == 0L;
-    
-    if(n instanceof BigFraction)
-      return ((BigFraction)n).getNumerator().equals(BigInteger.ZERO);
-    
-    if(n instanceof BigDecimal)
-      return ((BigDecimal)n).unscaledValue().equals(BigInteger.ZERO);
-    
-    //double or unknown type - use doubleValue()
-    return n.doubleValue() == 0.0;
+    switch(NumberType.of(n))
+    {
+      case LONG:
+        return n.longValue() == 0L;
+      case BIG_INTEGER:
+        return ((BigInteger)n).signum() == 0;
+      case BIG_FRACTION:
+        return ((BigFraction)n).signum() == 0;
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).signum() == 0;
+      case INT_FRACTION:
+        return ((IntFraction)n).signum() == 0;
+      case BIG_DECIMAL:
+        return ((BigDecimal)n).signum() == 0;
+      default:
+        //double or unknown type - use doubleValue()
+        return n.doubleValue() == 0.0;
+    }
   }
   
   /**
-   * Returns true if the given Number represents zero. For unknown numbers, utilizes Number.doubleValue().
+   * Returns true if the given LongFraction represents zero. Overloaded as this is a common case.
    */
   private final static boolean isZero(LongFraction f)
   {
@@ -2913,35 +3491,60 @@ public final class LongFraction extends Number implements Comparable<Number>
    */
   private final static boolean isOne(Number n)
   {
-    //micro-optimization- most common type first...
+    //micro-optimization- most common type first, without even looking up the type...
     if(n instanceof LongFraction)
-      return ((LongFraction)n).equals(LongFraction.ONE);
+      return ((LongFraction)n).numerator == 1L && ((LongFraction)n).denominator == 1L;
     
     if(n == null)
       return false;
     
-    if(n instanceof BigInteger)
-      return ((BigInteger)n).equals(BigInteger.ONE);
-    
-    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
-      return n.longValue() == 1L;
-    
-    if(n instanceof BigFraction)
-      return ((BigFraction)n).equals(BigFraction.ONE);
-    
-    if(n instanceof BigDecimal)
-      return ((BigDecimal)n).compareTo(BigDecimal.ONE) == 0;
-    
-    //double or unknown type - use doubleValue()
-    return n.doubleValue() == 1.0;
+    switch(NumberType.of(n))
+    {
+      case LONG:
+        return n.longValue() == 1L;
+      case BIG_INTEGER:
+        return ((BigInteger)n).equals(BigInteger.ONE);
+      case BIG_FRACTION:
+        return ((BigFraction)n).equals(BigFraction.ONE);
+      case ADAPTIVE_FRACTION:
+        return ((AdaptiveFraction)n).equals(AdaptiveFraction.ONE);
+      case INT_FRACTION:
+        return ((IntFraction)n).toBits() == IntFraction.ONE_BITS;
+      case BIG_DECIMAL:
+        return ((BigDecimal)n).compareTo(BigDecimal.ONE) == 0;
+      default:
+        //double or unknown type - use doubleValue()
+        return n.doubleValue() == 1.0;
+    }
+  }
+  
+  /**
+   * Serializes this fraction in the compact form described in {@link FractionSerialForm}.
+   */
+  private Object writeReplace()
+  {
+    return new FractionSerialForm(this);
+  }
+  
+  /**
+   * Only called for streams which used the default serial form. The fields are checked and reduced again, as
+   * they are for the compact form, and the matching constant is returned if there is one, so that
+   * deserialized constants are identical to the originals.
+   */
+  private Object readResolve() throws ObjectStreamException
+  {
+    if(denominator <= 0L)
+      throw new InvalidObjectException("Invalid fraction: non-positive denominator");
+    return FractionSerialForm.canonical(valueOf(numerator, denominator));
   }
   
   /**
-   * Returns true if n is a type that can be converted to a double without loss of precision (Float, Double, DoubleAdder, and DoubleAccumulator)
+   * Package-private factory for other classes in this package that have already put a fraction
+   * in lowest terms, with a positive denominator. No GCD check is done.
    */
-  private static boolean isFloat(Number n)
+  static LongFraction valueOfReduced(long numerator, long denominator)
   {
-    return n instanceof Double || n instanceof Float || n instanceof DoubleAdder || n instanceof DoubleAccumulator;
+    return new LongFraction(numerator, denominator, Reduced.YES);
   }
   
   /**
@@ -2957,18 +3560,41 @@ public final class LongFraction extends Number implements Comparable<Number>
   }
   
   /**
-   * Computes gcd using Euclid's algorithm: https://en.wikipedia.org/wiki/Euclidean_algorithm
-   */
-  private static long gcd(long a, long b) {
-    long tmp = 0L;
-    while(b != 0L)
+   * Computes gcd using the binary GCD algorithm: https://en.wikipedia.org/wiki/Binary_GCD_algorithm<br>
+   * <br>
+   * This only uses shifts and subtraction, which are much cheaper than the division in each step of
+   * Euclid's algorithm. The result is always non-negative. Throws ArithmeticException if the result
+   * is 2^63, which is only possible when one value is Long.MIN_VALUE and the other is 0 or Long.MIN_VALUE.
+   */
+  static long gcd(long a, long b) {
+    //work with the magnitudes. -Long.MIN_VALUE == Long.MIN_VALUE, which is 2^63 when treated as unsigned.
+    a = Math.abs(a);
+    b = Math.abs(b);
+    if(a == 0L)
+      return absAndCheck(b);
+    if(b == 0L)
+      return absAndCheck(a);
+    
+    //gcd(2^i*a, 2^j*b) = 2^min(i,j) * gcd(a, b), for odd a and b
+    int shift = Long.numberOfTrailingZeros(a | b);
+    a >>>= Long.numberOfTrailingZeros(a);
+    
+    //a is odd at the top of each iteration. After shifting, both values are odd and less than 2^63,
+    //so signed comparison is safe. gcd(a, b) = gcd(a, b - a), and b - a is even.
+    do
     {
-       tmp = b; 
-       b = a % b; 
-       a = tmp;
+      b >>>= Long.numberOfTrailingZeros(b);
+      if(a > b)
+      {
+        long tmp = a;
+        a = b;
+        b = tmp;
+      }
+      b -= a;
     }
+    while(b != 0L);
     
-    return absAndCheck(a);
+    return absAndCheck(a << shift);
   }
   
   private static long lcm(long a, long b) {
@@ -2981,8 +3607,8 @@ public final class LongFraction extends Number implements Comparable<Number>
     long gcd = gcd(a,b);
     long maxAbs = maxAbs(a, b);
     if(maxAbs == a)
-      return absAndCheck(mulAndCheck(a/gcd, b));
-    return absAndCheck(mulAndCheck(b/gcd, a));
+      return absAndCheck(Math.multiplyExact(a/gcd, b));
+    return absAndCheck(Math.multiplyExact(b/gcd, a));
   }
   
   /**
@@ -2990,9 +3616,7 @@ public final class LongFraction extends Number implements Comparable<Number>
    * value cannot be negated (only for Long.MIN_VALUE).
    */
   private static long absAndCheck(long n) {
-    if(n == Long.MIN_VALUE)
-      throw new ArithmeticException("Integer Overflow: abs(" + n + "L)");
-    return (n < 0 ? -n : n);
+    return (n < 0 ? Math.negateExact(n) : n);
   }
   
   /**
@@ -3007,91 +3631,99 @@ public final class LongFraction extends Number implements Comparable<Number>
   }
   
   /**
-   * Negate value with check on overflow. Throws ArithmeticException if
-   * value cannot be negated (only for Long.MIN_VALUE).
+   * Helper for doubleValue() and floatValue(). Returns the unsigned value q such that
+   * |this| = (q + e) * 2^scaledQuotientExponent(), where 0 &lt;= e &lt; 1. q has 63 or 64 significant
+   * bits, and its lowest bit is set if e != 0, so that converting it to a floating point value rounds
+   * the same way that the exact quotient would (the lowest bit is just a "sticky" bit).
    */
-  private static long negateAndCheck(long n) {
-    if(n == Long.MIN_VALUE)
-      throw new ArithmeticException("Integer Overflow: -(" + n + "L)");
-    return -n;
+  private long scaledQuotient()
+  {
+    //normalize both values so their top bit is set: m and d are both in [2^63, 2^64), so m/d is in (1/2, 2),
+    //and q = m*2^63/d is in (2^62, 2^64). hi = m/2 < 2^63 <= d, as divideUnsigned128() requires.
+    long m = Math.abs(numerator) << Long.numberOfLeadingZeros(Math.abs(numerator));
+    long d = denominator << Long.numberOfLeadingZeros(denominator);
+    long lo = m << 63;
+    long q = LongMath.divideUnsigned128(m >>> 1, lo, d);
+    return (lo - q * d == 0L ? q : q | 1L);
   }
   
   /**
-   * Adds two values with check on overflow. Throws AritmeticException on overflow.
-   * Modified from ArithmeticUtils in Apache Commons.
+   * Binary exponent corresponding to scaledQuotient().
    */
-  private static long addAndCheck(long a, long b)
+  private int scaledQuotientExponent()
   {
-    // use symmetry to reduce boundary cases
-    if (a > b)
-      return addAndCheck(b, a);
-    
-    if(a < 0 && b < 0 && a < Long.MIN_VALUE - b)
-      throw new ArithmeticException("Integer Overflow: " + a + "L + " + b + "L");
-    if(a > 0 && b > 0 && a > Long.MAX_VALUE - b)
-      throw new ArithmeticException("Integer Overflow: " + a + "L + " + b + "L");
-    
-    return a + b;
+    return Long.numberOfLeadingZeros(denominator) - Long.numberOfLeadingZeros(Math.abs(numerator)) - 63;
   }
   
   /**
-   * Subtracts two values with check on overflow. Throws AritmeticException on overflow.
-   * Modified from ArithmeticUtils in Apache Commons.
+   * Returns the number of decimal digits in n, treated as unsigned.
    */
-  private static long subAndCheck(long a, long b)
+  private static int unsignedDigitCount(long n)
   {
-    if(b != Long.MIN_VALUE)
-      return addAndCheck(a, -b);
-    
-    if (a < 0)
-      return a - b;
-    
-    throw new ArithmeticException("Integer Overflow: " + a + "L - " + b + "L");
+    if(n < 0L)
+      return 19; //2^63 <= n < 2^64, which is between 10^18 and 10^19
+    int digits = 1;
+    while(digits < LONG_POWERS_OF_TEN.length && n >= LONG_POWERS_OF_TEN[digits])
+      digits++;
+    return digits;
   }
   
   /**
-   * Multiplies two values with check on overflow. Throws AritmeticException on overflow.
-   * Modified from ArithmeticUtils in Apache Commons.
+   * Raises n to the given exponent, using exponentiation by squaring. x is treated as unsigned, so that
+   * {@code powAndCheck(n, -Integer.MIN_VALUE)} means n^(2^31). Throws ArithmeticException if the result
+   * does not fit in a long.
    */
-  private static long mulAndCheck(long a, long b)
+  private static long powAndCheck(long n, int x)
   {
-    if(a == 0L || b == 0L)
-      return 0L;
-    
-    // use symmetry to reduce boundary cases
-    if (a > b)
-      return mulAndCheck(b, a);
-    
-    boolean aPos = (a > 0L);
-    boolean bPos = (b > 0L);
-    
-    if(aPos && a > Long.MAX_VALUE / b) //both positive (a < b, so aPos implies bPos)
-      throw new ArithmeticException("Integer Overflow: " + a + "L * " + b + "L");
-    else if (!aPos && bPos && a < Long.MIN_VALUE / b) //positive a, negative b
-      throw new ArithmeticException("Integer Overflow: " + a + "L * " + b + "L");
-    else if (!aPos && !bPos && a < Long.MAX_VALUE / b) //both negative
-      throw new ArithmeticException("Integer Overflow: " + a + "L * " + b + "L");
-    
-    return a*b;
+    long ret = powOrZero(n, x);
+    if(ret == 0L && n != 0L)
+      throw new ArithmeticException("Integer Overflow: (" + n + "L)^(" + Integer.toUnsignedLong(x) + ")");
+    return ret;
   }
   
   /**
-   * Raises n to the given exponent. Assumes x is nonnegative.
+   * Same as {@link #powAndCheck(long, int)}, but returns 0 instead of throwing if the result does not fit
+   * in a long. 0 is otherwise only returned when n is 0 and x is not.
    */
-  private static long powAndCheck(long n, int x)
+  private static long powOrZero(long n, int x)
   {
-    //TODO: research more efficient way of doing this.
+    //bases which can be raised to any power
+    if(x == 0)
+      return 1L;
+    if(n == 0L || n == 1L)
+      return n;
+    if(n == -1L)
+      return ((x & 1) == 0 ? 1L : -1L);
+    
+    //With b = bitLength(|n|), we have 2^(b-1) <= |n| < 2^b, so 2^(x*(b-1)) <= |n|^x < 2^(x*b). That means
+    //we can reject obvious overflow without doing any multiplication, and skip the checks if it can't overflow.
+    //(Math.abs(Long.MIN_VALUE) is negative, but numberOfLeadingZeros() still gives the right answer for 2^63.)
+    long ux = Integer.toUnsignedLong(x);
+    int bits = 64 - Long.numberOfLeadingZeros(Math.abs(n));
+    if(ux * (bits - 1) > 63L)
+      return 0L;
+    boolean checked = (ux * bits > 63L);
+    
+    //square-and-multiply. The base is only squared if another bit of the exponent needs it, and in that case
+    //the square is a factor of the result, so it can only overflow if the result does.
     long ret = 1L;
-    try
+    long base = n;
+    while(true)
     {
-      for(int i = 0; i < x; i++)
-        ret = mulAndCheck(ret, n);
-    }
-    catch(ArithmeticException e)
-    {
-      throw new ArithmeticException("Integer Overflow: (" + n + "L)^(" + x + ")");
+      if((x & 1) != 0)
+      {
+        if(checked && LongMath.multiplyOverflows(ret, base))
+          return 0L;
+        ret *= base;
+      }
+      
+      x >>>= 1;
+      if(x == 0)
+        return ret;
+      
+      if(checked && LongMath.multiplyOverflows(base, base))
+        return 0L;
+      base *= base;
     }
-    
-    return ret;
   }
 }
@@ -0,0 +1,567 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Fixed-length array of {@link LongFraction} values, stored as two parallel {@code long[]} arrays of
+ * numerators and denominators rather than as an array of objects. Each element is always kept in lowest
+ * terms, with a positive denominator, just like a LongFraction.<br>
+ * <br>
+ * The bulk operations ({@link #add(LongFractionArray)}, {@link #multiply(LongFractionArray)},
+ * {@link #scale(LongFraction)}, {@link #compare(LongFractionArray)}, {@link #sum()}, and
+ * {@link #dot(LongFractionArray)}) work directly on the primitive arrays, and do not allocate any objects
+ * except in the rare case where an intermediate value overflows a long. Each has a {@code parallel}
+ * variant, which splits the index range across the common fork-join pool.<br>
+ * <br>
+ * The elementwise operations modify this array in place, and throw ArithmeticException if any result does
+ * not fit in a LongFraction. In that case, some other elements may already have been updated. Sums and
+ * dot products are returned as BigFractions, and never overflow.<br>
+ * <br>
+ * This class is not thread-safe, except that the {@code parallel} operations coordinate their own threads.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class LongFractionArray
+{
+  private final long[] numerators;
+  private final long[] denominators;
+  
+  /**
+   * Constructs an array of the given length, with every element equal to 0.
+   *
+   * @param length number of elements
+   * @throws NegativeArraySizeException if length is negative
+   */
+  public LongFractionArray(int length)
+  {
+    numerators = new long[length];
+    denominators = new long[length];
+    Arrays.fill(denominators, 1L);
+  }
+  
+  /**
+   * Returns an array containing the given values.
+   *
+   * @param values values to copy into the new array
+   * @return a new array containing the given values
+   * @throws IllegalArgumentException if values or any of its elements is null.
+   */
+  public static LongFractionArray of(LongFraction... values)
+  {
+    if(values == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    LongFractionArray ret = new LongFractionArray(values.length);
+    for(int i = 0; i < values.length; i++)
+      ret.set(i, values[i]);
+    return ret;
+  }
+  
+  /**
+   * Returns the number of elements in this array.
+   * @return the number of elements in this array
+   */
+  public int length()
+  {
+    return numerators.length;
+  }
+  
+  /**
+   * Returns the element at the given index. This allocates a new LongFraction.
+   *
+   * @param i index
+   * @return element at index i
+   */
+  public LongFraction get(int i)
+  {
+    return LongFraction.valueOfReduced(numerators[i], denominators[i]);
+  }
+  
+  /**
+   * Returns the numerator of the element at the given index.
+   *
+   * @param i index
+   * @return numerator of element at index i
+   */
+  public long getNumerator(int i)
+  {
+    return numerators[i];
+  }
+  
+  /**
+   * Returns the denominator of the element at the given index. It is always positive.
+   *
+   * @param i index
+   * @return denominator of element at index i
+   */
+  public long getDenominator(int i)
+  {
+    return denominators[i];
+  }
+  
+  /**
+   * Sets the element at the given index.
+   *
+   * @param i index
+   * @param f new value
+   * @throws IllegalArgumentException if f is null.
+   */
+  public void set(int i, LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    numerators[i] = f.getNumerator();
+    denominators[i] = f.getDenominator();
+  }
+  
+  /**
+   * Sets the element at the given index to numerator/denominator, reduced to lowest terms.
+   *
+   * @param i index
+   * @param numerator numerator
+   * @param denominator denominator
+   * @throws ArithmeticException if denominator == 0, or if the reduced value does not fit in a LongFraction.
+   */
+  public void set(int i, long numerator, long denominator)
+  {
+    if(denominator == 0L)
+      throw new ArithmeticException("Divide by zero: fraction denominator is zero.");
+    
+    long g = (numerator == 0L ? denominator : LongFraction.gcd(numerator, denominator));
+    numerator /= g;
+    denominator /= g;
+    if(denominator < 0L)
+    {
+      numerator = Math.negateExact(numerator);
+      denominator = Math.negateExact(denominator);
+    }
+    numerators[i] = numerator;
+    denominators[i] = denominator;
+  }
+  
+  /**
+   * Package-private setter for other classes in this package that have already put a fraction in lowest
+   * terms, with a positive denominator. No GCD check is done.
+   */
+  void setReduced(int i, long numerator, long denominator)
+  {
+    numerators[i] = numerator;
+    denominators[i] = denominator;
+  }
+  
+  /**
+   * Returns the elements of this array as LongFraction objects.
+   * @return a new LongFraction[] with the same values as this array
+   */
+  public LongFraction[] toArray()
+  {
+    LongFraction[] ret = new LongFraction[numerators.length];
+    for(int i = 0; i < ret.length; i++)
+      ret[i] = get(i);
+    return ret;
+  }
+  
+  /**
+   * Sorts this array into ascending numerical order, using {@link LongFractionSort}.
+   *
+   * @return this
+   */
+  public LongFractionArray sort()
+  {
+    LongFractionSort.sortRange(numerators, denominators, 0, numerators.length);
+    return this;
+  }
+  
+  /**
+   * Sets each element of this array to {@code this[i] + other[i]}.
+   *
+   * @param other array to add to this one. Must be the same length.
+   * @return this
+   * @throws IllegalArgumentException if other is null or has a different length.
+   * @throws ArithmeticException if any result does not fit in a LongFraction.
+   */
+  public LongFractionArray add(LongFractionArray other)
+  {
+    checkLength(other);
+    addRange(other, 0, numerators.length);
+    return this;
+  }
+  
+  /**
+   * Same as {@link #add(LongFractionArray)}, but the work is split across the common fork-join pool.
+   *
+   * @param other array to add to this one. Must be the same length.
+   * @return this
+   * @throws IllegalArgumentException if other is null or has a different length.
+   * @throws ArithmeticException if any result does not fit in a LongFraction.
+   */
+  public LongFractionArray parallelAdd(LongFractionArray other)
+  {
+    checkLength(other);
+    forEachRange((from, to) -> addRange(other, from, to));
+    return this;
+  }
+  
+  /**
+   * Sets each element of this array to {@code this[i] * other[i]}.
+   *
+   * @param other array to multiply this one by. Must be the same length.
+   * @return this
+   * @throws IllegalArgumentException if other is null or has a different length.
+   * @throws ArithmeticException if any result does not fit in a LongFraction.
+   */
+  public LongFractionArray multiply(LongFractionArray other)
+  {
+    checkLength(other);
+    multiplyRange(other, 0, numerators.length);
+    return this;
+  }
+  
+  /**
+   * Same as {@link #multiply(LongFractionArray)}, but the work is split across the common fork-join pool.
+   *
+   * @param other array to multiply this one by. Must be the same length.
+   * @return this
+   * @throws IllegalArgumentException if other is null or has a different length.
+   * @throws ArithmeticException if any result does not fit in a LongFraction.
+   */
+  public LongFractionArray parallelMultiply(LongFractionArray other)
+  {
+    checkLength(other);
+    forEachRange((from, to) -> multiplyRange(other, from, to));
+    return this;
+  }
+  
+  /**
+   * Multiplies each element of this array by f.
+   *
+   * @param f scale factor
+   * @return this
+   * @throws IllegalArgumentException if f is null.
+   * @throws ArithmeticException if any result does not fit in a LongFraction.
+   */
+  public LongFractionArray scale(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    scaleRange(f.getNumerator(), f.getDenominator(), 0, numerators.length);
+    return this;
+  }
+  
+  /**
+   * Same as {@link #scale(LongFraction)}, but the work is split across the common fork-join pool.
+   *
+   * @param f scale factor
+   * @return this
+   * @throws IllegalArgumentException if f is null.
+   * @throws ArithmeticException if any result does not fit in a LongFraction.
+   */
+  public LongFractionArray parallelScale(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    final long n = f.getNumerator();
+    final long d = f.getDenominator();
+    forEachRange((from, to) -> scaleRange(n, d, from, to));
+    return this;
+  }
+  
+  /**
+   * Compares each element of this array to the corresponding element of other. Element i of the result is
+   * -1, 0, or 1, if {@code this[i]} is less than, equal to, or greater than {@code other[i]}, respectively.
+   *
+   * @param other array to compare to. Must be the same length.
+   * @return array of comparison results
+   * @throws IllegalArgumentException if other is null or has a different length.
+   */
+  public int[] compare(LongFractionArray other)
+  {
+    checkLength(other);
+    int[] ret = new int[numerators.length];
+    compareRange(other, ret, 0, ret.length);
+    return ret;
+  }
+  
+  /**
+   * Same as {@link #compare(LongFractionArray)}, but the work is split across the common fork-join pool.
+   *
+   * @param other array to compare to. Must be the same length.
+   * @return array of comparison results
+   * @throws IllegalArgumentException if other is null or has a different length.
+   */
+  public int[] parallelCompare(LongFractionArray other)
+  {
+    checkLength(other);
+    int[] ret = new int[numerators.length];
+    forEachRange((from, to) -> compareRange(other, ret, from, to));
+    return ret;
+  }
+  
+  /**
+   * Returns the exact sum of all elements. If the array is empty, the result is 0.
+   *
+   * @return sum of all elements
+   */
+  public BigFraction sum()
+  {
+    FractionCollectors.LongSum sum = new FractionCollectors.LongSum();
+    sumRange(sum, 0, numerators.length);
+    return sum.get();
+  }
+  
+  /**
+   * Same as {@link #sum()}, but the work is split across the common fork-join pool.
+   *
+   * @return sum of all elements
+   */
+  public BigFraction parallelSum()
+  {
+    return IntStream.range(0, rangeCount()).parallel()
+                    .collect(FractionCollectors.LongSum::new, (s, r) -> sumRange(s, rangeStart(r), rangeStart(r + 1)), FractionCollectors.LongSum::merge)
+                    .get();
+  }
+  
+  /**
+   * Returns the exact dot product of this array and other: the sum of {@code this[i] * other[i]}.
+   * If the arrays are empty, the result is 0.
+   *
+   * @param other array to multiply with this one. Must be the same length.
+   * @return dot product of this and other
+   * @throws IllegalArgumentException if other is null or has a different length.
+   */
+  public BigFraction dot(LongFractionArray other)
+  {
+    checkLength(other);
+    FractionCollectors.LongSum sum = new FractionCollectors.LongSum();
+    dotRange(other, sum, 0, numerators.length);
+    return sum.get();
+  }
+  
+  /**
+   * Same as {@link #dot(LongFractionArray)}, but the work is split across the common fork-join pool.
+   *
+   * @param other array to multiply with this one. Must be the same length.
+   * @return dot product of this and other
+   * @throws IllegalArgumentException if other is null or has a different length.
+   */
+  public BigFraction parallelDot(LongFractionArray other)
+  {
+    checkLength(other);
+    return IntStream.range(0, rangeCount()).parallel()
+                    .collect(FractionCollectors.LongSum::new, (s, r) -> dotRange(other, s, rangeStart(r), rangeStart(r + 1)), FractionCollectors.LongSum::merge)
+                    .get();
+  }
+  
+  /**
+   * Returns a string representation of this array, in the same format as {@link Arrays#toString(Object[])}.
+   *
+   * @return string representation of this array
+   */
+  @Override
+  public String toString()
+  {
+    StringBuilder sb = new StringBuilder().append('[');
+    for(int i = 0; i < numerators.length; i++)
+    {
+      if(i > 0)
+        sb.append(", ");
+      sb.append(numerators[i]).append('/').append(denominators[i]);
+    }
+    return sb.append(']').toString();
+  }
+  
+  //--------------------------------------------------------------------------
+  //  PRIVATE FUNCTIONS
+  //--------------------------------------------------------------------------
+  
+  /** Number of elements handled by one task in the parallel operations. */
+  private final static int RANGE_SIZE = 1 << 12;
+  
+  /** Operation on the index range [from, to). */
+  @FunctionalInterface
+  private static interface RangeOperation
+  {
+    void apply(int from, int to);
+  }
+  
+  /**
+   * Number of ranges of RANGE_SIZE elements needed to cover the array.
+   */
+  private int rangeCount()
+  {
+    return (int)((numerators.length + (long)RANGE_SIZE - 1L) / RANGE_SIZE);
+  }
+  
+  /**
+   * Start index of range r. Range r covers [rangeStart(r), rangeStart(r+1)).
+   */
+  private int rangeStart(int r)
+  {
+    return (int)Math.min((long)r * RANGE_SIZE, numerators.length);
+  }
+  
+  /**
+   * Applies op to every range, in parallel.
+   */
+  private void forEachRange(RangeOperation op)
+  {
+    IntStream.range(0, rangeCount()).parallel().forEach(r -> op.apply(rangeStart(r), rangeStart(r + 1)));
+  }
+  
+  private void checkLength(LongFractionArray other)
+  {
+    if(other == null)
+      throw new IllegalArgumentException("Null argument");
+    if(other.numerators.length != numerators.length)
+      throw new IllegalArgumentException("Array lengths differ: " + numerators.length + " != " + other.numerators.length);
+  }
+  
+  private void addRange(LongFractionArray other, int from, int to)
+  {
+    final long[] n2 = other.numerators;
+    final long[] d2 = other.denominators;
+    for(int i = from; i < to; i++)
+      addAt(i, n2[i], d2[i]);
+  }
+  
+  private void multiplyRange(LongFractionArray other, int from, int to)
+  {
+    final long[] n2 = other.numerators;
+    final long[] d2 = other.denominators;
+    for(int i = from; i < to; i++)
+      multiplyAt(i, n2[i], d2[i]);
+  }
+  
+  private void scaleRange(long n, long d, int from, int to)
+  {
+    for(int i = from; i < to; i++)
+      multiplyAt(i, n, d);
+  }
+  
+  private void compareRange(LongFractionArray other, int[] result, int from, int to)
+  {
+    final long[] n2 = other.numerators;
+    final long[] d2 = other.denominators;
+    for(int i = from; i < to; i++)
+    {
+      //n1/d1 vs n2/d2 is the same as n1*d2 vs n2*d1, since denominators are positive
+      long n1 = numerators[i], d1 = denominators[i];
+      if(d1 == d2[i])
+      {
+        result[i] = Long.compare(n1, n2[i]);
+      }
+      else if(!LongMath.multiplyOverflows(n1, d2[i]) && !LongMath.multiplyOverflows(n2[i], d1))
+      {
+        result[i] = Long.compare(n1 * d2[i], n2[i] * d1);
+      }
+      else
+      {
+        long aHi = LongMath.multiplyHigh(n1, d2[i]);
+        long bHi = LongMath.multiplyHigh(n2[i], d1);
+        result[i] = (aHi != bHi ? Long.compare(aHi, bHi) : Long.compareUnsigned(n1 * d2[i], n2[i] * d1));
+      }
+      result[i] = Integer.signum(result[i]);
+    }
+  }
+  
+  private void sumRange(FractionCollectors.LongSum sum, int from, int to)
+  {
+    for(int i = from; i < to; i++)
+      sum.add(numerators[i], denominators[i]);
+  }
+  
+  private void dotRange(LongFractionArray other, FractionCollectors.LongSum sum, int from, int to)
+  {
+    final long[] n2 = other.numerators;
+    final long[] d2 = other.denominators;
+    for(int i = from; i < to; i++)
+    {
+      //cancel common factors first, so the product is in lowest terms
+      long a = numerators[i], b = denominators[i], c = n2[i], d = d2[i];
+      long g1 = LongFraction.gcd(a, d);
+      long g2 = LongFraction.gcd(c, b);
+      a /= g1;
+      d /= g1;
+      c /= g2;
+      b /= g2;
+      if(!LongMath.multiplyOverflows(a, c) && !LongMath.multiplyOverflows(b, d))
+        sum.add(a * c, b * d);
+      else
+        sum.add(BigFraction.valueOf(a, b).multiply(BigFraction.valueOf(c, d)));
+    }
+  }
+  
+  /**
+   * Sets element i to this[i] + n2/d2, where n2/d2 is reduced with a positive denominator.
+   */
+  private void addAt(int i, long n2, long d2)
+  {
+    long n1 = numerators[i];
+    long d1 = denominators[i];
+    
+    //same method as LongFraction.add(). With g = gcd(d1, d2):
+    //  n1/d1 + n2/d2 = (n1*(d2/g) + n2*(d1/g)) / (d1*(d2/g))
+    //and the only factors that can be cancelled are factors of g.
+    long g = (d1 == d2 ? d1 : LongFraction.gcd(d1, d2));
+    long s1 = d2 / g;
+    long s2 = d1 / g;
+    if(!LongMath.multiplyOverflows(n1, s1) && !LongMath.multiplyOverflows(n2, s2) && !LongMath.multiplyOverflows(d1, s1))
+    {
+      long a = n1 * s1;
+      long b = n2 * s2;
+      if(!LongMath.addOverflows(a, b))
+      {
+        long t = a + b;
+        long d = d1 * s1;
+        if(t == 0L)
+        {
+          numerators[i] = 0L;
+          denominators[i] = 1L;
+        }
+        else
+        {
+          long g2 = (g == 1L ? 1L : LongFraction.gcd(t, g));
+          numerators[i] = t / g2;
+          denominators[i] = d / g2;
+        }
+        return;
+      }
+    }
+    
+    //intermediate values overflow. LongFraction will do it with 128-bit arithmetic.
+    LongFraction sum = LongFraction.valueOfReduced(n1, d1).tryAdd(LongFraction.valueOfReduced(n2, d2));
+    if(sum == null)
+      throw new ArithmeticException("Integer Overflow");
+    numerators[i] = sum.getNumerator();
+    denominators[i] = sum.getDenominator();
+  }
+  
+  /**
+   * Sets element i to this[i] * n2/d2, where n2/d2 is reduced with a positive denominator.
+   */
+  private void multiplyAt(int i, long n2, long d2)
+  {
+    long n1 = numerators[i];
+    long d1 = denominators[i];
+    
+    //(n1/d1)*(n2/d2) = ((n1/g1)*(n2/g2)) / ((d1/g2)*(d2/g1)), where g1 = gcd(n1, d2), g2 = gcd(n2, d1).
+    //That is already in lowest terms, so if it overflows, the result doesn't fit.
+    if(n1 == 0L || n2 == 0L)
+    {
+      numerators[i] = 0L;
+      denominators[i] = 1L;
+      return;
+    }
+    long g1 = LongFraction.gcd(n1, d2);
+    long g2 = LongFraction.gcd(n2, d1);
+    n1 /= g1;
+    d2 /= g1;
+    n2 /= g2;
+    d1 /= g2;
+    if(LongMath.multiplyOverflows(n1, n2) || LongMath.multiplyOverflows(d1, d2))
+      throw new ArithmeticException("Integer Overflow");
+    numerators[i] = n1 * n2;
+    denominators[i] = d1 * d2;
+  }
+}
@@ -0,0 +1,302 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.util.Arrays;
+
+/**
+ * Counts occurrences of {@link LongFraction} values, using the same primitive open-addressing table as
+ * {@link LongFractionHashMap}, with the counts in a {@code long[]}. Counting a value allocates nothing, and
+ * uses 24 bytes per slot, where a {@code LongFractionHashMap<Long>} also boxes every count.<br>
+ * <br>
+ * Keys are put in lowest terms with a positive denominator before they are hashed, in the same way as
+ * {@link LongFractionHashSet}. A key stays in the counter until it is removed, even if its count returns to
+ * zero.<br>
+ * <br>
+ * This class is not thread-safe.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ * @see LongFractionHashMap
+ */
+public final class LongFractionCounter extends LongFractionTable
+{
+  /** Callback for {@link LongFractionCounter#forEach(CountConsumer)}. */
+  @FunctionalInterface
+  public static interface CountConsumer
+  {
+    /**
+     * Performs this operation on one entry.
+     * @param numerator numerator of the key, in lowest terms
+     * @param denominator denominator of the key, always positive
+     * @param count count of the key
+     */
+    void accept(long numerator, long denominator, long count);
+  }
+  
+  private long[] counts;
+  
+  /**
+   * Constructs an empty counter.
+   */
+  public LongFractionCounter()
+  {
+    this(0);
+  }
+  
+  /**
+   * Constructs an empty counter with room for at least the given number of keys before it needs to grow.
+   *
+   * @param expectedSize expected number of keys
+   * @throws IllegalArgumentException if expectedSize is negative
+   */
+  public LongFractionCounter(int expectedSize)
+  {
+    super(expectedSize);
+    counts = new long[denominators.length];
+  }
+  
+  /**
+   * Returns the number of keys in this counter.
+   * @return the number of keys in this counter
+   */
+  public int size()
+  {
+    return size;
+  }
+  
+  /**
+   * Returns whether this counter is empty.
+   * @return true if this counter has no keys
+   */
+  public boolean isEmpty()
+  {
+    return size == 0;
+  }
+  
+  /**
+   * Removes all keys from this counter. The table keeps its current capacity.
+   */
+  public void clear()
+  {
+    clearTable();
+    Arrays.fill(counts, 0L);
+  }
+  
+  /**
+   * Adds one to the count of the given key.
+   *
+   * @param key key
+   * @return the new count of the key
+   * @throws IllegalArgumentException if key is null.
+   * @throws ArithmeticException if the count overflows.
+   */
+  public long increment(LongFraction key)
+  {
+    return addTo(key, 1L);
+  }
+  
+  /**
+   * Adds one to the count of the key {@code numerator/denominator}.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @return the new count of the key
+   * @throws ArithmeticException if denominator is zero, if the key cannot be represented as a LongFraction,
+   *         or if the count overflows.
+   */
+  public long increment(long numerator, long denominator)
+  {
+    return addTo(numerator, denominator, 1L);
+  }
+  
+  /**
+   * Adds delta to the count of the given key. A key which is not in this counter starts at zero.
+   *
+   * @param key key
+   * @param delta amount to add to the count
+   * @return the new count of the key
+   * @throws IllegalArgumentException if key is null.
+   * @throws ArithmeticException if the count overflows.
+   */
+  public long addTo(LongFraction key, long delta)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    return addToReduced(key.getNumerator(), key.getDenominator(), delta);
+  }
+  
+  /**
+   * Adds delta to the count of the key {@code numerator/denominator}. A key which is not in this counter
+   * starts at zero.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @param delta amount to add to the count
+   * @return the new count of the key
+   * @throws ArithmeticException if denominator is zero, if the key cannot be represented as a LongFraction,
+   *         or if the count overflows.
+   */
+  public long addTo(long numerator, long denominator, long delta)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return addToReduced(numerator / g, denominator / g, delta);
+  }
+  
+  /**
+   * Returns the count of the given key.
+   *
+   * @param key key
+   * @return the count of the key, or 0 if it is not in this counter
+   * @throws IllegalArgumentException if key is null.
+   */
+  public long get(LongFraction key)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    int i = indexOf(key.getNumerator(), key.getDenominator());
+    return (i < 0 ? 0L : counts[i]);
+  }
+  
+  /**
+   * Returns the count of the key {@code numerator/denominator}.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @return the count of the key, or 0 if it is not in this counter
+   * @throws ArithmeticException if denominator is zero, or if the key cannot be represented as a LongFraction.
+   */
+  public long get(long numerator, long denominator)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    int i = indexOf(numerator / g, denominator / g);
+    return (i < 0 ? 0L : counts[i]);
+  }
+  
+  /**
+   * Returns whether the given key is in this counter.
+   *
+   * @param key key
+   * @return true if the key is in this counter
+   * @throws IllegalArgumentException if key is null.
+   */
+  public boolean containsKey(LongFraction key)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    return indexOf(key.getNumerator(), key.getDenominator()) >= 0;
+  }
+  
+  /**
+   * Removes the given key from this counter.
+   *
+   * @param key key
+   * @return the count of the key, or 0 if it was not in this counter
+   * @throws IllegalArgumentException if key is null.
+   */
+  public long remove(LongFraction key)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    return removeReduced(key.getNumerator(), key.getDenominator());
+  }
+  
+  /**
+   * Removes the key {@code numerator/denominator} from this counter.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @return the count of the key, or 0 if it was not in this counter
+   * @throws ArithmeticException if denominator is zero, or if the key cannot be represented as a LongFraction.
+   */
+  public long remove(long numerator, long denominator)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return removeReduced(numerator / g, denominator / g);
+  }
+  
+  /**
+   * Performs the given action on each key of this counter, in no particular order. The counter must not be
+   * structurally modified by the action.
+   *
+   * @param action action to perform on each key
+   * @throws IllegalArgumentException if action is null.
+   */
+  public void forEach(CountConsumer action)
+  {
+    if(action == null)
+      throw new IllegalArgumentException("Null argument");
+    for(int i = 0; i < denominators.length; i++)
+    {
+      if(denominators[i] != 0L)
+        action.accept(numerators[i], denominators[i], counts[i]);
+    }
+  }
+  
+  /**
+   * Returns the keys of this counter, in no particular order.
+   * @return a new LongFractionArray with all keys of this counter
+   */
+  public LongFractionArray keys()
+  {
+    return keyArray();
+  }
+  
+  /**
+   * Returns a string representation of this counter, in the same format as {@link java.util.AbstractMap#toString()}.
+   */
+  @Override
+  public String toString()
+  {
+    StringBuilder sb = new StringBuilder("{");
+    forEach((n, d, c) -> {
+      if(sb.length() > 1)
+        sb.append(", ");
+      sb.append(n).append('/').append(d).append('=').append(c);
+    });
+    return sb.append('}').toString();
+  }
+  
+  private long addToReduced(long n, long d, long delta)
+  {
+    int i = findOrInsert(n, d);
+    if(i >= 0)
+      return (counts[i] = Math.addExact(counts[i], delta));
+    counts[-i - 1] = delta;
+    inserted();
+    return delta;
+  }
+  
+  private long removeReduced(long n, long d)
+  {
+    int i = indexOf(n, d);
+    if(i < 0)
+      return 0L;
+    long old = counts[i];
+    removeAt(i);
+    return old;
+  }
+  
+  @Override
+  Object swapPayload(int capacity)
+  {
+    long[] old = counts;
+    counts = new long[capacity];
+    return old;
+  }
+  
+  @Override
+  void rehashPayload(Object oldPayload, int from, int to)
+  {
+    counts[to] = ((long[])oldPayload)[from];
+  }
+  
+  @Override
+  void movePayload(int from, int to)
+  {
+    counts[to] = counts[from];
+  }
+  
+  @Override
+  void clearPayload(int i)
+  {
+    counts[i] = 0L;
+  }
+}
@@ -0,0 +1,326 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.util.Arrays;
+
+/**
+ * Hash map with {@link LongFraction} keys, stored as two parallel {@code long[]} arrays of numerators and
+ * denominators plus an array of values, using open addressing with linear probing. No object is allocated
+ * per key, and entries may be stored and looked up directly by numerator and denominator without creating
+ * a LongFraction.<br>
+ * <br>
+ * Keys are put in lowest terms with a positive denominator before they are hashed, in the same way as
+ * {@link LongFractionHashSet}. Null values are permitted.<br>
+ * <br>
+ * This class is not thread-safe.
+ *
+ * @param <V> type of the values
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ * @see LongFractionHashSet
+ * @see LongFractionCounter
+ */
+public final class LongFractionHashMap<V> extends LongFractionTable
+{
+  /** Callback for {@link LongFractionHashMap#forEach(EntryConsumer)}. */
+  @FunctionalInterface
+  public static interface EntryConsumer<V>
+  {
+    /**
+     * Performs this operation on one entry.
+     * @param numerator numerator of the key, in lowest terms
+     * @param denominator denominator of the key, always positive
+     * @param value value mapped to the key
+     */
+    void accept(long numerator, long denominator, V value);
+  }
+  
+  private Object[] values;
+  
+  /**
+   * Constructs an empty map.
+   */
+  public LongFractionHashMap()
+  {
+    this(0);
+  }
+  
+  /**
+   * Constructs an empty map with room for at least the given number of entries before it needs to grow.
+   *
+   * @param expectedSize expected number of entries
+   * @throws IllegalArgumentException if expectedSize is negative
+   */
+  public LongFractionHashMap(int expectedSize)
+  {
+    super(expectedSize);
+    values = new Object[denominators.length];
+  }
+  
+  /**
+   * Returns the number of entries in this map.
+   * @return the number of entries in this map
+   */
+  public int size()
+  {
+    return size;
+  }
+  
+  /**
+   * Returns whether this map is empty.
+   * @return true if this map has no entries
+   */
+  public boolean isEmpty()
+  {
+    return size == 0;
+  }
+  
+  /**
+   * Removes all entries from this map. The table keeps its current capacity.
+   */
+  public void clear()
+  {
+    clearTable();
+    Arrays.fill(values, null);
+  }
+  
+  /**
+   * Maps the given key to the given value.
+   *
+   * @param key key
+   * @param value value to map to the key
+   * @return the previous value mapped to the key, or null if there was none
+   * @throws IllegalArgumentException if key is null.
+   */
+  public V put(LongFraction key, V value)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    return putReduced(key.getNumerator(), key.getDenominator(), value);
+  }
+  
+  /**
+   * Maps the key {@code numerator/denominator} to the given value.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @param value value to map to the key
+   * @return the previous value mapped to the key, or null if there was none
+   * @throws ArithmeticException if denominator is zero, or if the key cannot be represented as a LongFraction.
+   */
+  public V put(long numerator, long denominator, V value)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return putReduced(numerator / g, denominator / g, value);
+  }
+  
+  /**
+   * Returns the value mapped to the given key.
+   *
+   * @param key key
+   * @return the value mapped to the key, or null if there is none
+   * @throws IllegalArgumentException if key is null.
+   */
+  public V get(LongFraction key)
+  {
+    return getOrDefault(key, null);
+  }
+  
+  /**
+   * Returns the value mapped to the key {@code numerator/denominator}.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @return the value mapped to the key, or null if there is none
+   * @throws ArithmeticException if denominator is zero, or if the key cannot be represented as a LongFraction.
+   */
+  public V get(long numerator, long denominator)
+  {
+    return getOrDefault(numerator, denominator, null);
+  }
+  
+  /**
+   * Returns the value mapped to the given key, or defaultValue if the key is not in this map.
+   *
+   * @param key key
+   * @param defaultValue value to return if the key is not in this map
+   * @return the value mapped to the key, or defaultValue
+   * @throws IllegalArgumentException if key is null.
+   */
+  public V getOrDefault(LongFraction key, V defaultValue)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    int i = indexOf(key.getNumerator(), key.getDenominator());
+    return (i < 0 ? defaultValue : valueAt(i));
+  }
+  
+  /**
+   * Returns the value mapped to the key {@code numerator/denominator}, or defaultValue if the key is not in
+   * this map.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @param defaultValue value to return if the key is not in this map
+   * @return the value mapped to the key, or defaultValue
+   * @throws ArithmeticException if denominator is zero, or if the key cannot be represented as a LongFraction.
+   */
+  public V getOrDefault(long numerator, long denominator, V defaultValue)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    int i = indexOf(numerator / g, denominator / g);
+    return (i < 0 ? defaultValue : valueAt(i));
+  }
+  
+  /**
+   * Returns whether the given key is in this map.
+   *
+   * @param key key
+   * @return true if the key is in this map
+   * @throws IllegalArgumentException if key is null.
+   */
+  public boolean containsKey(LongFraction key)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    return indexOf(key.getNumerator(), key.getDenominator()) >= 0;
+  }
+  
+  /**
+   * Returns whether the key {@code numerator/denominator} is in this map.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @return true if the key is in this map
+   * @throws ArithmeticException if denominator is zero, or if the key cannot be represented as a LongFraction.
+   */
+  public boolean containsKey(long numerator, long denominator)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return indexOf(numerator / g, denominator / g) >= 0;
+  }
+  
+  /**
+   * Removes the given key from this map.
+   *
+   * @param key key
+   * @return the value that was mapped to the key, or null if there was none
+   * @throws IllegalArgumentException if key is null.
+   */
+  public V remove(LongFraction key)
+  {
+    if(key == null)
+      throw new IllegalArgumentException("Null argument");
+    return removeReduced(key.getNumerator(), key.getDenominator());
+  }
+  
+  /**
+   * Removes the key {@code numerator/denominator} from this map.
+   *
+   * @param numerator numerator of the key
+   * @param denominator denominator of the key
+   * @return the value that was mapped to the key, or null if there was none
+   * @throws ArithmeticException if denominator is zero, or if the key cannot be represented as a LongFraction.
+   */
+  public V remove(long numerator, long denominator)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return removeReduced(numerator / g, denominator / g);
+  }
+  
+  /**
+   * Performs the given action on each entry of this map, in no particular order. The map must not be
+   * structurally modified by the action.
+   *
+   * @param action action to perform on each entry
+   * @throws IllegalArgumentException if action is null.
+   */
+  public void forEach(EntryConsumer<? super V> action)
+  {
+    if(action == null)
+      throw new IllegalArgumentException("Null argument");
+    for(int i = 0; i < denominators.length; i++)
+    {
+      if(denominators[i] != 0L)
+        action.accept(numerators[i], denominators[i], valueAt(i));
+    }
+  }
+  
+  /**
+   * Returns the keys of this map, in no particular order.
+   * @return a new LongFractionArray with all keys of this map
+   */
+  public LongFractionArray keys()
+  {
+    return keyArray();
+  }
+  
+  /**
+   * Returns a string representation of this map, in the same format as {@link java.util.AbstractMap#toString()}.
+   */
+  @Override
+  public String toString()
+  {
+    StringBuilder sb = new StringBuilder("{");
+    forEach((n, d, v) -> {
+      if(sb.length() > 1)
+        sb.append(", ");
+      sb.append(n).append('/').append(d).append('=').append(v);
+    });
+    return sb.append('}').toString();
+  }
+  
+  @SuppressWarnings("unchecked")
+  private V valueAt(int i)
+  {
+    return (V)values[i];
+  }
+  
+  private V putReduced(long n, long d, V value)
+  {
+    int i = findOrInsert(n, d);
+    if(i >= 0)
+    {
+      V old = valueAt(i);
+      values[i] = value;
+      return old;
+    }
+    values[-i - 1] = value;
+    inserted();
+    return null;
+  }
+  
+  private V removeReduced(long n, long d)
+  {
+    int i = indexOf(n, d);
+    if(i < 0)
+      return null;
+    V old = valueAt(i);
+    removeAt(i);
+    return old;
+  }
+  
+  @Override
+  Object swapPayload(int capacity)
+  {
+    Object[] old = values;
+    values = new Object[capacity];
+    return old;
+  }
+  
+  @Override
+  void rehashPayload(Object oldPayload, int from, int to)
+  {
+    values[to] = ((Object[])oldPayload)[from];
+  }
+  
+  @Override
+  void movePayload(int from, int to)
+  {
+    values[to] = values[from];
+  }
+  
+  @Override
+  void clearPayload(int i)
+  {
+    values[i] = null;
+  }
+}
@@ -0,0 +1,219 @@
+package com.github.kiprobinson.bigfraction;
+
+/**
+ * Hash set of {@link LongFraction} values, stored as two parallel {@code long[]} arrays of numerators and
+ * denominators, using open addressing with linear probing. No object is allocated per element, and
+ * values may be added and looked up directly by numerator and denominator without creating a
+ * LongFraction.<br>
+ * <br>
+ * Values are put in lowest terms with a positive denominator before they are hashed, so {@code 2/4} and
+ * {@code -1/-2} are the same element. The hash function fully mixes both the numerator and the denominator,
+ * so that sets of fractions with many shared numerators or denominators do not cluster.<br>
+ * <br>
+ * This class is not thread-safe.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ * @see LongFractionHashMap
+ */
+public final class LongFractionHashSet extends LongFractionTable
+{
+  /** Callback for {@link LongFractionHashSet#forEach(FractionConsumer)}. */
+  @FunctionalInterface
+  public static interface FractionConsumer
+  {
+    /**
+     * Performs this operation on one element.
+     * @param numerator numerator of the element, in lowest terms
+     * @param denominator denominator of the element, always positive
+     */
+    void accept(long numerator, long denominator);
+  }
+  
+  /**
+   * Constructs an empty set.
+   */
+  public LongFractionHashSet()
+  {
+    this(0);
+  }
+  
+  /**
+   * Constructs an empty set with room for at least the given number of elements before it needs to grow.
+   *
+   * @param expectedSize expected number of elements
+   * @throws IllegalArgumentException if expectedSize is negative
+   */
+  public LongFractionHashSet(int expectedSize)
+  {
+    super(expectedSize);
+  }
+  
+  /**
+   * Returns the number of elements in this set.
+   * @return the number of elements in this set
+   */
+  public int size()
+  {
+    return size;
+  }
+  
+  /**
+   * Returns whether this set is empty.
+   * @return true if this set has no elements
+   */
+  public boolean isEmpty()
+  {
+    return size == 0;
+  }
+  
+  /**
+   * Removes all elements from this set. The table keeps its current capacity.
+   */
+  public void clear()
+  {
+    clearTable();
+  }
+  
+  /**
+   * Adds the given value to this set.
+   *
+   * @param f value to add
+   * @return true if the value was not already in this set
+   * @throws IllegalArgumentException if f is null.
+   */
+  public boolean add(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    return addReduced(f.getNumerator(), f.getDenominator());
+  }
+  
+  /**
+   * Adds the value {@code numerator/denominator} to this set.
+   *
+   * @param numerator numerator of the value to add
+   * @param denominator denominator of the value to add
+   * @return true if the value was not already in this set
+   * @throws ArithmeticException if denominator is zero, or if the value cannot be represented as a LongFraction.
+   */
+  public boolean add(long numerator, long denominator)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return addReduced(numerator / g, denominator / g);
+  }
+  
+  /**
+   * Returns whether the given value is in this set.
+   *
+   * @param f value to look up
+   * @return true if the value is in this set
+   * @throws IllegalArgumentException if f is null.
+   */
+  public boolean contains(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    return indexOf(f.getNumerator(), f.getDenominator()) >= 0;
+  }
+  
+  /**
+   * Returns whether the value {@code numerator/denominator} is in this set.
+   *
+   * @param numerator numerator of the value to look up
+   * @param denominator denominator of the value to look up
+   * @return true if the value is in this set
+   * @throws ArithmeticException if denominator is zero, or if the value cannot be represented as a LongFraction.
+   */
+  public boolean contains(long numerator, long denominator)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return indexOf(numerator / g, denominator / g) >= 0;
+  }
+  
+  /**
+   * Removes the given value from this set.
+   *
+   * @param f value to remove
+   * @return true if the value was in this set
+   * @throws IllegalArgumentException if f is null.
+   */
+  public boolean remove(LongFraction f)
+  {
+    if(f == null)
+      throw new IllegalArgumentException("Null argument");
+    return removeReduced(f.getNumerator(), f.getDenominator());
+  }
+  
+  /**
+   * Removes the value {@code numerator/denominator} from this set.
+   *
+   * @param numerator numerator of the value to remove
+   * @param denominator denominator of the value to remove
+   * @return true if the value was in this set
+   * @throws ArithmeticException if denominator is zero, or if the value cannot be represented as a LongFraction.
+   */
+  public boolean remove(long numerator, long denominator)
+  {
+    long g = reducingDivisor(numerator, denominator);
+    return removeReduced(numerator / g, denominator / g);
+  }
+  
+  /**
+   * Performs the given action on each element of this set, in no particular order. The set must not be
+   * modified by the action.
+   *
+   * @param action action to perform on each element
+   * @throws IllegalArgumentException if action is null.
+   */
+  public void forEach(FractionConsumer action)
+  {
+    if(action == null)
+      throw new IllegalArgumentException("Null argument");
+    for(int i = 0; i < denominators.length; i++)
+    {
+      if(denominators[i] != 0L)
+        action.accept(numerators[i], denominators[i]);
+    }
+  }
+  
+  /**
+   * Returns the elements of this set, in no particular order.
+   * @return a new LongFractionArray with all elements of this set
+   */
+  public LongFractionArray toArray()
+  {
+    return keyArray();
+  }
+  
+  /**
+   * Returns a string representation of this set, in the same format as {@link java.util.AbstractCollection#toString()}.
+   */
+  @Override
+  public String toString()
+  {
+    StringBuilder sb = new StringBuilder("[");
+    forEach((n, d) -> {
+      if(sb.length() > 1)
+        sb.append(", ");
+      sb.append(n).append('/').append(d);
+    });
+    return sb.append(']').toString();
+  }
+  
+  private boolean addReduced(long n, long d)
+  {
+    if(findOrInsert(n, d) >= 0)
+      return false;
+    inserted();
+    return true;
+  }
+  
+  private boolean removeReduced(long n, long d)
+  {
+    int i = indexOf(n, d);
+    if(i < 0)
+      return false;
+    removeAt(i);
+    return true;
+  }
+}
@@ -0,0 +1,294 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.util.Arrays;
+
+/**
+ * Linear-time sorting of {@link LongFraction} values, using a least-significant-digit radix sort.<br>
+ * <br>
+ * Each fraction {@code n/d} is turned into a 128-bit key {@code floor(n*2^64/d)}: the high word is the
+ * integer part {@code floor(n/d)}, and the low word is the first 64 bits of the fractional part. This key
+ * never decreases as the fraction increases, so sorting by the key puts every element in order, except that
+ * distinct fractions which differ by less than 2^-64 can share a key. After the radix sort, each run of equal
+ * keys (which is almost always a run of equal fractions) is put in exact order using 128-bit cross
+ * multiplication.<br>
+ * <br>
+ * The sorts are stable, and never throw an overflow exception. They use O(n) additional memory. Radix passes
+ * in which every key has the same digit, which is typical of the high bytes of the integer part, are
+ * skipped.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class LongFractionSort
+{
+  /** Number of bits sorted in each radix pass. */
+  private final static int DIGIT_BITS = 8;
+  private final static int RADIX = 1 << DIGIT_BITS;
+  private final static int DIGIT_MASK = RADIX - 1;
+  
+  /** Number of passes for each 64-bit half of the key. */
+  private final static int PASSES_PER_WORD = 64 / DIGIT_BITS;
+  
+  /** Below this size, an insertion sort on the keys is faster than clearing and scanning the histograms. */
+  private final static int INSERTION_SORT_THRESHOLD = 32;
+  
+  private LongFractionSort()
+  {
+    //no instances
+  }
+  
+  /**
+   * Sorts the given array into ascending numerical order.
+   *
+   * @param a array to sort
+   * @throws IllegalArgumentException if a or any of its elements is null.
+   */
+  public static void sort(LongFraction[] a)
+  {
+    if(a == null)
+      throw new IllegalArgumentException("Null argument");
+    sort(a, 0, a.length);
+  }
+  
+  /**
+   * Sorts the given range of the array into ascending numerical order.
+   *
+   * @param a array to sort
+   * @param fromIndex index of the first element to sort, inclusive
+   * @param toIndex index of the last element to sort, exclusive
+   * @throws IllegalArgumentException if a or any of the elements in the range is null, or fromIndex &gt; toIndex.
+   * @throws ArrayIndexOutOfBoundsException if fromIndex &lt; 0 or toIndex &gt; a.length
+   */
+  public static void sort(LongFraction[] a, int fromIndex, int toIndex)
+  {
+    if(a == null)
+      throw new IllegalArgumentException("Null argument");
+    checkRange(a.length, fromIndex, toIndex);
+    
+    int len = toIndex - fromIndex;
+    long[] numerators = new long[len];
+    long[] denominators = new long[len];
+    for(int i = 0; i < len; i++)
+    {
+      LongFraction f = a[fromIndex + i];
+      if(f == null)
+        throw new IllegalArgumentException("Null argument");
+      numerators[i] = f.getNumerator();
+      denominators[i] = f.getDenominator();
+    }
+    
+    int[] order = sortedOrder(numerators, denominators, 0, len);
+    LongFraction[] copy = Arrays.copyOfRange(a, fromIndex, toIndex);
+    for(int i = 0; i < len; i++)
+      a[fromIndex + i] = copy[order[i]];
+  }
+  
+  /**
+   * Sorts fractions stored as parallel arrays of numerators and denominators into ascending numerical order.
+   * Element i is {@code numerators[i]/denominators[i]}. Both arrays are rearranged in the same way. The
+   * fractions do not need to be in lowest terms, but every denominator must be positive.
+   *
+   * @param numerators numerators of the fractions to sort
+   * @param denominators denominators of the fractions to sort. Must be the same length as numerators.
+   * @throws IllegalArgumentException if either array is null, the lengths differ, or any denominator is not
+   *         positive.
+   */
+  public static void sort(long[] numerators, long[] denominators)
+  {
+    if(numerators == null || denominators == null)
+      throw new IllegalArgumentException("Null argument");
+    if(numerators.length != denominators.length)
+      throw new IllegalArgumentException("Array lengths differ: " + numerators.length + " != " + denominators.length);
+    for(long d : denominators)
+    {
+      if(d <= 0L)
+        throw new IllegalArgumentException("Denominators must be positive: " + d);
+    }
+    sortRange(numerators, denominators, 0, numerators.length);
+  }
+  
+  /**
+   * Sorts the given range of parallel numerator and denominator arrays. Denominators must already be known
+   * to be positive.
+   */
+  static void sortRange(long[] numerators, long[] denominators, int fromIndex, int toIndex)
+  {
+    int[] order = sortedOrder(numerators, denominators, fromIndex, toIndex);
+    long[] nCopy = Arrays.copyOfRange(numerators, fromIndex, toIndex);
+    long[] dCopy = Arrays.copyOfRange(denominators, fromIndex, toIndex);
+    for(int i = 0; i < order.length; i++)
+    {
+      numerators[fromIndex + i] = nCopy[order[i]];
+      denominators[fromIndex + i] = dCopy[order[i]];
+    }
+  }
+  
+  /**
+   * Returns the permutation which sorts the given range: element i of the result is the offset, relative to
+   * fromIndex, of the element which belongs at position {@code fromIndex + i}.
+   */
+  private static int[] sortedOrder(long[] numerators, long[] denominators, int fromIndex, int toIndex)
+  {
+    int len = toIndex - fromIndex;
+    long[] hi = new long[len];
+    long[] lo = new long[len];
+    int[] order = new int[len];
+    for(int i = 0; i < len; i++)
+    {
+      long n = numerators[fromIndex + i];
+      long d = denominators[fromIndex + i];
+      long r = Math.floorMod(n, d);
+      //flip the sign bit, so that the signed integer part sorts correctly as an unsigned digit sequence
+      hi[i] = Math.floorDiv(n, d) ^ Long.MIN_VALUE;
+      lo[i] = (r == 0L ? 0L : LongMath.divideUnsigned128(r, 0L, d));
+      order[i] = i;
+    }
+    
+    if(len < INSERTION_SORT_THRESHOLD)
+      insertionSort(hi, lo, order);
+    else
+      radixSort(hi, lo, order);
+    
+    //put runs of equal keys in exact order
+    for(int start = 0; start < len; )
+    {
+      int end = start + 1;
+      while(end < len && hi[end] == hi[start] && lo[end] == lo[start])
+        end++;
+      if(end - start > 1)
+        sortRun(numerators, denominators, fromIndex, order, start, end);
+      start = end;
+    }
+    return order;
+  }
+  
+  /**
+   * Stable LSD radix sort of the 128-bit unsigned keys hi:lo, carrying order along with them.
+   */
+  private static void radixSort(long[] hi, long[] lo, int[] order)
+  {
+    int len = order.length;
+    
+    //histograms for every pass, built in a single scan
+    int[][] counts = new int[2 * PASSES_PER_WORD][RADIX];
+    for(int i = 0; i < len; i++)
+    {
+      long h = hi[i];
+      long l = lo[i];
+      for(int p = 0; p < PASSES_PER_WORD; p++)
+      {
+        counts[p][(int)(l >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+        counts[p + PASSES_PER_WORD][(int)(h >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+      }
+    }
+    
+    long[] hiSrc = hi, loSrc = lo, hiDst = new long[len], loDst = new long[len];
+    int[] orderSrc = order, orderDst = new int[len];
+    for(int p = 0; p < 2 * PASSES_PER_WORD; p++)
+    {
+      int[] count = counts[p];
+      int shift = (p % PASSES_PER_WORD) * DIGIT_BITS;
+      long[] digits = (p < PASSES_PER_WORD ? loSrc : hiSrc);
+      
+      //skip the pass if every key has the same digit
+      if(count[(int)(digits[0] >>> shift) & DIGIT_MASK] == len)
+        continue;
+      
+      //convert counts to starting offsets
+      int offset = 0;
+      for(int b = 0; b < RADIX; b++)
+      {
+        int c = count[b];
+        count[b] = offset;
+        offset += c;
+      }
+      
+      for(int i = 0; i < len; i++)
+      {
+        int dst = count[(int)(digits[i] >>> shift) & DIGIT_MASK]++;
+        hiDst[dst] = hiSrc[i];
+        loDst[dst] = loSrc[i];
+        orderDst[dst] = orderSrc[i];
+      }
+      
+      long[] tmp = hiSrc; hiSrc = hiDst; hiDst = tmp;
+      tmp = loSrc; loSrc = loDst; loDst = tmp;
+      int[] tmpOrder = orderSrc; orderSrc = orderDst; orderDst = tmpOrder;
+    }
+    
+    //after an odd number of passes, the sorted data is in the buffers
+    if(hiSrc != hi)
+    {
+      System.arraycopy(hiSrc, 0, hi, 0, len);
+      System.arraycopy(loSrc, 0, lo, 0, len);
+      System.arraycopy(orderSrc, 0, order, 0, len);
+    }
+  }
+  
+  /**
+   * Stable insertion sort of the 128-bit unsigned keys hi:lo, carrying order along with them.
+   */
+  private static void insertionSort(long[] hi, long[] lo, int[] order)
+  {
+    for(int i = 1; i < order.length; i++)
+    {
+      long h = hi[i];
+      long l = lo[i];
+      int o = order[i];
+      int j = i - 1;
+      while(j >= 0 && (Long.compareUnsigned(hi[j], h) > 0 || (hi[j] == h && Long.compareUnsigned(lo[j], l) > 0)))
+      {
+        hi[j + 1] = hi[j];
+        lo[j + 1] = lo[j];
+        order[j + 1] = order[j];
+        j--;
+      }
+      hi[j + 1] = h;
+      lo[j + 1] = l;
+      order[j + 1] = o;
+    }
+  }
+  
+  /**
+   * Stable insertion sort of order[start..end), whose elements all have the same key, by exact value.
+   * Runs are nearly always equal values, so this normally makes a single pass with no moves.
+   */
+  private static void sortRun(long[] numerators, long[] denominators, int fromIndex, int[] order, int start, int end)
+  {
+    for(int i = start + 1; i < end; i++)
+    {
+      int o = order[i];
+      long n = numerators[fromIndex + o];
+      long d = denominators[fromIndex + o];
+      int j = i - 1;
+      while(j >= start && compare(numerators[fromIndex + order[j]], denominators[fromIndex + order[j]], n, d) > 0)
+      {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = o;
+    }
+  }
+  
+  /**
+   * Exactly compares n1/d1 and n2/d2, with positive denominators, by comparing the 128-bit products n1*d2 and
+   * n2*d1. Never overflows.
+   */
+  private static int compare(long n1, long d1, long n2, long d2)
+  {
+    long hi1 = LongMath.multiplyHigh(n1, d2);
+    long hi2 = LongMath.multiplyHigh(n2, d1);
+    if(hi1 != hi2)
+      return (hi1 < hi2 ? -1 : 1);
+    return Long.compareUnsigned(n1 * d2, n2 * d1);
+  }
+  
+  private static void checkRange(int length, int fromIndex, int toIndex)
+  {
+    if(fromIndex > toIndex)
+      throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+    if(fromIndex < 0)
+      throw new ArrayIndexOutOfBoundsException(fromIndex);
+    if(toIndex > length)
+      throw new ArrayIndexOutOfBoundsException(toIndex);
+  }
+}
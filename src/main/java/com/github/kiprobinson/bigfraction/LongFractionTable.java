@@ -0,0 +1,253 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing table of {@link LongFraction} keys, shared by {@link LongFractionHashSet},
+ * {@link LongFractionHashMap} and {@link LongFractionCounter}. Keys are stored as two parallel {@code long[]}
+ * arrays of numerators and denominators, using linear probing, and must already be in lowest terms with a
+ * positive denominator.<br>
+ * <br>
+ * Subclasses which store a value for each key keep it in their own array, indexed by the same slot as the
+ * key, and override the payload methods so that the values move along with the keys when entries are
+ * deleted or the table grows.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+abstract class LongFractionTable
+{
+  /** Smallest table size. */
+  private final static int MIN_CAPACITY = 16;
+  
+  /** Largest table size. Tables are always a power of 2. */
+  private final static int MAX_CAPACITY = 1 << 30;
+  
+  long[] numerators;
+  
+  /** Denominators of the keys. A denominator of 0 marks an empty slot. */
+  long[] denominators;
+  
+  int size = 0;
+  
+  LongFractionTable(int expectedSize)
+  {
+    int capacity = tableSizeFor(expectedSize);
+    numerators = new long[capacity];
+    denominators = new long[capacity];
+  }
+  
+  /**
+   * Replaces the payload arrays with new ones of the given capacity, and returns the old payload, which is
+   * passed back to {@link #rehashPayload(Object, int, int)}.
+   */
+  Object swapPayload(int capacity)
+  {
+    return null;
+  }
+  
+  /**
+   * Copies the payload of slot from in oldPayload to slot to in the current payload.
+   */
+  void rehashPayload(Object oldPayload, int from, int to)
+  {
+    //no payload
+  }
+  
+  /**
+   * Moves the payload of slot from to slot to, within the current payload.
+   */
+  void movePayload(int from, int to)
+  {
+    //no payload
+  }
+  
+  /**
+   * Clears the payload of the given slot, which has just been emptied.
+   */
+  void clearPayload(int i)
+  {
+    //no payload
+  }
+  
+  /**
+   * Empties every slot. The table keeps its current capacity.
+   */
+  final void clearTable()
+  {
+    Arrays.fill(denominators, 0L);
+    size = 0;
+  }
+  
+  /**
+   * Returns the keys in the table, in slot order.
+   */
+  final LongFractionArray keyArray()
+  {
+    LongFractionArray ret = new LongFractionArray(size);
+    int j = 0;
+    for(int i = 0; i < denominators.length; i++)
+    {
+      if(denominators[i] != 0L)
+        ret.setReduced(j++, numerators[i], denominators[i]);
+    }
+    return ret;
+  }
+  
+  /**
+   * Returns the slot holding the key n/d, or -1 if there is none.
+   */
+  final int indexOf(long n, long d)
+  {
+    int mask = denominators.length - 1;
+    int i = hash(n, d) & mask;
+    while(denominators[i] != 0L)
+    {
+      if(numerators[i] == n && denominators[i] == d)
+        return i;
+      i = (i + 1) & mask;
+    }
+    return -1;
+  }
+  
+  /**
+   * Returns the slot holding the key n/d. If there is none, the key is stored in an empty slot, and
+   * {@code -(slot + 1)} is returned. The caller must then store the payload of the new slot, and call
+   * {@link #inserted()}. Throws IllegalStateException if the key is new and the table is at its largest size
+   * and full.
+   */
+  final int findOrInsert(long n, long d)
+  {
+    int mask = denominators.length - 1;
+    int i = hash(n, d) & mask;
+    while(denominators[i] != 0L)
+    {
+      if(numerators[i] == n && denominators[i] == d)
+        return i;
+      i = (i + 1) & mask;
+    }
+    //the table can't grow past MAX_CAPACITY, so check before storing anything
+    if(denominators.length >= MAX_CAPACITY && size >= maxSize(denominators.length))
+      throw new IllegalStateException(getClass().getSimpleName() + " is full");
+    numerators[i] = n;
+    denominators[i] = d;
+    return -(i + 1);
+  }
+  
+  /**
+   * Counts a key stored by {@link #findOrInsert(long, long)}, and grows the table if it is too full. Slots
+   * may move, so any slot index held by the caller is no longer valid.
+   */
+  final void inserted()
+  {
+    //findOrInsert() refuses new keys once a MAX_CAPACITY table is full, so this never doubles MAX_CAPACITY
+    if(++size > maxSize(denominators.length))
+      resize(denominators.length << 1);
+  }
+  
+  /**
+   * Removes the entry in slot i. Slots may move, so any other slot index held by the caller is no longer
+   * valid.
+   */
+  final void removeAt(int i)
+  {
+    //backward-shift deletion: move later entries of the same probe run into the gap, so that no
+    //tombstones are needed and lookups never have to probe past deleted slots
+    int mask = denominators.length - 1;
+    int gap = i;
+    for(int j = (gap + 1) & mask; denominators[j] != 0L; j = (j + 1) & mask)
+    {
+      int home = hash(numerators[j], denominators[j]) & mask;
+      //entry j can fill the gap only if its home slot is not cyclically within (gap, j]
+      if(((j - home) & mask) >= ((j - gap) & mask))
+      {
+        numerators[gap] = numerators[j];
+        denominators[gap] = denominators[j];
+        movePayload(j, gap);
+        gap = j;
+      }
+    }
+    denominators[gap] = 0L;
+    clearPayload(gap);
+    size--;
+  }
+  
+  private void resize(int capacity)
+  {
+    long[] oldNumerators = numerators;
+    long[] oldDenominators = denominators;
+    numerators = new long[capacity];
+    denominators = new long[capacity];
+    Object oldPayload = swapPayload(capacity);
+    int mask = capacity - 1;
+    for(int j = 0; j < oldDenominators.length; j++)
+    {
+      long n = oldNumerators[j];
+      long d = oldDenominators[j];
+      if(d == 0L)
+        continue;
+      int i = hash(n, d) & mask;
+      while(denominators[i] != 0L)
+        i = (i + 1) & mask;
+      numerators[i] = n;
+      denominators[i] = d;
+      rehashPayload(oldPayload, j, i);
+    }
+  }
+  
+  /**
+   * Hashes a fraction that is already in lowest terms. Both halves are fully mixed using the finalizer
+   * from MurmurHash3, so every input bit affects every output bit, including the low bits used to index
+   * the table.
+   */
+  static int hash(long n, long d)
+  {
+    long h = n * 0x9E3779B97F4A7C15L + d;
+    h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+    h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return (int)(h ^ (h >>> 33));
+  }
+  
+  /**
+   * Returns the value g such that {@code n/g} and {@code d/g} are in lowest terms, with {@code d/g} positive.
+   * Throws ArithmeticException if d is zero, or if the reduced fraction does not fit in a long.
+   */
+  static long reducingDivisor(long n, long d)
+  {
+    if(d == 0L)
+      throw new ArithmeticException("Divide by zero: fraction denominator is zero.");
+    if(n == 0L || n == d)
+      return d;
+    long g = LongFraction.gcd(n, d);
+    if(d > 0L)
+      return g;
+    //negating the numerator or denominator overflows only if it is Long.MIN_VALUE and g == 1
+    if(g == 1L && (n == Long.MIN_VALUE || d == Long.MIN_VALUE))
+      throw new ArithmeticException("Integer Overflow");
+    return -g;
+  }
+  
+  /**
+   * Returns the maximum number of elements in a table of the given capacity, for a load factor of 3/4.
+   */
+  static int maxSize(int capacity)
+  {
+    return capacity - (capacity >>> 2);
+  }
+  
+  /**
+   * Returns the smallest power of 2 table size which can hold expectedSize elements.
+   */
+  static int tableSizeFor(int expectedSize)
+  {
+    if(expectedSize < 0)
+      throw new IllegalArgumentException("Negative size: " + expectedSize);
+    int capacity = MIN_CAPACITY;
+    while(maxSize(capacity) < expectedSize)
+    {
+      if(capacity >= MAX_CAPACITY)
+        throw new IllegalArgumentException("Size too large: " + expectedSize);
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+}
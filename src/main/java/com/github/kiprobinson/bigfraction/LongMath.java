@@ -0,0 +1,262 @@
+package com.github.kiprobinson.bigfraction;
+
+/**
+ * Primitive {@code long} arithmetic helpers shared by {@link LongFraction} and related classes.<br>
+ * <br>
+ * The throwing operations should use {@link Math#addExact(long, long)}, {@link Math#multiplyExact(long, long)},
+ * etc., which the JIT compiles to intrinsics. The predicates here are for code which takes a fallback path on
+ * overflow, and should not pay for constructing and catching an exception.<br>
+ * <br>
+ * This class also has the pieces needed for 128-bit intermediate values. A 128-bit value is passed around as
+ * two longs, {@code hi} and {@code lo}; {@code lo} is always treated as unsigned, and {@code hi} is either
+ * signed or unsigned, as documented on each method. These are ports of the corresponding algorithms from
+ * Hacker's Delight (and of Math.multiplyHigh(), which was added in Java 9).
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+final class LongMath
+{
+  private LongMath()
+  {
+    //no instances
+  }
+  
+  /**
+   * Returns true if {@code a + b} overflows a long.
+   */
+  static boolean addOverflows(long a, long b)
+  {
+    //overflow iff both arguments have the opposite sign of the result
+    long r = a + b;
+    return ((a ^ r) & (b ^ r)) < 0L;
+  }
+  
+  /**
+   * Returns true if {@code a - b} overflows a long.
+   */
+  static boolean subtractOverflows(long a, long b)
+  {
+    //overflow iff the arguments have different signs, and the sign of the result is different than the sign of a
+    long r = a - b;
+    return ((a ^ b) & (a ^ r)) < 0L;
+  }
+  
+  /**
+   * Returns true if {@code a * b} overflows a long.
+   */
+  static boolean multiplyOverflows(long a, long b)
+  {
+    //same test as Math.multiplyExact(): if both values fit in 31 bits, the product can't overflow.
+    //otherwise, check by dividing back out.
+    long r = a * b;
+    long absA = Math.abs(a);
+    long absB = Math.abs(b);
+    if(((absA | absB) >>> 31) == 0L)
+      return false;
+    return (b != 0L && r / b != a) || (a == Long.MIN_VALUE && b == -1L);
+  }
+  
+  /**
+   * Returns the high 64 bits of the signed 128-bit product of a and b. The low 64 bits are simply {@code a * b}.
+   * Same as {@code Math.multiplyHigh()} in Java 9.
+   */
+  static long multiplyHigh(long a, long b)
+  {
+    //split into 32-bit halves: the high halves are signed, the low halves are unsigned
+    long a1 = a >> 32;
+    long a0 = a & 0xFFFFFFFFL;
+    long b1 = b >> 32;
+    long b0 = b & 0xFFFFFFFFL;
+    
+    long w0 = a0 * b0;
+    long t = a1 * b0 + (w0 >>> 32);
+    long w1 = (t & 0xFFFFFFFFL) + a0 * b1;
+    long w2 = t >> 32;
+    return a1 * b1 + w2 + (w1 >> 32);
+  }
+  
+  /**
+   * Returns the high 64 bits of the unsigned 128-bit product of a and b. The low 64 bits are simply {@code a * b}.
+   */
+  static long unsignedMultiplyHigh(long a, long b)
+  {
+    return multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+  }
+  
+  /**
+   * Returns true if the signed 128-bit value hi:lo can be represented as a long.
+   */
+  static boolean fitsInLong(long hi, long lo)
+  {
+    return hi == (lo >> 63);
+  }
+  
+  /**
+   * Compares the unsigned 192-bit products a*(bHi:bLo) and c*(dHi:dLo), where all values are treated as unsigned.
+   * Returns a negative number, zero, or a positive number if the first product is less than, equal to, or
+   * greater than the second.
+   */
+  static int compareUnsignedProducts(long a, long bHi, long bLo, long c, long dHi, long dLo)
+  {
+    //each product is w2:w1:w0. Only the middle word can produce a carry.
+    long x1 = unsignedMultiplyHigh(a, bLo);
+    long x1b = x1 + a * bHi;
+    long x2 = unsignedMultiplyHigh(a, bHi) + (Long.compareUnsigned(x1b, x1) < 0 ? 1L : 0L);
+    
+    long y1 = unsignedMultiplyHigh(c, dLo);
+    long y1b = y1 + c * dHi;
+    long y2 = unsignedMultiplyHigh(c, dHi) + (Long.compareUnsigned(y1b, y1) < 0 ? 1L : 0L);
+    
+    if(x2 != y2)
+      return Long.compareUnsigned(x2, y2);
+    if(x1b != y1b)
+      return Long.compareUnsigned(x1b, y1b);
+    return Long.compareUnsigned(a * bLo, c * dLo);
+  }
+  
+  /**
+   * Divides the unsigned 128-bit value hi:lo by d, where d is treated as unsigned. Requires that
+   * hi &lt; d (unsigned), so that the quotient fits in 64 bits. The remainder is {@code lo - q*d}.<br>
+   * <br>
+   * This is divlu() from Hacker's Delight (Knuth's algorithm D, with 32-bit digits).
+   */
+  static long divideUnsigned128(long hi, long lo, long d)
+  {
+    final long b = 1L << 32;
+    
+    //normalize so the top bit of the divisor is set
+    int s = Long.numberOfLeadingZeros(d);
+    d <<= s;
+    long dHi = d >>> 32;
+    long dLo = d & 0xFFFFFFFFL;
+    
+    long un32 = (hi << s) | (s == 0 ? 0L : lo >>> (64 - s));
+    long un10 = lo << s;
+    long un1 = un10 >>> 32;
+    long un0 = un10 & 0xFFFFFFFFL;
+    
+    //first quotient digit
+    long q1 = Long.divideUnsigned(un32, dHi);
+    long rhat = un32 - q1 * dHi;
+    while(Long.compareUnsigned(q1, b) >= 0 || Long.compareUnsigned(q1 * dLo, b * rhat + un1) > 0)
+    {
+      q1--;
+      rhat += dHi;
+      if(Long.compareUnsigned(rhat, b) >= 0)
+        break;
+    }
+    
+    //second quotient digit
+    long un21 = un32 * b + un1 - q1 * d;
+    long q0 = Long.divideUnsigned(un21, dHi);
+    rhat = un21 - q0 * dHi;
+    while(Long.compareUnsigned(q0, b) >= 0 || Long.compareUnsigned(q0 * dLo, b * rhat + un0) > 0)
+    {
+      q0--;
+      rhat += dHi;
+      if(Long.compareUnsigned(rhat, b) >= 0)
+        break;
+    }
+    
+    return q1 * b + q0;
+  }
+  
+  /**
+   * Returns the remainder of the unsigned 128-bit value hi:lo divided by d, where d is treated as unsigned.
+   */
+  static long remainderUnsigned128(long hi, long lo, long d)
+  {
+    if(hi == 0L)
+      return Long.remainderUnsigned(lo, d);
+    
+    //(hi*2^64 + lo) mod d == ((hi mod d)*2^64 + lo) mod d, and (hi mod d) < d, as divideUnsigned128() requires
+    long r1 = Long.remainderUnsigned(hi, d);
+    return lo - divideUnsigned128(r1, lo, d) * d;
+  }
+  
+  /**
+   * Divides the unsigned 128-bit value nHi:nLo by the unsigned 128-bit value dHi:dLo, which must not be zero.
+   * The 128-bit quotient and remainder are stored in {@code out}, as {quotientHi, quotientLo, remainderHi, remainderLo}.
+   */
+  static void divideAndRemainderUnsigned128(long nHi, long nLo, long dHi, long dLo, long[] out)
+  {
+    if(dHi == 0L)
+    {
+      //divisor fits in 64 bits: schoolbook division, with 64-bit digits
+      long qHi = Long.divideUnsigned(nHi, dLo);
+      long r1 = nHi - qHi * dLo;
+      long qLo = divideUnsigned128(r1, nLo, dLo);
+      out[0] = qHi;
+      out[1] = qLo;
+      out[2] = 0L;
+      out[3] = nLo - qLo * dLo;
+      return;
+    }
+    
+    //divisor is at least 2^64, so the quotient fits in 64 bits. This is divlu2() from Hacker's Delight:
+    //estimate the quotient using the top 64 bits of the normalized divisor, then correct it.
+    int s = Long.numberOfLeadingZeros(dHi);
+    long v1 = (dHi << s) | (s == 0 ? 0L : dLo >>> (64 - s));
+    long q1 = divideUnsigned128(nHi >>> 1, (nLo >>> 1) | (nHi << 63), v1);
+    long q0 = q1 >>> (63 - s);
+    if(q0 != 0L)
+      q0--;
+    
+    //r = n - q0*d
+    long pLo = q0 * dLo;
+    long pHi = unsignedMultiplyHigh(q0, dLo) + q0 * dHi;
+    long rLo = nLo - pLo;
+    long rHi = nHi - pHi - (Long.compareUnsigned(nLo, pLo) < 0 ? 1L : 0L);
+    
+    //if r >= d, correct by one
+    if(Long.compareUnsigned(rHi, dHi) > 0 || (rHi == dHi && Long.compareUnsigned(rLo, dLo) >= 0))
+    {
+      q0++;
+      long borrow = (Long.compareUnsigned(rLo, dLo) < 0 ? 1L : 0L);
+      rLo -= dLo;
+      rHi = rHi - dHi - borrow;
+    }
+    
+    out[0] = 0L;
+    out[1] = q0;
+    out[2] = rHi;
+    out[3] = rLo;
+  }
+  
+  /**
+   * Divides the signed 128-bit value nHi:nLo by the signed 128-bit value dHi:dLo, which must not be zero, using
+   * truncated division (like the / and % operators). The 128-bit quotient and remainder are stored in {@code out},
+   * as {quotientHi, quotientLo, remainderHi, remainderLo}. The remainder has the same sign as the dividend.
+   * As with longs, the only quotient which does not fit in 128 bits is -2^127 / -1.
+   */
+  static void divideAndRemainder128(long nHi, long nLo, long dHi, long dLo, long[] out)
+  {
+    boolean nNeg = (nHi < 0L);
+    boolean dNeg = (dHi < 0L);
+    
+    //divide the magnitudes. -x == ~x + 1, so the high word only gets the carry if the low word is 0
+    if(nNeg)
+    {
+      nHi = (nLo == 0L ? -nHi : ~nHi);
+      nLo = -nLo;
+    }
+    if(dNeg)
+    {
+      dHi = (dLo == 0L ? -dHi : ~dHi);
+      dLo = -dLo;
+    }
+    
+    divideAndRemainderUnsigned128(nHi, nLo, dHi, dLo, out);
+    
+    if(nNeg != dNeg)
+    {
+      out[0] = (out[1] == 0L ? -out[0] : ~out[0]);
+      out[1] = -out[1];
+    }
+    if(nNeg)
+    {
+      out[2] = (out[3] == 0L ? -out[2] : ~out[2]);
+      out[3] = -out[3];
+    }
+  }
+}
@@ -0,0 +1,295 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigInteger;
+
+/**
+ * Mutable companion to {@link BigFraction}, for loops that fold many values into a single
+ * result (for example, {@code acc = acc.add(x)} repeated many times). Each operation updates
+ * this object in place instead of allocating a new BigFraction.<br>
+ * <br>
+ * Unlike BigFraction, the fraction is <em>not</em> kept in lowest terms after each operation. The
+ * GCD reduction is deferred until {@link #reduce()} or {@link #toBigFraction()} is called, or until
+ * the denominator grows past an internal bit-length threshold, at which point it is reduced
+ * automatically so that intermediate values do not grow without bound. The denominator is always
+ * kept positive.<br>
+ * <br>
+ * This class is not thread-safe, and is not a {@link Number}, so that it cannot be accidentally
+ * passed to code which expects an immutable value. Use {@link #toBigFraction()} to get an
+ * immutable snapshot.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class MutableBigFraction
+{
+  private BigInteger numerator;
+  private BigInteger denominator;
+  
+  /** Whether numerator/denominator are known to be in lowest terms. */
+  private boolean reduced;
+  
+  /** Decides when the next operation reduces the fraction. */
+  private final ReduceThreshold reduceThreshold = new ReduceThreshold();
+  
+  /**
+   * Creates a new MutableBigFraction with the value 0.
+   */
+  public MutableBigFraction()
+  {
+    this.numerator = BigInteger.ZERO;
+    this.denominator = BigInteger.ONE;
+    this.reduced = true;
+  }
+  
+  /**
+   * Creates a new MutableBigFraction with the given initial value.
+   *
+   * @param n initial value
+   * @throws IllegalArgumentException if n is null.
+   */
+  public MutableBigFraction(Number n)
+  {
+    set(n);
+  }
+  
+  /**
+   * Sets the value of this fraction.
+   *
+   * @param n new value
+   * @return this
+   * @throws IllegalArgumentException if n is null.
+   */
+  public MutableBigFraction set(Number n)
+  {
+    BigFraction f = BigFraction.valueOf(n);
+    numerator = f.getNumerator();
+    denominator = f.getDenominator();
+    reduced = true;
+    reduceThreshold.reset();
+    return this;
+  }
+  
+  /**
+   * Returns the current numerator. Because reduction is deferred, this is not necessarily in lowest terms.
+   * @return current numerator
+   */
+  public BigInteger getNumerator()
+  {
+    return numerator;
+  }
+  
+  /**
+   * Returns the current denominator. Because reduction is deferred, this is not necessarily in lowest terms.
+   * The denominator is always positive.
+   * @return current denominator
+   */
+  public BigInteger getDenominator()
+  {
+    return denominator;
+  }
+  
+  /**
+   * Sets this to this + n.
+   *
+   * @param n number to be added to this
+   * @return this
+   * @throws IllegalArgumentException if n is null.
+   */
+  public MutableBigFraction addInPlace(Number n)
+  {
+    return addImpl(n, false);
+  }
+  
+  /**
+   * Sets this to this - n.
+   *
+   * @param n number to be subtracted from this
+   * @return this
+   * @throws IllegalArgumentException if n is null.
+   */
+  public MutableBigFraction subtractInPlace(Number n)
+  {
+    return addImpl(n, true);
+  }
+  
+  /**
+   * Sets this to this * n.
+   *
+   * @param n number to be multiplied by this
+   * @return this
+   * @throws IllegalArgumentException if n is null.
+   */
+  public MutableBigFraction multiplyInPlace(Number n)
+  {
+    if(n == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    final NumberType type = NumberType.of(n);
+    if(BigFraction.isInt(n, type))
+    {
+      BigInteger k = BigFraction.toBigInteger(n, type);
+      if(k.signum() == 0)
+      {
+        numerator = BigInteger.ZERO;
+        denominator = BigInteger.ONE;
+        reduced = true;
+        return this;
+      }
+      
+      numerator = numerator.multiply(k);
+    }
+    else
+    {
+      BigFraction f = BigFraction.valueOf(n);
+      
+      //(n1/d1)*(n2/d2) = (n1*n2)/(d1*d2)
+      numerator = numerator.multiply(f.getNumerator());
+      denominator = denominator.multiply(f.getDenominator());
+    }
+    
+    reduced = false;
+    checkThreshold();
+    return this;
+  }
+  
+  /**
+   * Sets this to this / n.
+   *
+   * @param n number by which to divide this
+   * @return this
+   * @throws IllegalArgumentException if n is null.
+   * @throws ArithmeticException if n == 0.
+   */
+  public MutableBigFraction divideInPlace(Number n)
+  {
+    if(n == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    BigFraction f = BigFraction.valueOf(n);
+    if(f.signum() == 0)
+      throw new ArithmeticException("Divide by zero");
+    
+    //(n1/d1)/(n2/d2) = (n1*d2)/(d1*n2)
+    numerator = numerator.multiply(f.getDenominator());
+    denominator = denominator.multiply(f.getNumerator());
+    if(denominator.signum() < 0)
+    {
+      numerator = numerator.negate();
+      denominator = denominator.negate();
+    }
+    
+    reduced = false;
+    checkThreshold();
+    return this;
+  }
+  
+  /**
+   * Reduces this fraction to lowest terms.
+   *
+   * @return this
+   */
+  public MutableBigFraction reduce()
+  {
+    if(!reduced)
+    {
+      if(numerator.signum() == 0)
+      {
+        denominator = BigInteger.ONE;
+      }
+      else
+      {
+        BigInteger gcd = numerator.gcd(denominator);
+        if(!gcd.equals(BigInteger.ONE))
+        {
+          numerator = numerator.divide(gcd);
+          denominator = denominator.divide(gcd);
+        }
+      }
+      reduced = true;
+    }
+    
+    reduceThreshold.reduced(denominator);
+    return this;
+  }
+  
+  /**
+   * Returns the current value as an immutable BigFraction. This reduces this fraction to lowest terms
+   * as a side-effect.
+   *
+   * @return current value as a BigFraction
+   */
+  public BigFraction toBigFraction()
+  {
+    reduce();
+    return BigFraction.valueOfReduced(numerator, denominator);
+  }
+  
+  /**
+   * Returns the sign of this fraction: -1, 0, or 1.
+   * @return sign of this fraction
+   */
+  public int signum()
+  {
+    return numerator.signum();
+  }
+  
+  /**
+   * Returns a string representation of the current value, in the form "numerator/denominator",
+   * in lowest terms. Does not modify this fraction.
+   */
+  @Override
+  public String toString()
+  {
+    return BigFraction.valueOf(numerator, denominator).toString();
+  }
+  
+  /**
+   * Implementation of addInPlace() and subtractInPlace().
+   */
+  private MutableBigFraction addImpl(Number n, boolean subtract)
+  {
+    if(n == null)
+      throw new IllegalArgumentException("Null argument");
+    
+    final NumberType type = NumberType.of(n);
+    if(BigFraction.isInt(n, type))
+    {
+      //n1/d1 + n2 = (n1 + d1*n2)/d1. Does not change whether the fraction is reduced.
+      BigInteger k = BigFraction.toBigInteger(n, type);
+      if(k.signum() != 0)
+      {
+        BigInteger t = denominator.equals(BigInteger.ONE) ? k : denominator.multiply(k);
+        numerator = subtract ? numerator.subtract(t) : numerator.add(t);
+      }
+      return this;
+    }
+    
+    BigFraction f = BigFraction.valueOf(n);
+    BigInteger fn = subtract ? f.getNumerator().negate() : f.getNumerator();
+    BigInteger fd = f.getDenominator();
+    
+    if(fd.equals(denominator))
+    {
+      //common case when accumulating values with the same denominator: n1/d + n2/d = (n1 + n2)/d
+      numerator = numerator.add(fn);
+    }
+    else
+    {
+      //n1/d1 + n2/d2 = (n1*d2 + d1*n2)/(d1*d2)
+      numerator = numerator.multiply(fd).add(denominator.multiply(fn));
+      denominator = denominator.multiply(fd);
+    }
+    
+    reduced = false;
+    checkThreshold();
+    return this;
+  }
+  
+  /**
+   * Reduces the fraction if the denominator has grown past the current threshold.
+   */
+  private void checkThreshold()
+  {
+    if(reduceThreshold.isExceeded(denominator))
+      reduce();
+  }
+}
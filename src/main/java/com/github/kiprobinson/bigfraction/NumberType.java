@@ -0,0 +1,84 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Classification of the {@link Number} implementations that {@link BigFraction} and {@link LongFraction}
+ * know how to convert exactly. The classification of each class is computed once and cached in a
+ * {@link ClassValue}, so converting a Number costs one lookup instead of a long chain of {@code instanceof}
+ * checks.<br>
+ * <br>
+ * Classification follows {@code instanceof} semantics, so subclasses of {@link BigInteger}, {@link BigDecimal},
+ * and the atomic types get the same classification as their parent class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+enum NumberType
+{
+  /** {@link BigFraction}. */
+  BIG_FRACTION,
+  /** {@link LongFraction}. */
+  LONG_FRACTION,
+  /** {@link AdaptiveFraction}, which is backed by either a LongFraction or a BigFraction. */
+  ADAPTIVE_FRACTION,
+  /** {@link IntFraction}. */
+  INT_FRACTION,
+  /** {@link Long}, {@link Integer}, {@link Short}, {@link Byte}, {@link AtomicInteger}, {@link AtomicLong}, {@link LongAdder}, and {@link LongAccumulator}. */
+  LONG,
+  /** {@link BigInteger}. */
+  BIG_INTEGER,
+  /** {@link BigDecimal}. */
+  BIG_DECIMAL,
+  /** {@link Double}, {@link Float}, {@link DoubleAdder}, and {@link DoubleAccumulator}. */
+  FLOAT,
+  /** Any other implementation. Only {@link Number#doubleValue()} can be used. */
+  OTHER;
+  
+  private final static ClassValue<NumberType> TYPES = new ClassValue<NumberType>() {
+    @Override
+    protected NumberType computeValue(Class<?> c)
+    {
+      return classify(c);
+    }
+  };
+  
+  /**
+   * Returns the classification of the given Number. Assumes n is non-null.
+   */
+  static NumberType of(Number n)
+  {
+    return TYPES.get(n.getClass());
+  }
+  
+  /**
+   * Does the actual classification. Only called once per class.
+   */
+  private static NumberType classify(Class<?> c)
+  {
+    if(c == BigFraction.class)
+      return BIG_FRACTION;
+    if(c == LongFraction.class)
+      return LONG_FRACTION;
+    if(c == AdaptiveFraction.class)
+      return ADAPTIVE_FRACTION;
+    if(c == IntFraction.class)
+      return INT_FRACTION;
+    
+    if(c == Long.class || c == Integer.class || c == Short.class || c == Byte.class)
+      return LONG;
+    if(AtomicInteger.class.isAssignableFrom(c) || AtomicLong.class.isAssignableFrom(c) || LongAdder.class.isAssignableFrom(c) || LongAccumulator.class.isAssignableFrom(c))
+      return LONG;
+    
+    if(BigInteger.class.isAssignableFrom(c))
+      return BIG_INTEGER;
+    if(BigDecimal.class.isAssignableFrom(c))
+      return BIG_DECIMAL;
+    
+    if(c == Double.class || c == Float.class || DoubleAdder.class.isAssignableFrom(c) || DoubleAccumulator.class.isAssignableFrom(c))
+      return FLOAT;
+    
+    return OTHER;
+  }
+}
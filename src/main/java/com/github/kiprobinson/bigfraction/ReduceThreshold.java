@@ -0,0 +1,48 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigInteger;
+
+/**
+ * Tracks when a value with a growing, unreduced BigInteger denominator should next be reduced. Used by
+ * {@link MutableBigFraction}, {@link FractionAccumulator} and {@link FractionVector}, which all defer GCD
+ * work until the denominator is large.<br>
+ * <br>
+ * Reduction is triggered once the denominator is longer than 1024 bits. If it is still large after
+ * reducing, the next reduction waits until its bit length has doubled, so the cost of the GCDs stays
+ * proportional to the growth of the denominator.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+final class ReduceThreshold
+{
+  /** Minimum denominator bit length at which the value is automatically reduced. */
+  private final static int MIN_BITS = 1024;
+  
+  /** Bit length of the denominator beyond which the next operation reduces the value. */
+  private int bits = MIN_BITS;
+  
+  /**
+   * Returns true if a value with the given denominator should be reduced now.
+   */
+  boolean isExceeded(BigInteger denominator)
+  {
+    return denominator.bitLength() > bits;
+  }
+  
+  /**
+   * Called after the value has been reduced, with its new denominator.
+   */
+  void reduced(BigInteger denominator)
+  {
+    //if the value is still large after reducing, don't try again until it has grown substantially
+    bits = Math.max(MIN_BITS, 2 * denominator.bitLength());
+  }
+  
+  /**
+   * Goes back to the initial threshold, for when the value is replaced.
+   */
+  void reset()
+  {
+    bits = MIN_BITS;
+  }
+}
@@ -0,0 +1,234 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for AdaptiveFraction class.
+ * 
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class AdaptiveFractionTest {
+  
+  private final static BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+  
+  @Test
+  public void testValueOf() {
+    assertEquals("3/4", af(0.75).toString());
+    assertEquals("-5/1", af(-5).toString());
+    assertEquals("1/3", af(LongFraction.valueOf(1, 3)).toString());
+    assertEquals("7/20", af(new BigDecimal("0.35")).toString());
+    assertEquals("2/3", af(4, 6).toString());
+    assertTrue(af(4, 6).isLongFraction());
+    
+    AdaptiveFraction big = af(TWO_64);
+    assertFalse(big.isLongFraction());
+    assertEquals("18446744073709551616/1", big.toString());
+    assertSame(big, AdaptiveFraction.valueOf(big));
+    
+    //values which fit are always stored as LongFraction, even if they came from a BigFraction
+    assertTrue(af(BigFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE)).isLongFraction());
+  }
+  
+  @Test
+  public void testPromoteAndDemote() {
+    AdaptiveFraction max = af(Long.MAX_VALUE);
+    AdaptiveFraction sum = max.add(1);
+    assertFalse(sum.isLongFraction());
+    assertEquals("9223372036854775808/1", sum.toString());
+    
+    //back to long range
+    AdaptiveFraction back = sum.subtract(2);
+    assertTrue(back.isLongFraction());
+    assertEquals("9223372036854775806/1", back.toString());
+    
+    AdaptiveFraction sq = max.multiply(max);
+    assertFalse(sq.isLongFraction());
+    assertTrue(sq.divide(max).isLongFraction());
+    assertEquals(max, sq.divide(max));
+    
+    AdaptiveFraction tiny = af(1, Long.MAX_VALUE).divide(Long.MAX_VALUE);
+    assertFalse(tiny.isLongFraction());
+    assertEquals(af(1, Long.MAX_VALUE), tiny.multiply(Long.MAX_VALUE));
+    
+    assertEquals("-9223372036854775808/1", af(Long.MIN_VALUE).toString());
+    assertEquals("9223372036854775808/1", af(Long.MIN_VALUE).negate().toString());
+    assertEquals("9223372036854775808/1", af(Long.MIN_VALUE).abs().toString());
+    assertEquals("-1/9223372036854775808", af(Long.MIN_VALUE).reciprocal().toString());
+    assertTrue(af(Long.MIN_VALUE).negate().negate().isLongFraction());
+    
+    assertEquals("1/1024", af(1, 2).pow(10).toString());
+    assertEquals("18446744073709551616/1", af(2).pow(64).toString());
+    assertEquals("1/18446744073709551616", af(1, 2).pow(64).toString());
+    assertEquals("1/1", af(0).pow(0).toString());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testDivideByZero() {
+    af(TWO_64).divide(0);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testPowZeroNegative() {
+    AdaptiveFraction.ZERO.pow(-1);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testToLongFractionOverflow() {
+    af(TWO_64).toLongFraction();
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testValueOfNull() {
+    AdaptiveFraction.valueOf(null);
+  }
+  
+  @Test
+  public void testEqualsAndHashCode() {
+    Set<AdaptiveFraction> set = new HashSet<AdaptiveFraction>();
+    set.add(af(1, 3));
+    set.add(af(TWO_64));
+    assertTrue(set.contains(af(2, 6)));
+    assertTrue(set.contains(af(TWO_64.multiply(BigInteger.valueOf(3)), 3)));
+    assertTrue(set.contains(af(Long.MAX_VALUE).add(Long.MAX_VALUE).add(2)));
+    assertFalse(set.contains(af(TWO_64).subtract(1)));
+    assertNotEquals(af(1, 3), LongFraction.valueOf(1, 3));
+  }
+  
+  @Test
+  public void testCompareTo() {
+    assertTrue(af(TWO_64).compareTo(Long.MAX_VALUE) > 0);
+    assertTrue(af(Long.MAX_VALUE).compareTo(TWO_64) < 0);
+    assertEquals(0, af(1, 3).compareTo(BigFraction.valueOf(1, 3)));
+    assertTrue(af(Long.MAX_VALUE - 1, Long.MAX_VALUE).compareTo(af(Long.MAX_VALUE - 2, Long.MAX_VALUE - 1)) > 0);
+  }
+  
+  @Test
+  public void testOtherTypesAcceptAdaptiveFraction() {
+    assertEquals(BigFraction.valueOf(TWO_64), BigFraction.valueOf(af(TWO_64)));
+    assertEquals(LongFraction.valueOf(2, 3), LongFraction.valueOf(af(2, 3)));
+    assertEquals("5/6", BigFraction.valueOf(1, 2).add(af(1, 3)).toString());
+    assertEquals("5/6", LongFraction.valueOf(1, 2).add(af(1, 3)).toString());
+    assertEquals("18446744073709551617/1", BigFraction.ONE.add(af(TWO_64)).toString());
+    assertEquals("3/1", LongFraction.valueOf(af(6), af(2)).toString());
+  }
+  
+  @Test
+  public void testRandomAgainstBigFraction() {
+    Random rand = new Random(37);
+    AdaptiveFraction acc = AdaptiveFraction.ZERO;
+    BigFraction expected = BigFraction.ZERO;
+    for(int i = 0; i < 5000; i++) {
+      long n = rand.nextLong() >> rand.nextInt(64);
+      long d = (rand.nextLong() >>> rand.nextInt(64)) | 1L;
+      BigFraction x = BigFraction.valueOf(n, d);
+      switch(rand.nextInt(4)) {
+        case 0:
+          acc = acc.add(x);
+          expected = expected.add(x);
+          break;
+        case 1:
+          acc = acc.subtract(af(x));
+          expected = expected.subtract(x);
+          break;
+        case 2:
+          acc = acc.multiply(x);
+          expected = expected.multiply(x);
+          break;
+        default:
+          if(n != 0) {
+            acc = acc.divide(x);
+            expected = expected.divide(x);
+          }
+          break;
+      }
+      assertEquals(expected.toString(), acc.toString());
+      assertEquals(expected.getNumerator().bitLength() < 64 && expected.getDenominator().bitLength() < 64, acc.isLongFraction());
+      
+      //keep the values from growing without bound
+      if(acc.getDenominator().bitLength() > 256 || acc.getNumerator().bitLength() > 256) {
+        acc = acc.reciprocal().multiply(acc).divide(7);
+        expected = BigFraction.valueOf(1, 7);
+      }
+    }
+  }
+  
+  @Test
+  public void testSerialization() throws Exception {
+    for(AdaptiveFraction f : new AdaptiveFraction[] { af(-3, 4), af(TWO_64, 3), AdaptiveFraction.ONE })
+      assertEquals(f, deserialize(serialize(f)));
+    
+    //hand-built streams: the AdaptiveFraction descriptor and its Number superclass descriptor, then the
+    //fields big and small. A BigFraction or LongFraction field is a copy of its own stream, minus the header.
+    String stream = hex(serialize(af(1, 3)));
+    String number = hex("java.lang.Number".getBytes("UTF-8"));
+    //the Number descriptor ends with its serialVersionUID, flags, no fields, end of block data and no superclass
+    int fieldsStart = stream.indexOf("7870", stream.indexOf(number)) + 4;
+    String prefix = stream.substring(0, fieldsStart);
+    String nullField = "70";
+    String bigOneThird = hex(serialize(BigFraction.valueOf(1, 3))).substring(8);
+    String longOneThird = hex(serialize(LongFraction.valueOf(1, 3))).substring(8);
+    assertEquals(prefix + nullField + longOneThird, stream);
+    
+    //a long-sized value in big is moved to small
+    AdaptiveFraction f = (AdaptiveFraction)deserialize(unhex(prefix + bigOneThird + nullField));
+    assertEquals(af(1, 3), f);
+    assertTrue(f.isLongFraction());
+    assertEquals(af(1, 3).hashCode(), f.hashCode());
+    
+    for(String fields : new String[] { nullField + nullField, bigOneThird + longOneThird }) {
+      try {
+        deserialize(unhex(prefix + fields));
+        fail("Expected exception");
+      }
+      catch(InvalidObjectException e) {
+        //expected
+      }
+    }
+  }
+  
+  private static byte[] serialize(Object o) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(o);
+    }
+    return bytes.toByteArray();
+  }
+  
+  private static Object deserialize(byte[] b) throws IOException, ClassNotFoundException {
+    try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(b))) {
+      return in.readObject();
+    }
+  }
+  
+  private static String hex(byte[] b) {
+    StringBuilder sb = new StringBuilder();
+    for(byte x : b)
+      sb.append(String.format("%02x", x & 0xFF));
+    return sb.toString();
+  }
+  
+  private static byte[] unhex(String s) {
+    byte[] ret = new byte[s.length() / 2];
+    for(int i = 0; i < ret.length; i++)
+      ret[i] = (byte)Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+    return ret;
+  }
+  
+  private static AdaptiveFraction af(Number n) { return AdaptiveFraction.valueOf(n); }
+  private static AdaptiveFraction af(Number n, Number d) { return AdaptiveFraction.valueOf(n, d); }
+}
@@ -0,0 +1,141 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for ApproxLongFraction class.
+ * 
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class ApproxLongFractionTest {
+  
+  private final static BigInteger LIMIT = BigInteger.valueOf(Long.MAX_VALUE);
+  
+  @Test
+  public void testExactResults() {
+    assertEquals("5/6", ApproxLongFraction.add(lf(1, 2), lf(1, 3)).toString());
+    assertEquals("1/6", ApproxLongFraction.subtract(lf(1, 2), lf(1, 3)).toString());
+    assertEquals("1/6", ApproxLongFraction.multiply(lf(1, 2), lf(1, 3)).toString());
+    assertEquals("3/2", ApproxLongFraction.divide(lf(1, 2), lf(1, 3)).toString());
+    assertEquals("-9223372036854775808/1", ApproxLongFraction.subtract(lf(Long.MIN_VALUE + 1), lf(1)).toString());
+  }
+  
+  @Test
+  public void testRounding() {
+    //1/MAX + 1/(MAX-2) = (2*MAX - 2)/(MAX*(MAX-2)), which is very close to 2/(MAX-1)
+    assertEquals("1/4611686018427387903", ApproxLongFraction.add(lf(1, Long.MAX_VALUE), lf(1, Long.MAX_VALUE - 2)).toString());
+    assertEquals("1024819115206086201/3074457345618258602", ApproxLongFraction.add(lf(1, Long.MAX_VALUE), lf(1, 3)).toString());
+    
+    //too small to be represented: rounds to the closest of 0 and 1/MAX
+    assertEquals("0/1", ApproxLongFraction.multiply(lf(1, Long.MAX_VALUE), lf(1, 3)).toString());
+    assertEquals("1/9223372036854775807", ApproxLongFraction.multiply(lf(1, Long.MAX_VALUE), lf(2, 3)).toString());
+    assertEquals("-1/9223372036854775807", ApproxLongFraction.divide(lf(-2, Long.MAX_VALUE), lf(3)).toString());
+    
+    //too large: saturates
+    assertEquals("9223372036854775807/1", ApproxLongFraction.multiply(lf(Long.MAX_VALUE), lf(2)).toString());
+    assertEquals("-9223372036854775807/1", ApproxLongFraction.add(lf(Long.MIN_VALUE), lf(Long.MIN_VALUE)).toString());
+    assertEquals("-9223372036854775807/1", ApproxLongFraction.divide(lf(Long.MIN_VALUE), lf(1, 2)).toString());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testDivideByZero() {
+    ApproxLongFraction.divide(lf(1), lf(0));
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNull() {
+    ApproxLongFraction.add(lf(1), null);
+  }
+  
+  @Test
+  public void testRandomAgainstReference() {
+    Random rand = new Random(38);
+    for(int i = 0; i < 20000; i++) {
+      LongFraction a = randomLongFraction(rand);
+      LongFraction b = randomLongFraction(rand);
+      BigFraction ba = BigFraction.valueOf(a);
+      BigFraction bb = BigFraction.valueOf(b);
+      check(a + " + " + b, ba.add(bb), ApproxLongFraction.add(a, b));
+      check(a + " - " + b, ba.subtract(bb), ApproxLongFraction.subtract(a, b));
+      check(a + " * " + b, ba.multiply(bb), ApproxLongFraction.multiply(a, b));
+      if(b.signum() != 0)
+        check(a + " / " + b, ba.divide(bb), ApproxLongFraction.divide(a, b));
+    }
+  }
+  
+  /**
+   * Checks the actual result against the best approximation computed with BigIntegers, and checks the
+   * documented error bound.
+   */
+  private static void check(String msg, BigFraction exact, LongFraction actual) {
+    BigFraction expected = bestApproximation(exact);
+    assertEquals(msg, expected.toString(), actual.toString());
+    
+    if(exact.abs().compareTo(BigFraction.valueOf(Long.MAX_VALUE)) <= 0) {
+      //error (relative error if |x| > 1) is less than 1/MAX_VALUE
+      BigFraction error = exact.subtract(actual).abs();
+      if(exact.abs().compareTo(BigFraction.ONE) > 0)
+        error = error.divide(exact.abs());
+      assertTrue(msg + ": error " + error.doubleValue(), error.compareTo(BigFraction.valueOf(1, Long.MAX_VALUE)) < 0);
+    }
+  }
+  
+  /**
+   * Straightforward BigInteger implementation: walk the convergents, then pick whichever of the last convergent
+   * and the largest semiconvergent which fit is closer, by computing both errors exactly.
+   */
+  private static BigFraction bestApproximation(BigFraction x) {
+    if(fits(x.getNumerator().abs(), x.getDenominator()))
+      return x;
+    
+    boolean negative = x.signum() < 0;
+    BigInteger n = x.getNumerator().abs();
+    BigInteger d = x.getDenominator();
+    BigInteger p0 = BigInteger.ZERO, q0 = BigInteger.ONE;
+    BigInteger p1 = BigInteger.ONE, q1 = BigInteger.ZERO;
+    while(true) {
+      BigInteger[] qr = n.divideAndRemainder(d);
+      BigInteger p = qr[0].multiply(p1).add(p0);
+      BigInteger q = qr[0].multiply(q1).add(q0);
+      if(!fits(p, q)) {
+        BigInteger m = LIMIT;
+        if(p1.signum() != 0)
+          m = LIMIT.subtract(p0).divide(p1);
+        if(q1.signum() != 0)
+          m = m.min(LIMIT.subtract(q0).divide(q1));
+        BigFraction semi = BigFraction.valueOf(p0.add(m.multiply(p1)), q0.add(m.multiply(q1)));
+        BigFraction best = semi;
+        if(q1.signum() != 0) {
+          BigFraction conv = BigFraction.valueOf(p1, q1);
+          BigFraction ax = x.abs();
+          if(ax.subtract(conv).abs().compareTo(ax.subtract(semi).abs()) <= 0)
+            best = conv;
+        }
+        return negative ? best.negate() : best;
+      }
+      p0 = p1; q0 = q1;
+      p1 = p; q1 = q;
+      n = d;
+      d = qr[1];
+    }
+  }
+  
+  private static boolean fits(BigInteger n, BigInteger d) {
+    return n.compareTo(LIMIT) <= 0 && d.compareTo(LIMIT) <= 0;
+  }
+  
+  private static LongFraction randomLongFraction(Random rand) {
+    long n = rand.nextLong() >> rand.nextInt(64);
+    long d = rand.nextLong() >>> rand.nextInt(64);
+    return LongFraction.valueOf(n, d == 0 ? 1 : d);
+  }
+  
+  private static LongFraction lf(long n) { return LongFraction.valueOf(n); }
+  private static LongFraction lf(long n, long d) { return LongFraction.valueOf(n, d); }
+}
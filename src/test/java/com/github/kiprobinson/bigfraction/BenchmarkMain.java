@@ -0,0 +1,239 @@
+package com.github.kiprobinson.bigfraction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.kiprobinson.bigfraction.util.DoubleUtil;
+
+/**
+ * Class with public static void main(). Runs rough timings of the library's hot paths.<br>
+ * <br>
+ * This is a hand-rolled harness (warm-up rounds, then timed rounds, best time reported), not a
+ * JMH benchmark, so the numbers are only good for comparing the approaches against each other on
+ * the same machine. It lives in the library's package so that it can time the package-private
+ * helpers directly.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public final class BenchmarkMain
+{
+  private final static int WARMUP_ROUNDS = 5;
+  private final static int TIMED_ROUNDS = 10;
+  
+  /** Prevents the JIT from optimizing away the benchmarked work. */
+  private static long sink = 0;
+  
+  public static void main(String[] args)
+  {
+    benchmarkDispatch();
+    benchmarkGcd();
+    
+    System.out.println("(sink: " + sink + ")");
+  }
+  
+  /**
+   * Compares the old instanceof chain used to convert a Number to a BigInteger against the
+   * NumberType dispatch now used by BigFraction, using a mixed bag of input types.
+   */
+  private static void benchmarkDispatch()
+  {
+    final Number[] inputs = {
+        Integer.valueOf(7), Long.valueOf(-11L), BigInteger.valueOf(13), new BigDecimal("17"),
+        Double.valueOf(1e15), new AtomicLong(19), new AtomicInteger(23), Short.valueOf((short)29),
+        LongFraction.valueOf(31), BigFraction.valueOf(37),
+    };
+    final int iterations = 1000000;
+    
+    time("instanceof chain", () -> {
+      long x = 0;
+      for(int i = 0; i < iterations; i++)
+      {
+        Number n = inputs[i % inputs.length];
+        if(oldIsInt(n))
+          x += oldToBigInteger(n).intValue();
+      }
+      return x;
+    });
+    
+    time("NumberType dispatch", () -> {
+      long x = 0;
+      for(int i = 0; i < iterations; i++)
+      {
+        Number n = inputs[i % inputs.length];
+        NumberType type = NumberType.of(n);
+        if(BigFraction.isInt(n, type))
+          x += BigFraction.toBigInteger(n, type).intValue();
+      }
+      return x;
+    });
+    
+    time("BigFraction.valueOf(Number)", () -> {
+      long x = 0;
+      for(int i = 0; i < iterations; i++)
+        x += BigFraction.valueOf(inputs[i % inputs.length]).signum();
+      return x;
+    });
+    
+    time("LongFraction.valueOf(Number)", () -> {
+      long x = 0;
+      for(int i = 0; i < iterations; i++)
+        x += LongFraction.valueOf(inputs[i % inputs.length]).signum();
+      return x;
+    });
+  }
+  
+  /**
+   * Copy of the isInt() chain that BigFraction used before type classification was added.
+   */
+  private static boolean oldIsInt(Number n)
+  {
+    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof BigInteger || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
+      return true;
+    
+    if(n instanceof BigFraction)
+      return ((BigFraction)n).getDenominator().equals(BigInteger.ONE);
+    
+    if(n instanceof LongFraction)
+      return ((LongFraction)n).getDenominator() == 1L;
+    
+    //BigDecimal format: unscaled / 10^scale
+    if(n instanceof BigDecimal)
+      return (((BigDecimal)n).scale() <= 0);
+    
+    //unknown type - use the doubleValue()
+    final double d = n.doubleValue();
+    if(d == 0.0)
+      return true;
+    
+    if(Double.isInfinite(d) || Double.isNaN(d))
+      return false;
+    
+    return (DoubleUtil.getExponent(d) >= 52);
+  }
+  
+  /**
+   * Copy of the toBigInteger() chain that BigFraction used before type classification was added.
+   */
+  private static BigInteger oldToBigInteger(Number n)
+  {
+    if(n instanceof BigInteger)
+      return (BigInteger)n;
+    
+    if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte || n instanceof AtomicInteger || n instanceof AtomicLong || n instanceof LongAdder || n instanceof LongAccumulator)
+      return BigInteger.valueOf(n.longValue());
+    
+    if(n instanceof BigFraction)
+      return ((BigFraction)n).getNumerator();
+    
+    if(n instanceof LongFraction)
+      return BigInteger.valueOf(((LongFraction)n).getNumerator());
+    
+    if(n instanceof BigDecimal)
+    {
+      final BigDecimal bd = (BigDecimal)n;
+      return bd.unscaledValue().multiply(BigInteger.TEN.pow(-bd.scale()));
+    }
+    
+    //unknown implementation... fall back to double value
+    final double d = n.doubleValue();
+    
+    if(d == 0.0)
+      return BigInteger.ZERO;
+    
+    final int sign = DoubleUtil.getSign(d);
+    final int exponent = DoubleUtil.getExponent(d);
+    final long mantissa = DoubleUtil.getMantissa(d);
+    
+    BigInteger ret = BigInteger.valueOf(0x10000000000000L + mantissa).shiftLeft(exponent - 52);
+    return sign == 0 ? ret : ret.negate();
+  }
+  
+  /**
+   * Compares the Euclidean gcd loop that LongFraction used to use against the binary gcd it uses now,
+   * and times LongFraction.valueOf(long, long), which is dominated by the gcd.
+   */
+  private static void benchmarkGcd()
+  {
+    final int count = 1 << 16;
+    final long[] nums = new long[count];
+    final long[] dens = new long[count];
+    Random rand = new Random(33);
+    for(int i = 0; i < count; i++)
+    {
+      //random values of varying size, multiplied by a shared factor so that there is something to reduce
+      long factor = 1L + rand.nextInt(1 << 12);
+      nums[i] = (rand.nextLong() >> (12 + rand.nextInt(40))) * factor;
+      dens[i] = ((rand.nextLong() >>> (12 + rand.nextInt(40))) + 1L) * factor;
+    }
+    final int rounds = 20;
+    
+    time("Euclidean gcd", () -> {
+      long x = 0;
+      for(int r = 0; r < rounds; r++)
+        for(int i = 0; i < count; i++)
+          x += euclidGcd(nums[i], dens[i]);
+      return x;
+    });
+    
+    time("LongFraction.gcd (binary)", () -> {
+      long x = 0;
+      for(int r = 0; r < rounds; r++)
+        for(int i = 0; i < count; i++)
+          x += LongFraction.gcd(nums[i], dens[i]);
+      return x;
+    });
+    
+    time("LongFraction.valueOf(long, long)", () -> {
+      long x = 0;
+      for(int r = 0; r < rounds; r++)
+        for(int i = 0; i < count; i++)
+          x += LongFraction.valueOf(nums[i], dens[i]).getDenominator();
+      return x;
+    });
+  }
+  
+  /**
+   * Copy of the Euclidean gcd loop that LongFraction used before the binary gcd was added.
+   */
+  private static long euclidGcd(long a, long b)
+  {
+    while(b != 0L)
+    {
+      long tmp = b;
+      b = a % b;
+      a = tmp;
+    }
+    if(a == Long.MIN_VALUE)
+      throw new ArithmeticException("Integer Overflow");
+    return Math.abs(a);
+  }
+  
+  @FunctionalInterface
+  private interface Task
+  {
+    long run();
+  }
+  
+  private static void time(String name, Task task)
+  {
+    for(int i = 0; i < WARMUP_ROUNDS; i++)
+      sink += task.run();
+    
+    long best = Long.MAX_VALUE;
+    for(int i = 0; i < TIMED_ROUNDS; i++)
+    {
+      long start = System.nanoTime();
+      sink += task.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    
+    System.out.printf("%-45s %10.3f ms%n", name, best / 1e6);
+  }
+}
@@ -0,0 +1,100 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for BigFractionArena class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class BigFractionArenaTest {
+  
+  @Test
+  public void testAddAndGet() {
+    BigFractionArena arena = new BigFractionArena(0, 0);
+    assertEquals(0, arena.add(BigFraction.valueOf(-3, 4)));
+    assertEquals(1, arena.add(0));
+    assertEquals(2, arena.add(LongFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE)));
+    BigFraction big = BigFraction.valueOf(BigInteger.ONE.shiftLeft(200).subtract(BigInteger.ONE), BigInteger.valueOf(0xFFFFFFFFL).pow(3));
+    assertEquals(3, arena.add(big));
+    assertEquals(4, arena.size());
+    
+    assertEquals(BigFraction.valueOf(-3, 4), arena.get(0));
+    assertEquals(BigFraction.ZERO, arena.get(1));
+    assertEquals(BigFraction.valueOf(LongFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE)), arena.get(2));
+    assertEquals(big, arena.get(3));
+    
+    BigFractionArena.View v = arena.view();
+    assertEquals("-3/4", v.toString());
+    assertEquals(-1, v.signum());
+    assertEquals(-0.75, v.doubleValue(), 0.0);
+    assertEquals("0/1", v.moveTo(1).toString());
+    assertEquals(0.0, v.doubleValue(), 0.0);
+    assertEquals(big.toString(), v.moveTo(3).toString());
+    assertEquals(3, v.index());
+    
+    arena.trimToSize();
+    assertEquals(big, arena.get(3));
+    assertEquals(4, arena.add(1));
+    assertEquals(BigFraction.ONE, arena.get(4));
+  }
+  
+  @Test(expected=IndexOutOfBoundsException.class)
+  public void testBadIndex() {
+    BigFractionArena arena = new BigFractionArena();
+    arena.add(1);
+    arena.view().moveTo(1);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNull() {
+    new BigFractionArena().add(null);
+  }
+  
+  @Test
+  public void testRandomAgainstBigFraction() {
+    Random r = new Random(0xA2E7AL);
+    int len = 400;
+    BigFraction[] values = new BigFraction[len];
+    BigFractionArena arena = new BigFractionArena();
+    BigFractionArena other = new BigFractionArena();
+    for(int i = 0; i < len; i++) {
+      switch(r.nextInt(4)) {
+        case 0:
+          values[i] = BigFraction.valueOf(r.nextInt(41) - 20, r.nextInt(20) + 1);
+          break;
+        case 1:
+          values[i] = BigFraction.valueOf(new BigInteger(r.nextInt(400), r).subtract(BigInteger.ONE.shiftLeft(200)), new BigInteger(r.nextInt(400), r).add(BigInteger.ONE));
+          break;
+        case 2:
+          values[i] = BigFraction.valueOf(r.nextDouble() * Math.pow(2, r.nextInt(2000) - 1000));
+          break;
+        default:
+          values[i] = (i == 0 ? BigFraction.ONE : values[r.nextInt(i)].add(BigFraction.valueOf(BigInteger.ONE, BigInteger.ONE.shiftLeft(300))));
+          break;
+      }
+      assertEquals(i, arena.add(values[i]));
+      other.add(values[i]);
+    }
+    
+    BigFractionArena.View v1 = arena.view();
+    BigFractionArena.View v2 = other.view();
+    for(int i = 0; i < len; i++) {
+      v1.moveTo(i);
+      assertEquals(values[i], v1.toBigFraction());
+      assertEquals(values[i].toString(), v1.toString());
+      double expected = new BigDecimal(values[i].getNumerator()).divide(new BigDecimal(values[i].getDenominator()), MathContext.DECIMAL128).doubleValue();
+      assertEquals(expected, v1.doubleValue(), Math.ulp(expected) * 4);
+      for(int j = 0; j < len; j++)
+        assertEquals(Integer.signum(values[i].compareTo(values[j])), Integer.signum(v1.compareTo(v2.moveTo(j))));
+    }
+  }
+}
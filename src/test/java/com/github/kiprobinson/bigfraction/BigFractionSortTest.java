@@ -0,0 +1,128 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for BigFractionSort class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class BigFractionSortTest {
+  
+  @Test
+  public void testSmall() {
+    BigFraction[] a = { bf(1, 2), bf(-1, 3), bf(0), bf(7, 2), bf(-5), bf(1, 3), bf(-1, 2) };
+    BigFractionSort.sort(a);
+    assertArrayEquals(new BigFraction[] { bf(-5), bf(-1, 2), bf(-1, 3), bf(0), bf(1, 3), bf(1, 2), bf(7, 2) }, a);
+    
+    BigFraction[] b = { bf(3), bf(2), bf(1), bf(0) };
+    BigFractionSort.sort(b, 1, 3);
+    assertArrayEquals(new BigFraction[] { bf(3), bf(1), bf(2), bf(0) }, b);
+    
+    List<BigFraction> list = new LinkedList<>(Arrays.asList(bf(2), bf(-3, 4), bf(1, 8)));
+    BigFractionSort.sort(list);
+    assertEquals(Arrays.asList(bf(-3, 4), bf(1, 8), bf(2)), list);
+    
+    BigFractionSort.sort(new BigFraction[0]);
+  }
+  
+  @Test
+  public void testCloseValues() {
+    //values which agree in far more than 63 bits, so their keys collide and need the exact tiebreak
+    BigInteger big = BigInteger.ONE.shiftLeft(200);
+    BigFraction x = BigFraction.valueOf(big.subtract(BigInteger.ONE), big);
+    BigFraction y = BigFraction.valueOf(big.subtract(BigInteger.valueOf(2)), big.subtract(BigInteger.ONE));
+    BigFraction z = BigFraction.valueOf(big.add(BigInteger.ONE), big);
+    List<BigFraction> list = new ArrayList<>();
+    for(int i = 0; i < 100; i++) {
+      list.add(i % 3 == 0 ? x : i % 3 == 1 ? y : z);
+      list.add(i % 3 == 0 ? x.negate() : i % 3 == 1 ? y.negate() : z.negate());
+    }
+    List<BigFraction> expected = new ArrayList<>(list);
+    expected.sort(null);
+    BigFractionSort.sort(list);
+    assertEquals(expected, list);
+  }
+  
+  @Test
+  public void testKeyNeedsExtraBit() {
+    //x = (2^62+1)/2^62 has 63 bits of quotient, but y = (2^70+256)/(2^70-1) has only 62 at the first try.
+    //Doubling y's truncated quotient gave it a smaller key than x, although x < y.
+    BigInteger p62 = BigInteger.ONE.shiftLeft(62);
+    BigInteger p70 = BigInteger.ONE.shiftLeft(70);
+    BigFraction x = BigFraction.valueOf(p62.add(BigInteger.ONE), p62);
+    BigFraction y = BigFraction.valueOf(p70.add(BigInteger.valueOf(256)), p70.subtract(BigInteger.ONE));
+    assertTrue(x.compareTo(y) < 0);
+    
+    BigFraction[] a = { y, x };
+    BigFractionSort.sort(a);
+    assertArrayEquals(new BigFraction[] { x, y }, a);
+    
+    BigFraction[] b = { x.negate(), y.negate() };
+    BigFractionSort.sort(b);
+    assertArrayEquals(new BigFraction[] { y.negate(), x.negate() }, b);
+  }
+  
+  @Test
+  public void testStable() {
+    BigFraction one = BigFraction.valueOf(2, 2);
+    BigFraction otherOne = BigFraction.valueOf(3, 3);
+    BigFraction[] a = new BigFraction[64];
+    for(int i = 0; i < a.length; i++)
+      a[i] = (i % 2 == 0 ? (i < 32 ? one : otherOne) : bf(i + 1));
+    BigFractionSort.sort(a);
+    for(int i = 0; i < 16; i++)
+      assertSame(one, a[i]);
+    for(int i = 16; i < 32; i++)
+      assertSame(otherOne, a[i]);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNullElement() {
+    BigFractionSort.sort(new BigFraction[] { bf(1), null });
+  }
+  
+  @Test
+  public void testRandomAgainstArraysSort() {
+    Random r = new Random(0xB1650L);
+    for(int iter = 0; iter < 20; iter++) {
+      int len = r.nextInt(3000);
+      BigFraction[] a = new BigFraction[len];
+      for(int i = 0; i < len; i++) {
+        switch(r.nextInt(3)) {
+          case 0:
+            a[i] = bf(r.nextInt(201) - 100, r.nextInt(100) + 1);
+            break;
+          case 1:
+            a[i] = BigFraction.valueOf(new BigInteger(r.nextInt(300), r).subtract(BigInteger.ONE.shiftLeft(150)), new BigInteger(r.nextInt(300), r).add(BigInteger.ONE));
+            break;
+          default:
+            a[i] = BigFraction.valueOf(r.nextDouble() * Math.pow(2, r.nextInt(200) - 100));
+            break;
+        }
+      }
+      BigFraction[] expected = a.clone();
+      Arrays.sort(expected);
+      BigFractionSort.sort(a);
+      assertArrayEquals(expected, a);
+    }
+  }
+  
+  private static BigFraction bf(long n) {
+    return BigFraction.valueOf(n);
+  }
+  
+  private static BigFraction bf(long n, long d) {
+    return BigFraction.valueOf(n, d);
+  }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.math.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -338,6 +339,27 @@ public class BigFractionTest {
     assertEquals("9937/100", BigFraction.sum(BigInteger.valueOf(66), new BigDecimal("33.37")).toString());
   }
   
+  @Test
+  public void testSumCollection() {
+    assertEquals("0/1", BigFraction.sum(Collections.<Number>emptyList()).toString());
+    assertEquals("5/1", BigFraction.sum(Collections.singletonList(5)).toString());
+    assertEquals("10337/100", BigFraction.sum(Arrays.<Number>asList(5, -3, 2L, BigInteger.valueOf(66), new BigDecimal("33.37"), -0.5, bf("1/2"))).toString());
+    
+    //just below and at TREE_PARALLEL_THRESHOLD (1024), so both the sequential and the parallel code paths run
+    for(int size : new int[]{ 100, 1023, 1024, 5000 })
+    {
+      List<BigFraction> list = new ArrayList<>();
+      BigFraction expected = BigFraction.ZERO;
+      for(int i = 1; i <= size; i++)
+      {
+        BigFraction f = BigFraction.valueOf((i % 2 == 0 ? -1 : 1) * i, (i % 37) + 1);
+        list.add(f);
+        expected = expected.add(f);
+      }
+      assertEquals("sum of " + size, expected, BigFraction.sum(list));
+    }
+  }
+  
   @Test
   public void testSubtract() {
     assertEquals("5/1 - -3/1", "8/1", bf(5).subtract(-3).toString());
@@ -389,6 +411,34 @@ public class BigFractionTest {
     assertEquals("110121/50", BigFraction.product(BigInteger.valueOf(66), new BigDecimal("33.37")).toString());
   }
   
+  @Test
+  public void testProductCollection() {
+    assertEquals("1/1", BigFraction.product(Collections.<Number>emptyList()).toString());
+    assertEquals("5/1", BigFraction.product(Collections.singletonList(5)).toString());
+    assertEquals("110121/200", BigFraction.product(Arrays.<Number>asList(5, -3, bf("1/15"), BigInteger.valueOf(66), new BigDecimal("33.37"), -0.5, bf("1/2"))).toString());
+    assertEquals("0/1", BigFraction.product(Arrays.<Number>asList(5, -3, 0, bf("1/2"))).toString());
+    
+    //just below and at TREE_PARALLEL_THRESHOLD (1024), so both the sequential and the parallel code paths run
+    for(int size : new int[]{ 100, 1023, 1024, 3000 })
+    {
+      List<BigFraction> list = new ArrayList<>();
+      BigFraction expected = BigFraction.ONE;
+      for(int i = 1; i <= size; i++)
+      {
+        BigFraction f = BigFraction.valueOf((i % 3 == 0 ? -1 : 1) * (i + 1), (i % 41) + 1);
+        list.add(f);
+        expected = expected.multiply(f);
+      }
+      assertEquals("product of " + size, expected, BigFraction.product(list));
+    }
+    
+    //1 * 2/1 * 3/2 * 4/3 * ... = n
+    List<BigFraction> telescoping = new ArrayList<>();
+    for(int i = 1; i <= 2000; i++)
+      telescoping.add(BigFraction.valueOf(i + 1, i));
+    assertEquals("2001/1", BigFraction.product(telescoping).toString());
+  }
+  
   @Test
   public void testDivide() {
     assertEquals("(1/3)/(4/3)", "1/4", bf("1/3").divide(bf("4/3")).toString());
@@ -1785,6 +1835,16 @@ public class BigFractionTest {
   //exception testing
   //---------------------------------------------------------------------------
   
+  @Test(expected=IllegalArgumentException.class)
+  public void testSumCollectionNull() {
+    BigFraction.sum((List<Number>) null);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testProductCollectionNullElement() {
+    BigFraction.product(Arrays.<Number>asList(1, null, 2));
+  }
+  
   @Test(expected=IllegalArgumentException.class)
   public void testValueOfNull1() {
     BigFraction.valueOf((Number) null);
@@ -0,0 +1,93 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for FractionAccumulator class.
+ * 
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionAccumulatorTest {
+  
+  @Test
+  public void testAdd() {
+    FractionAccumulator acc = new FractionAccumulator();
+    assertEquals("0/1", acc.get().toString());
+    
+    assertSame(acc, acc.add(BigFraction.valueOf(1, 6)));
+    acc.add(BigFraction.valueOf(1, 3));
+    assertEquals("1/2", acc.toString());
+    acc.add(LongFraction.valueOf(1, 4));
+    acc.add(2);
+    acc.add(new BigDecimal("0.25"));
+    acc.add(BigInteger.valueOf(-3));
+    acc.add(0.5);
+    assertEquals("1/2", acc.get().toString());
+    acc.add(BigFraction.valueOf(-1, 2));
+    assertEquals(BigFraction.ZERO, acc.get());
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testAddNull() {
+    new FractionAccumulator().add(null);
+  }
+  
+  @Test
+  public void testMerge() {
+    FractionAccumulator a = new FractionAccumulator().add(BigFraction.valueOf(1, 3)).add(BigFraction.valueOf(1, 5));
+    FractionAccumulator b = new FractionAccumulator().add(BigFraction.valueOf(1, 7)).add(1);
+    assertSame(a, a.merge(b));
+    assertEquals("176/105", a.get().toString());
+    assertEquals("8/7", b.get().toString());
+    
+    a.merge(new FractionAccumulator());
+    assertEquals("176/105", a.get().toString());
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testMergeNull() {
+    new FractionAccumulator().merge(null);
+  }
+  
+  @Test
+  public void testManyDenominators() {
+    //harmonic numbers - denominators grow past the reduction threshold
+    FractionAccumulator acc = new FractionAccumulator();
+    BigFraction expected = BigFraction.ZERO;
+    for(int k = 1; k <= 1500; k++)
+    {
+      acc.add(BigFraction.valueOf(1, k));
+      expected = expected.add(BigFraction.valueOf(1, k));
+    }
+    assertEquals(expected, acc.get());
+  }
+  
+  @Test
+  public void testMatchesBigFraction() {
+    Random rand = new Random(28);
+    long[] dens = {1, 3, 7, 12, 100, 360};
+    FractionAccumulator[] parts = new FractionAccumulator[4];
+    for(int i = 0; i < parts.length; i++)
+      parts[i] = new FractionAccumulator();
+    
+    BigFraction expected = BigFraction.ZERO;
+    for(int i = 0; i < 2000; i++)
+    {
+      BigFraction x = BigFraction.valueOf(rand.nextInt(20001) - 10000, dens[rand.nextInt(dens.length)]);
+      expected = expected.add(x);
+      parts[i % parts.length].add(x);
+    }
+    
+    FractionAccumulator total = new FractionAccumulator();
+    for(FractionAccumulator part : parts)
+      total.merge(part);
+    assertEquals(expected, total.get());
+  }
+}
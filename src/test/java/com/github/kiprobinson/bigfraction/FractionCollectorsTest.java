@@ -0,0 +1,147 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for FractionCollectors class.
+ * 
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionCollectorsTest {
+  
+  @Test
+  public void testSummingBigFraction() {
+    assertEquals("0/1", Stream.<BigFraction>empty().collect(FractionCollectors.summingBigFraction()).toString());
+    assertEquals("11/6", Stream.of(BigFraction.ONE, BigFraction.ONE_HALF, BigFraction.valueOf(1, 3))
+                               .collect(FractionCollectors.summingBigFraction()).toString());
+    assertEquals("7/2", Stream.<Number>of(1, 2L, 0.5).collect(FractionCollectors.summingBigFraction()).toString());
+    
+    List<BigFraction> list = randomBigFractions(5000);
+    BigFraction expected = list.stream().reduce(BigFraction.ZERO, BigFraction::add);
+    assertEquals(expected, list.stream().collect(FractionCollectors.summingBigFraction()));
+    assertEquals(expected, list.parallelStream().collect(FractionCollectors.summingBigFraction()));
+  }
+  
+  @Test
+  public void testSummingLongFraction() {
+    assertEquals("0/1", Stream.<LongFraction>empty().collect(FractionCollectors.summingLongFraction()).toString());
+    assertEquals("11/6", Stream.of(LongFraction.ONE, LongFraction.ONE_HALF, LongFraction.valueOf(1, 3))
+                               .collect(FractionCollectors.summingLongFraction()).toString());
+    
+    //overflows a long
+    assertEquals("18446744073709551614/1", Stream.of(LongFraction.valueOf(Long.MAX_VALUE), LongFraction.valueOf(Long.MAX_VALUE))
+                                                 .collect(FractionCollectors.summingLongFraction()).toString());
+    
+    List<LongFraction> list = randomLongFractions(5000);
+    BigFraction expected = list.stream().map(BigFraction::valueOf).reduce(BigFraction.ZERO, BigFraction::add);
+    assertEquals(expected, list.stream().collect(FractionCollectors.summingLongFraction()));
+    assertEquals(expected, list.parallelStream().collect(FractionCollectors.summingLongFraction()));
+    
+    //denominators that overflow the running lcm
+    list = new ArrayList<>();
+    for(int i = 1; i <= 200; i++)
+      list.add(LongFraction.valueOf(1, i));
+    expected = list.stream().map(BigFraction::valueOf).reduce(BigFraction.ZERO, BigFraction::add);
+    assertEquals(expected, list.stream().collect(FractionCollectors.summingLongFraction()));
+    assertEquals(expected, list.parallelStream().collect(FractionCollectors.summingLongFraction()));
+  }
+  
+  @Test
+  public void testAveraging() {
+    assertEquals("0/1", Stream.<BigFraction>empty().collect(FractionCollectors.averagingBigFraction()).toString());
+    assertEquals("0/1", Stream.<LongFraction>empty().collect(FractionCollectors.averagingLongFraction()).toString());
+    assertEquals("11/18", Stream.of(BigFraction.ONE, BigFraction.ONE_HALF, BigFraction.valueOf(1, 3))
+                                .collect(FractionCollectors.averagingBigFraction()).toString());
+    assertEquals("11/18", Stream.of(LongFraction.ONE, LongFraction.ONE_HALF, LongFraction.valueOf(1, 3))
+                                .collect(FractionCollectors.averagingLongFraction()).toString());
+    
+    List<LongFraction> list = randomLongFractions(3000);
+    BigFraction expected = list.stream().map(BigFraction::valueOf).reduce(BigFraction.ZERO, BigFraction::add).divide(3000);
+    assertEquals(expected, list.parallelStream().collect(FractionCollectors.averagingLongFraction()));
+    assertEquals(expected, list.parallelStream().collect(FractionCollectors.averagingBigFraction()));
+  }
+  
+  @Test
+  public void testMinMax() {
+    assertFalse(Stream.<BigFraction>empty().collect(FractionCollectors.minBigFraction()).isPresent());
+    assertFalse(Stream.<LongFraction>empty().collect(FractionCollectors.maxLongFraction()).isPresent());
+    
+    List<BigFraction> big = randomBigFractions(1000);
+    big.add(BigFraction.valueOf(-1000000));
+    big.add(BigFraction.valueOf(1000000));
+    assertEquals("-1000000/1", big.parallelStream().collect(FractionCollectors.minBigFraction()).get().toString());
+    assertEquals("1000000/1", big.parallelStream().collect(FractionCollectors.maxBigFraction()).get().toString());
+    
+    List<LongFraction> lf = randomLongFractions(1000);
+    lf.add(LongFraction.valueOf(-1000000));
+    lf.add(LongFraction.valueOf(1000000));
+    assertEquals("-1000000/1", lf.parallelStream().collect(FractionCollectors.minLongFraction()).get().toString());
+    assertEquals("1000000/1", lf.parallelStream().collect(FractionCollectors.maxLongFraction()).get().toString());
+  }
+  
+  @Test
+  public void testSummarizing() {
+    FractionSummaryStatistics stats = Stream.of(BigFraction.ONE, BigFraction.ONE_HALF, BigFraction.valueOf(-1, 3))
+                                            .collect(FractionCollectors.summarizingBigFraction());
+    assertEquals(3L, stats.getCount());
+    assertEquals("7/6", stats.getSum().toString());
+    assertEquals("-1/3", stats.getMin().toString());
+    assertEquals("1/1", stats.getMax().toString());
+    assertEquals("7/18", stats.getAverage().toString());
+    assertEquals("FractionSummaryStatistics{count=3, sum=7/6, min=-1/3, average=7/18, max=1/1}", stats.toString());
+    
+    stats = Stream.<LongFraction>empty().collect(FractionCollectors.summarizingLongFraction());
+    assertEquals(0L, stats.getCount());
+    assertEquals("0/1", stats.getSum().toString());
+    assertNull(stats.getMin());
+    assertNull(stats.getMax());
+    assertEquals("0/1", stats.getAverage().toString());
+    
+    List<LongFraction> list = randomLongFractions(3000);
+    FractionSummaryStatistics sequential = list.stream().collect(FractionCollectors.summarizingLongFraction());
+    FractionSummaryStatistics parallel = list.parallelStream().collect(FractionCollectors.summarizingLongFraction());
+    assertEquals(sequential.toString(), parallel.toString());
+    assertEquals(3000L, parallel.getCount());
+    
+    FractionSummaryStatistics combined = new FractionSummaryStatistics();
+    combined.accept(5);
+    combined.combine(new FractionSummaryStatistics());
+    combined.combine(sequential);
+    assertEquals(3001L, combined.getCount());
+    assertEquals(sequential.getSum().add(5), combined.getSum());
+    
+    //same results as the BigFraction path, including sums which overflow long
+    List<LongFraction> big = new ArrayList<>(list);
+    big.add(LongFraction.valueOf(Long.MAX_VALUE, 3));
+    big.add(LongFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE));
+    big.add(LongFraction.valueOf(Long.MAX_VALUE - 1, Long.MAX_VALUE));
+    FractionSummaryStatistics expected = big.stream().collect(FractionCollectors.summarizingBigFraction());
+    assertEquals(expected.toString(), big.stream().collect(FractionCollectors.summarizingLongFraction()).toString());
+    assertEquals(expected.toString(), big.parallelStream().collect(FractionCollectors.summarizingLongFraction()).toString());
+  }
+  
+  private static List<BigFraction> randomBigFractions(int count) {
+    Random rand = new Random(29);
+    List<BigFraction> list = new ArrayList<>();
+    for(int i = 0; i < count; i++)
+      list.add(BigFraction.valueOf(rand.nextInt(200001) - 100000, rand.nextInt(1000) + 1));
+    return list;
+  }
+  
+  private static List<LongFraction> randomLongFractions(int count) {
+    Random rand = new Random(2929);
+    long[] dens = {1, 2, 3, 4, 6, 12, 100, 7};
+    List<LongFraction> list = new ArrayList<>();
+    for(int i = 0; i < count; i++)
+      list.add(LongFraction.valueOf(rand.nextInt(200001) - 100000, dens[rand.nextInt(dens.length)]));
+    return list;
+  }
+}
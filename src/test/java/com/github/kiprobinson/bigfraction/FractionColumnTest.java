@@ -0,0 +1,105 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for FractionColumn class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionColumnTest {
+  
+  @Test
+  public void testAppendAndGet() {
+    FractionColumn col = new FractionColumn(4);
+    assertEquals(0L, col.size());
+    assertEquals(BigFraction.ZERO, col.sum());
+    assertEquals(BigFraction.ZERO, col.mean());
+    assertNull(col.min());
+    assertNull(col.max());
+    
+    BigFraction big = BigFraction.valueOf(BigInteger.ONE.shiftLeft(100).negate(), BigInteger.valueOf(3));
+    assertEquals(0L, col.append(LongFraction.valueOf(1, 2)));
+    assertEquals(1L, col.append(big));
+    assertEquals(2L, col.append(4, -6));
+    assertEquals(3L, col.append(Long.MIN_VALUE, -1));
+    assertEquals(4L, col.append(0.25));
+    assertEquals(5L, col.size());
+    
+    assertEquals(BigFraction.ONE_HALF, col.get(0));
+    assertEquals(big, col.get(1));
+    assertEquals(BigFraction.valueOf(-2, 3), col.get(2));
+    assertEquals(BigFraction.valueOf(BigInteger.ONE.shiftLeft(63)), col.get(3));
+    assertEquals(BigFraction.valueOf(1, 4), col.get(4));
+    
+    assertTrue(col.isLongFraction(0));
+    assertFalse(col.isLongFraction(1));
+    assertFalse(col.isLongFraction(3));
+    assertEquals(LongFraction.valueOf(-2, 3), col.getLongFraction(2));
+    
+    BigFraction expectedSum = BigFraction.ONE_HALF.add(big).add(BigFraction.valueOf(-2, 3)).add(BigInteger.ONE.shiftLeft(63)).add(0.25);
+    assertEquals(expectedSum, col.sum());
+    assertEquals(expectedSum.divide(5), col.mean());
+    assertEquals(big, col.min());
+    assertEquals(col.get(3), col.max());
+  }
+  
+  @Test(expected=IndexOutOfBoundsException.class)
+  public void testBadIndex() {
+    FractionColumn col = new FractionColumn();
+    col.append(1);
+    col.get(1);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testGetLongFractionOverflow() {
+    FractionColumn col = new FractionColumn();
+    col.append(BigInteger.ONE.shiftLeft(64));
+    col.getLongFraction(0);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testChunkSize() {
+    new FractionColumn(3);
+  }
+  
+  @Test
+  public void testRandomAgainstBigFraction() {
+    Random r = new Random(0xC01L);
+    FractionColumn col = new FractionColumn(64);
+    int len = 3000;
+    BigFraction[] values = new BigFraction[len];
+    BigFraction sum = BigFraction.ZERO;
+    BigFraction min = null, max = null;
+    //power-of-two denominators keep the reference sum small
+    for(int i = 0; i < len; i++) {
+      switch(r.nextInt(3)) {
+        case 0:
+          values[i] = BigFraction.valueOf(r.nextInt(2001) - 1000, r.nextInt(1000) + 1);
+          break;
+        case 1:
+          values[i] = BigFraction.valueOf(LongFraction.valueOf(r.nextLong(), 1L << r.nextInt(63)));
+          break;
+        default:
+          values[i] = BigFraction.valueOf(new BigInteger(r.nextInt(300), r).subtract(BigInteger.ONE.shiftLeft(150)), BigInteger.ONE.shiftLeft(r.nextInt(300)));
+          break;
+      }
+      assertEquals(i, col.append(values[i]));
+      sum = sum.add(values[i]);
+      min = (min == null || values[i].compareTo(min) < 0 ? values[i] : min);
+      max = (max == null || values[i].compareTo(max) > 0 ? values[i] : max);
+    }
+    
+    for(int i = 0; i < len; i++)
+      assertEquals(values[i], col.get(i));
+    assertEquals(sum, col.sum());
+    assertEquals(min, col.min());
+    assertEquals(max, col.max());
+  }
+}
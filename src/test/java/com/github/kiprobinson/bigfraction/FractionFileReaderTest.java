@@ -0,0 +1,126 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * JUnit tests for FractionFileReader class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionFileReaderTest {
+  
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+  
+  @Test
+  public void testRoundTrip() throws IOException {
+    Number[] values = {
+      0, 1, -1, 0.5, BigFraction.valueOf(-22, 7), Long.MAX_VALUE, Long.MIN_VALUE,
+      LongFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE), LongFraction.valueOf(Long.MAX_VALUE, Long.MIN_VALUE + 1),
+      BigFraction.valueOf(BigInteger.ONE.shiftLeft(62)), BigFraction.valueOf(BigInteger.ONE.shiftLeft(62).negate()),
+      BigFraction.valueOf(BigInteger.ONE.shiftLeft(63)), BigFraction.valueOf(BigInteger.ONE.shiftLeft(64).negate(), BigInteger.valueOf(3)),
+      BigFraction.valueOf(BigInteger.ONE.shiftLeft(3000).add(BigInteger.ONE), BigInteger.ONE.shiftLeft(2000).subtract(BigInteger.ONE)),
+    };
+    Path path = tmp.newFile().toPath();
+    try(FractionFileWriter w = new FractionFileWriter(path)) {
+      for(Number n : values)
+        w.write(n);
+    }
+    
+    try(FractionFileReader r = new FractionFileReader(path)) {
+      assertEquals(values.length, r.size());
+      for(int i = 0; i < values.length; i++) {
+        BigFraction f = BigFraction.valueOf(values[i]);
+        assertEquals(f, r.get(i));
+        if(f.getNumerator().bitLength() < 64 && f.getDenominator().bitLength() < 64)
+          assertEquals(LongFraction.valueOf(f), r.getLongFraction(i));
+      }
+    }
+  }
+  
+  @Test
+  public void testRandom() throws IOException {
+    Random rand = new Random(0xF11EL);
+    BigFraction[] values = new BigFraction[20000];
+    Path path = tmp.newFile().toPath();
+    try(FractionFileWriter w = new FractionFileWriter(path)) {
+      for(int i = 0; i < values.length; i++) {
+        switch(rand.nextInt(3)) {
+          case 0:
+            values[i] = BigFraction.valueOf(rand.nextInt(2001) - 1000, rand.nextInt(1000) + 1);
+            break;
+          case 1:
+            values[i] = BigFraction.valueOf(LongFraction.valueOf(rand.nextLong(), rand.nextLong() & Long.MAX_VALUE | 1L));
+            break;
+          default:
+            values[i] = BigFraction.valueOf(new BigInteger(rand.nextInt(600), rand).subtract(BigInteger.ONE.shiftLeft(300)), new BigInteger(rand.nextInt(600), rand).add(BigInteger.ONE));
+            break;
+        }
+        assertEquals(i, w.write(values[i]));
+      }
+    }
+    
+    try(FractionFileReader r = new FractionFileReader(path)) {
+      for(int k = 0; k < values.length; k++) {
+        int i = rand.nextInt(values.length);
+        assertEquals(values[i], r.get(i));
+      }
+    }
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testGetLongFractionOverflow() throws IOException {
+    Path path = tmp.newFile().toPath();
+    try(FractionFileWriter w = new FractionFileWriter(path)) {
+      w.write(BigInteger.ONE.shiftLeft(64));
+    }
+    try(FractionFileReader r = new FractionFileReader(path)) {
+      r.getLongFraction(0);
+    }
+  }
+  
+  @Test(expected=IndexOutOfBoundsException.class)
+  public void testBadIndex() throws IOException {
+    Path path = tmp.newFile().toPath();
+    try(FractionFileWriter w = new FractionFileWriter(path)) {
+      w.write(1);
+    }
+    try(FractionFileReader r = new FractionFileReader(path)) {
+      r.get(1);
+    }
+  }
+  
+  @Test
+  public void testInvalidFiles() throws IOException {
+    Path path = tmp.newFile().toPath();
+    byte[][] invalid = {
+      new byte[0],
+      new byte[24],
+      //wrong version
+      { 0x42, 0x46, 0x52, 0x43, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0x18 },
+      //count larger than the index
+      { 0x42, 0x46, 0x52, 0x43, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0x18 },
+    };
+    for(byte[] b : invalid) {
+      Files.write(path, b);
+      try {
+        new FractionFileReader(path).close();
+        fail("Expected exception");
+      }
+      catch(IOException e) {
+        //expected
+      }
+    }
+  }
+}
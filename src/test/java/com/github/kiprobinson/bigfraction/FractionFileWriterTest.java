@@ -0,0 +1,95 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * JUnit tests for FractionFileWriter class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionFileWriterTest {
+  
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+  
+  @Test
+  public void testFormat() throws IOException {
+    Path path = tmp.newFile().toPath();
+    try(FractionFileWriter w = new FractionFileWriter(path)) {
+      assertEquals(0L, w.write(BigFraction.valueOf(-3, 4)));
+      assertEquals(1L, w.write(LongFraction.valueOf(300, 1)));
+      assertEquals(2L, w.write(BigFraction.valueOf(BigInteger.ONE.shiftLeft(70))));
+      assertEquals(3L, w.size());
+    }
+    
+    String expected =
+        //header: magic, version, count, index offset
+        "42 46 52 43 00 00 00 01 00 00 00 00 00 00 00 03 00 00 00 00 00 00 00 30 " +
+        //-3/4, 300/1, 2^70/1
+        "07 04 D8 04 01 80 80 80 80 80 80 80 80 80 80 02 01 " +
+        //padding, then index
+        "00 00 00 00 00 00 00 " +
+        "00 00 00 00 00 00 00 18 00 00 00 00 00 00 00 1A 00 00 00 00 00 00 00 1D";
+    assertEquals(expected, hex(Files.readAllBytes(path)));
+  }
+  
+  @Test
+  public void testEmpty() throws IOException {
+    Path path = tmp.newFile().toPath();
+    new FractionFileWriter(path).close();
+    assertEquals("42 46 52 43 00 00 00 01 00 00 00 00 00 00 00 00 00 00 00 00 00 00 00 18", hex(Files.readAllBytes(path)));
+  }
+  
+  @Test
+  public void testIndexSpansBuffers() throws IOException {
+    //more offsets than fit in one index buffer, so the temporary index file is written several times
+    Path path = tmp.newFile().toPath();
+    int count = 20000;
+    try(FractionFileWriter w = new FractionFileWriter(path)) {
+      for(int i = 0; i < count; i++)
+        w.write(LongFraction.valueOf(i, i + 1));
+    }
+    
+    try(FractionFileReader r = new FractionFileReader(path)) {
+      assertEquals(count, r.size());
+      for(int i = 0; i < count; i += 997)
+        assertEquals(LongFraction.valueOf(i, i + 1), r.getLongFraction(i));
+      assertEquals(LongFraction.valueOf(count - 1, count), r.getLongFraction(count - 1));
+    }
+    
+    //the temporary index file is deleted
+    assertArrayEquals(new String[] { path.getFileName().toString() }, tmp.getRoot().list());
+  }
+  
+  @Test(expected=IllegalStateException.class)
+  public void testWriteAfterClose() throws IOException {
+    FractionFileWriter w = new FractionFileWriter(tmp.newFile().toPath());
+    w.close();
+    w.close();
+    w.write(1);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNull() throws IOException {
+    try(FractionFileWriter w = new FractionFileWriter(tmp.newFile().toPath())) {
+      w.write((Number)null);
+    }
+  }
+  
+  private static String hex(byte[] b) {
+    StringBuilder sb = new StringBuilder();
+    for(byte x : b)
+      sb.append(sb.length() == 0 ? "" : " ").append(String.format("%02X", x & 0xFF));
+    return sb.toString();
+  }
+}
@@ -0,0 +1,126 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for FractionKeyCodec class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionKeyCodecTest {
+  
+  @Test
+  public void testExamples() {
+    assertEquals("80 00 00", hex(FractionKeyCodec.encode(0)));
+    assertEquals("80 00 FE FD FF", hex(FractionKeyCodec.encode(BigFraction.ONE_HALF)));
+    assertEquals("80 01 01 00", hex(FractionKeyCodec.encode(1)));
+    assertEquals("7F FE FE 00", hex(FractionKeyCodec.encode(-1)));
+    assertEquals("7F FE FE FE FD FF", hex(FractionKeyCodec.encode(-0.5)));
+    //3/7 = [0; 2, 3]
+    assertEquals("80 00 FE FD 01 03 00", hex(FractionKeyCodec.encode(BigFraction.valueOf(3, 7))));
+  }
+  
+  @Test
+  public void testRoundTrip() {
+    Number[] values = {
+      0, 1, -1, 0.5, -0.5, BigFraction.valueOf(3, 7), BigFraction.valueOf(-22, 7),
+      Long.MAX_VALUE, Long.MIN_VALUE, LongFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE),
+      LongFraction.valueOf(1, Long.MAX_VALUE), BigFraction.valueOf(BigInteger.ONE.shiftLeft(3000).add(BigInteger.ONE), BigInteger.valueOf(3)),
+      BigFraction.valueOf(BigInteger.ONE, BigInteger.ONE.shiftLeft(3000).negate()),
+    };
+    for(Number n : values) {
+      BigFraction f = BigFraction.valueOf(n);
+      byte[] key = FractionKeyCodec.encode(n);
+      assertEquals(f, FractionKeyCodec.decode(key));
+      assertArrayEquals(key, FractionKeyCodec.encode(f));
+    }
+    assertEquals(LongFraction.valueOf(-22, 7), FractionKeyCodec.decodeLongFraction(FractionKeyCodec.encode(BigFraction.valueOf(-22, 7))));
+    
+    byte[] padded = { 1, 2, (byte)0x80, 0x01, 0x01, 0x00, 3 };
+    assertEquals(BigFraction.ONE, FractionKeyCodec.decode(padded, 2, 4));
+  }
+  
+  @Test
+  public void testInvalid() {
+    String[] invalid = {
+      "", "81 00 00", "80 00", "80 00 00 00", "7F FF 00", "80 00 FF FF",
+      "80 00 FE FE FF", "80 01 00 00", "80 F0 00", "80 F1 05 00 00 00 00 00 00",
+    };
+    for(String s : invalid) {
+      try {
+        FractionKeyCodec.decode(unhex(s));
+        fail("Expected exception for: " + s);
+      }
+      catch(IllegalArgumentException e) {
+        //expected
+      }
+    }
+  }
+  
+  @Test
+  public void testOrderAgainstCompareTo() {
+    Random r = new Random(0xC0DECL);
+    BigFraction[] values = new BigFraction[500];
+    for(int i = 0; i < values.length; i++) {
+      switch(r.nextInt(4)) {
+        case 0:
+          values[i] = BigFraction.valueOf(r.nextInt(41) - 20, r.nextInt(20) + 1);
+          break;
+        case 1:
+          values[i] = BigFraction.valueOf(LongFraction.valueOf(r.nextLong(), r.nextLong() & Long.MAX_VALUE | 1L));
+          break;
+        case 2:
+          values[i] = BigFraction.valueOf(new BigInteger(r.nextInt(2200), r).subtract(BigInteger.ONE.shiftLeft(1000)), new BigInteger(r.nextInt(2200), r).add(BigInteger.ONE));
+          break;
+        default:
+          //values very close to a previous one
+          values[i] = (i == 0 ? BigFraction.ZERO : values[r.nextInt(i)].add(BigFraction.valueOf(r.nextInt(3) - 1, Long.MAX_VALUE)));
+          break;
+      }
+    }
+    
+    byte[][] keys = new byte[values.length][];
+    for(int i = 0; i < values.length; i++) {
+      keys[i] = FractionKeyCodec.encode(values[i]);
+      assertEquals(values[i], FractionKeyCodec.decode(keys[i]));
+      if(values[i].getNumerator().bitLength() < 64 && values[i].getDenominator().bitLength() < 64)
+        assertArrayEquals(keys[i], FractionKeyCodec.encode(LongFraction.valueOf(values[i])));
+    }
+    for(int i = 0; i < values.length; i++) {
+      for(int j = 0; j < values.length; j++)
+        assertEquals(values[i] + " vs " + values[j], Integer.signum(values[i].compareTo(values[j])), Integer.signum(compareUnsigned(keys[i], keys[j])));
+    }
+  }
+  
+  private static int compareUnsigned(byte[] a, byte[] b) {
+    int len = Math.min(a.length, b.length);
+    for(int i = 0; i < len; i++) {
+      if(a[i] != b[i])
+        return Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+    }
+    return Integer.compare(a.length, b.length);
+  }
+  
+  private static String hex(byte[] b) {
+    StringBuilder sb = new StringBuilder();
+    for(byte x : b)
+      sb.append(sb.length() == 0 ? "" : " ").append(String.format("%02X", x & 0xFF));
+    return sb.toString();
+  }
+  
+  private static byte[] unhex(String s) {
+    if(s.isEmpty())
+      return new byte[0];
+    String[] parts = s.split(" ");
+    byte[] ret = new byte[parts.length];
+    for(int i = 0; i < parts.length; i++)
+      ret[i] = (byte)Integer.parseInt(parts[i], 16);
+    return ret;
+  }
+}
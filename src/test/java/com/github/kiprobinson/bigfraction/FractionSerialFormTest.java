@@ -0,0 +1,157 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for FractionSerialForm class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionSerialFormTest {
+  
+  /** LongFraction.ONE, serialized with the default serial form. */
+  private static final String OLD_LONG_FRACTION_ONE =
+      "aced00057372002f636f6d2e6769746875622e6b6970726f62696e736f6e2e6269676672616374696f6e2e4c6f6e6746726163" +
+      "74696f6e00000000000000030200024a000b64656e6f6d696e61746f724a00096e756d657261746f72787200106a6176612e6c" +
+      "616e672e4e756d62657286ac951d0b94e08b020000787000000000000000010000000000000001";
+  
+  /** BigFraction.ONE, serialized with the default serial form. */
+  private static final String OLD_BIG_FRACTION_ONE =
+      "aced00057372002e636f6d2e6769746875622e6b6970726f62696e736f6e2e6269676672616374696f6e2e426967467261637469" +
+      "6f6e00000000000000030200024c000b64656e6f6d696e61746f727400164c6a6176612f6d6174682f426967496e74656765723b" +
+      "4c00096e756d657261746f7271007e0001787200106a6176612e6c616e672e4e756d62657286ac951d0b94e08b02000078707372" +
+      "00146a6176612e6d6174682e426967496e74656765728cfc9f1fa93bfb1d030006490008626974436f756e744900096269744c65" +
+      "6e67746849001366697273744e6f6e7a65726f427974654e756d49000c6c6f776573745365744269744900067369676e756d5b00" +
+      "096d61676e69747564657400025b427871007e0002fffffffffffffffffffffffefffffffe00000001757200025b42acf317f806" +
+      "0854e0020000787000000001017871007e0006";
+  
+  /** BigFraction -3/4, serialized with the default serial form. */
+  private static final String OLD_BIG_FRACTION_MINUS_THREE_QUARTERS =
+      "aced00057372002e636f6d2e6769746875622e6b6970726f62696e736f6e2e6269676672616374696f6e2e426967467261637469" +
+      "6f6e00000000000000030200024c000b64656e6f6d696e61746f727400164c6a6176612f6d6174682f426967496e74656765723b" +
+      "4c00096e756d657261746f7271007e0001787200106a6176612e6c616e672e4e756d62657286ac951d0b94e08b02000078707372" +
+      "00146a6176612e6d6174682e426967496e74656765728cfc9f1fa93bfb1d030006490008626974436f756e744900096269744c65" +
+      "6e67746849001366697273744e6f6e7a65726f427974654e756d49000c6c6f776573745365744269744900067369676e756d5b00" +
+      "096d61676e69747564657400025b427871007e0002fffffffffffffffffffffffefffffffe00000001757200025b42acf317f806" +
+      "0854e002000078700000000104787371007e0004fffffffffffffffffffffffefffffffeffffffff7571007e0007000000010378";
+  
+  @Test
+  public void testRoundTrip() throws Exception {
+    Object[] values = {
+      BigFraction.valueOf(-3, 4), BigFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE), BigFraction.valueOf(BigInteger.ONE.shiftLeft(64)),
+      BigFraction.valueOf(BigInteger.ONE.shiftLeft(500).negate(), BigInteger.valueOf(3).pow(200)),
+      LongFraction.valueOf(-3, 4), LongFraction.valueOf(Long.MIN_VALUE, Long.MAX_VALUE), LongFraction.valueOf(Long.MAX_VALUE),
+    };
+    for(Object o : values)
+      assertEquals(o, deserialize(serialize(o)));
+  }
+  
+  @Test
+  public void testConstantsKeepIdentity() throws Exception {
+    Object[] constants = {
+      BigFraction.ZERO, BigFraction.ONE, BigFraction.ONE_HALF, BigFraction.ONE_TENTH, BigFraction.TEN,
+      LongFraction.ZERO, LongFraction.ONE, LongFraction.ONE_HALF, LongFraction.ONE_TENTH, LongFraction.TEN,
+    };
+    for(Object o : constants)
+      assertSame(o, deserialize(serialize(o)));
+    assertSame(BigFraction.ONE, deserialize(serialize(BigFraction.valueOf(7, 7))));
+    assertSame(LongFraction.ONE, deserialize(unhex(OLD_LONG_FRACTION_ONE)));
+    assertSame(BigFraction.ONE, deserialize(unhex(OLD_BIG_FRACTION_ONE)));
+  }
+  
+  @Test
+  public void testOldSerialForm() throws Exception {
+    assertEquals(BigFraction.valueOf(-3, 4), deserialize(unhex(OLD_BIG_FRACTION_MINUS_THREE_QUARTERS)));
+    
+    //the last 16 bytes of the old LongFraction form are the denominator and the numerator
+    String prefix = OLD_LONG_FRACTION_ONE.substring(0, OLD_LONG_FRACTION_ONE.length() - 32);
+    assertSame(LongFraction.ONE_HALF, deserialize(unhex(prefix + "0000000000000004" + "0000000000000002")));
+    assertEquals(LongFraction.valueOf(-2, 3), deserialize(unhex(prefix + "0000000000000006" + "fffffffffffffffc")));
+    for(String denominator : new String[] { "0000000000000000", "fffffffffffffffe" }) {
+      try {
+        deserialize(unhex(prefix + denominator + "0000000000000001"));
+        fail("Expected exception");
+      }
+      catch(InvalidObjectException e) {
+        //expected
+      }
+    }
+  }
+  
+  @Test(expected=EOFException.class)
+  public void testHugeLengthDoesNotAllocate() throws Exception {
+    //a big value claiming a numerator of 2^31-1 bytes, followed by only three. Reading must fail at the end
+    //of the data, not allocate a 2GB array first.
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.write(new byte[] { 6, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 1, 2, 3 });
+    }
+    try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      new FractionSerialForm().readExternal(in);
+    }
+  }
+  
+  @Test
+  public void testCompact() throws Exception {
+    //many values in one stream share a single class descriptor, so measure the cost of each extra value.
+    //that is 9 bytes of object and block data framing, a header byte, and two varints of 3 or 4 bytes.
+    BigFraction[] values = new BigFraction[100];
+    for(int i = 0; i < values.length; i++)
+      values[i] = BigFraction.valueOf(i * 7919L + 3, i * 104729L + 1000003);
+    int perValue = (serialize(values).length - serialize(new BigFraction[0]).length) / values.length;
+    assertTrue("bytes per value: " + perValue, perValue <= 18);
+  }
+  
+  @Test
+  public void testInvalid() throws Exception {
+    byte[] good = serialize(BigFraction.valueOf(-3, 4));
+    //last two bytes are the zig-zagged numerator (5) and the denominator (4), then the end of block data marker
+    assertEquals(0x04, good[good.length - 2]);
+    byte[] zeroDenominator = good.clone();
+    zeroDenominator[zeroDenominator.length - 2] = 0;
+    byte[] badTag = good.clone();
+    badTag[badTag.length - 4] = 0x7F;
+    for(byte[] b : new byte[][] { zeroDenominator, badTag }) {
+      try {
+        deserialize(b);
+        fail("Expected exception");
+      }
+      catch(InvalidObjectException e) {
+        //expected
+      }
+    }
+  }
+  
+  private static byte[] serialize(Object o) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(o);
+    }
+    return bytes.toByteArray();
+  }
+  
+  private static Object deserialize(byte[] b) throws IOException, ClassNotFoundException {
+    try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(b))) {
+      return in.readObject();
+    }
+  }
+  
+  private static byte[] unhex(String s) {
+    byte[] ret = new byte[s.length() / 2];
+    for(int i = 0; i < ret.length; i++)
+      ret[i] = (byte)Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+    return ret;
+  }
+}
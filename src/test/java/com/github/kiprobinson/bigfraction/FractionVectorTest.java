@@ -0,0 +1,152 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for FractionVector class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class FractionVectorTest {
+  
+  @Test
+  public void testGetAndSet() {
+    FractionVector v = new FractionVector(3);
+    assertEquals(3, v.length());
+    assertEquals("[0/1, 0/1, 0/1]", v.toString());
+    assertEquals(BigInteger.ONE, v.getDenominator());
+    
+    v.set(0, BigFraction.valueOf(1, 2));
+    v.set(1, BigFraction.valueOf(-2, 3));
+    v.set(2, 5);
+    assertEquals("[1/2, -2/3, 5/1]", v.toString());
+    assertEquals(BigInteger.valueOf(6), v.getDenominator());
+    assertEquals(BigInteger.valueOf(-4), v.getNumerator(1));
+    assertEquals(BigFraction.valueOf(-2, 3), v.get(1));
+    
+    //denominator already divides the shared denominator, so nothing is rescaled
+    v.set(2, BigFraction.valueOf(1, 3));
+    assertEquals(BigInteger.valueOf(6), v.getDenominator());
+    assertArrayEquals(new BigFraction[] { BigFraction.ONE_HALF, BigFraction.valueOf(-2, 3), BigFraction.valueOf(1, 3) }, v.toArray());
+    
+    FractionVector w = FractionVector.of(0.25, 1, BigFraction.valueOf(1, 6));
+    assertEquals("[1/4, 1/1, 1/6]", w.toString());
+    assertEquals(BigInteger.valueOf(12), w.getDenominator());
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testLengthMismatch() {
+    new FractionVector(2).add(new FractionVector(3));
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNullElement() {
+    FractionVector.of(1, null);
+  }
+  
+  @Test
+  public void testOperations() {
+    FractionVector a = FractionVector.of(bf(1, 2), bf(-1, 3), bf(0));
+    FractionVector b = FractionVector.of(bf(1, 3), bf(1, 3), bf(7, 2));
+    
+    assertEquals("[5/6, 0/1, 7/2]", a.add(b).toString());
+    assertEquals("[1/2, -1/3, 0/1]", a.subtract(b).toString());
+    assertEquals("[-1/4, 1/6, 0/1]", a.scale(bf(-1, 2)).toString());
+    assertEquals("[5/12, 5/6, 7/1]", a.axpy(2, b).toString());
+    assertEquals(bf(5, 36).add(bf(5, 18)).add(bf(49, 2)), a.dot(b));
+    assertEquals("[0/1, 0/1, 0/1]", a.scale(0).toString());
+    assertEquals(BigInteger.ONE, a.getDenominator());
+    
+    //x may be the same vector
+    FractionVector c = FractionVector.of(bf(1, 2), bf(2, 3));
+    assertEquals("[2/1, 8/3]", c.axpy(3, c).toString());
+    assertEquals(bf(4).add(bf(64, 9)), c.dot(c));
+  }
+  
+  @Test
+  public void testNormalize() {
+    FractionVector v = FractionVector.of(bf(1, 6), bf(1, 3));
+    v.add(FractionVector.of(bf(1, 6), bf(1, 6)));
+    assertEquals("[1/3, 1/2]", v.toString());
+    assertEquals(BigInteger.valueOf(6), v.normalize().getDenominator());
+    
+    //shared denominator is left unreduced until normalize() is called
+    FractionVector w = FractionVector.of(bf(1, 4), bf(-1, 4));
+    v.add(w).subtract(w);
+    assertEquals("[1/3, 1/2]", v.toString());
+    assertEquals(BigInteger.valueOf(12), v.getDenominator());
+    assertEquals(BigInteger.valueOf(6), v.normalize().getDenominator());
+    assertEquals(BigInteger.valueOf(2), v.getNumerator(0));
+    
+    v.subtract(v);
+    assertEquals(BigInteger.ONE, v.normalize().getDenominator());
+  }
+  
+  @Test
+  public void testRandomAgainstBigFraction() {
+    Random r = new Random(0xFEC70L);
+    int len = 20;
+    BigFraction[] expected = new BigFraction[len];
+    BigFraction[] other = new BigFraction[len];
+    for(int i = 0; i < len; i++) {
+      expected[i] = randomFraction(r);
+      other[i] = randomFraction(r);
+    }
+    FractionVector v = FractionVector.of(expected);
+    FractionVector x = FractionVector.of(other);
+    
+    //enough iterations that the denominator passes the automatic normalization threshold
+    for(int iter = 0; iter < 500; iter++) {
+      BigFraction a = randomFraction(r);
+      switch(iter % 4) {
+        case 0:
+          v.add(x);
+          for(int i = 0; i < len; i++)
+            expected[i] = expected[i].add(other[i]);
+          break;
+        case 1:
+          v.axpy(a, x);
+          for(int i = 0; i < len; i++)
+            expected[i] = expected[i].add(a.multiply(other[i]));
+          break;
+        case 2:
+          if(a.signum() == 0)
+            a = BigFraction.ONE;
+          v.scale(a);
+          for(int i = 0; i < len; i++)
+            expected[i] = expected[i].multiply(a);
+          break;
+        default:
+          v.subtract(x);
+          for(int i = 0; i < len; i++)
+            expected[i] = expected[i].subtract(other[i]);
+          break;
+      }
+      
+      BigFraction dot = BigFraction.ZERO;
+      for(int i = 0; i < len; i++)
+        dot = dot.add(expected[i].multiply(other[i]));
+      assertEquals(dot, v.dot(x));
+    }
+    assertArrayEquals(expected, v.toArray());
+    assertArrayEquals(expected, v.normalize().toArray());
+  }
+  
+  private static BigFraction randomFraction(Random r) {
+    return BigFraction.valueOf(r.nextInt(2001) - 1000, r.nextInt(1000) + 1);
+  }
+  
+  private static BigFraction bf(long n) {
+    return BigFraction.valueOf(n);
+  }
+  
+  private static BigFraction bf(long n, long d) {
+    return BigFraction.valueOf(n, d);
+  }
+}
@@ -0,0 +1,218 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for IntFraction class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class IntFractionTest {
+  
+  private final static int MAX = Integer.MAX_VALUE;
+  private final static int MIN = Integer.MIN_VALUE;
+  
+  @Test
+  public void testPack() {
+    assertEquals("2/3", IntFraction.toString(IntFraction.pack(4, 6)));
+    assertEquals("-2/3", IntFraction.toString(IntFraction.pack(4, -6)));
+    assertEquals("2/3", IntFraction.toString(IntFraction.pack(-4, -6)));
+    assertEquals(IntFraction.ZERO_BITS, IntFraction.pack(0, -5));
+    assertEquals(IntFraction.ONE_BITS, IntFraction.pack(MIN, MIN));
+    assertEquals("-2147483648/2147483647", IntFraction.toString(IntFraction.pack(MIN, MAX)));
+    assertEquals("-2147483648/1", IntFraction.toString(IntFraction.pack(MIN, 1)));
+    assertEquals("1/1073741824", IntFraction.toString(IntFraction.pack(-2, MIN)));
+    
+    long bits = IntFraction.pack(-7, 3);
+    assertEquals(-7, IntFraction.numerator(bits));
+    assertEquals(3, IntFraction.denominator(bits));
+    assertEquals(bits, IntFraction.valueOf(-7, 3).toBits());
+    assertEquals(IntFraction.valueOf(-7, 3), IntFraction.fromBits(bits));
+    
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.pack(1, 0));
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.pack(MIN, -1));
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.pack(1, MIN));
+    assertThrowsException(IllegalArgumentException.class, () -> IntFraction.fromBits(IntFraction.ONE_BITS - 1L));
+    assertThrowsException(IllegalArgumentException.class, () -> IntFraction.fromBits((2L << 32) | 3L));
+    
+    //a zero-filled array holds valid zeros
+    long[] zeros = new long[4];
+    assertEquals(IntFraction.ZERO, IntFraction.fromBits(zeros[0]));
+    assertEquals(IntFraction.ONE_BITS, IntFraction.add(zeros[1], IntFraction.ONE_BITS));
+  }
+  
+  @Test
+  public void testArithmetic() {
+    assertEquals("5/6", IntFraction.valueOf(1, 2).add(IntFraction.valueOf(1, 3)).toString());
+    assertEquals("1/6", IntFraction.valueOf(1, 2).subtract(IntFraction.valueOf(1, 3)).toString());
+    assertEquals("1/6", IntFraction.valueOf(1, 2).multiply(IntFraction.valueOf(1, 3)).toString());
+    assertEquals("3/2", IntFraction.valueOf(1, 2).divide(IntFraction.valueOf(1, 3)).toString());
+    assertEquals("0/1", IntFraction.valueOf(1, 6).subtract(IntFraction.valueOf(2, 12)).toString());
+    assertEquals("-2/3", IntFraction.valueOf(2, 3).negate().toString());
+    
+    //intermediate products overflow an int, but the result fits
+    assertEquals("1/1", IntFraction.valueOf(MAX - 1, MAX).add(IntFraction.valueOf(1, MAX)).toString());
+    assertEquals("1/1", IntFraction.valueOf(MAX, MAX - 1).multiply(IntFraction.valueOf(MAX - 1, MAX)).toString());
+    assertEquals("5/3", IntFraction.valueOf(MIN, 3).divide(IntFraction.valueOf(MIN, 5)).toString());
+    assertEquals("1/2147483647", IntFraction.valueOf(-1, MAX).divide(IntFraction.valueOf(-1)).toString());
+    assertEquals("-2147483647/1", IntFraction.valueOf(MAX).divide(IntFraction.valueOf(-1)).toString());
+    assertEquals("1/1", IntFraction.valueOf(MIN).divide(IntFraction.valueOf(MIN)).toString());
+    assertEquals("-1/3", IntFraction.valueOf(MIN, 3).add(IntFraction.valueOf(MIN + 1, -3)).toString());
+    
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.valueOf(MAX).add(IntFraction.ONE));
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.valueOf(MIN).negate());
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.valueOf(MIN).divide(IntFraction.valueOf(-1)));
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.valueOf(1, MAX).multiply(IntFraction.valueOf(1, 2)));
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.valueOf(1, MAX).subtract(IntFraction.valueOf(1, MAX - 1)));
+    assertThrowsException(ArithmeticException.class, () -> IntFraction.ONE.divide(IntFraction.ZERO));
+  }
+  
+  @Test
+  public void testRandomAgainstBigFraction() {
+    Random r = new Random(0x1F2A3B4CL);
+    for(int i = 0; i < 20000; i++) {
+      //mix of small and full-range values, so that both the fitting and the overflowing paths are exercised
+      long a = randomBits(r, i % 3 == 0);
+      long b = randomBits(r, i % 5 == 0);
+      BigFraction fa = BigFraction.valueOf(IntFraction.numerator(a), IntFraction.denominator(a));
+      BigFraction fb = BigFraction.valueOf(IntFraction.numerator(b), IntFraction.denominator(b));
+      
+      checkResult(fa.add(fb), () -> IntFraction.add(a, b));
+      checkResult(fa.subtract(fb), () -> IntFraction.subtract(a, b));
+      checkResult(fa.multiply(fb), () -> IntFraction.multiply(a, b));
+      if(fb.signum() != 0)
+        checkResult(fa.divide(fb), () -> IntFraction.divide(a, b));
+      
+      assertEquals(Integer.signum(fa.compareTo(fb)), Integer.signum(IntFraction.compare(a, b)));
+      //BigFraction.doubleValue() is not always correctly rounded, so use a 40 digit quotient as the reference
+      BigDecimal q = new BigDecimal(IntFraction.numerator(a)).divide(new BigDecimal(IntFraction.denominator(a)), new MathContext(40));
+      assertEquals(IntFraction.toString(a), q.doubleValue(), IntFraction.doubleValue(a), 0.0);
+      assertEquals(IntFraction.toString(a), q.floatValue(), IntFraction.fromBits(a).floatValue(), 0.0f);
+    }
+  }
+  
+  @Test
+  public void testCompareTo() {
+    assertTrue(IntFraction.valueOf(1, 3).compareTo(IntFraction.valueOf(1, 2)) < 0);
+    assertTrue(IntFraction.valueOf(MAX).compareTo(IntFraction.valueOf(MIN)) > 0);
+    assertTrue(IntFraction.valueOf(MAX - 1, MAX).compareTo(IntFraction.valueOf(MAX - 2, MAX - 1)) > 0);
+    assertEquals(0, IntFraction.valueOf(1, 2).compareTo(0.5));
+    assertTrue(IntFraction.valueOf(MAX).compareTo(Long.MAX_VALUE) < 0);
+  }
+  
+  @Test
+  public void testConversions() {
+    IntFraction f = IntFraction.valueOf(-7, 2);
+    assertEquals(-3, f.intValue());
+    assertEquals(-3L, f.longValue());
+    assertEquals(-3.5, f.doubleValue(), 0.0);
+    assertEquals(-3.5f, f.floatValue(), 0.0f);
+    assertEquals(LongFraction.valueOf(-7, 2), f.toLongFraction());
+    assertEquals(BigFraction.valueOf(-7, 2), BigFraction.valueOf(f));
+    assertEquals(LongFraction.valueOf(-7, 2), LongFraction.valueOf(f));
+    assertEquals(AdaptiveFraction.valueOf(-7, 2), AdaptiveFraction.valueOf(f));
+    assertEquals(BigFraction.valueOf(4, 7), BigFraction.valueOf(IntFraction.valueOf(2), f.negate()));
+    assertEquals(BigFraction.ONE, BigFraction.ONE.multiply(IntFraction.ONE));
+    
+    assertEquals(IntFraction.valueOf(2, 4), IntFraction.valueOf(1, 2));
+    assertEquals(IntFraction.valueOf(2, 4).hashCode(), IntFraction.valueOf(1, 2).hashCode());
+    assertNotEquals(IntFraction.valueOf(1, 2), LongFraction.valueOf(1, 2));
+  }
+  
+  @Test
+  public void testSerialization() throws Exception {
+    IntFraction f = IntFraction.valueOf(-7, 3);
+    byte[] good = serialize(f);
+    assertEquals(f, deserialize(good));
+    
+    //the stream ends with the packed bits. Replace them with 1/0 and with the unreduced 2/4.
+    for(long bits : new long[] { (1L << 32) | 0xFFFFFFFFL, (2L << 32) | 3L }) {
+      byte[] bad = good.clone();
+      for(int i = 0; i < 8; i++)
+        bad[bad.length - 1 - i] = (byte)(bits >>> (8 * i));
+      try {
+        deserialize(bad);
+        fail("Expected exception");
+      }
+      catch(InvalidObjectException e) {
+        //expected
+      }
+    }
+  }
+  
+  private static byte[] serialize(Object o) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(o);
+    }
+    return bytes.toByteArray();
+  }
+  
+  private static Object deserialize(byte[] b) throws IOException, ClassNotFoundException {
+    try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(b))) {
+      return in.readObject();
+    }
+  }
+  
+  /**
+   * Verifies that the packed result matches the expected value, or throws ArithmeticException if the
+   * expected value does not fit.
+   */
+  private static void checkResult(BigFraction expected, java.util.function.LongSupplier actual) {
+    boolean fits = expected.getNumerator().bitLength() < 32 && expected.getDenominator().bitLength() < 32;
+    if(fits) {
+      assertEquals(expected.toString(), IntFraction.toString(actual.getAsLong()));
+    }
+    else {
+      try {
+        actual.getAsLong();
+        fail("Expected overflow for " + expected);
+      }
+      catch(ArithmeticException e) {
+        //expected
+      }
+    }
+  }
+  
+  /**
+   * Verifies that the given operation throws the given exception type. (JUnit 4.12 has no assertThrows.)
+   */
+  private static void assertThrowsException(Class<? extends Throwable> expected, Runnable op) {
+    try {
+      op.run();
+    }
+    catch(Throwable t) {
+      assertEquals(expected, t.getClass());
+      return;
+    }
+    fail("Expected " + expected.getSimpleName());
+  }
+  
+  private static long randomBits(Random r, boolean small) {
+    int n = small ? r.nextInt(41) - 20 : r.nextInt();
+    int d = 0;
+    while(d == 0)
+      d = small ? r.nextInt(20) + 1 : r.nextInt() & MAX;
+    
+    //multiply both by a common factor sometimes, so that pack() has something to reduce
+    if(small && r.nextBoolean()) {
+      int k = r.nextInt(1000) + 1;
+      n *= k;
+      d *= k;
+    }
+    return IntFraction.pack(n, d);
+  }
+}
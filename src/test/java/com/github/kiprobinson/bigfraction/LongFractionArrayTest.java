@@ -0,0 +1,130 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for LongFractionArray class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class LongFractionArrayTest {
+  
+  @Test
+  public void testGetAndSet() {
+    LongFractionArray a = new LongFractionArray(3);
+    assertEquals(3, a.length());
+    assertEquals("[0/1, 0/1, 0/1]", a.toString());
+    
+    a.set(0, LongFraction.valueOf(1, 2));
+    a.set(1, 4L, -6L);
+    a.set(2, 0L, -5L);
+    assertEquals("[1/2, -2/3, 0/1]", a.toString());
+    assertEquals(-2L, a.getNumerator(1));
+    assertEquals(3L, a.getDenominator(1));
+    assertEquals(LongFraction.valueOf(-2, 3), a.get(1));
+    assertArrayEquals(new LongFraction[] { LongFraction.ONE_HALF, LongFraction.valueOf(-2, 3), LongFraction.ZERO }, a.toArray());
+    
+    assertEquals("[1/3, 5/1]", LongFractionArray.of(LongFraction.valueOf(1, 3), LongFraction.valueOf(5)).toString());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testSetZeroDenominator() {
+    new LongFractionArray(1).set(0, 1L, 0L);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testLengthMismatch() {
+    new LongFractionArray(2).add(new LongFractionArray(3));
+  }
+  
+  @Test
+  public void testElementwise() {
+    LongFractionArray a = LongFractionArray.of(lf(1, 2), lf(-1, 3), lf(Long.MAX_VALUE - 1, Long.MAX_VALUE), lf(0));
+    LongFractionArray b = LongFractionArray.of(lf(1, 3), lf(1, 3), lf(1, Long.MAX_VALUE), lf(7, 2));
+    
+    assertEquals("[5/6, 0/1, 1/1, 7/2]", a.add(b).toString());
+    assertEquals("[5/18, 0/1, 1/9223372036854775807, 49/4]", a.multiply(b).toString());
+    assertEquals("[5/9, 0/1, 2/9223372036854775807, 49/2]", a.scale(lf(2)).toString());
+    assertArrayEquals(new int[] { 1, -1, 1, 1 }, a.compare(b));
+    
+    //intermediate products overflow, but the result fits
+    LongFractionArray c = LongFractionArray.of(lf(Long.MAX_VALUE / 2, 5));
+    assertEquals("[9223372036854775806/35]", c.add(LongFractionArray.of(lf(-(Long.MAX_VALUE / 2), 7))).toString());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testAddOverflow() {
+    LongFractionArray.of(lf(Long.MAX_VALUE)).add(LongFractionArray.of(lf(1)));
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testMultiplyOverflow() {
+    LongFractionArray.of(lf(1, Long.MAX_VALUE)).scale(lf(1, 2));
+  }
+  
+  @Test
+  public void testSumAndDot() {
+    assertEquals(BigFraction.ZERO, new LongFractionArray(0).sum());
+    assertEquals(BigFraction.ZERO, new LongFractionArray(0).dot(new LongFractionArray(0)));
+    
+    LongFractionArray a = LongFractionArray.of(lf(1, 2), lf(1, 3), lf(1, 6));
+    LongFractionArray b = LongFractionArray.of(lf(2), lf(3), lf(6));
+    assertEquals(BigFraction.ONE, a.sum());
+    assertEquals(BigFraction.valueOf(3), a.dot(b));
+    
+    //sum and products overflow a long
+    LongFractionArray big = LongFractionArray.of(lf(Long.MAX_VALUE), lf(Long.MAX_VALUE), lf(1, Long.MAX_VALUE - 1));
+    BigFraction max = BigFraction.valueOf(Long.MAX_VALUE);
+    assertEquals(max.multiply(2).add(BigFraction.valueOf(1, Long.MAX_VALUE - 1)), big.sum());
+    assertEquals(max.multiply(max).multiply(2).add(BigFraction.valueOf(1, Long.MAX_VALUE - 1).pow(2)), big.dot(big));
+  }
+  
+  @Test
+  public void testRandomAgainstLongFraction() {
+    Random r = new Random(0xA77A7L);
+    int len = 50000; //big enough to be split into multiple ranges
+    LongFractionArray a = new LongFractionArray(len);
+    LongFractionArray b = new LongFractionArray(len);
+    for(int i = 0; i < len; i++) {
+      a.set(i, r.nextInt(2001) - 1000, r.nextInt(1000) + 1);
+      b.set(i, r.nextInt(2001) - 1000, r.nextInt(1000) + 1);
+    }
+    
+    BigFraction expectedSum = BigFraction.ZERO;
+    BigFraction expectedDot = BigFraction.ZERO;
+    LongFraction[] aa = a.toArray();
+    LongFraction[] bb = b.toArray();
+    int[] cmp = a.compare(b);
+    for(int i = 0; i < len; i++) {
+      expectedSum = expectedSum.add(aa[i]);
+      expectedDot = expectedDot.add(aa[i].multiply(bb[i]));
+      assertEquals(Integer.signum(aa[i].compareTo(bb[i])), cmp[i]);
+    }
+    assertEquals(expectedSum, a.sum());
+    assertEquals(expectedSum, a.parallelSum());
+    assertEquals(expectedDot, a.dot(b));
+    assertEquals(expectedDot, a.parallelDot(b));
+    assertArrayEquals(cmp, a.parallelCompare(b));
+    
+    LongFractionArray serial = LongFractionArray.of(aa).add(b).multiply(b).scale(lf(-3, 7));
+    LongFractionArray parallel = LongFractionArray.of(aa).parallelAdd(b).parallelMultiply(b).parallelScale(lf(-3, 7));
+    for(int i = 0; i < len; i++) {
+      LongFraction expected = aa[i].add(bb[i]).multiply(bb[i]).multiply(lf(-3, 7));
+      assertEquals(expected, serial.get(i));
+      assertEquals(expected, parallel.get(i));
+    }
+  }
+  
+  private static LongFraction lf(long n) {
+    return LongFraction.valueOf(n);
+  }
+  
+  private static LongFraction lf(long n, long d) {
+    return LongFraction.valueOf(n, d);
+  }
+}
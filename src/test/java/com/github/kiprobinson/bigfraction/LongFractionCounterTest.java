@@ -0,0 +1,88 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for LongFractionCounter class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class LongFractionCounterTest {
+  
+  @Test
+  public void testCounting() {
+    LongFractionCounter c = new LongFractionCounter();
+    assertTrue(c.isEmpty());
+    assertEquals(1L, c.increment(LongFraction.ONE_HALF));
+    assertEquals(2L, c.increment(2, 4));
+    assertEquals(12L, c.addTo(-3, -6, 10));
+    assertEquals(-5L, c.addTo(LongFraction.valueOf(-1, 3), -5));
+    assertEquals(0L, c.addTo(-1, 3, 5));
+    assertEquals(2, c.size());
+    
+    assertEquals(12L, c.get(LongFraction.ONE_HALF));
+    assertEquals(0L, c.get(-1, 3));
+    assertTrue(c.containsKey(LongFraction.valueOf(-2, 6)));
+    assertEquals(0L, c.get(5, 1));
+    assertFalse(c.containsKey(LongFraction.ONE));
+    
+    assertEquals(12L, c.remove(1, 2));
+    assertEquals(0L, c.remove(LongFraction.ONE_HALF));
+    assertEquals("{-1/3=0}", c.toString());
+    assertEquals(LongFraction.valueOf(-1, 3), c.keys().get(0));
+    
+    c.clear();
+    assertTrue(c.isEmpty());
+    assertEquals(0L, c.get(-1, 3));
+    assertEquals("{}", c.toString());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testOverflow() {
+    LongFractionCounter c = new LongFractionCounter();
+    c.addTo(1, 2, Long.MAX_VALUE);
+    c.increment(1, 2);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testZeroDenominator() {
+    new LongFractionCounter().increment(1, 0);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNull() {
+    new LongFractionCounter().increment(null);
+  }
+  
+  @Test
+  public void testRandomAgainstHashMap() {
+    Random r = new Random(0x5C1L);
+    LongFractionCounter c = new LongFractionCounter();
+    Map<LongFraction, Long> expected = new HashMap<>();
+    for(int i = 0; i < 200000; i++) {
+      long n = r.nextInt(401) - 200;
+      long d = r.nextInt(200) + 1;
+      LongFraction f = LongFraction.valueOf(n, d);
+      if(r.nextInt(4) == 0) {
+        Long old = expected.remove(f);
+        assertEquals(old == null ? 0L : old.longValue(), c.remove(n, d));
+      }
+      else {
+        long delta = r.nextInt(10);
+        assertEquals(expected.merge(f, delta, Long::sum).longValue(), c.addTo(f, delta));
+      }
+      assertEquals(expected.size(), c.size());
+    }
+    
+    Map<LongFraction, Long> actual = new HashMap<>();
+    c.forEach((n, d, count) -> assertNull(actual.put(LongFraction.valueOf(n, d), count)));
+    assertEquals(expected, actual);
+  }
+}
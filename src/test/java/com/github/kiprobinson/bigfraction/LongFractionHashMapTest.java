@@ -0,0 +1,83 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for LongFractionHashMap class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class LongFractionHashMapTest {
+  
+  @Test
+  public void testPutGetRemove() {
+    LongFractionHashMap<String> m = new LongFractionHashMap<>();
+    assertTrue(m.isEmpty());
+    assertNull(m.put(LongFraction.valueOf(1, 2), "half"));
+    assertEquals("half", m.put(2, 4, "one half"));
+    assertNull(m.put(-1, 3, null));
+    assertEquals(2, m.size());
+    
+    assertEquals("one half", m.get(LongFraction.ONE_HALF));
+    assertEquals("one half", m.get(-3, -6));
+    assertNull(m.get(-1, 3));
+    assertTrue(m.containsKey(-1, 3));
+    assertEquals("none", m.getOrDefault(5, 1, "none"));
+    assertNull(m.getOrDefault(LongFraction.valueOf(-2, 6), "none"));
+    assertFalse(m.containsKey(LongFraction.ONE));
+    
+    assertEquals("one half", m.remove(1, 2));
+    assertNull(m.remove(LongFraction.ONE_HALF));
+    assertEquals("{-1/3=null}", m.toString());
+    assertEquals(LongFraction.valueOf(-1, 3), m.keys().get(0));
+    
+    m.clear();
+    assertTrue(m.isEmpty());
+    assertEquals("{}", m.toString());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testZeroDenominator() {
+    new LongFractionHashMap<Object>().get(1, 0);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNull() {
+    new LongFractionHashMap<Object>().put(null, 1);
+  }
+  
+  @Test
+  public void testRandomAgainstHashMap() {
+    Random r = new Random(0x3A9L);
+    LongFractionHashMap<Integer> m = new LongFractionHashMap<>();
+    Map<LongFraction, Integer> expected = new HashMap<>();
+    for(int i = 0; i < 200000; i++) {
+      long n = r.nextInt(401) - 200;
+      long d = r.nextInt(200) + 1;
+      LongFraction f = LongFraction.valueOf(n, d);
+      switch(r.nextInt(3)) {
+        case 0:
+        case 1:
+          assertEquals(expected.put(f, i), m.put(n, d, i));
+          break;
+        default:
+          assertEquals(expected.remove(f), m.remove(f));
+          break;
+      }
+      assertEquals(expected.size(), m.size());
+    }
+    
+    for(Map.Entry<LongFraction, Integer> e : expected.entrySet())
+      assertEquals(e.getValue(), m.get(e.getKey()));
+    Map<LongFraction, Integer> actual = new HashMap<>();
+    m.forEach((n, d, v) -> assertNull(actual.put(LongFraction.valueOf(n, d), v)));
+    assertEquals(expected, actual);
+  }
+}
@@ -0,0 +1,103 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for LongFractionHashSet class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class LongFractionHashSetTest {
+  
+  @Test
+  public void testAddContainsRemove() {
+    LongFractionHashSet s = new LongFractionHashSet();
+    assertTrue(s.isEmpty());
+    assertTrue(s.add(LongFraction.valueOf(1, 2)));
+    assertFalse(s.add(2, 4));
+    assertFalse(s.add(-1, -2));
+    assertTrue(s.add(0, -7));
+    assertFalse(s.add(LongFraction.ZERO));
+    assertEquals(2, s.size());
+    
+    assertTrue(s.contains(3, 6));
+    assertTrue(s.contains(LongFraction.ZERO));
+    assertFalse(s.contains(-1, 2));
+    
+    assertTrue(s.remove(LongFraction.ONE_HALF));
+    assertFalse(s.remove(1, 2));
+    assertFalse(s.contains(1, 2));
+    assertEquals("[0/1]", s.toString());
+    
+    s.clear();
+    assertTrue(s.isEmpty());
+    assertEquals("[]", s.toString());
+  }
+  
+  @Test
+  public void testExtremeValues() {
+    LongFractionHashSet s = new LongFractionHashSet();
+    assertTrue(s.add(Long.MIN_VALUE, Long.MIN_VALUE));
+    assertTrue(s.contains(LongFraction.ONE));
+    assertTrue(s.add(Long.MIN_VALUE, -2));
+    assertTrue(s.contains(1L << 62, 1));
+    assertTrue(s.add(Long.MIN_VALUE, Long.MAX_VALUE));
+    assertTrue(s.add(0, Long.MIN_VALUE));
+    assertTrue(s.contains(LongFraction.ZERO));
+    assertEquals(4, s.size());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testZeroDenominator() {
+    new LongFractionHashSet().add(1, 0);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testOverflow() {
+    new LongFractionHashSet().add(Long.MIN_VALUE, -1);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNull() {
+    new LongFractionHashSet().add(null);
+  }
+  
+  @Test
+  public void testRandomAgainstHashSet() {
+    Random r = new Random(0x5E7L);
+    LongFractionHashSet s = new LongFractionHashSet(4);
+    Set<LongFraction> expected = new HashSet<>();
+    for(int i = 0; i < 200000; i++) {
+      //small range, so that there are many duplicates and many removals of present values
+      LongFraction f = LongFraction.valueOf(r.nextInt(401) - 200, r.nextInt(200) + 1);
+      switch(r.nextInt(3)) {
+        case 0:
+        case 1:
+          assertEquals(expected.add(f), s.add(f));
+          break;
+        default:
+          assertEquals(expected.remove(f), s.remove(f.getNumerator(), f.getDenominator()));
+          break;
+      }
+      assertEquals(expected.size(), s.size());
+    }
+    
+    for(LongFraction f : expected)
+      assertTrue(s.contains(f));
+    Set<LongFraction> actual = new HashSet<>();
+    s.forEach((n, d) -> assertTrue(actual.add(LongFraction.valueOf(n, d))));
+    assertEquals(expected, actual);
+    
+    LongFractionArray a = s.toArray();
+    assertEquals(expected.size(), a.length());
+    for(int i = 0; i < a.length(); i++)
+      assertTrue(expected.contains(a.get(i)));
+  }
+}
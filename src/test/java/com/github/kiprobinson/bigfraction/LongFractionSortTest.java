@@ -0,0 +1,141 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for LongFractionSort class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class LongFractionSortTest {
+  
+  private final static long MAX = Long.MAX_VALUE;
+  private final static long MIN = Long.MIN_VALUE;
+  
+  @Test
+  public void testSmall() {
+    LongFraction[] a = { lf(1, 2), lf(-1, 3), lf(0), lf(7, 2), lf(-5), lf(1, 3) };
+    LongFractionSort.sort(a);
+    assertArrayEquals(new LongFraction[] { lf(-5), lf(-1, 3), lf(0), lf(1, 3), lf(1, 2), lf(7, 2) }, a);
+    
+    LongFraction[] b = { lf(3), lf(2), lf(1), lf(0) };
+    LongFractionSort.sort(b, 1, 3);
+    assertArrayEquals(new LongFraction[] { lf(3), lf(1), lf(2), lf(0) }, b);
+    
+    LongFractionSort.sort(new LongFraction[0]);
+  }
+  
+  @Test
+  public void testCloseValues() {
+    //these differ by less than 2^-64, so they have the same key and need the exact tiebreak
+    LongFraction x = lf(MAX - 1, MAX);
+    LongFraction y = lf(MAX - 2, MAX - 1);
+    LongFraction z = lf(MAX - 3, MAX - 2);
+    for(int len : new int[] { 6, 100 }) {
+      LongFraction[] a = new LongFraction[len];
+      for(int i = 0; i < len; i++)
+        a[i] = (i % 3 == 0 ? x : i % 3 == 1 ? y : z);
+      LongFraction[] expected = a.clone();
+      Arrays.sort(expected);
+      LongFractionSort.sort(a);
+      assertArrayEquals(expected, a);
+    }
+  }
+  
+  @Test
+  public void testExtremes() {
+    LongFraction[] a = new LongFraction[40];
+    for(int i = 0; i < a.length; i += 8) {
+      a[i] = lf(MAX);
+      a[i + 1] = lf(MIN);
+      a[i + 2] = lf(1, MAX);
+      a[i + 3] = lf(-1, MAX);
+      a[i + 4] = lf(MIN, MAX);
+      a[i + 5] = lf(MAX, MAX - 1);
+      a[i + 6] = lf(0);
+      a[i + 7] = lf(MIN + 1, 2);
+    }
+    LongFraction[] expected = a.clone();
+    Arrays.sort(expected);
+    LongFractionSort.sort(a);
+    assertArrayEquals(expected, a);
+  }
+  
+  @Test
+  public void testStable() {
+    //equal values are not reordered
+    LongFraction one = new LongFraction(1, 1);
+    LongFraction otherOne = new LongFraction(1, 1);
+    LongFraction[] a = new LongFraction[64];
+    for(int i = 0; i < a.length; i++)
+      a[i] = (i % 2 == 0 ? (i < 32 ? one : otherOne) : lf(i + 1));
+    LongFractionSort.sort(a);
+    for(int i = 0; i < 16; i++)
+      assertSame(one, a[i]);
+    for(int i = 16; i < 32; i++)
+      assertSame(otherOne, a[i]);
+  }
+  
+  @Test
+  public void testPrimitivePairs() {
+    //not in lowest terms
+    long[] n = { 4, -6, 0, 10 };
+    long[] d = { 8, 4, 3, 5 };
+    LongFractionSort.sort(n, d);
+    assertArrayEquals(new long[] { -6, 0, 4, 10 }, n);
+    assertArrayEquals(new long[] { 4, 3, 8, 5 }, d);
+    
+    LongFractionArray arr = LongFractionArray.of(lf(2), lf(-1, 2), lf(1, 3));
+    assertEquals("[-1/2, 1/3, 2/1]", arr.sort().toString());
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNegativeDenominator() {
+    LongFractionSort.sort(new long[] { 1, 2 }, new long[] { 1, -2 });
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testNullElement() {
+    LongFractionSort.sort(new LongFraction[] { lf(1), null });
+  }
+  
+  @Test
+  public void testRandomAgainstArraysSort() {
+    Random r = new Random(0x50A7L);
+    for(int iter = 0; iter < 20; iter++) {
+      int len = r.nextInt(5000);
+      LongFraction[] a = new LongFraction[len];
+      for(int i = 0; i < len; i++) {
+        switch(r.nextInt(3)) {
+          case 0:
+            a[i] = lf(r.nextInt(201) - 100, r.nextInt(100) + 1);
+            break;
+          case 1:
+            a[i] = lf(r.nextLong(), r.nextLong() & MAX | 1L);
+            break;
+          default:
+            a[i] = lf(r.nextLong() >> r.nextInt(64), (r.nextLong() >>> r.nextInt(64)) | 1L);
+            break;
+        }
+      }
+      LongFraction[] expected = a.clone();
+      Arrays.sort(expected);
+      LongFractionSort.sort(a);
+      assertArrayEquals(expected, a);
+    }
+  }
+  
+  private static LongFraction lf(long n) {
+    return LongFraction.valueOf(n);
+  }
+  
+  private static LongFraction lf(long n, long d) {
+    return LongFraction.valueOf(n, d);
+  }
+}
@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import com.github.kiprobinson.bigfraction.util.DoubleUtil;
@@ -370,6 +371,188 @@ public class LongFractionTest {
     assertEquals("6600/3337", LongFraction.quotient(BigInteger.valueOf(66), new BigDecimal("33.37")).toString());
   }
   
+  @Test
+  public void testAddLargeValues() {
+    //intermediate values overflow a long, but the results fit
+    assertEquals("-9223372036854775807/2", lf("1/2").subtract(lf(4611686018427387904L)).toString());
+    assertEquals("9223372036854775807/4", lf(Long.MAX_VALUE, 2).add(lf(-Long.MAX_VALUE, 4)).toString());
+    assertEquals("1/3", lf(Long.MAX_VALUE - 1, 3 * 3037000499L).subtract(lf(Long.MAX_VALUE - 1 - 3037000499L, 3 * 3037000499L)).toString());
+    assertEquals("-9223372036854775808/1", lf(-1).subtract(lf(Long.MAX_VALUE)).toString());
+    assertEquals("-9223372036854775808/1", lf(Long.MAX_VALUE).subtractFrom(-1).toString());
+    
+    Random rand = new Random(32);
+    for(int i = 0; i < 20000; i++)
+    {
+      LongFraction a = randomLongFraction(rand);
+      LongFraction b = randomLongFraction(rand);
+      BigFraction ba = BigFraction.valueOf(a), bb = BigFraction.valueOf(b);
+      assertLongFractionEquals(a + " + " + b, ba.add(bb), () -> a.add(b));
+      assertLongFractionEquals(a + " - " + b, ba.subtract(bb), () -> a.subtract(b));
+      assertLongFractionEquals(b + " - " + a, ba.subtractFrom(bb), () -> a.subtractFrom(b));
+      assertLongFractionEquals(a + " + " + b.getNumerator(), ba.add(bb.getNumerator()), () -> a.add(b.getNumerator()));
+      assertLongFractionEquals(b.getNumerator() + " - " + a, ba.subtractFrom(bb.getNumerator()), () -> a.subtractFrom(b.getNumerator()));
+    }
+  }
+  
+  @Test
+  public void testCompareToLargeValues() {
+    //these differ by less than the precision of a double
+    LongFraction a = lf(Long.MAX_VALUE - 1, Long.MAX_VALUE);
+    LongFraction b = lf(Long.MAX_VALUE - 2, Long.MAX_VALUE - 1);
+    assertEquals(1, a.compareTo(b));
+    assertEquals(-1, b.compareTo(a));
+    assertEquals(0, a.compareTo(lf(Long.MAX_VALUE - 1, Long.MAX_VALUE)));
+    assertEquals(-1, lf(Long.MIN_VALUE, Long.MAX_VALUE).compareTo(lf(Long.MIN_VALUE + 1, Long.MAX_VALUE)));
+    
+    Random rand = new Random(3232);
+    for(int i = 0; i < 20000; i++)
+    {
+      LongFraction x = randomLongFraction(rand);
+      //every fourth case, compare to a very close value
+      LongFraction y = (i % 4 == 0 ? lf(x.getNumerator(), x.getDenominator() + (x.getDenominator() == Long.MAX_VALUE ? -1 : 1)) : randomLongFraction(rand));
+      assertEquals(x + " <=> " + y, Integer.signum(BigFraction.valueOf(x).compareTo(BigFraction.valueOf(y))), Integer.signum(x.compareTo(y)));
+    }
+  }
+  
+  @Test
+  public void testDivideAndRemainderLargeValues() {
+    //a/b == 2^64 doesn't fit, but the remainder does
+    assertEquals("0/1", lf(Long.MAX_VALUE).remainder(lf(1, Long.MAX_VALUE)).toString());
+    assertEquals("2/9223372036854775805", lf(Long.MAX_VALUE).remainder(lf(3, Long.MAX_VALUE - 2)).toString());
+    assertEquals(1L, lf(Long.MIN_VALUE).divideToIntegralValue(lf(Long.MIN_VALUE)));
+    
+    Random rand = new Random(323232);
+    for(int i = 0; i < 20000; i++)
+    {
+      LongFraction a = randomLongFraction(rand);
+      LongFraction b = randomLongFraction(rand);
+      if(b.signum() == 0)
+        continue;
+      
+      for(DivisionMode mode : DivisionMode.values())
+      {
+        Number[] expected = BigFraction.valueOf(a).divideAndRemainder(b, mode);
+        String msg = a + " / " + b + " (" + mode + ")";
+        BigInteger q = (BigInteger)expected[0];
+        assertLongFractionEquals(msg, (BigFraction)expected[1], () -> a.remainder(b, mode));
+        if(q.bitLength() < 64 && fits((BigFraction)expected[1]))
+        {
+          Number[] actual = a.divideAndRemainder(b, mode);
+          assertEquals(msg, q.longValue(), actual[0]);
+          assertEquals(msg, expected[1].toString(), actual[1].toString());
+        }
+        else if(q.bitLength() >= 64)
+        {
+          try {
+            a.divideToIntegralValue(b, mode);
+            fail(msg);
+          }
+          catch(ArithmeticException e) {
+            //expected
+          }
+        }
+      }
+    }
+  }
+  
+  /** Random LongFraction with a random number of bits in each of numerator and denominator. */
+  private static LongFraction randomLongFraction(Random rand) {
+    long n = rand.nextLong() >> rand.nextInt(64);
+    long d = rand.nextLong() >>> rand.nextInt(64);
+    return LongFraction.valueOf(n, d == 0 ? 1 : d);
+  }
+  
+  private static boolean fits(BigFraction f) {
+    return f.getNumerator().bitLength() < 64 && f.getDenominator().bitLength() < 64;
+  }
+  
+  /** Asserts that the operation gives the expected result if it fits in a LongFraction, and throws ArithmeticException if not. */
+  private static void assertLongFractionEquals(String msg, BigFraction expected, java.util.function.Supplier<LongFraction> op) {
+    if(fits(expected))
+    {
+      assertEquals(msg, expected.toString(), op.get().toString());
+    }
+    else
+    {
+      try {
+        op.get();
+        fail(msg + ": expected overflow, but got result");
+      }
+      catch(ArithmeticException e) {
+        //expected
+      }
+    }
+  }
+  
+  @Test
+  public void testTryAdd() {
+    assertEquals("5/6", lf("1/2").tryAdd(lf("1/3")).toString());
+    assertEquals("1/1", lf("1/4").tryAdd(lf("3/4")).toString());
+    assertEquals("-7/1", lf("-9").tryAdd(lf("2")).toString());
+    assertEquals("0/1", lf("1/7").tryAdd(lf("-1/7")).toString());
+    assertEquals("9223372036854775807/1", lf(Long.MAX_VALUE - 1).tryAdd(LongFraction.ONE).toString());
+    assertEquals("-9223372036854775808/1", lf(Long.MIN_VALUE + 1).tryAdd(lf(-1)).toString());
+    assertNull(lf(Long.MAX_VALUE).tryAdd(LongFraction.ONE));
+    assertNull(lf(Long.MIN_VALUE).tryAdd(lf(-1)));
+    assertNull(LongFraction.valueOf(1, Long.MAX_VALUE).tryAdd(LongFraction.valueOf(1, Long.MAX_VALUE - 1)));
+    assertNull(LongFraction.valueOf(Long.MAX_VALUE, 2).tryAdd(LongFraction.valueOf(Long.MAX_VALUE, 3)));
+    
+    //must agree with add() and subtract(), returning null exactly where they throw
+    long[] values = { 0, 1, -1, 2, 3, 7, 1000, -4000000000L, 3037000499L, 4611686018427387904L, Long.MAX_VALUE, Long.MIN_VALUE + 1 };
+    for(long n1 : values)
+      for(long d1 : values)
+        for(long n2 : values)
+          for(long d2 : values)
+          {
+            if(d1 == 0 || d2 == 0)
+              continue;
+            LongFraction a = LongFraction.valueOf(n1, d1), b = LongFraction.valueOf(n2, d2);
+            LongFraction sum, difference;
+            try { sum = a.add(b); } catch(ArithmeticException e) { sum = null; }
+            try { difference = a.subtract(b); } catch(ArithmeticException e) { difference = null; }
+            assertEquals(a + " + " + b, sum, a.tryAdd(b));
+            assertEquals(a + " - " + b, difference, a.trySubtract(b));
+          }
+  }
+  
+  @Test
+  public void testTrySubtract() {
+    assertEquals("1/6", lf("1/2").trySubtract(lf("1/3")).toString());
+    assertEquals("-9223372036854775808/1", lf(-1).trySubtract(lf(Long.MAX_VALUE)).toString());
+    assertNull(lf(-2).trySubtract(lf(Long.MAX_VALUE)));
+    assertNull(lf(1).trySubtract(lf(Long.MIN_VALUE)));
+  }
+  
+  @Test
+  public void testTryMultiply() {
+    assertEquals("1/4", lf("1/3").tryMultiply(lf("3/4")).toString());
+    assertEquals("-4/15", lf("-1/12").tryMultiply(lf("16/5")).toString());
+    assertEquals("0/1", lf("-1/12").tryMultiply(LongFraction.ZERO).toString());
+    assertEquals("1/1", LongFraction.valueOf(Long.MAX_VALUE, 3).tryMultiply(LongFraction.valueOf(3, Long.MAX_VALUE)).toString());
+    assertNull(lf(3037000500L).tryMultiply(lf(3037000500L)));
+    assertNull(LongFraction.valueOf(1, 3037000500L).tryMultiply(LongFraction.valueOf(1, 3037000500L)));
+    assertNull(lf(Long.MIN_VALUE).tryMultiply(lf(-1)));
+  }
+  
+  @Test
+  public void testTryDivide() {
+    assertEquals("1/4", lf("1/3").tryDivide(lf("4/3")).toString());
+    assertEquals("54/35", lf("9/-5").tryDivide(lf("-7/6")).toString());
+    assertEquals("1/2", lf(Long.MIN_VALUE / 2).tryDivide(lf(Long.MIN_VALUE)).toString());
+    assertNull(lf(1).tryDivide(lf(Long.MIN_VALUE)));
+    assertNull(lf(3037000500L).tryDivide(LongFraction.valueOf(1, 3037000500L)));
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testTryDivideByZero() {
+    lf(1).tryDivide(LongFraction.ZERO);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testTryAddNull() {
+    lf(1).tryAdd(null);
+  }
+  
   @Test
   public void testDivideAndRemainder() {
     new DivideAndRemainderTest("0",  "999", "0", "0/1", "0", "0/1", "0", "0/1").test();
@@ -509,6 +692,122 @@ public class LongFractionTest {
     assertEquals("(5/8)^(0)", "1/1", lf(5,8).pow(0).toString());
     assertEquals("(9/16)^(-1)", "16/9", lf(9,16).pow(-1).toString());
     assertEquals("(9/16)^(1)", "9/16", lf(9,16).pow(1).toString());
+    
+    //values at the edge of overflow
+    assertEquals("(-2)^(63)", "-9223372036854775808/1", lf(-2).pow(63).toString());
+    assertEquals("(3)^(39)", "4052555153018976267/1", lf(3).pow(39).toString());
+    assertEquals("(2/3)^(-39)", "4052555153018976267/549755813888", lf(2,3).pow(-39).toString());
+    assertEquals("(-1)^(MIN)", "1/1", lf(-1).pow(Integer.MIN_VALUE).toString());
+    assertEquals("(1/1)^(MAX)", "1/1", lf(1).pow(Integer.MAX_VALUE).toString());
+    assertEquals("(-1)^(MAX)", "-1/1", lf(-1).pow(Integer.MAX_VALUE).toString());
+    assertEquals("(0)^(MAX)", "0/1", lf(0).pow(Integer.MAX_VALUE).toString());
+    
+    //compare with BigInteger for all exponents up to the point of overflow
+    for(long base : new long[] {2L, -2L, 3L, -3L, 7L, 10L, -10L, 127L, 3037000499L, 3037000500L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+      for(int exponent = 0; exponent <= 64; exponent++) {
+        BigInteger expected = BigInteger.valueOf(base).pow(exponent);
+        if(expected.bitLength() < 64) {
+          assertEquals("(" + base + ")^(" + exponent + ")", expected.longValue(), lf(base).pow(exponent).getNumerator());
+        }
+        else {
+          try {
+            lf(base).pow(exponent);
+            fail("(" + base + ")^(" + exponent + ")");
+          }
+          catch(ArithmeticException e) {
+            //expected
+          }
+        }
+      }
+    }
+    
+    for(int exponent : new int[] {64, 1000, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+      try {
+        lf(2,3).pow(exponent);
+        fail("(2/3)^(" + exponent + ")");
+      }
+      catch(ArithmeticException e) {
+        //expected
+      }
+    }
+  }
+  
+  
+  @Test
+  public void testTryPow() {
+    assertEquals("1/1", lf(0).tryPow(0).toString());
+    assertEquals("0/1", lf(0).tryPow(10).toString());
+    assertEquals("1419857/161051", lf(11,17).tryPow(-5).toString());
+    assertEquals("-9223372036854775808/1", lf(-2).tryPow(63).toString());
+    assertNull(lf(2).tryPow(63));
+    assertNull(lf(-2).tryPow(-63));
+    assertNull(lf(2,3).tryPow(Integer.MIN_VALUE));
+    assertEquals("1/-1", "-1/1", lf(-1).tryPow(-1).toString());
+    
+    //same as pow(), with null in place of ArithmeticException
+    long[] values = {1L, -1L, 2L, -2L, 3L, -7L, 10L, 3037000500L, Long.MAX_VALUE, Long.MIN_VALUE};
+    for(long n : values) {
+      for(long d : new long[] {1L, 2L, 3L, 3037000499L, Long.MAX_VALUE}) {
+        if(LongFraction.gcd(n, d) != 1L)
+          continue;
+        LongFraction f = LongFraction.valueOf(n, d);
+        for(int exponent = -65; exponent <= 65; exponent++) {
+          LongFraction expected;
+          try {
+            expected = f.pow(exponent);
+          }
+          catch(ArithmeticException e) {
+            expected = null;
+          }
+          assertEquals("(" + f + ")^(" + exponent + ")", expected, f.tryPow(exponent));
+        }
+      }
+    }
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testTryPowZeroNegative() {
+    LongFraction.ZERO.tryPow(-1);
+  }
+  
+  @Test
+  public void testGcdLong() {
+    assertEquals(0L, LongFraction.gcd(0L, 0L));
+    assertEquals(5L, LongFraction.gcd(0L, -5L));
+    assertEquals(5L, LongFraction.gcd(-5L, 0L));
+    assertEquals(6L, LongFraction.gcd(-12L, 18L));
+    assertEquals(1L, LongFraction.gcd(Long.MAX_VALUE, Long.MAX_VALUE - 1));
+    assertEquals(Long.MAX_VALUE, LongFraction.gcd(Long.MAX_VALUE, -Long.MAX_VALUE));
+    assertEquals(1L << 62, LongFraction.gcd(Long.MIN_VALUE, 1L << 62));
+    assertEquals(1L << 62, LongFraction.gcd(Long.MIN_VALUE, -(1L << 62)));
+    assertEquals(1L, LongFraction.gcd(Long.MIN_VALUE, Long.MAX_VALUE));
+    assertEquals(1L << 10, LongFraction.gcd(Long.MIN_VALUE + (3L << 10), 3L << 20));
+    
+    //2^63 doesn't fit
+    for(long[] args : new long[][] {{Long.MIN_VALUE, 0L}, {0L, Long.MIN_VALUE}, {Long.MIN_VALUE, Long.MIN_VALUE}}) {
+      try {
+        LongFraction.gcd(args[0], args[1]);
+        fail("gcd(" + args[0] + ", " + args[1] + ")");
+      }
+      catch(ArithmeticException e) {
+        //expected
+      }
+    }
+    
+    Random rand = new Random(333);
+    for(int i = 0; i < 100000; i++) {
+      //mix of full-width values and values sharing a large power of two
+      long a = rand.nextLong() >> rand.nextInt(64);
+      long b = rand.nextLong() >> rand.nextInt(64);
+      if(i % 2 == 0) {
+        int shift = rand.nextInt(30);
+        a <<= shift;
+        b <<= shift;
+      }
+      if(a == Long.MIN_VALUE && (b == 0L || b == Long.MIN_VALUE) || b == Long.MIN_VALUE && a == 0L)
+        continue;
+      assertEquals("gcd(" + a + ", " + b + ")", BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).longValue(), LongFraction.gcd(a, b));
+    }
   }
   
   
@@ -918,6 +1217,46 @@ public class LongFractionTest {
     
     //if numerator or denominator has more than 18 significant digits, we should use as many as the larger
     assertEquals("3.07445734561825860E+18", lf(Long.MAX_VALUE, 3).toBigDecimal().toString());
+    
+    //rounding at the edges
+    assertEquals("1.0", lf(19999, 20000).toBigDecimal(2).toString());
+    assertEquals("-9.2E+18", lf(Long.MIN_VALUE).toBigDecimal(2).toString());
+    assertEquals("1.2E+3", lf(1249).toBigDecimal(2).toString());
+    assertEquals("1.2E+3", lf(1250).toBigDecimal(2).toString());
+    assertEquals("1.4E+3", lf(1350).toBigDecimal(2).toString());
+    assertEquals("0.12", lf(1249, 10000).toBigDecimal(2).toString());
+    assertEquals("0.12", lf(1250, 10000).toBigDecimal(2).toString());
+    assertEquals("0.13", lf(12501, 100000).toBigDecimal(2).toString());
+    
+    //compare with BigDecimal division, including the scale
+    Random rand = new Random(35);
+    for(int i = 0; i < 20000; i++) {
+      LongFraction f = randomLongFraction(rand);
+      int precision = 1 + rand.nextInt(18);
+      BigDecimal expected = new BigDecimal(f.getNumerator()).divide(new BigDecimal(f.getDenominator()), new MathContext(precision, RoundingMode.HALF_EVEN));
+      assertEquals(f + " to " + precision + " digits", expected, f.toBigDecimal(precision));
+    }
+  }
+  
+  @Test
+  public void testDoubleValueRounding() {
+    //exactly halfway between two doubles: ties go to even
+    assertEquals(9007199254740992.0, lf((1L << 53) + 1).doubleValue(), 0.0);
+    assertEquals(9007199254740996.0, lf((1L << 53) + 3).doubleValue(), 0.0);
+    assertEquals(16777216.0f, lf((1L << 24) + 1).floatValue(), 0.0f);
+    assertEquals(0x1p63, lf(Long.MAX_VALUE).doubleValue(), 0.0);
+    assertEquals(-0x1p63, lf(Long.MIN_VALUE).doubleValue(), 0.0);
+    assertEquals(0x1p-63, lf(1, Long.MAX_VALUE).doubleValue(), 0.0);
+    assertEquals(0x1.0000000000001p-10, lf((1L << 52) + 1, 1L << 62).doubleValue(), 0.0);
+    
+    //compare with a correctly rounded conversion of the (exact) decimal value
+    Random rand = new Random(3535);
+    for(int i = 0; i < 50000; i++) {
+      LongFraction f = randomLongFraction(rand);
+      BigDecimal exact = new BigDecimal(f.getNumerator()).divide(new BigDecimal(f.getDenominator()), new MathContext(250, RoundingMode.DOWN));
+      assertEquals(f.toString(), Double.doubleToLongBits(exact.doubleValue()), Double.doubleToLongBits(f.doubleValue()));
+      assertEquals(f.toString(), Float.floatToIntBits(exact.floatValue()), Float.floatToIntBits(f.floatValue()));
+    }
   }
   
   
@@ -1137,6 +1476,84 @@ public class LongFractionTest {
     new ToRadixedStringTest("3000000/7",  100, -6, "1000000", "0", "1000000", "0", "0", "0", "0", "ArithmeticException").test();
   }
   
+  @Test
+  public void testToRadixedStringRandom() {
+    //compare against BigFraction, which always uses BigInteger arithmetic
+    Random r = new Random(0x5EED5L);
+    RoundingMode[] modes = { RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+                             RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN };
+    for(int i = 0; i < 5000; i++) {
+      long n = (i % 2 == 0 ? r.nextLong() : r.nextInt());
+      long d = Math.max(1L, (i % 3 == 0 ? r.nextLong() >>> 1 : r.nextInt(1000000)));
+      LongFraction f = LongFraction.valueOf(n, d);
+      int radix = 2 + r.nextInt(35);
+      int digits = r.nextInt(20) - 6;
+      for(RoundingMode mode : modes) {
+        BigFraction scaled = BigFraction.valueOf(f).multiply(BigFraction.valueOf(radix).pow(digits));
+        if(scaled.abs().compareTo(Long.MAX_VALUE - 1L) >= 0)
+          continue;
+        String msg = f + ".toRadixedString(" + radix + ", " + digits + ", " + mode + ")";
+        assertEquals(msg, BigFraction.valueOf(f).toRadixedString(radix, digits, mode), f.toRadixedString(radix, digits, mode));
+      }
+    }
+  }
+  
+  @Test
+  public void testValueOfStringPlain() {
+    assertEquals("2/1", lf("0.5/0.25").toString());
+    assertEquals("-1/2", lf("-.5").toString());
+    assertEquals("1/1", lf("1.").toString());
+    assertEquals("-40/1", lf("+12/-0.3").toString());
+    assertEquals("9223372036854775807/1", lf("9223372036854775807").toString());
+    assertEquals("-9223372036854775808/1", lf("-9223372036854775808").toString());
+    assertEquals("1/1000000000000000000", lf("0.000000000000000001").toString());
+    assertEquals("7/1", LongFraction.valueOf("111.", 2).toString());
+    assertEquals("-1/2", LongFraction.valueOf("-0.1", 2).toString());
+    assertEquals("1/2", LongFraction.valueOf("0.i", 36).toString());
+    
+    //compare random strings against BigFraction
+    Random r = new Random(0xD16175L);
+    for(int i = 0; i < 5000; i++) {
+      int radix = 2 + r.nextInt(35);
+      String s = randomRadixedString(r, radix);
+      if(r.nextBoolean())
+        s += "/" + randomRadixedString(r, radix);
+      
+      BigFraction expected;
+      try {
+        expected = BigFraction.valueOf(s, radix);
+      }
+      catch(ArithmeticException e) {
+        continue; //zero denominator
+      }
+      if(expected.getNumerator().bitLength() > 63 || expected.getDenominator().bitLength() > 63)
+        continue;
+      assertEquals(s + " (radix " + radix + ")", expected.toString(), LongFraction.valueOf(s, radix).toString());
+    }
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testValueOfStringPlainZeroDenominator() {
+    LongFraction.valueOf("1/0.0");
+  }
+  
+  private static String randomRadixedString(Random r, int radix) {
+    StringBuilder sb = new StringBuilder();
+    int sign = r.nextInt(3);
+    if(sign == 1)
+      sb.append('-');
+    else if(sign == 2)
+      sb.append('+');
+    int len = 1 + r.nextInt(12); //12 digits fit in a long in any radix, so the old parser can handle it too
+    int pointPos = r.nextInt(len + 4); //no radix point if >= len
+    for(int i = 0; i < len; i++) {
+      if(i == pointPos)
+        sb.append('.');
+      sb.append(Character.forDigit(r.nextInt(radix), radix));
+    }
+    return sb.toString();
+  }
+  
   @Test
   public void testToRepeatingDigitString() {
     assertEquals("\"1.0\".toRepeatingDigitString(10, true)", "0.(9)", lf("1.0").toRepeatingDigitString(10, true));
@@ -1789,6 +2206,44 @@ public class LongFractionTest {
     lf(BigFraction.valueOf(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE)), 1);
   }
   
+  @Test(expected=ArithmeticException.class)
+  public void testValueOfOverflow17() {
+    lf(0x1p63);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testValueOfOverflow18() {
+    lf(-0x1.0000000000001p63);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testValueOfOverflow19() {
+    lf(0x1p-63);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testValueOfOverflow20() {
+    lf(Double.MIN_VALUE);
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testValueOfOverflow21() {
+    lf(0x1.8p62, 0.75);
+  }
+  
+  @Test
+  public void testValueOfDoubleEdgeCases() {
+    assertEquals("-9223372036854775808/1", lf(-0x1p63).toString());
+    assertEquals("-9223372036854775808/1", lf(-0x1p63f).toString());
+    assertEquals("9223372036854774784/1", lf(0x1.fffffffffffffp62).toString());
+    assertEquals("1/4611686018427387904", lf(0x1p-62).toString());
+    assertEquals("-1/4611686018427387904", lf(-0x1p-62f).toString());
+    assertEquals("4503599627370497/4611686018427387904", lf(0x1.0000000000001p-10).toString());
+    assertEquals("4503599627370497/1", lf(0x1.0000000000001p52).toString());
+    assertEquals("9007199254740994/1", lf(0x1.0000000000001p53).toString());
+    assertEquals("3/2", lf(1.5f).toString());
+  }
+  
   @Test(expected=NumberFormatException.class)
   public void testValueOfString1() {
     LongFraction.valueOf("uh oh");
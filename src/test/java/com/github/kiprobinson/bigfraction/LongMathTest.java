@@ -0,0 +1,128 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for LongMath class.
+ * 
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class LongMathTest {
+  
+  private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+  private static final long[] EDGE_CASES = { 0L, 1L, -1L, 2L, -2L, 3L, 0xFFFFFFFFL, 0x100000000L, -0x100000000L,
+                                             Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1,
+                                             3037000499L, 3037000500L, -3037000500L };
+  
+  @Test
+  public void testOverflowPredicates() {
+    for(long a : EDGE_CASES)
+    {
+      for(long b : EDGE_CASES)
+      {
+        assertEquals(a + " + " + b, !fits(BigInteger.valueOf(a).add(BigInteger.valueOf(b))), LongMath.addOverflows(a, b));
+        assertEquals(a + " - " + b, !fits(BigInteger.valueOf(a).subtract(BigInteger.valueOf(b))), LongMath.subtractOverflows(a, b));
+        assertEquals(a + " * " + b, !fits(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))), LongMath.multiplyOverflows(a, b));
+      }
+    }
+  }
+  
+  @Test
+  public void testMultiplyHigh() {
+    Random rand = new Random(32);
+    for(int i = 0; i < 20000; i++)
+    {
+      long a = (i < EDGE_CASES.length * EDGE_CASES.length ? EDGE_CASES[i / EDGE_CASES.length] : randomLong(rand));
+      long b = (i < EDGE_CASES.length * EDGE_CASES.length ? EDGE_CASES[i % EDGE_CASES.length] : randomLong(rand));
+      
+      BigInteger signed = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+      assertEquals(a + " * " + b, signed.shiftRight(64).longValue(), LongMath.multiplyHigh(a, b));
+      
+      BigInteger unsigned = unsigned(a).multiply(unsigned(b));
+      assertEquals(a + " *u " + b, unsigned.shiftRight(64).longValue(), LongMath.unsignedMultiplyHigh(a, b));
+    }
+  }
+  
+  @Test
+  public void testDivideUnsigned128() {
+    Random rand = new Random(3232);
+    for(int i = 0; i < 20000; i++)
+    {
+      long d = randomLong(rand);
+      if(d == 0L)
+        continue;
+      long hi = Long.remainderUnsigned(randomLong(rand), d);
+      long lo = randomLong(rand);
+      
+      BigInteger n = unsigned(hi).shiftLeft(64).add(unsigned(lo));
+      BigInteger[] qr = n.divideAndRemainder(unsigned(d));
+      long q = LongMath.divideUnsigned128(hi, lo, d);
+      assertEquals(n + " / " + unsigned(d), qr[0], unsigned(q));
+      assertEquals(n + " % " + unsigned(d), qr[1], unsigned(lo - q * d));
+      
+      hi = randomLong(rand);
+      n = unsigned(hi).shiftLeft(64).add(unsigned(lo));
+      assertEquals(n + " % " + unsigned(d), n.mod(unsigned(d)), unsigned(LongMath.remainderUnsigned128(hi, lo, d)));
+    }
+  }
+  
+  @Test
+  public void testDivideAndRemainderUnsigned128() {
+    Random rand = new Random(323232);
+    long[] out = new long[4];
+    for(int i = 0; i < 20000; i++)
+    {
+      long nHi = randomLong(rand), nLo = randomLong(rand);
+      long dHi = (i % 3 == 0 ? 0L : randomLong(rand) >>> rand.nextInt(64)), dLo = randomLong(rand);
+      if(dHi == 0L && dLo == 0L)
+        continue;
+      
+      BigInteger n = unsigned(nHi).shiftLeft(64).add(unsigned(nLo));
+      BigInteger d = unsigned(dHi).shiftLeft(64).add(unsigned(dLo));
+      BigInteger[] qr = n.divideAndRemainder(d);
+      LongMath.divideAndRemainderUnsigned128(nHi, nLo, dHi, dLo, out);
+      assertEquals(n + " / " + d, qr[0], unsigned(out[0]).shiftLeft(64).add(unsigned(out[1])));
+      assertEquals(n + " % " + d, qr[1], unsigned(out[2]).shiftLeft(64).add(unsigned(out[3])));
+    }
+  }
+  
+  @Test
+  public void testCompareUnsignedProducts() {
+    Random rand = new Random(38);
+    for(int i = 0; i < 20000; i++)
+    {
+      long a = randomLong(rand), bHi = randomLong(rand), bLo = randomLong(rand);
+      long c = randomLong(rand), dHi = randomLong(rand), dLo = randomLong(rand);
+      if(i % 4 == 0)
+      {
+        //equal products
+        c = a;
+        dHi = bHi;
+        dLo = bLo;
+      }
+      BigInteger x = unsigned(a).multiply(unsigned(bHi).shiftLeft(64).add(unsigned(bLo)));
+      BigInteger y = unsigned(c).multiply(unsigned(dHi).shiftLeft(64).add(unsigned(dLo)));
+      assertEquals(x + " <=> " + y, x.compareTo(y), Integer.signum(LongMath.compareUnsignedProducts(a, bHi, bLo, c, dHi, dLo)));
+    }
+  }
+  
+  /** Random long, with a random number of significant bits, so that small values are tested too. */
+  private static long randomLong(Random rand) {
+    return rand.nextLong() >> rand.nextInt(64);
+  }
+  
+  private static BigInteger unsigned(long n) {
+    BigInteger b = BigInteger.valueOf(n);
+    return (n < 0 ? b.add(TWO_64) : b);
+  }
+  
+  private static boolean fits(BigInteger n) {
+    return n.bitLength() < 64;
+  }
+}
@@ -0,0 +1,151 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for MutableBigFraction class.
+ * 
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class MutableBigFractionTest {
+  
+  @Test
+  public void testConstructors() {
+    assertEquals("0/1", new MutableBigFraction().toString());
+    assertEquals("1/2", new MutableBigFraction(0.5).toString());
+    assertEquals("-3/4", new MutableBigFraction(BigFraction.valueOf(-6, 8)).toString());
+    assertEquals("11/10", new MutableBigFraction(new BigDecimal("1.1")).toString());
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testConstructorNull() {
+    new MutableBigFraction(null);
+  }
+  
+  @Test
+  public void testAddInPlace() {
+    MutableBigFraction f = new MutableBigFraction();
+    assertSame(f, f.addInPlace(BigFraction.valueOf(1, 3)));
+    f.addInPlace(BigFraction.valueOf(1, 6));
+    assertEquals("1/2", f.toString());
+    f.addInPlace(3);
+    assertEquals("7/2", f.toString());
+    f.addInPlace(BigInteger.valueOf(-4));
+    assertEquals("-1/2", f.toString());
+    f.addInPlace(LongFraction.valueOf(1, 2));
+    assertEquals("0/1", f.toBigFraction().toString());
+  }
+  
+  @Test
+  public void testSubtractInPlace() {
+    MutableBigFraction f = new MutableBigFraction(1);
+    f.subtractInPlace(BigFraction.valueOf(1, 3)).subtractInPlace(BigFraction.valueOf(1, 3));
+    assertEquals("1/3", f.toString());
+    f.subtractInPlace(2);
+    assertEquals("-5/3", f.toString());
+    f.subtractInPlace(-1.5);
+    assertEquals("-1/6", f.toString());
+  }
+  
+  @Test
+  public void testMultiplyInPlace() {
+    MutableBigFraction f = new MutableBigFraction(BigFraction.valueOf(2, 3));
+    f.multiplyInPlace(BigFraction.valueOf(9, 4));
+    assertEquals("3/2", f.toString());
+    f.multiplyInPlace(-4);
+    assertEquals("-6/1", f.toString());
+    f.multiplyInPlace(0);
+    assertEquals("0/1", f.toString());
+    assertEquals(BigInteger.ONE, f.getDenominator());
+  }
+  
+  @Test
+  public void testDivideInPlace() {
+    MutableBigFraction f = new MutableBigFraction(BigFraction.valueOf(2, 3));
+    f.divideInPlace(BigFraction.valueOf(-4, 9));
+    assertEquals("-3/2", f.toString());
+    assertTrue(f.getDenominator().signum() > 0);
+    f.divideInPlace(-3);
+    assertEquals("1/2", f.toString());
+  }
+  
+  @Test(expected=ArithmeticException.class)
+  public void testDivideInPlaceByZero() {
+    new MutableBigFraction(1).divideInPlace(0);
+  }
+  
+  @Test(expected=IllegalArgumentException.class)
+  public void testAddInPlaceNull() {
+    new MutableBigFraction(1).addInPlace(null);
+  }
+  
+  @Test
+  public void testDeferredReduction() {
+    MutableBigFraction f = new MutableBigFraction();
+    f.addInPlace(BigFraction.valueOf(1, 4)).addInPlace(BigFraction.valueOf(1, 4));
+    
+    //same denominator - numerators are just added, not reduced
+    assertEquals(BigInteger.valueOf(2), f.getNumerator());
+    assertEquals(BigInteger.valueOf(4), f.getDenominator());
+    
+    assertSame(f, f.reduce());
+    assertEquals(BigInteger.ONE, f.getNumerator());
+    assertEquals(BigInteger.valueOf(2), f.getDenominator());
+  }
+  
+  @Test
+  public void testAutomaticReduction() {
+    //sum of 1/(k*(k+1)) telescopes to 1 - 1/(n+1), so the denominator must not grow without bound
+    MutableBigFraction f = new MutableBigFraction();
+    int n = 2000;
+    for(int k = 1; k <= n; k++)
+    {
+      f.addInPlace(BigFraction.valueOf(1, (long)k * (k + 1)));
+      assertTrue(f.getDenominator().bitLength() <= 2048 + 64);
+    }
+    assertEquals(BigFraction.valueOf(n, n + 1), f.toBigFraction());
+  }
+  
+  @Test
+  public void testMatchesBigFraction() {
+    Random rand = new Random(27);
+    BigFraction expected = BigFraction.ZERO;
+    MutableBigFraction f = new MutableBigFraction();
+    for(int i = 0; i < 500; i++)
+    {
+      BigFraction x = BigFraction.valueOf(rand.nextInt(2001) - 1000, rand.nextInt(50) + 1);
+      switch(rand.nextInt(4))
+      {
+        case 0:
+          expected = expected.add(x);
+          f.addInPlace(x);
+          break;
+        case 1:
+          expected = expected.subtract(x);
+          f.subtractInPlace(x);
+          break;
+        case 2:
+          expected = expected.multiply(x);
+          f.multiplyInPlace(x);
+          break;
+        default:
+          if(x.signum() == 0)
+            continue;
+          expected = expected.divide(x);
+          f.divideInPlace(x);
+          break;
+      }
+      
+      if(i % 50 == 0)
+        assertEquals(expected, f.toBigFraction());
+    }
+    assertEquals(expected, f.toBigFraction());
+  }
+}
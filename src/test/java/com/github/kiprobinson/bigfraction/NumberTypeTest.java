@@ -0,0 +1,68 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.*;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for NumberType class.
+ * 
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class NumberTypeTest {
+  
+  @Test
+  public void testOf() {
+    assertEquals(NumberType.BIG_FRACTION, NumberType.of(BigFraction.ONE));
+    assertEquals(NumberType.LONG_FRACTION, NumberType.of(LongFraction.ONE));
+    assertEquals(NumberType.ADAPTIVE_FRACTION, NumberType.of(AdaptiveFraction.ONE));
+    assertEquals(NumberType.INT_FRACTION, NumberType.of(IntFraction.ONE));
+    
+    assertEquals(NumberType.LONG, NumberType.of(Long.valueOf(1)));
+    assertEquals(NumberType.LONG, NumberType.of(Integer.valueOf(1)));
+    assertEquals(NumberType.LONG, NumberType.of(Short.valueOf((short)1)));
+    assertEquals(NumberType.LONG, NumberType.of(Byte.valueOf((byte)1)));
+    assertEquals(NumberType.LONG, NumberType.of(new AtomicInteger(1)));
+    assertEquals(NumberType.LONG, NumberType.of(new AtomicLong(1)));
+    assertEquals(NumberType.LONG, NumberType.of(new LongAdder()));
+    assertEquals(NumberType.LONG, NumberType.of(new LongAccumulator(Long::sum, 0L)));
+    
+    assertEquals(NumberType.BIG_INTEGER, NumberType.of(BigInteger.ONE));
+    assertEquals(NumberType.BIG_DECIMAL, NumberType.of(BigDecimal.ONE));
+    
+    assertEquals(NumberType.FLOAT, NumberType.of(Double.valueOf(1.0)));
+    assertEquals(NumberType.FLOAT, NumberType.of(Float.valueOf(1.0f)));
+    assertEquals(NumberType.FLOAT, NumberType.of(new DoubleAdder()));
+    assertEquals(NumberType.FLOAT, NumberType.of(new DoubleAccumulator(Double::sum, 0.0)));
+    
+    assertEquals(NumberType.OTHER, NumberType.of(new Number() {
+      private static final long serialVersionUID = 1L;
+      @Override public int intValue() { return 0; }
+      @Override public long longValue() { return 0; }
+      @Override public float floatValue() { return 0; }
+      @Override public double doubleValue() { return 0; }
+    }));
+  }
+  
+  @Test
+  public void testSubclasses() {
+    //subclasses of the non-final types are classified like their parent
+    assertEquals(NumberType.BIG_INTEGER, NumberType.of(new BigInteger("123") {
+      private static final long serialVersionUID = 1L;
+    }));
+    assertEquals(NumberType.BIG_DECIMAL, NumberType.of(new BigDecimal("1.5") {
+      private static final long serialVersionUID = 1L;
+    }));
+    assertEquals("3/2", BigFraction.valueOf(new BigDecimal("1.5") {
+      private static final long serialVersionUID = 1L;
+    }).toString());
+    assertEquals("123/1", LongFraction.valueOf(new BigInteger("123") {
+      private static final long serialVersionUID = 1L;
+    }).toString());
+  }
+}
@@ -0,0 +1,36 @@
+package com.github.kiprobinson.bigfraction;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit tests for ReduceThreshold class.
+ *
+ * @author Kip Robinson, <a href="https://github.com/kiprobinson">https://github.com/kiprobinson</a>
+ */
+public class ReduceThresholdTest {
+  
+  @Test
+  public void testThreshold() {
+    ReduceThreshold t = new ReduceThreshold();
+    assertFalse(t.isExceeded(BigInteger.ONE.shiftLeft(1023)));
+    assertTrue(t.isExceeded(BigInteger.ONE.shiftLeft(1024)));
+    
+    //still 1500 bits after reducing: wait until the denominator is over 3000 bits
+    t.reduced(BigInteger.ONE.shiftLeft(1499));
+    assertFalse(t.isExceeded(BigInteger.ONE.shiftLeft(2999)));
+    assertTrue(t.isExceeded(BigInteger.ONE.shiftLeft(3000)));
+    
+    //small after reducing: back to the minimum
+    t.reduced(BigInteger.valueOf(3));
+    assertTrue(t.isExceeded(BigInteger.ONE.shiftLeft(1024)));
+    
+    t.reduced(BigInteger.ONE.shiftLeft(1499));
+    t.reset();
+    assertTrue(t.isExceeded(BigInteger.ONE.shiftLeft(1024)));
+  }
+}